@@ -0,0 +1,88 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Constants;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the computation of the subsets of a bag of cards, as done when listing the cards a player can use
+ * to claim a tunnel
+ *
+ * The subsets are also computed by as many threads as there are processors at once, as in the parallel simulations
+ * and searches, which all share the cache of the subsets.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedBagBenchmark {
+
+    //number of cards in the bag, and in its subsets
+    @Param({"4", "8", "16"})
+    private int bagSize;
+
+    @Param({"1", "2", "3"})
+    private int subsetSize;
+
+    //number of different bags the benchmark cycles through
+    private static final int BAGS_COUNT = 64;
+
+    private final List<SortedBag<Card>> bags = new ArrayList<>();
+    private int next;
+
+    /**
+     * Draws the random bags, always with the same seed so that runs can be compared
+     */
+    @Setup
+    public void setUp(){
+        Random rng = new Random(2021);
+        for (int i = 0; i < BAGS_COUNT; i++){
+            List<Card> cards = new ArrayList<>(Constants.ALL_CARDS.toList());
+            Collections.shuffle(cards, rng);
+            bags.add(SortedBag.of(cards.subList(0, bagSize)));
+        }
+    }
+
+    /**
+     * Computes the subsets of the next bag
+     * @return the subsets, returned so that they aren't optimized away
+     */
+    @Benchmark
+    public Set<SortedBag<Card>> subsetsOfSize(){
+        next = (next + 1) % BAGS_COUNT;
+        return bags.get(next).subsetsOfSize(subsetSize);
+    }
+
+    /**
+     * Computes the subsets of the next bag of a thread, all the threads running at once
+     * @param cursor index of the last bag of the thread
+     * @return the subsets, returned so that they aren't optimized away
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Set<SortedBag<Card>> contendedSubsetsOfSize(Cursor cursor){
+        cursor.next = (cursor.next + 1) % BAGS_COUNT;
+        return bags.get(cursor.next).subsetsOfSize(subsetSize);
+    }
+
+    /**
+     * Index of the last bag of a thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+}
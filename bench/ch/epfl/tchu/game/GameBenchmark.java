@@ -0,0 +1,94 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Benchmark of whole games between random players, played or replayed from their logs, the seeds of the games
+ * cycling so that runs can be compared
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    //number of different seeds the benchmark cycles through
+    private static final int SEEDS_COUNT = 64;
+
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private final SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+    private final List<GameLog> logs = new ArrayList<>();
+    private int seed;
+
+    /**
+     * Records the logs of the games of every seed, so that replaying them can be compared to playing them
+     * @throws IOException never, as the logs are recorded in memory
+     */
+    @Setup
+    public void setUp() throws IOException {
+        for (int seed = 0; seed < SEEDS_COUNT; seed++){
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Game.play(players(seed), PLAYER_NAMES, tickets, new GameLog.Recorder(bytes, seed));
+            logs.add(GameLog.read(new ByteArrayInputStream(bytes.toByteArray())));
+        }
+    }
+
+    /**
+     * Plays the game of the next seed
+     * @return the result of the game, returned so that it isn't optimized away
+     */
+    @Benchmark
+    public GameResult play(){
+        seed = (seed + 1) % SEEDS_COUNT;
+        return Game.play(players(seed), PLAYER_NAMES, tickets, new Random(seed));
+    }
+
+    /**
+     * Replays the game of the next seed from its log, up to its last state
+     * @return the last state of the game, returned so that it isn't optimized away
+     */
+    @Benchmark
+    public GameState replay(){
+        seed = (seed + 1) % SEEDS_COUNT;
+        GameReplay replay = new GameReplay(logs.get(seed), tickets);
+        while (replay.hasNextTurn()){
+            replay.nextTurn();
+        }
+        return replay.state();
+    }
+
+    /**
+     * Creates the random players of a game
+     * @param seed seed of the game
+     * @return the players
+     */
+    private static Map<PlayerId, Player> players(int seed){
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL){
+            players.put(playerId, new RandomPlayer(seed + playerId.ordinal() + 1));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,93 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RecordedGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the computations of a player state, on the states of recorded games: the cards a player can add to
+ * claim a tunnel, and the points of its tickets
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerStateBenchmark {
+
+    //number of recorded games the states come from
+    private static final int GAMES_COUNT = 8;
+
+    //states in which the player has cards, along with the cards it initially uses to claim a tunnel, and final
+    //states of the players, with all their tickets and routes
+    private final List<PlayerState> handStates = new ArrayList<>();
+    private final List<SortedBag<Card>> initialCards = new ArrayList<>();
+    private final List<PlayerState> finalStates = new ArrayList<>();
+    private int nextHand;
+    private int nextFinal;
+
+    /**
+     * Records the games, always with the same seeds so that runs can be compared
+     */
+    @Setup
+    public void setUp(){
+        for (int seed = 0; seed < GAMES_COUNT; seed++){
+            List<PlayerState> states = new RecordedGame(seed).playerStates();
+            for (PlayerState state : states){
+                //the tunnel is claimed with up to two cards of the color the player has the most of
+                Card color = null;
+                for (Card card : Card.CARS){
+                    if (state.cardBag().countOf(card) > 0
+                            && (color == null || state.cardBag().countOf(card) > state.cardBag().countOf(color))){
+                        color = card;
+                    }
+                }
+                if (color != null){
+                    handStates.add(state);
+                    initialCards.add(SortedBag.of(Math.min(state.cardBag().countOf(color), 2), color));
+                }
+            }
+            finalStates.addAll(states.subList(states.size() - PlayerId.COUNT, states.size()));
+        }
+    }
+
+    /**
+     * Computes the cards that can be added to claim a tunnel, with the next recorded hand
+     * @param tunnel number of additional cards required to claim the tunnel
+     * @return the possible additional cards, returned so that they aren't optimized away
+     */
+    @Benchmark
+    public List<SortedBag<Card>> possibleAdditionalCards(Tunnel tunnel){
+        nextHand = (nextHand + 1) % handStates.size();
+        return handStates.get(nextHand).possibleAdditionalCards(tunnel.additionalCardsCount, initialCards.get(nextHand));
+    }
+
+    /**
+     * Computes the ticket points of the next recorded final state, from its tickets and routes
+     * @return the ticket points, returned so that they aren't optimized away
+     */
+    @Benchmark
+    public int ticketPoints(){
+        nextFinal = (nextFinal + 1) % finalStates.size();
+        PlayerState state = finalStates.get(nextFinal);
+        return new PlayerState(state.tickets(), state.cardBag(), state.routes()).ticketPoints();
+    }
+
+    /**
+     * Number of additional cards required to claim the tunnel, only a parameter of the benchmarks that use it
+     */
+    @State(Scope.Benchmark)
+    public static class Tunnel {
+        @Param({"1", "2", "3"})
+        private int additionalCardsCount;
+    }
+}
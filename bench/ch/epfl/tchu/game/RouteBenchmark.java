@@ -0,0 +1,36 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the computation of the cards that can be used to claim the routes of the tChu map
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark {
+
+    private final List<Route> routes = ChMap.routes();
+    private int next;
+
+    /**
+     * Computes the cards that can be used to claim the next route of the map
+     * @return the possible claim cards, returned so that they aren't optimized away
+     */
+    @Benchmark
+    public List<SortedBag<Card>> possibleClaimCards(){
+        next = (next + 1) % routes.size();
+        return routes.get(next).possibleClaimCards();
+    }
+}
@@ -0,0 +1,58 @@
+package ch.epfl.tchu.game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the longest trail computation over random sets of routes of the tChu map
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrailBenchmark {
+
+    //number of routes in each random set, a player owns at most 40 routes
+    @Param({"5", "10", "15", "20", "30", "40"})
+    private int routeCount;
+
+    //number of different route sets the benchmark cycles through
+    private static final int SETS_COUNT = 64;
+
+    private final List<List<Route>> routeSets = new ArrayList<>();
+    private int next;
+
+    /**
+     * Draws the random route sets, always with the same seed so that runs can be compared
+     */
+    @Setup
+    public void setUp(){
+        Random rng = new Random(2021);
+        for (int i = 0; i < SETS_COUNT; i++){
+            List<Route> routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            routeSets.add(List.copyOf(routes.subList(0, routeCount)));
+        }
+    }
+
+    /**
+     * Computes the longest trail of the next route set
+     * @return the longest trail, returned so that it isn't optimized away
+     */
+    @Benchmark
+    public Trail longest(){
+        next = (next + 1) % SETS_COUNT;
+        return Trail.longest(routeSets.get(next));
+    }
+}
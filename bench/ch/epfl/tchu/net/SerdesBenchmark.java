@@ -0,0 +1,64 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.sim.RecordedGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the round trips of the public game states of a recorded game through their textual and binary
+ * representations
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerdesBenchmark {
+
+    //size of the buffer, much larger than any binary public game state
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private List<PublicGameState> gameStates;
+    private int next;
+
+    /**
+     * Records the game, always with the same seed so that runs can be compared
+     */
+    @Setup
+    public void setUp(){
+        gameStates = new RecordedGame(2021).gameStates();
+    }
+
+    /**
+     * Serializes then deserializes the next state in its textual representation
+     * @return the deserialized state, returned so that it isn't optimized away
+     */
+    @Benchmark
+    public PublicGameState textRoundTrip(){
+        next = (next + 1) % gameStates.size();
+        return Serdes.publicGameStateSerde.deserialize(Serdes.publicGameStateSerde.serialize(gameStates.get(next)));
+    }
+
+    /**
+     * Writes then reads the next state in its binary representation
+     * @return the read state, returned so that it isn't optimized away
+     */
+    @Benchmark
+    public PublicGameState binaryRoundTrip(){
+        next = (next + 1) % gameStates.size();
+        buffer.clear();
+        Serdes.publicGameStateSerde.write(gameStates.get(next), buffer);
+        buffer.flip();
+        return Serdes.publicGameStateSerde.read(buffer);
+    }
+}
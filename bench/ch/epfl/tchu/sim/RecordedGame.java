@@ -0,0 +1,105 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Game played between two random players, of which the states sent to the players are recorded, so that the
+ * benchmarks work on states that occur in real games
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class RecordedGame {
+
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private final List<PublicGameState> gameStates = new ArrayList<>();
+    private final List<PlayerState> playerStates = new ArrayList<>();
+
+    /**
+     * Plays and records a game
+     * @param seed seed of the game and of the players, so that the same game is recorded every time
+     */
+    public RecordedGame(long seed){
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL){
+            players.put(playerId, new RecordingPlayer(new RandomPlayer(seed + playerId.ordinal() + 1)));
+        }
+        Game.play(players, PLAYER_NAMES, SortedBag.of(ChMap.tickets()), new Random(seed));
+    }
+
+    /**
+     * Game states getter
+     * @return the public game states sent to the players, in the order they were sent
+     */
+    public List<PublicGameState> gameStates(){ return gameStates; }
+
+    /**
+     * Player states getter
+     * @return the player states sent to the players along with the game states
+     */
+    public List<PlayerState> playerStates(){ return playerStates; }
+
+    /**
+     * Player recording the states it receives, and delegating its choices to another player
+     */
+    private final class RecordingPlayer implements Player {
+        private final Player player;
+
+        private RecordingPlayer(Player player){
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info){ player.receiveInfo(info); }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState){
+            gameStates.add(newState);
+            playerStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets){ player.setInitialTicketChoice(tickets); }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets(){ return player.chooseInitialTickets(); }
+
+        @Override
+        public TurnKind nextTurn(){ return player.nextTurn(); }
+
+        @Override
+        public int drawSlot(){ return player.drawSlot(); }
+
+        @Override
+        public Route claimedRoute(){ return player.claimedRoute(); }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){ return player.chooseTickets(options); }
+
+        @Override
+        public SortedBag<Card> initialClaimCards(){ return player.initialClaimCards(); }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package ch.epfl.tchu;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multiensemble trié et immuable.
@@ -9,6 +11,15 @@ import java.util.stream.Stream;
  * @param <E> le type des éléments du multiensemble.
  */
 public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
+    // Nombre maximal de résultats de subsetsOfSize mémorisés, et nombre maximal de sous-ensembles d'un résultat
+    // mémorisé. Les résultats sont indexés par le multiensemble et la taille des sous-ensembles. La table est
+    // concurrente, afin que les fils des simulations et des recherches parallèles la lisent sans verrou, et elle est
+    // vidée lorsqu'elle est pleine plutôt que de suivre l'ordre des accès, ce qui demanderait de la modifier à chaque
+    // lecture.
+    private static final int SUBSETS_CACHE_CAPACITY = 1024;
+    private static final int MAX_CACHED_SUBSETS = 256;
+    private static final Map<List<Object>, Set<?>> SUBSETS_CACHE = new ConcurrentHashMap<>();
+
     // Table associant sa multiplicité à chaque élément de l'ensemble.
     // Invariant : toutes les multiplicités sont strictement positives (> 0).
     private final SortedMap<E, Integer> elements;
@@ -171,25 +182,46 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     }
 
     /**
-     * Retourne tous les sous-ensembles du multiensemble ayant une taille donnée.
+     * Retourne tous les sous-ensembles du multiensemble ayant une taille donnée, dans l'ordre lexicographique de
+     * leurs éléments. Les résultats de taille raisonnable sont mémorisés, car les mêmes sous-ensembles sont
+     * demandés à chaque tentative de prise d'un tunnel.
      * @param size la taille des sous-ensembles à retourner
-     * @return l'ensemble des sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @return l'ensemble (immuable) des sous-ensembles de <code>this</code> de taille <code>size</code>
      * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
      * la taille du multiensemble
      */
+    @SuppressWarnings("unchecked")
     public Set<SortedBag<E>> subsetsOfSize(int size) {
         Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
+        var key = List.of(this, size);
+        var cached = (Set<SortedBag<E>>) SUBSETS_CACHE.get(key);
+        if (cached != null)
+            return cached;
+
+        var result = new LinkedHashSet<SortedBag<E>>();
+        new SubsetsIterator<>(this, size).forEachRemaining(result::add);
+        var subsets = Collections.unmodifiableSet(result);
+        if (subsets.size() <= MAX_CACHED_SUBSETS) {
+            if (SUBSETS_CACHE.size() >= SUBSETS_CACHE_CAPACITY)
+                SUBSETS_CACHE.clear();
+            SUBSETS_CACHE.put(key, subsets);
         }
-        return result;
+        return subsets;
+    }
+
+    /**
+     * Retourne un flot des sous-ensembles du multiensemble ayant une taille donnée, dans l'ordre lexicographique de
+     * leurs éléments. Chaque sous-ensemble n'est produit qu'une fois, et seulement lorsque le flot l'atteint.
+     * @param size la taille des sous-ensembles à retourner
+     * @return un flot des sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
+     * la taille du multiensemble
+     */
+    public Stream<SortedBag<E>> subsetsOfSizeStream(int size) {
+        Preconditions.checkArgument(0 <= size && size <= size());
+        var spliterator = Spliterators.spliteratorUnknownSize(new SubsetsIterator<>(this, size),
+                Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false);
     }
 
     /**
@@ -270,6 +302,66 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
         return j.toString();
     }
 
+    // Itérateur sur les sous-ensembles d'une taille donnée d'un multiensemble, dans l'ordre lexicographique.
+    // Un sous-ensemble est décrit par la multiplicité de chaque élément distinct du multiensemble : le premier est
+    // celui qui prend le plus possible des plus petits éléments, et le suivant s'obtient en retirant une occurrence
+    // du dernier élément qui peut être remplacé par des éléments plus grands, puis en prenant de nouveau le plus
+    // possible des plus petits éléments qui le suivent.
+    private static final class SubsetsIterator<E extends Comparable<E>> implements Iterator<SortedBag<E>> {
+        private final List<E> keys;
+        private final int[] counts;
+        private final int[] subsetCounts;
+        private boolean hasNext;
+
+        private SubsetsIterator(SortedBag<E> bag, int size) {
+            this.keys = List.copyOf(bag.elements.keySet());
+            this.counts = new int[keys.size()];
+            this.subsetCounts = new int[keys.size()];
+            for (var i = 0; i < keys.size(); i++)
+                counts[i] = bag.elements.get(keys.get(i));
+            this.hasNext = fill(0, size);
+        }
+
+        // Prend le plus possible des éléments à partir de l'index donné, et retourne vrai ssi il y en a assez.
+        private boolean fill(int from, int remaining) {
+            for (var i = from; i < counts.length; i++) {
+                subsetCounts[i] = Math.min(counts[i], remaining);
+                remaining -= subsetCounts[i];
+            }
+            return remaining == 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public SortedBag<E> next() {
+            if (!hasNext)
+                throw new NoSuchElementException();
+            var elements = new TreeMap<E, Integer>();
+            for (var i = 0; i < counts.length; i++) {
+                if (subsetCounts[i] > 0)
+                    elements.put(keys.get(i), subsetCounts[i]);
+            }
+
+            // Passe au sous-ensemble suivant, s'il existe.
+            hasNext = false;
+            var following = 0;
+            var freeFollowing = 0;
+            for (var i = counts.length - 1; i >= 0 && !hasNext; i--) {
+                if (subsetCounts[i] > 0 && freeFollowing > 0) {
+                    subsetCounts[i] -= 1;
+                    hasNext = fill(i + 1, following + 1);
+                }
+                following += subsetCounts[i];
+                freeFollowing += counts[i] - subsetCounts[i];
+            }
+            return new SortedBag<>(elements);
+        }
+    }
+
     /**
      * Bâtisseur de multiensemble.
      * @param <E> le type des éléments du multiensemble à bâtir.
@@ -0,0 +1,155 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade of a player, whose methods are called on an executor and return futures
+ *
+ * The calls are made one after the other, in the order in which the methods of the facade are called, so that the
+ * player receives its infos, states and requests in the same order as through the player interface. The executor
+ * can thus be shared by many players, a call waiting for the previous one instead of occupying a thread. Once a call
+ * fails, the futures of all the following calls fail with the same exception, without the player being called.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class AsyncPlayer {
+
+    private final Player player;
+    private final Executor executor;
+    //future of the last call made, on which the next call waits, guarded by this
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+    /**
+     * AsyncPlayer constructor
+     * @param player the player called
+     * @param executor executor on which the player is called
+     */
+    public AsyncPlayer(Player player, Executor executor){
+        this.player = player;
+        this.executor = executor;
+    }
+
+    /**
+     * Calls initPlayers on the player
+     * @param ownId id of the player
+     * @param playerNames map of Player Ids linked to player names
+     * @return future completed once the call is made
+     */
+    public CompletableFuture<Void> initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+        return call(() -> { player.initPlayers(ownId, playerNames); return null; });
+    }
+
+    /**
+     * Calls receiveInfo on the player
+     * @param info info communicated to the player
+     * @return future completed once the call is made
+     */
+    public CompletableFuture<Void> receiveInfo(String info){
+        return call(() -> { player.receiveInfo(info); return null; });
+    }
+
+    /**
+     * Calls updateState on the player
+     * @param newState new state of the game
+     * @param ownState state of the player
+     * @return future completed once the call is made
+     */
+    public CompletableFuture<Void> updateState(PublicGameState newState, PlayerState ownState){
+        return call(() -> { player.updateState(newState, ownState); return null; });
+    }
+
+    /**
+     * Calls setInitialTicketChoice on the player
+     * @param tickets tickets distributed at the beginning of the game to the player
+     * @return future completed once the call is made
+     */
+    public CompletableFuture<Void> setInitialTicketChoice(SortedBag<Ticket> tickets){
+        return call(() -> { player.setInitialTicketChoice(tickets); return null; });
+    }
+
+    /**
+     * Calls chooseInitialTickets on the player
+     * @return future of the tickets the player kept
+     */
+    public CompletableFuture<SortedBag<Ticket>> chooseInitialTickets(){
+        return call(player::chooseInitialTickets);
+    }
+
+    /**
+     * Calls nextTurn on the player
+     * @return future of the kind of turn the player chose
+     */
+    public CompletableFuture<Player.TurnKind> nextTurn(){
+        return call(player::nextTurn);
+    }
+
+    /**
+     * Calls chooseTickets on the player
+     * @param options tickets the player has drawn
+     * @return future of the tickets the player kept
+     */
+    public CompletableFuture<SortedBag<Ticket>> chooseTickets(SortedBag<Ticket> options){
+        return call(() -> player.chooseTickets(options));
+    }
+
+    /**
+     * Calls drawSlot on the player
+     * @return future of the slot from which the player draws a card
+     */
+    public CompletableFuture<Integer> drawSlot(){
+        return call(player::drawSlot);
+    }
+
+    /**
+     * Calls claimedRoute on the player
+     * @return future of the route the player tries to claim
+     */
+    public CompletableFuture<Route> claimedRoute(){
+        return call(player::claimedRoute);
+    }
+
+    /**
+     * Calls initialClaimCards on the player
+     * @return future of the cards with which the player tries to claim the route
+     */
+    public CompletableFuture<SortedBag<Card>> initialClaimCards(){
+        return call(player::initialClaimCards);
+    }
+
+    /**
+     * Calls chooseAdditionalCards on the player
+     * @param options possible additional cards to claim the tunnel
+     * @return future of the additional cards the player chose
+     */
+    public CompletableFuture<SortedBag<Card>> chooseAdditionalCards(List<SortedBag<Card>> options){
+        return call(() -> player.chooseAdditionalCards(options));
+    }
+
+    /**
+     * Calls flush on the player
+     * @return future completed once the call is made
+     */
+    public CompletableFuture<Void> flush(){
+        return call(() -> { player.flush(); return null; });
+    }
+
+    /**
+     * Makes a call on the executor once the previous call is made
+     * @param call the call
+     * @param <T> type of the result of the call
+     * @return future of the result of the call, failing if the call or a previous call failed
+     */
+    private synchronized <T> CompletableFuture<T> call(Supplier<T> call){
+        CompletableFuture<T> future = last.thenApplyAsync(previous -> call.get(), executor);
+        last = future;
+        return future;
+    }
+}
@@ -0,0 +1,282 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Immutable multiset of cards, packing the number of cards of each type in a single long
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class CardBag {
+
+    //each type of card has a lane of 7 bits in the long, at the position given by its ordinal: the 6 lower bits hold
+    //the count of that card, the upper one is a guard bit that is always 0 in a bag, and is used to detect
+    //overflows and comparisons of all lanes at once
+    private static final int LANE_BITS = 7;
+    private static final long LANE_MASK = (1L << LANE_BITS) - 1;
+    private static final long LANE_LOW_BITS = laneLowBits();
+    private static final long GUARD_BITS = LANE_LOW_BITS << (LANE_BITS - 1);
+
+    /**
+     * Maximum number of cards of a single type a bag can hold
+     */
+    public static final int MAX_COUNT = (1 << (LANE_BITS - 1)) - 1;
+
+    /**
+     * Empty bag of cards
+     */
+    public static final CardBag EMPTY = new CardBag(0, 0);
+
+    //bags containing a single card, indexed by the card's ordinal
+    private static final CardBag[] SINGLE_CARDS = singleCards();
+
+    private final long counts;
+    private final int size;
+
+    /**
+     * CardBag constructor
+     * @param counts packed counts of every type of card
+     * @param size total number of cards
+     */
+    private CardBag(long counts, int size){
+        this.counts = counts;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty bag
+     * @return a bag without any card
+     */
+    public static CardBag of(){
+        return EMPTY;
+    }
+
+    /**
+     * Returns a bag containing a single card
+     * @param card the card in the bag
+     * @return a bag containing only the card given in argument
+     */
+    public static CardBag of(Card card){
+        return SINGLE_CARDS[card.ordinal()];
+    }
+
+    /**
+     * Returns a bag containing a given number of cards of a single type
+     * @param count number of cards
+     * @param card type of the cards
+     * @return a bag containing count times the card given in argument
+     * @throws IllegalArgumentException if count is negative or bigger than MAX_COUNT
+     */
+    public static CardBag of(int count, Card card){
+        Preconditions.checkArgument(count >= 0 && count <= MAX_COUNT);
+        return new CardBag((long) count << shift(card), count);
+    }
+
+    /**
+     * Converts a sorted bag of cards into a card bag
+     * @param cards sorted bag of cards
+     * @return a bag containing the same cards as the sorted bag given in argument
+     * @throws IllegalArgumentException if the sorted bag contains more than MAX_COUNT cards of a single type
+     */
+    public static CardBag of(SortedBag<Card> cards){
+        long counts = 0;
+        for (Card card : Card.ALL){
+            int count = cards.countOf(card);
+            Preconditions.checkArgument(count <= MAX_COUNT);
+            counts |= (long) count << shift(card);
+        }
+        return new CardBag(counts, cards.size());
+    }
+
+    /**
+     * Returns the number of cards of a given type
+     * @param card type of card
+     * @return the number of cards of that type in the bag
+     */
+    public int countOf(Card card){
+        return (int) ((counts >>> shift(card)) & LANE_MASK);
+    }
+
+    /**
+     * Size getter
+     * @return the total number of cards in the bag
+     */
+    public int size(){ return size; }
+
+    /**
+     * Asks if the bag is empty
+     * @return true if the bag doesn't contain any card, else returns false
+     */
+    public boolean isEmpty(){ return size == 0; }
+
+    /**
+     * Asks if the bag contains a card of a given type
+     * @param card type of card
+     * @return true if the bag contains at least one card of that type
+     */
+    public boolean contains(Card card){
+        return countOf(card) != 0;
+    }
+
+    /**
+     * Asks if the bag contains another bag
+     * @param that bag that could be contained in this one
+     * @return true iff this bag contains, for every type of card, at least as many cards as that bag
+     */
+    public boolean contains(CardBag that){
+        //the guard bit of a lane survives the subtraction iff the count in this bag is at least the one of that bag
+        return (((counts | GUARD_BITS) - that.counts) & GUARD_BITS) == GUARD_BITS;
+    }
+
+    /**
+     * Computes the union of two bags
+     * @param that bag to be added to this one
+     * @return a bag containing the cards of both bags
+     * @throws IllegalArgumentException if the union contains more than MAX_COUNT cards of a single type
+     */
+    public CardBag union(CardBag that){
+        long sum = counts + that.counts;
+        Preconditions.checkArgument((sum & GUARD_BITS) == 0);
+        return new CardBag(sum, size + that.size);
+    }
+
+    /**
+     * Returns a bag with one more card
+     * @param card card to be added
+     * @return a bag containing the cards of this one and the card given in argument
+     * @throws IllegalArgumentException if the bag would contain more than MAX_COUNT cards of that type
+     */
+    public CardBag withAdded(Card card){
+        return union(of(card));
+    }
+
+    /**
+     * Computes the difference of two bags
+     * @param that bag to be removed from this one
+     * @return a bag containing, for each type of card, the count in this bag minus the count in that bag, or zero
+     * if that bag contains more cards of that type
+     */
+    public CardBag difference(CardBag that){
+        long difference = (counts | GUARD_BITS) - that.counts;
+        //the lanes where the guard bit was consumed are negative, and are cleared entirely
+        long kept = (difference & GUARD_BITS) >>> (LANE_BITS - 1);
+        long result = difference & ((kept << LANE_BITS) - kept) & ~GUARD_BITS;
+        return new CardBag(result, sizeOf(result));
+    }
+
+    /**
+     * Converts the bag into a sorted bag
+     * @return a sorted bag containing the same cards as this bag
+     */
+    public SortedBag<Card> toSortedBag(){
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL){
+            builder.add(countOf(card), card);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Packed counts getter
+     * @return the counts of every type of card, packed in a long
+     */
+    public long packed(){ return counts; }
+
+    /**
+     * Rebuilds a bag from its packed counts
+     * @param packed counts of every type of card, as returned by packed()
+     * @return the bag having those counts
+     * @throws IllegalArgumentException if packed isn't a valid packing of counts
+     */
+    public static CardBag ofPacked(long packed){
+        Preconditions.checkArgument((packed & ~(LANE_LOW_BITS * (LANE_MASK >>> 1))) == 0);
+        return new CardBag(packed, sizeOf(packed));
+    }
+
+    /**
+     * Compares two bags
+     * @param that object to compare to this bag
+     * @return true iff that is a bag containing exactly the same cards as this one
+     */
+    @Override
+    public boolean equals(Object that){
+        return that instanceof CardBag && counts == ((CardBag) that).counts;
+    }
+
+    /**
+     * Hash code of the bag
+     * @return hash code of the bag, computed from its packed counts
+     */
+    @Override
+    public int hashCode(){
+        return Long.hashCode(counts);
+    }
+
+    /**
+     * Textual representation of the bag, in the same format as the one of a sorted bag
+     * @return textual representation of the bag
+     */
+    @Override
+    public String toString(){
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (Card card : Card.ALL){
+            int n = countOf(card);
+            if (n != 0){
+                j.add((n > 1 ? n + "×" : "") + card);
+            }
+        }
+        return j.toString();
+    }
+
+    /**
+     * Computes the position of the lane of a card
+     * @param card type of card
+     * @return the position of the lowest bit of the card's lane
+     */
+    private static int shift(Card card){
+        return Objects.requireNonNull(card).ordinal() * LANE_BITS;
+    }
+
+    /**
+     * Computes the total number of cards of packed counts
+     * @param counts packed counts
+     * @return the sum of the counts of all lanes
+     */
+    private static int sizeOf(long counts){
+        int size = 0;
+        for (int i = 0; i < Card.COUNT; i++){
+            size += (int) ((counts >>> (i * LANE_BITS)) & LANE_MASK);
+        }
+        return size;
+    }
+
+    /**
+     * Computes the long having the lowest bit of every lane set
+     * @return a long with one bit set per type of card
+     */
+    private static long laneLowBits(){
+        long bits = 0;
+        for (int i = 0; i < Card.COUNT; i++){
+            bits |= 1L << (i * LANE_BITS);
+        }
+        return bits;
+    }
+
+    /**
+     * Creates the bags containing a single card
+     * @return an array containing, at each card's ordinal, a bag containing only that card
+     */
+    private static CardBag[] singleCards(){
+        CardBag[] singleCards = new CardBag[Card.COUNT];
+        for (Card card : Card.ALL){
+            singleCards[card.ordinal()] = new CardBag(1L << shift(card), 1);
+        }
+        return singleCards;
+    }
+}
@@ -19,7 +19,11 @@ public final class CardState extends PublicCardState {
 
     //more attributes on top of the ones in PublicCardState: list of face down cards and list of discard cards
     private final Deck<Card> faceDownCards;
-    private final SortedBag<Card> discardCards;
+    private final CardBag discardCards;
+
+    //Zobrist hash of the face up cards, the size of the deck and the discards, updated by each transition. The order
+    //of the deck isn't hashed, as it is hidden to the players
+    private final long zobristHash;
 
     /**
      * CardState constructor
@@ -28,11 +32,14 @@ public final class CardState extends PublicCardState {
      * @param discardsSize size of discard pile
      * @param faceDownCards cards that are face down
      * @param discardCards discard cards
+     * @param zobristHash Zobrist hash of the card state
      */
-    private CardState(List<Card> faceUpCards, int deckSize, int discardsSize, Deck<Card> faceDownCards, SortedBag<Card> discardCards) {
+    private CardState(List<Card> faceUpCards, int deckSize, int discardsSize, Deck<Card> faceDownCards, CardBag discardCards,
+                      long zobristHash) {
         super(faceUpCards, deckSize, discardsSize);
         this.discardCards=discardCards;
         this.faceDownCards=faceDownCards;
+        this.zobristHash=zobristHash;
     }
 
     /**
@@ -43,9 +50,32 @@ public final class CardState extends PublicCardState {
      */
     public static CardState of(Deck<Card> deck){
         Preconditions.checkArgument(deck.size()>= Constants.FACE_UP_CARDS_COUNT);
-        SortedBag<Card> empty_discard = SortedBag.of();
-        return new CardState(deck.topCards(Constants.FACE_UP_CARDS_COUNT).toList(), deck.size()-Constants.FACE_UP_CARDS_COUNT,
-                0, deck.withoutTopCards(Constants.FACE_UP_CARDS_COUNT) , empty_discard);
+        List<Card> faceUpCards = deck.topCards(Constants.FACE_UP_CARDS_COUNT).toList();
+        int deckSize = deck.size()-Constants.FACE_UP_CARDS_COUNT;
+        long zobristHash = Zobrist.ofDeckSize(deckSize) ^ Zobrist.ofDiscards(CardBag.EMPTY);
+        for (int slot = 0; slot < faceUpCards.size(); slot++){
+            zobristHash ^= Zobrist.ofFaceUpCard(slot, faceUpCards.get(slot));
+        }
+        return new CardState(faceUpCards, deckSize, 0, deck.withoutTopCards(Constants.FACE_UP_CARDS_COUNT),
+                CardBag.EMPTY, zobristHash);
+    }
+
+    /**
+     * CardState generator for a state restored from a snapshot
+     * @param faceUpCards cards that are visible
+     * @param faceDownCards cards that are face down
+     * @param discardCards discard cards
+     * @return the card state, with the same Zobrist hash as the state it was saved from
+     * @throws IllegalArgumentException if there aren't 5 face up cards
+     */
+    static CardState of(List<Card> faceUpCards, Deck<Card> faceDownCards, CardBag discardCards){
+        Preconditions.checkArgument(faceUpCards.size() == Constants.FACE_UP_CARDS_COUNT);
+        long zobristHash = Zobrist.ofDeckSize(faceDownCards.size()) ^ Zobrist.ofDiscards(discardCards);
+        for (int slot = 0; slot < faceUpCards.size(); slot++){
+            zobristHash ^= Zobrist.ofFaceUpCard(slot, faceUpCards.get(slot));
+        }
+        return new CardState(List.copyOf(faceUpCards), faceDownCards.size(), discardCards.size(), faceDownCards,
+                discardCards, zobristHash);
     }
 
     /**
@@ -59,8 +89,11 @@ public final class CardState extends PublicCardState {
         Preconditions.checkArgument(!this.isDeckEmpty());
         Objects.checkIndex(0, Constants.FACE_UP_CARDS_COUNT);
         ArrayList<Card> faceUp = new ArrayList<>(this.faceUpCards());
-        faceUp.set(slot, this.faceDownCards.topCard());
-        return new CardState(faceUp, deckSize()-1, discardsSize(), this.faceDownCards.withoutTopCard(), discardCards());
+        Card drawnCard = faceUp.set(slot, this.faceDownCards.topCard());
+        long newHash = zobristHash ^ Zobrist.ofFaceUpCard(slot, drawnCard) ^ Zobrist.ofFaceUpCard(slot, faceUp.get(slot))
+                ^ Zobrist.ofDeckSize(deckSize()) ^ Zobrist.ofDeckSize(deckSize()-1);
+        return new CardState(faceUp, deckSize()-1, discardsSize(), this.faceDownCards.withoutTopCard(), discardCards,
+                newHash);
     }
 
     /**
@@ -81,7 +114,8 @@ public final class CardState extends PublicCardState {
     public CardState withoutTopDeckCard(){
         Preconditions.checkArgument(!this.isDeckEmpty());
         Deck<Card> without_top = this.faceDownCards.withoutTopCard();
-        return new CardState(faceUpCards(), without_top.size(), discardsSize(), without_top, discardCards());
+        long newHash = zobristHash ^ Zobrist.ofDeckSize(deckSize()) ^ Zobrist.ofDeckSize(without_top.size());
+        return new CardState(faceUpCards(), without_top.size(), discardsSize(), without_top, discardCards, newHash);
     }
 
     /**
@@ -92,9 +126,10 @@ public final class CardState extends PublicCardState {
      */
     public CardState withDeckRecreatedFromDiscards(Random rng){
         Preconditions.checkArgument(this.isDeckEmpty());
-        SortedBag<Card> empty_discard = SortedBag.of();
         Deck<Card> newDeck = Deck.of(this.discardCards, rng);
-        return new CardState(faceUpCards(), newDeck.size(), 0, newDeck, empty_discard);
+        long newHash = zobristHash ^ Zobrist.ofDeckSize(deckSize()) ^ Zobrist.ofDeckSize(newDeck.size())
+                ^ Zobrist.ofDiscards(discardCards) ^ Zobrist.ofDiscards(CardBag.EMPTY);
+        return new CardState(faceUpCards(), newDeck.size(), 0, newDeck, CardBag.EMPTY, newHash);
     }
 
     /**
@@ -103,15 +138,19 @@ public final class CardState extends PublicCardState {
      * @return cardstate with the additional cards added to the discard pile
      */
     public CardState withMoreDiscardedCards(SortedBag<Card> additionalDiscards){
-        List<Card> new_discard = discardCards.toList();
-        for (Card card : additionalDiscards){
-            new_discard.add(card);
-        }
-        SortedBag.Builder<Card> discard_SB = new SortedBag.Builder<>();
-        for (Card card : new_discard){
-            discard_SB.add(card);
-        }
-        return new CardState(faceUpCards(), deckSize(), discardsSize()+additionalDiscards.size(), faceDownCards(), discard_SB.build());
+        return withMoreDiscardedCards(CardBag.of(additionalDiscards));
+    }
+
+    /**
+     * Method that adds new discard cards to discard pile
+     * @param additionalDiscards cards to be added to discard pile, as a card bag
+     * @return cardstate with the additional cards added to the discard pile
+     */
+    public CardState withMoreDiscardedCards(CardBag additionalDiscards){
+        CardBag newDiscards = discardCards.union(additionalDiscards);
+        long newHash = zobristHash ^ Zobrist.ofDiscards(discardCards) ^ Zobrist.ofDiscards(newDiscards);
+        return new CardState(faceUpCards(), deckSize(), discardsSize()+additionalDiscards.size(), faceDownCards(),
+                newDiscards, newHash);
     }
 
     /**
@@ -124,5 +163,18 @@ public final class CardState extends PublicCardState {
      * Discard cards getter
      * @return the discard cards
      */
-    public SortedBag<Card> discardCards(){ return discardCards; }
+    public SortedBag<Card> discardCards(){ return discardCards.toSortedBag(); }
+
+    /**
+     * Discard cards getter
+     * @return the discard cards, as a card bag
+     */
+    public CardBag discardCardBag(){ return discardCards; }
+
+    /**
+     * Zobrist hash getter
+     * @return the Zobrist hash of the face up cards, the size of the deck and the discards, equal for equal states
+     * however they were reached
+     */
+    public long zobristHash(){ return zobristHash; }
 }
@@ -1,8 +1,10 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.game.Route.Level;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 public final class ChMap {
@@ -20,6 +22,27 @@ public final class ChMap {
         return ALL_TICKETS;
     }
 
+    /**
+     * Returns the double route of a route of the map, in constant time
+     * @param route a route of the map
+     * @return the route joining the same stations, or null if the route is simple
+     * @throws IllegalArgumentException if the route isn't one of the routes of the map
+     */
+    public static Route doubleRoute(Route route) {
+        Preconditions.checkArgument(route.index() >= 0 && ALL_ROUTES.get(route.index()) == route);
+        return DOUBLE_ROUTES[route.index()];
+    }
+
+    /**
+     * Returns the routes of the map reaching a station, in constant time
+     * @param station a station of the map
+     * @return the routes of which the station is one of the ends, in the order of the map
+     * @throws IndexOutOfBoundsException if the station isn't one of the stations of the map
+     */
+    public static List<Route> routesAt(Station station) {
+        return STATION_ROUTES.get(station.id());
+    }
+
     // Stations - cities
     private static final Station BAD = new Station(0, "Baden");
     private static final Station BAL = new Station(1, "Bâle");
@@ -87,7 +110,7 @@ public final class ChMap {
             DE1, DE2, DE3, DE4, DE5, AT1, AT2, AT3, IT1, IT2, IT3, IT4, IT5, FR1, FR2, FR3, FR4);
 
     // Routes
-    private static final List<Route> ALL_ROUTES = List.of(
+    private static final List<Route> ALL_ROUTES = indexedRoutes(List.of(
             new Route("AT1_STG_1", AT1, STG, 4, Level.UNDERGROUND, null),
             new Route("AT2_VAD_1", AT2, VAD, 1, Level.UNDERGROUND, Color.RED),
             new Route("BAD_BAL_1", BAD, BAL, 3, Level.UNDERGROUND, Color.RED),
@@ -175,7 +198,7 @@ public final class ChMap {
             new Route("WIN_ZUR_1", WIN, ZUR, 1, Level.OVERGROUND, Color.BLUE),
             new Route("WIN_ZUR_2", WIN, ZUR, 1, Level.OVERGROUND, Color.VIOLET),
             new Route("ZOU_ZUR_1", ZOU, ZUR, 1, Level.OVERGROUND, Color.GREEN),
-            new Route("ZOU_ZUR_2", ZOU, ZUR, 1, Level.OVERGROUND, Color.RED));
+            new Route("ZOU_ZUR_2", ZOU, ZUR, 1, Level.OVERGROUND, Color.RED)));
 
     // Tickets
     private static final Ticket deToNeighbors = ticketToNeighbors(DE, 0, 5, 13, 5);
@@ -183,7 +206,7 @@ public final class ChMap {
     private static final Ticket itToNeighbors = ticketToNeighbors(IT, 13, 6, 0, 11);
     private static final Ticket frToNeighbors = ticketToNeighbors(FR, 5, 14, 11, 0);
 
-    private static final List<Ticket> ALL_TICKETS = List.of(
+    private static final List<Ticket> ALL_TICKETS = indexedTickets(List.of(
             // City-to-city tickets
             new Ticket(BAL, BER, 5),
             new Ticket(BAL, BRI, 10),
@@ -230,7 +253,55 @@ public final class ChMap {
             deToNeighbors, deToNeighbors,
             atToNeighbors, atToNeighbors,
             itToNeighbors, itToNeighbors,
-            frToNeighbors, frToNeighbors);
+            frToNeighbors, frToNeighbors));
+
+    //the double routes and the routes reaching each station are computed once, from the routes of the map
+    private static final Route[] DOUBLE_ROUTES = doubleRoutes();
+    private static final List<List<Route>> STATION_ROUTES = stationRoutes();
+
+    //the routes and tickets of the map know their index in the lists, so that they can be serialized without
+    //searching the lists
+    private static List<Route> indexedRoutes(List<Route> routes) {
+        var indexedRoutes = new ArrayList<Route>(routes.size());
+        for (int i = 0; i < routes.size(); i++)
+            indexedRoutes.add(routes.get(i).withIndex(i));
+        return List.copyOf(indexedRoutes);
+    }
+
+    //a ticket appearing many times is copied once, with the index of its first occurrence, so that its occurrences
+    //stay the same ticket
+    private static List<Ticket> indexedTickets(List<Ticket> tickets) {
+        var copies = new IdentityHashMap<Ticket, Ticket>();
+        var indexedTickets = new ArrayList<Ticket>(tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            var ticket = tickets.get(i);
+            if (!copies.containsKey(ticket))
+                copies.put(ticket, ticket.withIndex(i));
+            indexedTickets.add(copies.get(ticket));
+        }
+        return List.copyOf(indexedTickets);
+    }
+
+    private static Route[] doubleRoutes() {
+        var doubleRoutes = new Route[ALL_ROUTES.size()];
+        for (var route : ALL_ROUTES)
+            for (var other : ALL_ROUTES)
+                if (other != route && other.stations().equals(route.stations()))
+                    doubleRoutes[route.index()] = other;
+        return doubleRoutes;
+    }
+
+    private static List<List<Route>> stationRoutes() {
+        var stationRoutes = new ArrayList<List<Route>>(ALL_STATIONS.size());
+        for (var station : ALL_STATIONS) {
+            var routes = new ArrayList<Route>();
+            for (var route : ALL_ROUTES)
+                if (route.station1() == station || route.station2() == station)
+                    routes.add(route);
+            stationRoutes.add(List.copyOf(routes));
+        }
+        return List.copyOf(stationRoutes);
+    }
 
     private static Ticket ticketToNeighbors(List<Station> from, int de, int at, int it, int fr) {
         var trips = new ArrayList<Trip>();
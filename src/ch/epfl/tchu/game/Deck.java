@@ -4,8 +4,8 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -17,15 +17,19 @@ import java.util.Random;
 
 public final class Deck <C extends Comparable<C>> {
 
-    // Only attribute of a deck : list of all cards that compose a deck
-    private final List<C> cardsInDeck;
+    //cards of the deck: the elements of an array shared by all the decks obtained by drawing from the same deck,
+    //starting at the index of the top card. The array is never modified once the deck is built
+    private final Object[] cards;
+    private final int start;
 
     /**
      * Deck constructor
-     * @param cardsInDeck all cards composing / elements the deck
+     * @param cards array of the cards, shared with the other decks drawn from the same deck
+     * @param start index of the top card of the deck in the array
      */
-    private Deck(List<C> cardsInDeck){
-        this.cardsInDeck=cardsInDeck;
+    private Deck(Object[] cards, int start){
+        this.cards=cards;
+        this.start=start;
     }
 
     /**
@@ -36,16 +40,66 @@ public final class Deck <C extends Comparable<C>> {
      * @return a new randomly shuffled deck
      */
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng){
-        List<C> rand_List = new ArrayList<>(cards.toList());
-        Collections.shuffle(rand_List, rng);
-        return new Deck<>(rand_List);
+        Object[] shuffled = new Object[cards.size()];
+        int size = 0;
+        for (Map.Entry<C, Integer> entry : cards.toMap().entrySet()){
+            for (int i = 0; i < entry.getValue(); i++){
+                shuffled[size++] = entry.getKey();
+            }
+        }
+        return shuffled(shuffled, rng);
+    }
+
+    /**
+     * Deck generator for cards given by their counts, faster than going through a sorted bag
+     * @param cards the cards
+     * @param rng a randomizer
+     * @return a new randomly shuffled deck, the same as the one of(cards.toSortedBag(), rng) would return
+     */
+    static Deck<Card> of(CardBag cards, Random rng){
+        Object[] shuffled = new Object[cards.size()];
+        int size = 0;
+        for (Card card : Card.ALL){
+            for (int i = 0; i < cards.countOf(card); i++){
+                shuffled[size++] = card;
+            }
+        }
+        return shuffled(shuffled, rng);
+    }
+
+    /**
+     * Deck generator for cards in a given order, used to restore a deck from a snapshot
+     * @param cards the cards, from the top of the deck to its bottom
+     * @param <C> The kind of element composing the deck
+     * @return the deck of the cards, in that order
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards){
+        return new Deck<>(cards.toArray(), 0);
+    }
+
+    /**
+     * Shuffles sorted cards in place, swapping them exactly like Collections.shuffle does with a list, so that a
+     * deck drawn with a given randomizer doesn't depend on how it is shuffled
+     * @param cards the sorted cards
+     * @param rng a randomizer
+     * @param <C> The kind of element composing the deck
+     * @return the deck of the shuffled cards
+     */
+    private static <C extends Comparable<C>> Deck<C> shuffled(Object[] cards, Random rng){
+        for (int i = cards.length; i > 1; i--){
+            int j = rng.nextInt(i);
+            Object card = cards[i - 1];
+            cards[i - 1] = cards[j];
+            cards[j] = card;
+        }
+        return new Deck<>(cards, 0);
     }
 
     /**
      * Methods that returns the size of the deck
      * @return the size of a deck
      */
-    public int size(){return cardsInDeck.size();}
+    public int size(){return cards.length - start;}
 
     /**
      *
@@ -62,7 +116,7 @@ public final class Deck <C extends Comparable<C>> {
      */
     public C topCard(){
         Preconditions.checkArgument(!isEmpty());
-        return this.cardsInDeck.get(0);
+        return card(start);
     }
 
     /**
@@ -82,26 +136,44 @@ public final class Deck <C extends Comparable<C>> {
      */
     public SortedBag<C> topCards(int count){
         Preconditions.checkArgument(count <= this.size() && count >=0);
-        List<C> topCards_List = new ArrayList<>(this.cardsInDeck);
-        topCards_List = topCards_List.subList(0,count);
         SortedBag.Builder<C> topCards_SB = new SortedBag.Builder<>();
-        for (C content : topCards_List){
-            topCards_SB.add(content);
+        for (int i = start; i < start + count; i++){
+            topCards_SB.add(card(i));
         }
         return topCards_SB.build();
     }
 
     /**
-     * Method that creates a new deck without its previous "count" top cards, "count" a chosen value
+     * Method that creates a new deck without its previous "count" top cards, "count" a chosen value, sharing the
+     * cards of this deck
      * @param count the number of topCards we want to exclude from the new deck
      * @return the new deck without the "count" top cards
      * @throws IllegalArgumentException if deck is empty, or count is smaller than 0, or bigger than the deck size
      */
     public Deck<C> withoutTopCards(int count){
         Preconditions.checkArgument(count <= this.size() && count >=0);
-        List<C> WithoutTopCards = new ArrayList<>(this.cardsInDeck);
-        WithoutTopCards = WithoutTopCards.subList(count, WithoutTopCards.size());
-        return new Deck<>(WithoutTopCards);
+        return count == 0 ? this : new Deck<>(cards, start + count);
+    }
+
+    /**
+     * Returns the cards of the deck in their order, used to write a snapshot of the deck
+     * @return the cards, from the top of the deck to its bottom
+     */
+    List<C> toList(){
+        List<C> list = new ArrayList<>(size());
+        for (int i = start; i < cards.length; i++){
+            list.add(card(i));
+        }
+        return list;
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the card at an index of the array, which only contains elements of type C
+     * @param index the index
+     * @return the card
+     */
+    @SuppressWarnings("unchecked")
+    private C card(int index){
+        return (C) cards[index];
+    }
+}
@@ -4,6 +4,7 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.gui.Info;
 
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -24,16 +25,71 @@ public final class Game {
      * @param playerNames map of the player names
      * @param tickets pile of tickets
      * @param rng used to shuffle decks, randomly choose who will play first, etc
+     * @return the result of the game: the points of each player, the length of their longest trail and the number
+     * of turns played
      * @throws IllegalArgumentException if there are not 2 players and 2 player names in each map
      */
-    public static void play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
-        Preconditions.checkArgument(players.size()==PlayerId.COUNT && playerNames.size()==PlayerId.COUNT);
+    public static GameResult play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
+        return play(players, playerNames, tickets, rng, GameLog.Recorder.discarding(), SnapshotFile.Writer.discarding());
+    }
 
-        //here, method initPlayers is used to create the 2 players that will play the game and also
-        //to give each one a name
-        for(Map.Entry<PlayerId, Player> playerEntry: players.entrySet()){
-            playerEntry.getValue().initPlayers(playerEntry.getKey(),playerNames);
-        }
+    /**
+     * Method that plays a tChu game, recording its events in a log from which its states can be rebuilt
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @param tickets pile of tickets
+     * @param log recorder of the log, whose seed is used to create the random number generator of the game
+     * @return the result of the game
+     * @throws IllegalArgumentException if there are not 2 players and 2 player names in each map, or if a player
+     * claims a route that isn't one of the routes of the map
+     */
+    public static GameResult play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, GameLog.Recorder log) {
+        return play(players, playerNames, tickets, new Random(log.seed()), log, SnapshotFile.Writer.discarding());
+    }
+
+    /**
+     * Method that plays a tChu game, saving snapshots of its states from which it can be resumed
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @param tickets pile of tickets, which must be the tickets of the map
+     * @param rng used to shuffle decks, randomly choose who will play first, etc
+     * @param snapshots writer of the snapshots of the game
+     * @return the result of the game
+     * @throws IllegalArgumentException if there are not 2 players and 2 player names in each map
+     */
+    public static GameResult play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng, SnapshotFile.Writer snapshots) {
+        return play(players, playerNames, tickets, rng, GameLog.Recorder.discarding(), snapshots);
+    }
+
+    /**
+     * Method that resumes a tChu game from a snapshot, once its players are connected again. The random number
+     * generator of the game isn't saved, so that the decks recreated from the discards aren't the ones the game
+     * would have had
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @param snapshot snapshot of the game at the beginning of a turn
+     * @param rng used to shuffle the decks recreated from the discards
+     * @param snapshots writer of the snapshots of the resumed game
+     * @return the result of the game, whose number of turns includes the ones played before the snapshot
+     * @throws IllegalArgumentException if there are not 2 players and 2 player names in each map
+     */
+    public static GameResult resume(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, GameSnapshot snapshot, Random rng, SnapshotFile.Writer snapshots) {
+        Game.initPlayers(players, playerNames);
+        return playTurns(players, playerNames, snapshot, rng, GameLog.Recorder.discarding(), snapshots);
+    }
+
+    /**
+     * Method that plays a tChu game with a given random number generator, recording its events in a log
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @param tickets pile of tickets
+     * @param rng used to shuffle decks, randomly choose who will play first, etc
+     * @param log recorder of the log
+     * @param snapshots writer of the snapshots of the game
+     * @return the result of the game
+     */
+    private static GameResult play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng, GameLog.Recorder log, SnapshotFile.Writer snapshots) {
+        Game.initPlayers(players, playerNames);
 
         //game state is initialized
         GameState gameState = GameState.initial(tickets,rng);
@@ -43,8 +99,10 @@ public final class Game {
 
         //in the following order, for both players: initial tickets are presented, states are updated, players choose
         //tickets, info are sent
+        Map<PlayerId, SortedBag<Ticket>> initialTickets = new EnumMap<>(PlayerId.class);
         for (Map.Entry<PlayerId, Player> playerEntry : players.entrySet()){
-            playerEntry.getValue().setInitialTicketChoice(gameState.topTickets(Constants.INITIAL_TICKETS_COUNT));
+            initialTickets.put(playerEntry.getKey(), gameState.topTickets(Constants.INITIAL_TICKETS_COUNT));
+            playerEntry.getValue().setInitialTicketChoice(initialTickets.get(playerEntry.getKey()));
             gameState=gameState.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
         }
         for (Map.Entry<PlayerId, Player> playerEntry : players.entrySet()){
@@ -52,15 +110,35 @@ public final class Game {
 
         }
         for (Map.Entry<PlayerId, Player> playerEntry : players.entrySet()){
-            gameState= gameState.withInitiallyChosenTickets(playerEntry.getKey(),players.get(playerEntry.getKey()).chooseInitialTickets());
+            Game.flushAll(players);
+            SortedBag<Ticket> chosenTickets = players.get(playerEntry.getKey()).chooseInitialTickets();
+            log.initialTicketsKept(playerEntry.getKey(), initialTickets.get(playerEntry.getKey()), chosenTickets);
+            gameState= gameState.withInitiallyChosenTickets(playerEntry.getKey(),chosenTickets);
         }
         for (Map.Entry<PlayerId, Player> playerEntry : players.entrySet()){
             Game.allInfo(new Info(playerNames.get(playerEntry.getKey())).keptTickets(gameState.playerState(playerEntry.getKey()).ticketCount()), players);
         }
 
+        return playTurns(players, playerNames, new GameSnapshot(gameState, 0, false, PlayerId.COUNT), rng, log, snapshots);
+    }
+
+    /**
+     * Method that plays the turns of a tChu game until its end, from the beginning of a turn
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @param start state of the game at the beginning of the first turn to play
+     * @param rng used to shuffle the decks recreated from the discards
+     * @param log recorder of the log
+     * @param snapshots writer of the snapshots of the game
+     * @return the result of the game
+     */
+    private static GameResult playTurns(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, GameSnapshot start, Random rng, GameLog.Recorder log, SnapshotFile.Writer snapshots) {
+        GameState gameState = start.state();
+
         //number of turns after a player has less than 2 cars
-        int lastTurns = PlayerId.COUNT;
-        boolean lastTurnHasBegun = false;
+        int lastTurns = start.lastTurns();
+        boolean lastTurnHasBegun = start.lastTurnHasBegun();
+        int turnCount = start.turnCount();
 
         //loop that defines what happens in a round. A player has 3 choices, and in the next
         //loop the next player will play.
@@ -68,8 +146,12 @@ public final class Game {
         //case each player plays once and then the game ends.
         while (!lastTurnHasBegun || lastTurns >= 0) {
 
+            //the state is saved every few turns, so that the game can be resumed from there
+            snapshots.turnBegins(gameState, turnCount, lastTurnHasBegun, lastTurns);
+
             //Player variable containing the current player playing
             Player currentPlayer = players.get(gameState.currentPlayerId());
+            turnCount++;
 
             //both players get the info of who is going to play first
             Game.allInfo(new Info(playerNames.get(gameState.currentPlayerId())).canPlay(),players);
@@ -78,7 +160,9 @@ public final class Game {
             Game.updateAll(gameState,players);
 
             //current player gets to choose which of the 3 actions he is going to perform
+            Game.flushAll(players);
             Player.TurnKind playerChoice = currentPlayer.nextTurn();
+            log.turn(playerChoice);
 
 
             //if the current player has chosen to draw tickets and if the player can draw tickets,
@@ -87,6 +171,7 @@ public final class Game {
                 //the player chooses amongst the top 3 tickets in the ticket pile
                 SortedBag<Ticket> topTickets = gameState.topTickets(Constants.IN_GAME_TICKETS_COUNT);
                 SortedBag<Ticket> chosenTickets = currentPlayer.chooseTickets(topTickets);
+                log.ticketsKept(topTickets, chosenTickets);
                 //both players get the info that the current player has drawn tickets and has kept a certain amount
                 Game.allInfo(new Info(playerNames.get(gameState.currentPlayerId())).drewTickets(Constants.IN_GAME_TICKETS_COUNT),players);
                 Game.allInfo(new Info(playerNames.get(gameState.currentPlayerId())).keptTickets(chosenTickets.size()),players);
@@ -106,7 +191,9 @@ public final class Game {
                         Game.updateAll(gameState,players);
                     }
                     //slot = card slot that the player wants to pick
+                    Game.flushAll(players);
                     int slot = currentPlayer.drawSlot();
+                    log.cardDrawn(slot);
                     //if player wants to pick a card from pile
                     if (slot == Constants.DECK_SLOT) {
                         //deck is recreated from discard pile if needed
@@ -130,8 +217,11 @@ public final class Game {
             else if (playerChoice == Player.TurnKind.CLAIM_ROUTE) {
                 Route route = currentPlayer.claimedRoute();
                 SortedBag<Card> initialClaimCards = currentPlayer.initialClaimCards();
+                log.routeClaimed(route, initialClaimCards);
                 SortedBag.Builder<Card> drawnCardsSB = new SortedBag.Builder<>();
-                boolean canClaimRoute = gameState.currentPlayerState().canClaimRoute(route);
+                //a route can't be claimed once it or its double route is claimed
+                boolean canClaimRoute = !gameState.isRouteOrDoubleClaimed(route)
+                        && gameState.currentPlayerState().canClaimRoute(route);
 
                 //if the player can claim the route with the cards he has, the following block of code runs
                 if (canClaimRoute) {
@@ -147,6 +237,7 @@ public final class Game {
                             drawnCardsSB.add(gameState.topCard());
                             gameState = gameState.withoutTopCard();
                         }
+                        log.tunnelCardsRevealed(drawnCardsSB.build());
                         //number of cards the player has to play is computed
                         int cardsToPlay = route.additionalClaimCardsCount(initialClaimCards, SortedBag.of(drawnCardsSB.build()));
                         //players get the info that the top 3 cards of the pile were drawn
@@ -159,7 +250,9 @@ public final class Game {
                             //if possibleAdditionalCards's size isn't null (i.e player has different options to take the tunnel)
                             if (possibleAdditionalCards.size() != 0) {
                                 //SB of the chosen cards of the player is created
+                                Game.flushAll(players);
                                 SortedBag<Card> chosenCards = currentPlayer.chooseAdditionalCards(possibleAdditionalCards);
+                                log.additionalCardsChosen(chosenCards);
                                 //if the chosen cards size is equal to the var cardsToPlay (i.e player has correct cards
                                 //to claim the underground route), the following block runs
                                 if (chosenCards.size()== cardsToPlay){
@@ -255,6 +348,26 @@ public final class Game {
             Game.allInfo(new Info(playerNames.get(PlayerId.PLAYER_2)).won(player2points,player1points),players);
         }
         if (player1points == player2points) {Game.allInfo(Info.draw(List.of(playerNames.get(PlayerId.PLAYER_1),playerNames.get(PlayerId.PLAYER_2)),player1points),players);}
+        Game.flushAll(players);
+        log.flush();
+        snapshots.gameEnded();
+
+        return new GameResult(Map.of(PlayerId.PLAYER_1, player1points, PlayerId.PLAYER_2, player2points),
+                Map.of(PlayerId.PLAYER_1, longestTrailP1.length(), PlayerId.PLAYER_2, longestTrailP2.length()),
+                turnCount);
+    }
+
+    /**
+     * Method that gives each player its identity and the names of the players
+     * @param players map of the 2 players that will play the game
+     * @param playerNames map of the player names
+     * @throws IllegalArgumentException if there are not 2 players and 2 player names in each map
+     */
+    private static void initPlayers(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames){
+        Preconditions.checkArgument(players.size()==PlayerId.COUNT && playerNames.size()==PlayerId.COUNT);
+        for(Map.Entry<PlayerId, Player> playerEntry: players.entrySet()){
+            playerEntry.getValue().initPlayers(playerEntry.getKey(),playerNames);
+        }
     }
 
     /**
@@ -274,4 +387,13 @@ public final class Game {
     private static void updateAll(GameState gameState,Map<PlayerId, Player> players ){
         players.forEach(((playerId, player) -> players.get(playerId).updateState(gameState,gameState.playerState(playerId))));
     }
-}
\ No newline at end of file
+
+    /**
+     * Method that delivers to both players the infos and states given to them so far, called before waiting for a
+     * decision of a player so that the other one sees the game up to that point
+     * @param players map of the players that are playing
+     */
+    private static void flushAll(Map<PlayerId, Player> players){
+        players.forEach((playerId, player) -> player.flush());
+    }
+}
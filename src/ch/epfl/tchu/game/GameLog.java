@@ -0,0 +1,340 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Log of the events of a game, from which the states of the game can be rebuilt by a GameReplay
+ *
+ * The log starts with a header containing the seed of the random number generator of the game, followed by the
+ * decisions of the players in the order they were taken, along with the cards revealed when claiming tunnels so that
+ * a replay can check that it unfolds as the game did. Everything else follows from the seed and the decisions. The
+ * events are written in a compact binary format: a byte giving the kind of the event followed by its arguments,
+ * tickets being written as the set of the offered ones that were kept, routes as their index in the map and cards as
+ * their count of each type.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class GameLog {
+
+    //first bytes of a log ("TCLG") and version of its format
+    private static final int MAGIC = 0x54434C47;
+    private static final int VERSION = 1;
+
+    //kinds of the events
+    static final int INITIAL_TICKETS_KEPT = 0;
+    static final int TURN = 1;
+    static final int TICKETS_KEPT = 2;
+    static final int CARD_DRAWN = 3;
+    static final int ROUTE_CLAIMED = 4;
+    static final int TUNNEL_CARDS_REVEALED = 5;
+    static final int ADDITIONAL_CARDS_CHOSEN = 6;
+
+    //bits of a byte of cards holding the number of cards of a type, the other ones holding the type
+    private static final int COUNT_BITS = 4;
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+    private final long seed;
+    private final byte[] events;
+
+    private GameLog(long seed, byte[] events){
+        this.seed = seed;
+        this.events = events;
+    }
+
+    /**
+     * Reads a whole log, as written by a Recorder
+     * @param in stream containing the log, read until its end
+     * @return the log
+     * @throws IOException if the stream can't be read
+     * @throws IllegalArgumentException if the stream doesn't start with the header of a log
+     */
+    public static GameLog read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Preconditions.checkArgument(data.readInt() == MAGIC && data.readUnsignedByte() == VERSION);
+        long seed = data.readLong();
+        return new GameLog(seed, data.readAllBytes());
+    }
+
+    /**
+     * Seed getter
+     * @return the seed of the random number generator of the game
+     */
+    public long seed(){ return seed; }
+
+    /**
+     * Returns the events of the log
+     * @return a read-only buffer containing the events, positioned at the first one
+     */
+    ByteBuffer events(){
+        return ByteBuffer.wrap(events).asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads the tickets kept among offered ones
+     * @param events buffer positioned at the tickets
+     * @param options the offered tickets
+     * @return the kept tickets
+     */
+    static SortedBag<Ticket> readTickets(ByteBuffer events, SortedBag<Ticket> options){
+        int kept = Byte.toUnsignedInt(events.get());
+        SortedBag.Builder<Ticket> tickets = new SortedBag.Builder<>();
+        for (int i = 0; i < options.size(); i++){
+            if ((kept & 1 << i) != 0){ tickets.add(options.get(i)); }
+        }
+        return tickets.build();
+    }
+
+    /**
+     * Reads cards
+     * @param events buffer positioned at the cards
+     * @return the cards
+     */
+    static SortedBag<Card> readCards(ByteBuffer events){
+        int distinctCount = events.get();
+        SortedBag.Builder<Card> cards = new SortedBag.Builder<>();
+        for (int i = 0; i < distinctCount; i++){
+            int cardAndCount = Byte.toUnsignedInt(events.get());
+            cards.add(cardAndCount & COUNT_MASK, Card.ALL.get(cardAndCount >>> COUNT_BITS));
+        }
+        return cards.build();
+    }
+
+    /**
+     * Reads a non-negative integer written 7 bits per byte, starting with the lowest ones
+     * @param events buffer positioned at the integer
+     * @return the integer
+     */
+    static int readUnsigned(ByteBuffer events){
+        int value = 0;
+        for (int shift = 0; ; shift += 7){
+            int b = events.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0){ return value; }
+        }
+    }
+
+    /**
+     * Writes a non-negative integer 7 bits per byte, starting with the lowest ones, so that small integers take a
+     * single byte
+     * @param out stream in which the integer is written
+     * @param value the integer
+     * @throws IOException if the integer can't be written
+     */
+    static void writeUnsigned(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0){
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Writer of the log of a game, to which the game adds the events as they happen
+     *
+     * The events are written to the stream as soon as they happen, so that the stream should be buffered. They are
+     * only flushed at the end of the game.
+     */
+    public static final class Recorder {
+        //stream in which the events are written, null if they are discarded
+        private final DataOutputStream out;
+        private final long seed;
+
+        /**
+         * Recorder constructor, writing the header of the log
+         * @param out stream in which the log is written
+         * @param seed seed of the random number generator of the game
+         * @throws UncheckedIOException if the header can't be written
+         */
+        public Recorder(OutputStream out, long seed){
+            this.out = new DataOutputStream(out);
+            this.seed = seed;
+            try {
+                this.out.writeInt(MAGIC);
+                this.out.writeByte(VERSION);
+                this.out.writeLong(seed);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Recorder(){
+            this.out = null;
+            this.seed = 0;
+        }
+
+        /**
+         * Creates a recorder that discards the events, used by the games that aren't recorded, which may be played
+         * on other maps
+         * @return the recorder
+         */
+        static Recorder discarding(){
+            return new Recorder();
+        }
+
+        /**
+         * Seed getter
+         * @return the seed of the random number generator of the game
+         */
+        public long seed(){ return seed; }
+
+        /**
+         * Records the initial tickets kept by a player
+         * @param playerId the player
+         * @param options tickets offered to the player
+         * @param kept tickets kept by the player
+         */
+        void initialTicketsKept(PlayerId playerId, SortedBag<Ticket> options, SortedBag<Ticket> kept){
+            if (out == null){ return; }
+            try {
+                out.writeByte(INITIAL_TICKETS_KEPT);
+                out.writeByte(playerId.ordinal());
+                writeTickets(options, kept);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Records the beginning of a turn
+         * @param turnKind the kind of turn the current player plays
+         */
+        void turn(Player.TurnKind turnKind){
+            if (out == null){ return; }
+            writeEvent(TURN, turnKind.ordinal());
+        }
+
+        /**
+         * Records the tickets kept by the current player
+         * @param options tickets drawn by the player
+         * @param kept tickets kept by the player
+         */
+        void ticketsKept(SortedBag<Ticket> options, SortedBag<Ticket> kept){
+            if (out == null){ return; }
+            try {
+                out.writeByte(TICKETS_KEPT);
+                writeTickets(options, kept);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Records a card drawn by the current player
+         * @param slot the slot chosen by the player, which is Constants.DECK_SLOT for the deck
+         */
+        void cardDrawn(int slot){
+            if (out == null){ return; }
+            writeEvent(CARD_DRAWN, slot - Constants.DECK_SLOT);
+        }
+
+        /**
+         * Records a route the current player attempts to claim
+         * @param route the route, one of the routes of the map
+         * @param initialCards the cards the player initially uses
+         * @throws IllegalArgumentException if the events are recorded and the route isn't one of the routes of the
+         * map
+         */
+        void routeClaimed(Route route, SortedBag<Card> initialCards){
+            if (out == null){ return; }
+            Preconditions.checkArgument(route.index() >= 0);
+            writeEvent(ROUTE_CLAIMED, route.index());
+            writeCards(initialCards);
+        }
+
+        /**
+         * Records the cards revealed when the current player attempts to claim a tunnel
+         * @param cards the revealed cards
+         */
+        void tunnelCardsRevealed(SortedBag<Card> cards){
+            if (out == null){ return; }
+            writeEvent(TUNNEL_CARDS_REVEALED);
+            writeCards(cards);
+        }
+
+        /**
+         * Records the additional cards chosen by the current player to claim a tunnel
+         * @param cards the chosen cards, empty if the player gave up
+         */
+        void additionalCardsChosen(SortedBag<Card> cards){
+            if (out == null){ return; }
+            writeEvent(ADDITIONAL_CARDS_CHOSEN);
+            writeCards(cards);
+        }
+
+        /**
+         * Flushes the events written so far
+         * @throws UncheckedIOException if the stream can't be flushed
+         */
+        void flush(){
+            if (out == null){ return; }
+            try {
+                out.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeEvent(int kind, int... arguments){
+            try {
+                out.writeByte(kind);
+                for (int argument : arguments){
+                    writeUnsigned(out, argument);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        //the tickets are written as the bits of the kept ones among the offered ones, in the order of the bag
+        private void writeTickets(SortedBag<Ticket> options, SortedBag<Ticket> kept) throws IOException {
+            Preconditions.checkArgument(options.size() <= Byte.SIZE && options.contains(kept));
+            Map<Ticket, Integer> remaining = new TreeMap<>(kept.toMap());
+            int bits = 0;
+            List<Ticket> offered = options.toList();
+            for (int i = 0; i < offered.size(); i++){
+                Integer count = remaining.get(offered.get(i));
+                if (count != null && count > 0){
+                    bits |= 1 << i;
+                    remaining.put(offered.get(i), count - 1);
+                }
+            }
+            out.writeByte(bits);
+        }
+
+        //the cards are written as the number of distinct types followed, for each type, by a byte containing the
+        //type and the number of cards of that type
+        private void writeCards(SortedBag<Card> cards){
+            try {
+                Map<Card, Integer> counts = cards.toMap();
+                out.writeByte(counts.size());
+                for (Map.Entry<Card, Integer> count : counts.entrySet()){
+                    Preconditions.checkArgument(count.getValue() <= COUNT_MASK);
+                    out.writeByte(count.getKey().ordinal() << COUNT_BITS | count.getValue());
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
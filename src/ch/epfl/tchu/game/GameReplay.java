@@ -0,0 +1,182 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Replay of a logged game, rebuilding its states turn after turn
+ *
+ * The replay applies to the states the same transitions as Game, with the decisions of the players read from the log
+ * and a random number generator created from the seed of the log, so that the states are the ones of the game. As
+ * no player is called and no information is produced, replaying a game is much faster than playing it.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class GameReplay {
+
+    private static final Player.TurnKind[] TURN_KINDS = Player.TurnKind.values();
+
+    private final ByteBuffer events;
+    private final Random rng;
+    private GameState state;
+    private int turnCount;
+
+    /**
+     * GameReplay constructor, replaying the game up to its first turn
+     * @param log the log of the game
+     * @param tickets the tickets the game was played with
+     * @throws IllegalArgumentException if the log doesn't start with the initial tickets kept by each player
+     */
+    public GameReplay(GameLog log, SortedBag<Ticket> tickets){
+        this.events = log.events();
+        this.rng = new Random(log.seed());
+        GameState state = GameState.initial(tickets, rng);
+
+        //the initial tickets are offered in the order in which the players keep them
+        Map<PlayerId, SortedBag<Ticket>> kept = new EnumMap<>(PlayerId.class);
+        for (int i = 0; i < PlayerId.COUNT; i++){
+            Preconditions.checkArgument(events.hasRemaining() && events.get() == GameLog.INITIAL_TICKETS_KEPT);
+            PlayerId playerId = PlayerId.ALL.get(events.get());
+            SortedBag<Ticket> options = state.topTickets(Constants.INITIAL_TICKETS_COUNT);
+            state = state.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+            kept.put(playerId, GameLog.readTickets(events, options));
+        }
+        for (Map.Entry<PlayerId, SortedBag<Ticket>> playerTickets : kept.entrySet()){
+            state = state.withInitiallyChosenTickets(playerTickets.getKey(), playerTickets.getValue());
+        }
+        this.state = state;
+    }
+
+    /**
+     * Replays a game up to a given turn
+     * @param log the log of the game
+     * @param tickets the tickets the game was played with
+     * @param turn number of turns to replay
+     * @return the state of the game after that number of turns
+     * @throws IllegalArgumentException if the game has less turns, or if the log doesn't match the game
+     */
+    public static GameState stateAfterTurn(GameLog log, SortedBag<Ticket> tickets, int turn){
+        Preconditions.checkArgument(turn >= 0);
+        GameReplay replay = new GameReplay(log, tickets);
+        while (replay.turnCount() < turn){
+            Preconditions.checkArgument(replay.hasNextTurn());
+            replay.nextTurn();
+        }
+        return replay.state();
+    }
+
+    /**
+     * State getter
+     * @return the state of the game after the turns replayed so far
+     */
+    public GameState state(){ return state; }
+
+    /**
+     * Turn count getter
+     * @return the number of turns replayed so far
+     */
+    public int turnCount(){ return turnCount; }
+
+    /**
+     * Checks whether the log contains another turn
+     * @return true iff there is a turn left to replay
+     */
+    public boolean hasNextTurn(){ return events.hasRemaining(); }
+
+    /**
+     * Replays the next turn
+     * @return the state of the game after that turn
+     * @throws IllegalArgumentException if there is no turn left, or if the log doesn't match the game, for example
+     * because the tickets or the map aren't the ones of the game
+     */
+    public GameState nextTurn(){
+        Preconditions.checkArgument(hasNextTurn() && events.get() == GameLog.TURN);
+        Player.TurnKind turnKind = TURN_KINDS[GameLog.readUnsigned(events)];
+        switch (turnKind){
+            case DRAW_TICKETS:
+                expect(GameLog.TICKETS_KEPT);
+                SortedBag<Ticket> topTickets = state.topTickets(Constants.IN_GAME_TICKETS_COUNT);
+                state = state.withChosenAdditionalTickets(topTickets, GameLog.readTickets(events, topTickets));
+                break;
+            case DRAW_CARDS:
+                for (int i = 0; i < 2; i++){
+                    state = state.withCardsDeckRecreatedIfNeeded(rng);
+                    expect(GameLog.CARD_DRAWN);
+                    int slot = GameLog.readUnsigned(events) + Constants.DECK_SLOT;
+                    if (slot == Constants.DECK_SLOT){
+                        state = state.withCardsDeckRecreatedIfNeeded(rng).withBlindlyDrawnCard();
+                    }
+                    if (Constants.FACE_UP_CARD_SLOTS.contains(slot)){
+                        state = state.withDrawnFaceUpCard(slot);
+                    }
+                }
+                break;
+            case CLAIM_ROUTE:
+                expect(GameLog.ROUTE_CLAIMED);
+                Route route = ChMap.routes().get(GameLog.readUnsigned(events));
+                SortedBag<Card> initialCards = GameLog.readCards(events);
+                if (!state.isRouteOrDoubleClaimed(route) && state.currentPlayerState().canClaimRoute(route)){
+                    if (route.level() == Route.Level.UNDERGROUND){
+                        claimTunnel(route, initialCards);
+                    }
+                    else {
+                        state = state.withClaimedRoute(route, initialCards);
+                    }
+                }
+                break;
+        }
+        state = state.forNextTurn();
+        turnCount++;
+        return state;
+    }
+
+    /**
+     * Replays the claim of a tunnel, checking that the revealed cards are the ones of the game
+     * @param route the tunnel
+     * @param initialCards the cards the player initially used
+     */
+    private void claimTunnel(Route route, SortedBag<Card> initialCards){
+        SortedBag.Builder<Card> drawnCards = new SortedBag.Builder<>();
+        for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; i++){
+            state = state.withCardsDeckRecreatedIfNeeded(rng);
+            drawnCards.add(state.topCard());
+            state = state.withoutTopCard();
+        }
+        SortedBag<Card> revealedCards = drawnCards.build();
+        expect(GameLog.TUNNEL_CARDS_REVEALED);
+        Preconditions.checkArgument(GameLog.readCards(events).equals(revealedCards));
+
+        int cardsToPlay = route.additionalClaimCardsCount(initialCards, revealedCards);
+        if (cardsToPlay == 0){
+            state = state.withClaimedRoute(route, initialCards);
+        }
+        else {
+            List<SortedBag<Card>> options = state.currentPlayerState().possibleAdditionalCards(cardsToPlay, initialCards);
+            if (!options.isEmpty()){
+                expect(GameLog.ADDITIONAL_CARDS_CHOSEN);
+                SortedBag<Card> chosenCards = GameLog.readCards(events);
+                if (chosenCards.size() == cardsToPlay){
+                    state = state.withClaimedRoute(route, initialCards.union(chosenCards));
+                }
+            }
+        }
+        state = state.withMoreDiscardedCards(revealedCards);
+    }
+
+    /**
+     * Reads the kind of the next event, checking that it is the expected one
+     * @param kind the expected kind
+     * @throws IllegalArgumentException if the next event isn't of that kind
+     */
+    private void expect(int kind){
+        Preconditions.checkArgument(events.hasRemaining() && events.get() == kind);
+    }
+}
@@ -0,0 +1,76 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.Map;
+
+/**
+ * Result of a finished game of tChu
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class GameResult {
+
+    //attributes of a result: the final points of each player (longest trail bonus included), the length of the
+    //longest trail of each player, and the number of turns that were played
+    private final Map<PlayerId, Integer> points;
+    private final Map<PlayerId, Integer> longestTrailLengths;
+    private final int turnCount;
+
+    /**
+     * GameResult constructor
+     * @param points final points of each player
+     * @param longestTrailLengths length of the longest trail of each player
+     * @param turnCount number of turns played
+     * @throws IllegalArgumentException if a map doesn't contain both players or if the turn count is negative
+     */
+    public GameResult(Map<PlayerId, Integer> points, Map<PlayerId, Integer> longestTrailLengths, int turnCount){
+        Preconditions.checkArgument(points.size() == PlayerId.COUNT && longestTrailLengths.size() == PlayerId.COUNT
+                && turnCount >= 0);
+        this.points = Map.copyOf(points);
+        this.longestTrailLengths = Map.copyOf(longestTrailLengths);
+        this.turnCount = turnCount;
+    }
+
+    /**
+     * Points getter
+     * @param playerId id of a player
+     * @return the final points of that player
+     */
+    public int points(PlayerId playerId){ return points.get(playerId); }
+
+    /**
+     * Longest trail length getter
+     * @param playerId id of a player
+     * @return the length of the longest trail of that player
+     */
+    public int longestTrailLength(PlayerId playerId){ return longestTrailLengths.get(playerId); }
+
+    /**
+     * Asks if a player got the longest trail bonus
+     * @param playerId id of a player
+     * @return true if no other player has a longer trail, else returns false
+     */
+    public boolean getsLongestTrailBonus(PlayerId playerId){
+        return longestTrailLength(playerId) >= longestTrailLength(playerId.next());
+    }
+
+    /**
+     * Turn count getter
+     * @return number of turns played during the game
+     */
+    public int turnCount(){ return turnCount; }
+
+    /**
+     * Returns the winner of the game
+     * @return the id of the player having the most points, or null if the game ended in a draw
+     */
+    public PlayerId winner(){
+        int points1 = points(PlayerId.PLAYER_1);
+        int points2 = points(PlayerId.PLAYER_2);
+        if (points1 == points2){ return null; }
+        return points1 > points2 ? PlayerId.PLAYER_1 : PlayerId.PLAYER_2;
+    }
+}
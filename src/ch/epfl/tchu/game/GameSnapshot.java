@@ -0,0 +1,204 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a game at the beginning of a turn, from which the game can be resumed
+ *
+ * Unlike the states sent to the players, a snapshot contains the hidden parts of the state: the order of the decks
+ * and the discarded cards. It is written in a compact, versioned binary format: tickets and routes as their index in
+ * the map, cards of the deck and face up cards as their type, and the cards of the players and the discards as their
+ * packed counts.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class GameSnapshot {
+
+    //version of the format, written first so that snapshots of another version are rejected
+    private static final int VERSION = 1;
+
+    private static final PlayerId[] PLAYER_IDS = PlayerId.values();
+
+    private final GameState state;
+    private final int turnCount;
+    private final boolean lastTurnHasBegun;
+    private final int lastTurns;
+
+    /**
+     * GameSnapshot constructor
+     * @param state the state of the game at the beginning of the turn
+     * @param turnCount the number of turns played so far
+     * @param lastTurnHasBegun whether a player has had less than 3 cars
+     * @param lastTurns the number of turns left to play once the last turns have begun
+     * @throws IllegalArgumentException if the number of turns or of turns left is negative
+     */
+    GameSnapshot(GameState state, int turnCount, boolean lastTurnHasBegun, int lastTurns){
+        Preconditions.checkArgument(turnCount >= 0 && lastTurns >= 0 && lastTurns <= PlayerId.COUNT);
+        this.state = state;
+        this.turnCount = turnCount;
+        this.lastTurnHasBegun = lastTurnHasBegun;
+        this.lastTurns = lastTurns;
+    }
+
+    /**
+     * State getter
+     * @return the state of the game at the beginning of the turn
+     */
+    public GameState state(){ return state; }
+
+    /**
+     * Turn count getter
+     * @return the number of turns played before the snapshot
+     */
+    public int turnCount(){ return turnCount; }
+
+    /**
+     * Last turn getter
+     * @return true iff the last turns of the game have begun
+     */
+    boolean lastTurnHasBegun(){ return lastTurnHasBegun; }
+
+    /**
+     * Last turns getter
+     * @return the number of turns left to play once the last turns have begun
+     */
+    int lastTurns(){ return lastTurns; }
+
+    /**
+     * Writes the snapshot in its binary format
+     * @return the bytes of the snapshot
+     * @throws IllegalArgumentException if a ticket or a route of the game isn't one of the map
+     */
+    public byte[] toBytes(){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(VERSION);
+            GameLog.writeUnsigned(out, turnCount);
+            out.writeByte(lastTurnHasBegun ? 1 : 0);
+            out.writeByte(lastTurns);
+            out.writeByte(state.currentPlayerId().ordinal());
+            out.writeByte(state.lastPlayer() == null ? 0 : state.lastPlayer().ordinal() + 1);
+
+            writeTickets(out, state.ticketDeck().toList());
+            CardState cardState = state.privateCardState();
+            List<Card> deck = cardState.faceDownCards().toList();
+            GameLog.writeUnsigned(out, deck.size());
+            for (Card card : deck){
+                out.writeByte(card.ordinal());
+            }
+            for (Card card : cardState.faceUpCards()){
+                out.writeByte(card.ordinal());
+            }
+            out.writeLong(cardState.discardCardBag().packed());
+
+            for (PlayerId playerId : PLAYER_IDS){
+                PlayerState playerState = state.playerState(playerId);
+                writeTickets(out, playerState.tickets().toList());
+                out.writeLong(playerState.cardBag().packed());
+                GameLog.writeUnsigned(out, playerState.routes().size());
+                for (Route route : playerState.routes()){
+                    Preconditions.checkArgument(route.index() >= 0);
+                    GameLog.writeUnsigned(out, route.index());
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a snapshot written by toBytes, with the tickets and routes of the map
+     * @param bytes the bytes of the snapshot
+     * @return the snapshot, whose state has the same Zobrist hash and decks as the state of the written snapshot
+     * @throws IllegalArgumentException if the bytes aren't a snapshot of this version
+     */
+    public static GameSnapshot fromBytes(byte[] bytes){
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            Preconditions.checkArgument(in.get() == VERSION);
+            int turnCount = GameLog.readUnsigned(in);
+            boolean lastTurnHasBegun = in.get() != 0;
+            int lastTurns = in.get();
+            PlayerId currentPlayerId = PLAYER_IDS[in.get()];
+            int lastPlayer = in.get();
+
+            Deck<Ticket> ticketDeck = Deck.ofOrdered(readTickets(in));
+            int deckSize = GameLog.readUnsigned(in);
+            List<Card> deck = new ArrayList<>(deckSize);
+            for (int i = 0; i < deckSize; i++){
+                deck.add(Card.ALL.get(in.get()));
+            }
+            List<Card> faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+            for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++){
+                faceUpCards.add(Card.ALL.get(in.get()));
+            }
+            CardState cardState = CardState.of(faceUpCards, Deck.ofOrdered(deck), CardBag.ofPacked(in.getLong()));
+
+            Map<PlayerId, PlayerState> playerStates = new EnumMap<>(PlayerId.class);
+            for (PlayerId playerId : PLAYER_IDS){
+                SortedBag<Ticket> tickets = SortedBag.of(readTickets(in));
+                CardBag cards = CardBag.ofPacked(in.getLong());
+                int routeCount = GameLog.readUnsigned(in);
+                List<Route> routes = new ArrayList<>(routeCount);
+                for (int i = 0; i < routeCount; i++){
+                    routes.add(ChMap.routes().get(GameLog.readUnsigned(in)));
+                }
+                playerStates.put(playerId, new PlayerState(tickets, cards, routes));
+            }
+            Preconditions.checkArgument(!in.hasRemaining());
+
+            GameState state = GameState.of(ticketDeck, cardState, currentPlayerId, playerStates,
+                    lastPlayer == 0 ? null : PLAYER_IDS[lastPlayer - 1]);
+            return new GameSnapshot(state, turnCount, lastTurnHasBegun, lastTurns);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Writes tickets as their number followed by their index in the map
+     * @param out stream in which the tickets are written
+     * @param tickets the tickets
+     * @throws IOException if the tickets can't be written
+     * @throws IllegalArgumentException if a ticket isn't one of the map
+     */
+    private static void writeTickets(DataOutputStream out, List<Ticket> tickets) throws IOException {
+        GameLog.writeUnsigned(out, tickets.size());
+        for (Ticket ticket : tickets){
+            Preconditions.checkArgument(ticket.index() >= 0);
+            GameLog.writeUnsigned(out, ticket.index());
+        }
+    }
+
+    /**
+     * Reads tickets written by writeTickets
+     * @param in buffer positioned at the tickets
+     * @return the tickets, in the order in which they were written
+     */
+    private static List<Ticket> readTickets(ByteBuffer in){
+        int count = GameLog.readUnsigned(in);
+        List<Ticket> tickets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++){
+            tickets.add(ChMap.tickets().get(GameLog.readUnsigned(in)));
+        }
+        return tickets;
+    }
+}
@@ -19,6 +19,10 @@ public final class GameState extends PublicGameState {
     private final Deck<Ticket> ticketDeck;
     private final CardState privateCardState;
 
+    //Zobrist hash of the state, combining the hashes of the card state and of the player states, which are updated
+    //by their own transitions
+    private final long zobristHash;
+
     /**
      * Game State constructor
      *
@@ -35,6 +39,12 @@ public final class GameState extends PublicGameState {
         this.privatePlayerState = playerState;
         this.ticketDeck = ticketDeck;
         this.privateCardState = privateCardState;
+        long zobristHash = privateCardState.zobristHash() ^ Zobrist.ofTicketsCount(ticketsCount)
+                ^ Zobrist.ofCurrentPlayer(currentPlayerId) ^ Zobrist.ofLastPlayer(lastPlayer);
+        for (Map.Entry<PlayerId, PlayerState> player : playerState.entrySet()) {
+            zobristHash ^= Zobrist.ofPlayer(player.getKey(), player.getValue().zobristHash());
+        }
+        this.zobristHash = zobristHash;
     }
 
     /**
@@ -60,6 +70,47 @@ public final class GameState extends PublicGameState {
         return new GameState(ticketsDeck.size(), ticketsDeck, CardState.of(cardDeck), currentPlayerId, playerStateMap, null);
     }
 
+    /**
+     * creates a state restored from a snapshot
+     * @param ticketDeck      tickets in deck
+     * @param cardState       private card state
+     * @param currentPlayerId current player id
+     * @param playerState     map of player states
+     * @param lastPlayer      last player id, or null if the last turns haven't begun
+     * @return the state, with the same Zobrist hash as the state it was saved from
+     * @throws IllegalArgumentException if there isn't a state for each player
+     */
+    static GameState of(Deck<Ticket> ticketDeck, CardState cardState, PlayerId currentPlayerId,
+                        Map<PlayerId, PlayerState> playerState, PlayerId lastPlayer) {
+        Preconditions.checkArgument(playerState.size() == PlayerId.COUNT);
+        return new GameState(ticketDeck.size(), ticketDeck, cardState, currentPlayerId, new EnumMap<>(playerState), lastPlayer);
+    }
+
+    /**
+     * Ticket deck getter, used to write a snapshot of the state
+     * @return the deck of the tickets
+     */
+    Deck<Ticket> ticketDeck() {
+        return ticketDeck;
+    }
+
+    /**
+     * Private card state getter, used to write a snapshot of the state
+     * @return the card state, including the deck and the discards
+     */
+    CardState privateCardState() {
+        return privateCardState;
+    }
+
+    /**
+     * Zobrist hash getter
+     * @return the Zobrist hash of the state, equal for equal states however they were reached, except for the order
+     * of the decks which is hidden to the players
+     */
+    public long zobristHash() {
+        return zobristHash;
+    }
+
     /**
      * Method that returns he private state of a player
      * @param playerId the identity of a player
@@ -98,4 +98,10 @@ public interface Player {
      * the valid cards to claim the tunnel
      */
     SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options);
-}
\ No newline at end of file
+
+    /**
+     * Delivers the infos and states given to the player so far, which a player may hold back to deliver them together.
+     * Called by the game before it waits for a decision of any player, and once it is over. Does nothing by default
+     */
+    default void flush(){ }
+}
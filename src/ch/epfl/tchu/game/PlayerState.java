@@ -4,8 +4,6 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Private state of a player
@@ -18,9 +16,21 @@ public final class PlayerState extends PublicPlayerState {
     //private attributes of a player: his tickets, cards, and routes, and we added carCount and claimPoints so that
     //these attributes are computed when constructing a Player State
     private final SortedBag<Ticket> tickets;
-    private final SortedBag<Card> cards;
+    private final CardBag cards;
     private final List<Route> routes;
 
+    //connectivity of the stations of the player's routes, and points of his tickets given that connectivity, both
+    //updated when a route or tickets are added
+    private final StationPartition connectivity;
+    private final int ticketPoints;
+
+    //Zobrist hash of the tickets and routes, updated when tickets or a route are added, the cards being hashed
+    //all at once from their counts
+    private final long ticketsAndRoutesHash;
+
+    //the cards as a sorted bag, only built the first time cards() is called
+    private SortedBag<Card> sortedCards;
+
     /**
      * Player State constructor
      * @param tickets the players tickets
@@ -28,10 +38,51 @@ public final class PlayerState extends PublicPlayerState {
      * @param routes the players routes
      */
     public PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, List<Route> routes) {
-        super(tickets.size(), cards.size(), routes);
+        this(tickets, CardBag.of(cards), routes);
+        this.sortedCards = cards;
+    }
+
+    /**
+     * Player State constructor
+     * @param tickets the players tickets
+     * @param cards the players cards, as a card bag
+     * @param routes the players routes
+     */
+    public PlayerState(SortedBag<Ticket> tickets, CardBag cards, List<Route> routes) {
+        this(tickets, cards, routes, connectivityOf(routes));
+    }
+
+    /**
+     * Player State constructor, computing the ticket points from the connectivity
+     * @param tickets the players tickets
+     * @param cards the players cards, as a card bag
+     * @param routes the players routes
+     * @param connectivity the connectivity of the stations of the routes
+     */
+    private PlayerState(SortedBag<Ticket> tickets, CardBag cards, List<Route> routes, StationPartition connectivity) {
+        this(tickets, cards, routes, null, connectivity, ticketPoints(tickets, connectivity),
+                ticketsHash(SortedBag.of(), tickets) ^ routesHash(routes));
+    }
+
+    /**
+     * Player State constructor
+     * @param tickets the players tickets
+     * @param cards the players cards, as a card bag
+     * @param routes the players routes
+     * @param routeBits the bits of the routes, or null to compute them from the routes
+     * @param connectivity the connectivity of the stations of the routes
+     * @param ticketPoints the points of the tickets given that connectivity
+     * @param ticketsAndRoutesHash the Zobrist hash of the tickets and routes
+     */
+    private PlayerState(SortedBag<Ticket> tickets, CardBag cards, List<Route> routes, long[] routeBits,
+                        StationPartition connectivity, int ticketPoints, long ticketsAndRoutesHash) {
+        super(tickets.size(), cards.size(), routes, routeBits == null ? routeBitsOf(routes) : routeBits);
         this.tickets = tickets;
         this.cards = cards;
         this.routes = routes;
+        this.connectivity = connectivity;
+        this.ticketPoints = ticketPoints;
+        this.ticketsAndRoutesHash = ticketsAndRoutesHash;
     }
 
     /**
@@ -60,6 +111,17 @@ public final class PlayerState extends PublicPlayerState {
      * @return a player's cards
      */
     public SortedBag<Card> cards(){
+        if (sortedCards == null){
+            sortedCards = cards.toSortedBag();
+        }
+        return sortedCards;
+    }
+
+    /**
+     * Cards getter
+     * @return a player's cards, as a card bag
+     */
+    public CardBag cardBag(){
         return cards;
     }
 
@@ -70,15 +132,9 @@ public final class PlayerState extends PublicPlayerState {
      * of tickets
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        List<Ticket> listWithTickets = tickets.toList();
-        for (Ticket ticket : newTickets) {
-            listWithTickets.add(ticket);
-        }
-        SortedBag.Builder<Ticket> new_Builder = new SortedBag.Builder<>();
-        for (Ticket ticket : listWithTickets){
-            new_Builder.add(ticket);
-        }
-        return new PlayerState(new_Builder.build(), cards, routes);
+        return new PlayerState(tickets.union(newTickets), cards, routes, packedRouteBits(), connectivity,
+                ticketPoints + ticketPoints(newTickets, connectivity),
+                ticketsAndRoutesHash ^ ticketsHash(tickets, newTickets));
     }
 
     /**
@@ -88,13 +144,8 @@ public final class PlayerState extends PublicPlayerState {
      * previous list of cards
      */
     public PlayerState withAddedCard(Card card){
-        List<Card> listWithCard = cards.toList();
-        listWithCard.add(card);
-        SortedBag.Builder<Card> new_Builder = new SortedBag.Builder<>();
-        for (Card single_card : listWithCard){
-            new_Builder.add(single_card);
-        }
-        return new PlayerState(tickets, new_Builder.build(), routes);
+        return new PlayerState(tickets, cards.withAdded(card), routes, packedRouteBits(), connectivity, ticketPoints,
+                ticketsAndRoutesHash);
     }
 
     /**
@@ -104,15 +155,7 @@ public final class PlayerState extends PublicPlayerState {
      * and cards.
      */
     public boolean canClaimRoute(Route route){
-        boolean canClaim = false;
-        if (this.carCount() >= route.length() ){
-            for (SortedBag<Card> SB : possibleClaimCards(route)){
-                if (cards.contains(SB)){
-                    canClaim = true;
-                }
-            }
-        }
-        return canClaim;
+        return this.carCount() >= route.length() && route.canBeClaimedWith(cards);
     }
 
     /**
@@ -124,9 +167,10 @@ public final class PlayerState extends PublicPlayerState {
     public List<SortedBag<Card>> possibleClaimCards(Route route){
         Preconditions.checkArgument(this.carCount() >= route.length());
         List<SortedBag<Card>> possibleClaimCards = new ArrayList<>();
-        for (SortedBag<Card> SB : route.possibleClaimCards()){
-            if (cards.contains(SB)){
-                possibleClaimCards.add(SB);
+        List<CardBag> possibleClaimCardBags = route.possibleClaimCardBags();
+        for (int i = 0; i < possibleClaimCardBags.size(); i++){
+            if (cards.contains(possibleClaimCardBags.get(i))){
+                possibleClaimCards.add(route.possibleClaimCards().get(i));
             }
         }
         return possibleClaimCards;
@@ -143,13 +187,17 @@ public final class PlayerState extends PublicPlayerState {
                 additionalCardsCount>=1 && additionalCardsCount<=Constants.ADDITIONAL_TUNNEL_CARDS
                         && initialCards != null && initialCards.size() != 0 && initialCards.toSet().size()<=2);
 
-        SortedBag<Card> playableCards = cards.difference(initialCards);
+        CardBag playableCards = cards.difference(CardBag.of(initialCards));
         Set <Card> initialCardsSet = initialCards.toSet();
 
-        SortedBag<Card> allUsableCards = SortedBag.of(playableCards.stream()
-                .filter( predicate ->
-                        initialCardsSet.contains(predicate) || predicate.equals(Card.LOCOMOTIVE))
-                .collect(Collectors.toList()));
+        SortedBag.Builder<Card> usableCardsBuilder = new SortedBag.Builder<>();
+        for (Card card : initialCardsSet){
+            usableCardsBuilder.add(playableCards.countOf(card), card);
+        }
+        if (!initialCardsSet.contains(Card.LOCOMOTIVE)){
+            usableCardsBuilder.add(playableCards.countOf(Card.LOCOMOTIVE), Card.LOCOMOTIVE);
+        }
+        SortedBag<Card> allUsableCards = usableCardsBuilder.build();
 
         if(allUsableCards.size() >= additionalCardsCount){
             List<SortedBag<Card>> possibleAdditionalCards = new ArrayList<>(allUsableCards.subsetsOfSize(additionalCardsCount));
@@ -172,7 +220,11 @@ public final class PlayerState extends PublicPlayerState {
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards){
         List<Route> routesWithClaimedRoute =new ArrayList<>(routes) ;
         routesWithClaimedRoute.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards), routesWithClaimedRoute);
+        StationPartition newConnectivity = connectivity.withConnected(route.station1(), route.station2());
+        //the tickets only need to be checked again if the route connected stations that weren't already
+        int newTicketPoints = newConnectivity == connectivity ? ticketPoints : ticketPoints(tickets, newConnectivity);
+        return new PlayerState(tickets, cards.difference(CardBag.of(claimCards)), routesWithClaimedRoute,
+                routeBitsWith(route), newConnectivity, newTicketPoints, ticketsAndRoutesHash ^ Zobrist.ofRoute(route));
     }
 
     /**
@@ -180,26 +232,74 @@ public final class PlayerState extends PublicPlayerState {
      * @return the number of total points won / lost with the players tickets
      */
     public int ticketPoints(){
+        return ticketPoints;
+    }
+
+    /**
+     * Zobrist hash getter
+     * @return the Zobrist hash of the tickets, cards and routes of the player, equal for equal states however they
+     * were reached
+     */
+    public long zobristHash(){
+        return ticketsAndRoutesHash ^ Zobrist.ofHand(cards);
+    }
+
+    /**
+     * Computes the Zobrist keys of tickets added to a player's tickets
+     * @param tickets the tickets the player already has
+     * @param newTickets the added tickets
+     * @return the exclusive or of the keys of the added tickets
+     */
+    private static long ticketsHash(SortedBag<Ticket> tickets, SortedBag<Ticket> newTickets){
+        long hash = 0;
+        for (Map.Entry<Ticket, Integer> ticket : newTickets.toMap().entrySet()){
+            int count = tickets.countOf(ticket.getKey());
+            for (int i = 0; i < ticket.getValue(); i++){
+                hash ^= Zobrist.ofTicket(ticket.getKey(), count + i);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the Zobrist keys of routes
+     * @param routes the routes
+     * @return the exclusive or of the keys of the routes
+     */
+    private static long routesHash(List<Route> routes){
+        long hash = 0;
+        for (Route route : routes){
+            hash ^= Zobrist.ofRoute(route);
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the connectivity of the stations of some routes
+     * @param routes the routes
+     * @return a partition in which the stations connected by the routes are connected
+     */
+    private static StationPartition connectivityOf(List<Route> routes){
         int stationCount=0;
         for(Route route : routes){
-            int station1Id = route.station1().id();
-            int station2Id = route.station2().id();
-            if (station2Id > station1Id && station2Id > stationCount){
-                stationCount = station2Id;
-            }
-            else if (station1Id > stationCount) {
-                stationCount = station1Id;
-            }
+            stationCount = Math.max(stationCount, Math.max(route.station1().id(), route.station2().id()) + 1);
         }
 
-        StationPartition.Builder partition = new StationPartition.Builder(stationCount+1);
+        StationPartition.Builder partition = new StationPartition.Builder(stationCount);
 
         for (Route route : routes) {
-            Station departure = route.station1();
-            Station arrival = route.station2();
-            partition.connect(departure,arrival);
+            partition.connect(route.station1(),route.station2());
         }
-        StationConnectivity connectivity = partition.build();
+        return partition.build();
+    }
+
+    /**
+     * Computes the points of some tickets
+     * @param tickets the tickets
+     * @param connectivity connectivity of the player's stations
+     * @return the number of total points won / lost with the tickets
+     */
+    private static int ticketPoints(SortedBag<Ticket> tickets, StationConnectivity connectivity){
         int totalPoints=0;
         for (Ticket ticket : tickets) {
             totalPoints+=ticket.points(connectivity);
@@ -96,6 +96,36 @@ public class PublicGameState {
         return totalRoutes;
     }
 
+    /**
+     * Returns the owner of a route, in constant time for the routes of the map
+     * @param route the route
+     * @return the player who claimed the route, or null if it isn't claimed
+     */
+    public PlayerId routeOwner(Route route){
+        if (playerState.get(currentPlayerId).owns(route)){ return currentPlayerId; }
+        if (playerState.get(currentPlayerId.next()).owns(route)){ return currentPlayerId.next(); }
+        return null;
+    }
+
+    /**
+     * Checks whether a route can't be claimed anymore because it or its double route is claimed, in constant time
+     * for the routes of the map
+     * @param route the route
+     * @return true iff the route or its double route is claimed
+     */
+    public boolean isRouteOrDoubleClaimed(Route route){
+        if (routeOwner(route) != null){ return true; }
+        if (route.index() >= 0){
+            Route doubleRoute = ChMap.doubleRoute(route);
+            return doubleRoute != null && routeOwner(doubleRoute) != null;
+        }
+        //the double route of a route that isn't a route of the map is searched among the claimed routes
+        for (Route claimedRoute : claimedRoutes()){
+            if (claimedRoute.stations().equals(route.stations())){ return true; }
+        }
+        return false;
+    }
+
     /**
      * Returns id of last player
      * @return null if last player id is unknown, else returns last player id
@@ -103,4 +133,4 @@ public class PublicGameState {
     public PlayerId lastPlayer(){
         return lastPlayer;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -21,6 +22,11 @@ public class PublicPlayerState {
     private final int carCount;
     private final int claimPoints;
 
+    //bits of the indices in the map of the routes, so that the owner of a route is known in constant time. Routes that
+    //aren't routes of the map have no index, and are only found in the list
+    private static final int ROUTE_WORDS = (ChMap.routes().size() + Long.SIZE - 1) / Long.SIZE;
+    private final long[] routeBits;
+
     /**
      *PublicPlayerState constructor
      * @param ticketCount number of tickets
@@ -30,10 +36,23 @@ public class PublicPlayerState {
      * also computes within the constructor the car count the number of claim points
      */
     public PublicPlayerState(int ticketCount, int cardCount, List<Route> routes){
+        this(ticketCount, cardCount, routes, routeBitsOf(routes));
+    }
+
+    /**
+     * PublicPlayerState constructor, with the bits of the routes already computed
+     * @param ticketCount number of tickets
+     * @param cardCount number of cards
+     * @param routes list of routes
+     * @param routeBits bits of the indices of the routes of the map among the routes, not copied
+     * @throws IllegalArgumentException if cardCount or ticketCount is negative
+     */
+    PublicPlayerState(int ticketCount, int cardCount, List<Route> routes, long[] routeBits){
         Preconditions.checkArgument(cardCount >= 0 && ticketCount >= 0);
         this.cardCount = cardCount;
         this.ticketCount = ticketCount;
         this.routes = routes;
+        this.routeBits = routeBits;
         int routes_size=0;
         int temp =0;
         for (Route route: routes){
@@ -73,4 +92,55 @@ public class PublicPlayerState {
      * @return claim points
      */
     public int claimPoints(){ return claimPoints; }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether the player owns a route, in constant time for the routes of the map
+     * @param route the route
+     * @return true iff the route is one of the routes of the player
+     */
+    public boolean owns(Route route){
+        int index = route.index();
+        return index >= 0 ? (routeBits[index / Long.SIZE] & 1L << index) != 0 : routes.contains(route);
+    }
+
+    /**
+     * Route bits getter
+     * @return the set of the indices in the map of the routes of the player, which doesn't contain the routes that
+     * aren't routes of the map
+     */
+    public BitSet routeBits(){ return BitSet.valueOf(routeBits); }
+
+    /**
+     * Returns the bits of the routes, shared with the states of the player that have the same routes
+     * @return the bits of the indices of the routes of the map among the routes, which must not be modified
+     */
+    long[] packedRouteBits(){ return routeBits; }
+
+    /**
+     * Returns the bits of the routes with one more route, used when the player claims it
+     * @param route the claimed route
+     * @return the bits of the routes of the player and of the claimed route
+     */
+    long[] routeBitsWith(Route route){
+        long[] bits = routeBits.clone();
+        if (route.index() >= 0){
+            bits[route.index() / Long.SIZE] |= 1L << route.index();
+        }
+        return bits;
+    }
+
+    /**
+     * Computes the bits of a list of routes
+     * @param routes the routes
+     * @return the bits of the indices of the routes of the map among the routes
+     */
+    static long[] routeBitsOf(List<Route> routes){
+        long[] bits = new long[ROUTE_WORDS];
+        for (Route route : routes){
+            if (route.index() >= 0){
+                bits[route.index() / Long.SIZE] |= 1L << route.index();
+            }
+        }
+        return bits;
+    }
+}
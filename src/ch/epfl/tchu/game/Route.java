@@ -22,6 +22,14 @@ public final class Route {
     private final Level level;
     private final Color color;
 
+    //cards that can be used to claim the route, computed once as they are needed for every route at each update of
+    //the game, and the same cards as bags of card counts
+    private final List<SortedBag<Card>> possibleClaimCards;
+    private final List<CardBag> possibleClaimCardBags;
+
+    //index of the route in the routes of the map, or -1 if it isn't one of them
+    private final int index;
+
     //different types of level for enum Level
     public enum Level{
         OVERGROUND, UNDERGROUND
@@ -50,6 +58,49 @@ public final class Route {
         this.level=level;
         this.station1=station1;
         this.station2=station2;
+        this.possibleClaimCards = List.copyOf(computePossibleClaimCards());
+        List<CardBag> possibleClaimCardBags = new ArrayList<>();
+        for (SortedBag<Card> claimCards : possibleClaimCards){
+            possibleClaimCardBags.add(CardBag.of(claimCards));
+        }
+        this.possibleClaimCardBags = List.copyOf(possibleClaimCardBags);
+        this.index = -1;
+    }
+
+    /**
+     * Copies a route, giving it an index
+     * @param route the route
+     * @param index the index of the copy
+     */
+    private Route(Route route, int index){
+        this.id = route.id;
+        this.color = route.color;
+        this.length = route.length;
+        this.level = route.level;
+        this.station1 = route.station1;
+        this.station2 = route.station2;
+        this.possibleClaimCards = route.possibleClaimCards;
+        this.possibleClaimCardBags = route.possibleClaimCardBags;
+        this.index = index;
+    }
+
+    /**
+     * Returns a copy of the route with the given index, used by ChMap to number its routes
+     * @param index index of the route in the routes of the map
+     * @return the copy of the route
+     * @throws IllegalArgumentException if the index is negative
+     */
+    Route withIndex(int index){
+        Preconditions.checkArgument(index >= 0);
+        return new Route(this, index);
+    }
+
+    /**
+     * Index getter
+     * @return the index of the route in ChMap.routes(), or -1 if the route isn't one of the routes of the map
+     */
+    public int index(){
+        return index;
     }
 
     /**
@@ -76,9 +127,49 @@ public final class Route {
      * Method that calculates all the possible combinations of cards that a player can use to take a certain route
      * @return a List<SortedBag<Card>>, i.e a List composed of different SortedBag that each contains a possible
      * combination of cards that can be used
-     * @throws IllegalArgumentException if the level is neither overground or underground
      */
     public List<SortedBag<Card>> possibleClaimCards(){
+        return possibleClaimCards;
+    }
+
+    /**
+     * Returns the combinations of cards that can be used to take the route as bags of card counts
+     * @return the bags of card counts, in the same order as possibleClaimCards()
+     */
+    List<CardBag> possibleClaimCardBags(){
+        return possibleClaimCardBags;
+    }
+
+    /**
+     * Checks, using only the count of each type of card, whether some cards contain one of the combinations that can
+     * be used to take the route
+     * @param cards the cards
+     * @return true iff one of the possible claim cards of the route is contained in the cards
+     */
+    public boolean canBeClaimedWith(CardBag cards){
+        //locomotives can only replace the cards of a color in tunnels, where the route can also be taken with
+        //locomotives only
+        int locomotives = level == Level.UNDERGROUND ? cards.countOf(Card.LOCOMOTIVE) : 0;
+        if (color != null){
+            return cards.countOf(Card.of(color)) + locomotives >= length;
+        }
+        if (locomotives >= length){
+            return true;
+        }
+        for (Card card : Card.CARS){
+            if (cards.countOf(card) + locomotives >= length){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes all the possible combinations of cards that a player can use to take the route
+     * @return the combinations, in the order of possibleClaimCards()
+     * @throws IllegalArgumentException if the level is neither overground or underground
+     */
+    private List<SortedBag<Card>> computePossibleClaimCards(){
         List<SortedBag<Card>> possibleClaimCards = new ArrayList<>();
         SortedBag.Builder<Card> arbitrary_SB = new SortedBag.Builder<>();
         Preconditions.checkArgument(level.equals(Level.OVERGROUND)||level.equals(Level.UNDERGROUND));
@@ -0,0 +1,271 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only file of snapshots of games in progress, from which the games interrupted by a crash of the server can
+ * be resumed
+ *
+ * The file is mapped in memory, so that a record written in it reaches the file even if the server crashes right
+ * after. Each record is made of its length, the identifier of its game, its kind and the bytes of a snapshot for a
+ * snapshot; its length is written last, so that a record interrupted by a crash is ignored, and the records end at the
+ * first zero length. The snapshots are encoded and written by a single background thread, so that the games never
+ * wait for the file.
+ *
+ * Once every game of the file has ended, none of its records is needed anymore: the file is then emptied by writing a
+ * zero length at its beginning, which a crash can't interrupt, and the following records are written from there, so
+ * that the file doesn't grow with the games played. The games are given identifiers greater than those of the games
+ * whose records are still in the file.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class SnapshotFile implements Closeable {
+
+    //size by which the mapped region of the file grows when it is full
+    private static final int REGION_SIZE = 1 << 20;
+
+    //size of the header of a record, following its length: the identifier of the game and the kind of the record
+    private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES;
+
+    //kinds of the records
+    private static final byte SNAPSHOT = 0;
+    private static final byte GAME_ENDED = 1;
+
+    private final FileChannel channel;
+    private final ExecutorService writer;
+    //mapped region of the file, position at which the next record is written, games that didn't end and identifier of
+    //the next new game, guarded by this
+    private MappedByteBuffer buffer;
+    private int end;
+    private final Set<Long> unfinishedGameIds = new HashSet<>();
+    private long nextGameId;
+
+    private SnapshotFile(FileChannel channel, MappedByteBuffer buffer){
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a file of snapshots, creating it if it doesn't exist, the new records being written after the existing
+     * ones
+     * @param path the path of the file
+     * @return the file
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static SnapshotFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), REGION_SIZE);
+        Preconditions.checkArgument(size <= Integer.MAX_VALUE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        SnapshotFile file = new SnapshotFile(channel, buffer);
+        while (file.end + Integer.BYTES <= buffer.capacity()){
+            int length = buffer.getInt(file.end);
+            if (length < HEADER_SIZE || file.end + Integer.BYTES + length > buffer.capacity()){ break; }
+            file.register(buffer.getLong(file.end + Integer.BYTES), buffer.get(file.end + Integer.BYTES + Long.BYTES));
+            file.end += Integer.BYTES + length;
+        }
+        file.emptyIfAllGamesEnded();
+        return file;
+    }
+
+    /**
+     * Gives an identifier to a new game
+     * @return an identifier greater than the identifiers of all the games whose records are in the file, and than
+     * those given before
+     */
+    public synchronized long newGameId(){ return nextGameId++; }
+
+    /**
+     * Returns the last snapshot of each game that didn't end, reading the records written so far
+     * @return map from the identifier of each unfinished game to its last snapshot
+     * @throws IllegalArgumentException if a snapshot isn't of this version or of this map
+     */
+    public synchronized Map<Long, GameSnapshot> unfinishedGames(){
+        Map<Long, byte[]> lastSnapshots = new HashMap<>();
+        for (int position = 0; position < end; ){
+            int length = buffer.getInt(position);
+            long gameId = buffer.getLong(position + Integer.BYTES);
+            if (buffer.get(position + Integer.BYTES + Long.BYTES) == SNAPSHOT){
+                byte[] bytes = new byte[length - HEADER_SIZE];
+                buffer.duplicate().position(position + Integer.BYTES + HEADER_SIZE).get(bytes);
+                lastSnapshots.put(gameId, bytes);
+            }
+            else {
+                lastSnapshots.remove(gameId);
+            }
+            position += Integer.BYTES + length;
+        }
+
+        Map<Long, GameSnapshot> unfinishedGames = new HashMap<>();
+        for (Map.Entry<Long, byte[]> snapshot : lastSnapshots.entrySet()){
+            unfinishedGames.put(snapshot.getKey(), GameSnapshot.fromBytes(snapshot.getValue()));
+        }
+        return unfinishedGames;
+    }
+
+    /**
+     * Creates the writer of the snapshots of a game
+     * @param gameId identifier of the game, with which it is resumed
+     * @param interval number of turns between two snapshots
+     * @return the writer
+     * @throws IllegalArgumentException if the interval isn't positive
+     */
+    public Writer writer(long gameId, int interval){
+        Preconditions.checkArgument(interval > 0);
+        return new Writer(this, gameId, interval);
+    }
+
+    /**
+     * Writes the records submitted so far, then closes the file
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this){
+            buffer.force();
+        }
+        channel.close();
+    }
+
+    /**
+     * Submits a record to the background thread
+     * @param gameId identifier of the game
+     * @param kind kind of the record
+     * @param snapshot snapshot of the game, encoded by the background thread, or null for a record without bytes
+     */
+    private void submit(long gameId, byte kind, GameSnapshot snapshot){
+        writer.execute(() -> append(gameId, kind, snapshot == null ? new byte[0] : snapshot.toBytes()));
+    }
+
+    /**
+     * Appends a record to the file, growing the mapped region if needed
+     * @param gameId identifier of the game
+     * @param kind kind of the record
+     * @param bytes bytes of the record
+     * @throws UncheckedIOException if the mapped region can't grow
+     */
+    private synchronized void append(long gameId, byte kind, byte[] bytes){
+        int length = HEADER_SIZE + bytes.length;
+        //the record is followed by the zero length marking the end of the records
+        int required = end + 2 * Integer.BYTES + length;
+        if (required > buffer.capacity()){
+            try {
+                long size = (long) buffer.capacity() + Math.max(REGION_SIZE, required - buffer.capacity());
+                Preconditions.checkArgument(size <= Integer.MAX_VALUE);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.putLong(end + Integer.BYTES, gameId);
+        buffer.put(end + Integer.BYTES + Long.BYTES, kind);
+        buffer.duplicate().position(end + Integer.BYTES + HEADER_SIZE).put(bytes);
+        buffer.putInt(end + Integer.BYTES + length, 0);
+        buffer.putInt(end, length);
+        end += Integer.BYTES + length;
+        register(gameId, kind);
+        emptyIfAllGamesEnded();
+    }
+
+    /**
+     * Takes into account a record of the file, read or appended
+     * @param gameId identifier of the game of the record
+     * @param kind kind of the record
+     */
+    private synchronized void register(long gameId, byte kind){
+        if (kind == SNAPSHOT){
+            unfinishedGameIds.add(gameId);
+        }
+        else {
+            unfinishedGameIds.remove(gameId);
+        }
+        nextGameId = Math.max(nextGameId, gameId + 1);
+    }
+
+    /**
+     * Empties the file if all its games have ended, the zero length written at its beginning marking the end of the
+     * records
+     */
+    private synchronized void emptyIfAllGamesEnded(){
+        if (end > 0 && unfinishedGameIds.isEmpty()){
+            buffer.putInt(0, 0);
+            end = 0;
+        }
+    }
+
+    /**
+     * Writer of the snapshots of a game, to which the game gives its state at the beginning of each turn
+     */
+    public static final class Writer {
+        //file in which the snapshots are written, null if they are discarded
+        private final SnapshotFile file;
+        private final long gameId;
+        private final int interval;
+
+        private Writer(SnapshotFile file, long gameId, int interval){
+            this.file = file;
+            this.gameId = gameId;
+            this.interval = interval;
+        }
+
+        /**
+         * Creates a writer that discards the snapshots, used by the games that aren't saved
+         * @return the writer
+         */
+        static Writer discarding(){
+            return new Writer(null, 0, 1);
+        }
+
+        /**
+         * Saves the state of the game at the beginning of a turn, if the turn is one of those saved
+         * @param state the state of the game
+         * @param turnCount the number of turns played so far
+         * @param lastTurnHasBegun whether the last turns of the game have begun
+         * @param lastTurns the number of turns left once the last turns have begun
+         */
+        void turnBegins(GameState state, int turnCount, boolean lastTurnHasBegun, int lastTurns){
+            if (file == null || turnCount % interval != 0){ return; }
+            file.submit(gameId, SNAPSHOT, new GameSnapshot(state, turnCount, lastTurnHasBegun, lastTurns));
+        }
+
+        /**
+         * Records the end of the game, which then isn't resumed
+         */
+        void gameEnded(){
+            if (file == null){ return; }
+            file.submit(gameId, GAME_ENDED, null);
+        }
+    }
+}
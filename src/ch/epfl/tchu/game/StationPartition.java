@@ -2,6 +2,8 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.Arrays;
+
 /**
  * Station partition
  *
@@ -20,7 +22,7 @@ public final class StationPartition implements StationConnectivity{
      * @param station_partition partition of stations
      */
     private StationPartition(int[] station_partition){
-        this.partition = station_partition.clone();
+        this.partition = station_partition;
     }
 
     /**
@@ -40,6 +42,32 @@ public final class StationPartition implements StationConnectivity{
         }
     }
 
+    /**
+     * Returns a partition in which two more stations are connected, this one being left unchanged
+     * @param s1 a station
+     * @param s2 another station
+     * @return this partition if both stations are already connected, else a partition where all the stations
+     * connected to one of them are connected to the other
+     */
+    public StationPartition withConnected(Station s1, Station s2){
+        if (connected(s1, s2)){
+            return this;
+        }
+        //the partition is extended, if needed, with stations that are only connected to themselves
+        int[] newPartition = Arrays.copyOf(partition, Math.max(partition.length, Math.max(s1.id(), s2.id()) + 1));
+        for (int i = partition.length; i < newPartition.length; i++){
+            newPartition[i] = i;
+        }
+        int representative1 = newPartition[s1.id()];
+        int representative2 = newPartition[s2.id()];
+        for (int i = 0; i < newPartition.length; i++){
+            if (newPartition[i] == representative2){
+                newPartition[i] = representative1;
+            }
+        }
+        return new StationPartition(newPartition);
+    }
+
     //Subclass of StationPartition: Builder
     public final static class Builder {
 
@@ -85,7 +113,7 @@ public final class StationPartition implements StationConnectivity{
                     deep_partition[i]=deep_partition[j];
                 }
             }
-            return new StationPartition(deep_partition);
+            return new StationPartition(deep_partition.clone());
         }
 
         /**
@@ -19,6 +19,9 @@ public final class Ticket implements Comparable<Ticket> {
     private final List<Trip> trips;
     private final String text;
 
+    //index of the ticket in the tickets of the map, or -1 if it isn't one of them
+    private final int index;
+
     /**
      * Primary ticket constructor
      * @param trips list of trips given as parameter for the ticket
@@ -35,6 +38,18 @@ public final class Ticket implements Comparable<Ticket> {
         }
         this.trips = List.copyOf(trips);
         text=computeText();
+        index = -1;
+    }
+
+    /**
+     * Copies a ticket, giving it an index
+     * @param ticket the ticket
+     * @param index the index of the copy
+     */
+    private Ticket(Ticket ticket, int index){
+        this.trips = ticket.trips;
+        this.text = ticket.text;
+        this.index = index;
     }
 
     /**
@@ -48,6 +63,26 @@ public final class Ticket implements Comparable<Ticket> {
     }
 
 
+    /**
+     * Returns a copy of the ticket with the given index, used by ChMap to number its tickets
+     * @param index index of the first occurrence of the ticket in the tickets of the map
+     * @return the copy of the ticket
+     * @throws IllegalArgumentException if the index is negative
+     */
+    Ticket withIndex(int index){
+        Preconditions.checkArgument(index >= 0);
+        return new Ticket(this, index);
+    }
+
+    /**
+     * Index getter
+     * @return the index of the first occurrence of the ticket in ChMap.tickets(), or -1 if the ticket isn't one of
+     * the tickets of the map
+     */
+    public int index(){
+        return index;
+    }
+
     /**
      * Compares 2 tickets
      * @param that ticket that is being compared to
@@ -0,0 +1,251 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Player answering each request within a deadline, through an asynchronous player, and making a default move when
+ * the asynchronous player doesn't answer in time
+ *
+ * The infos and states are passed to the asynchronous player without waiting for them to be received, and the game
+ * only waits for them to be flushed and for the answers to its requests, each for the deadline of its kind of
+ * request. A player that misses a deadline can't answer the following requests in order anymore, so it is
+ * abandoned: the timeout action, which usually closes its connection so that the call waiting for it ends, is run
+ * once, and the default moves are made for it until the end of the game. The default moves are always legal: all the
+ * tickets offered are kept, the first route the player can claim is claimed, and otherwise cards are drawn from the
+ * deck while there are enough of them, or else tickets. Claiming whenever possible keeps the player from hoarding the
+ * cards, so that the game goes on.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class TimedPlayer implements Player {
+
+    /**
+     * Kinds of requests made to a player, each with a deadline of its own, the flush of the infos and states being
+     * considered as a request
+     */
+    public enum Request {
+        INITIAL_TICKETS, NEXT_TURN, TICKETS, DRAW_SLOT, ROUTE, CLAIM_CARDS, ADDITIONAL_CARDS, FLUSH;
+
+        /**
+         * return all values of Request
+         */
+        public final static List<Request> ALL = List.of(Request.values());
+    }
+
+    private final AsyncPlayer player;
+    private final Map<Request, Duration> deadlines;
+    private final Runnable onTimeout;
+
+    //last states and initial tickets received, from which the default moves are made, and route claimed last
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTicketChoice;
+    private Route claimedRoute;
+    //true once the player missed a deadline
+    private boolean timedOut;
+
+    /**
+     * TimedPlayer constructor
+     * @param player the asynchronous player
+     * @param deadlines deadline of each kind of request
+     * @param onTimeout action run when the player misses a deadline for the first time
+     * @throws IllegalArgumentException if a kind of request has no deadline, or if a deadline is negative
+     */
+    public TimedPlayer(AsyncPlayer player, Map<Request, Duration> deadlines, Runnable onTimeout){
+        Preconditions.checkArgument(deadlines.keySet().containsAll(Request.ALL));
+        for (Duration deadline : deadlines.values()){
+            Preconditions.checkArgument(!deadline.isNegative());
+        }
+        this.player = player;
+        this.deadlines = new EnumMap<>(deadlines);
+        this.onTimeout = onTimeout;
+    }
+
+    /**
+     * TimedPlayer constructor, with the same deadline for every kind of request
+     * @param player the asynchronous player
+     * @param deadline deadline of the requests
+     * @param onTimeout action run when the player misses a deadline for the first time
+     * @throws IllegalArgumentException if the deadline is negative
+     */
+    public TimedPlayer(AsyncPlayer player, Duration deadline, Runnable onTimeout){
+        this(player, deadlines(deadline), onTimeout);
+    }
+
+    /**
+     * Timed out getter
+     * @return true iff the player missed a deadline, and is thus played by the default moves
+     */
+    public boolean timedOut(){ return timedOut; }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+        if (!timedOut){ player.initPlayers(ownId, playerNames); }
+    }
+
+    @Override
+    public void receiveInfo(String info){
+        if (!timedOut){ player.receiveInfo(info); }
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState){
+        gameState = newState;
+        this.ownState = ownState;
+        if (!timedOut){ player.updateState(newState, ownState); }
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets){
+        initialTicketChoice = tickets;
+        if (!timedOut){ player.setInitialTicketChoice(tickets); }
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets(){
+        return answer(Request.INITIAL_TICKETS, timedOut ? null : player.chooseInitialTickets(),
+                () -> initialTicketChoice);
+    }
+
+    @Override
+    public TurnKind nextTurn(){
+        return answer(Request.NEXT_TURN, timedOut ? null : player.nextTurn(), this::defaultTurn);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){
+        return answer(Request.TICKETS, timedOut ? null : player.chooseTickets(options), () -> options);
+    }
+
+    @Override
+    public int drawSlot(){
+        return answer(Request.DRAW_SLOT, timedOut ? null : player.drawSlot(), () -> Constants.DECK_SLOT);
+    }
+
+    @Override
+    public Route claimedRoute(){
+        claimedRoute = answer(Request.ROUTE, timedOut ? null : player.claimedRoute(), this::defaultRoute);
+        return claimedRoute;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards(){
+        return answer(Request.CLAIM_CARDS, timedOut ? null : player.initialClaimCards(),
+                this::defaultClaimCards);
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+        //giving up the claim of the tunnel is always possible
+        return answer(Request.ADDITIONAL_CARDS, timedOut ? null : player.chooseAdditionalCards(options),
+                SortedBag::of);
+    }
+
+    @Override
+    public void flush(){
+        answer(Request.FLUSH, timedOut ? null : player.flush(), () -> null);
+    }
+
+    /**
+     * Waits for the answer to a request until its deadline
+     * @param request kind of the request
+     * @param answer future of the answer, null if the player already timed out
+     * @param defaultAnswer supplier of the default move, made if the player doesn't answer in time
+     * @param <T> type of the answer
+     * @return the answer of the player, or the default move
+     * @throws RuntimeException the exception with which the player failed, if it did
+     */
+    private <T> T answer(Request request, CompletableFuture<T> answer, Supplier<T> defaultAnswer){
+        if (answer == null){ return defaultAnswer.get(); }
+        try {
+            return answer.get(deadlines.get(request).toNanos(), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e) {
+            timedOut = true;
+            onTimeout.run();
+            return defaultAnswer.get();
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException){ throw (RuntimeException) cause; }
+            if (cause instanceof Error){ throw (Error) cause; }
+            throw new CompletionException(cause);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Default kind of turn: claiming a route if the player can, else drawing cards while there are enough of them,
+     * else drawing tickets while there are some, else claiming a route the game refuses to give, which passes the turn
+     * @return the kind of turn
+     */
+    private TurnKind defaultTurn(){
+        if (claimableRoute() != null){ return TurnKind.CLAIM_ROUTE; }
+        if (gameState.canDrawCards()){ return TurnKind.DRAW_CARDS; }
+        return gameState.canDrawTickets() ? TurnKind.DRAW_TICKETS : TurnKind.CLAIM_ROUTE;
+    }
+
+    /**
+     * Default route to claim: the first route the player can claim, or else a route the game refuses to give it
+     * @return the route
+     */
+    private Route defaultRoute(){
+        Route route = claimableRoute();
+        return route == null ? ChMap.routes().get(0) : route;
+    }
+
+    /**
+     * Finds the first route the player can claim
+     * @return the route, or null if there is none
+     */
+    private Route claimableRoute(){
+        for (Route route : ChMap.routes()){
+            if (!gameState.isRouteOrDoubleClaimed(route) && ownState.canClaimRoute(route)){
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Default cards with which the route claimed is claimed: the first cards with which the player can claim it, or
+     * none if it can't
+     * @return the cards
+     */
+    private SortedBag<Card> defaultClaimCards(){
+        if (gameState.isRouteOrDoubleClaimed(claimedRoute) || !ownState.canClaimRoute(claimedRoute)){
+            return SortedBag.of();
+        }
+        return ownState.possibleClaimCards(claimedRoute).get(0);
+    }
+
+    /**
+     * Maps every kind of request to the same deadline
+     * @param deadline the deadline
+     * @return the deadlines
+     */
+    private static Map<Request, Duration> deadlines(Duration deadline){
+        Map<Request, Duration> deadlines = new EnumMap<>(Request.class);
+        for (Request request : Request.ALL){
+            deadlines.put(request, deadline);
+        }
+        return deadlines;
+    }
+}
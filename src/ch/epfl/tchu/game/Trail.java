@@ -3,6 +3,8 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,81 +39,12 @@ public final class Trail {
      * @param routes takes as an argument the player's routes
      * @return the longest trail the player has. If a player has several longest trails of the same size,
      * returns any of them
-     * @throws NullPointerException if station1 or station2 is null
      */
     public static Trail longest(List<Route> routes){
         if (routes.size() == 0){
             return new Trail(null, null, new ArrayList<>());
         }
-        //the var longest trail will hold the value of the longest trail
-        Trail longest_trail = new Trail (routes.get(0).station1(), routes.get(0).station2(), new ArrayList<>(List.of(routes.get(0))));
-
-        //all trails will contain all the trails the player has
-        List<Trail> all_trails = new ArrayList<>();
-
-        for (Route route: routes){
-            //here we add all trails that are composed of one route
-            all_trails.add(new Trail(route.station1(), route.station2(), new ArrayList<>(List.of(route))));
-        }
-
-        //in this loop we  find the longest trail (i.e the longest route) out of all of the routes
-        //the player has
-        for (Trail trail : all_trails){
-            if (trail.length()>longest_trail.length()){
-                longest_trail= new Trail(trail.station1(), trail.station2(), trail.routes);
-            }
-        }
-
-        //the goal of this loop is to iterate through all the possible trails the player has. To do so, for every
-        //trail composed of one route, we see if we can extend it if the player has a route connected to the trail.
-        //everytime we get a new trail, we compare it to the previous "longest trail" and if it is longer, we assign
-        //it to the var longest_trail.
-        //all_trails is null <=> it is no longer possible to connect a route to an already existing trail
-        while (all_trails.size()!=0){
-            List<Trail> all_trails_bis = new ArrayList<>();
-
-            //for each trail, and for each route, we check if it is possible to connect the route to the trail
-            //if it is, we create a new trail with the route in question and add it to the list all_trails_bis
-            for(Trail trail : all_trails){
-                for (Route route: routes){
-                    if (!trail.routes.contains(route)){
-                        List<Route> arbitrary_list = new ArrayList<>(trail.routes);
-                        arbitrary_list.add(route);
-                        Objects.requireNonNull(trail.station1());
-                        Objects.requireNonNull(trail.station2());
-                        if(trail.station2().equals(route.station1())){
-                            Trail arbitrary_trail = new Trail(trail.station1, route.station2(), arbitrary_list);
-                            all_trails_bis.add(arbitrary_trail);
-                        }
-                        if(trail.station2().equals(route.station2())){
-                            Trail arbitrary_trail = new Trail(trail.station1, route.station1(), arbitrary_list);
-                            all_trails_bis.add(arbitrary_trail);
-                        }
-                        if(trail.station1().equals(route.station1())){
-                            Trail arbitrary_trail = new Trail(route.station2(), trail.station2(), arbitrary_list);
-                            all_trails_bis.add(arbitrary_trail);
-                        }
-                        if(trail.station1().equals(route.station2())){
-                            Trail arbitrary_trail = new Trail(route.station1(), trail.station2(), arbitrary_list);
-                            all_trails_bis.add(arbitrary_trail);
-                        }
-                    }
-                }
-            }
-
-            //here, all_trails becomes all_trails_bis. If all_trails isn't null (i.e it was possible to add a route to an
-            //already existing trail), we check again if there is a trail in this list longer than longest_trail. If there is,
-            //longest_trail becomes that trail
-            all_trails=all_trails_bis;
-            if (all_trails.size() != 0){
-                for (Trail trail : all_trails){
-                    if (trail.length()>longest_trail.length()){
-                        longest_trail= new Trail(trail.station1(), trail.station2(), trail.routes);
-                    }
-                }
-            }
-        }
-        return longest_trail;
+        return new LongestTrailSearch(routes).longest();
     }
 
     /**
@@ -169,4 +102,181 @@ public final class Trail {
             return trail_text.toString();
         }
     }
+
+    //Depth-first search used by longest(). Stations are indexed by their id, and each station knows the indices of
+    //the routes that touch it. Routes that are already part of the current trail are marked in a bitset, so that
+    //only the current trail and the best trail found so far are ever kept in memory.
+    private static final class LongestTrailSearch {
+        private final List<Route> routes;
+        private final int[] lengths;
+        private final int[] station1Ids;
+        private final int[] station2Ids;
+        private final int[][] adjacentRoutes;
+        private final BitSet usedRoutes;
+
+        //connected components of the routes: the component of each station, and the total length and presence of an
+        //odd degree station of each component
+        private final int[] components;
+        private final int[] componentLengths;
+        private final boolean[] componentHasOddStation;
+
+        //current trail: the route indices in the order they are travelled, and the length of its component
+        private final int[] path;
+        private int componentLength;
+
+        //best trail found so far
+        private final int[] bestPath;
+        private int bestDepth;
+        private int bestLength;
+        private int bestStart;
+        private int bestEnd;
+
+        /**
+         * Builds the adjacency structure and the connected components of the given routes
+         * @param routes the player's routes, must not be empty
+         */
+        private LongestTrailSearch(List<Route> routes){
+            this.routes = routes;
+            int routeCount = routes.size();
+            lengths = new int[routeCount];
+            station1Ids = new int[routeCount];
+            station2Ids = new int[routeCount];
+            usedRoutes = new BitSet(routeCount);
+            path = new int[routeCount];
+            bestPath = new int[routeCount];
+
+            int stationCount = 0;
+            for (int i = 0; i < routeCount; i++){
+                Route route = routes.get(i);
+                lengths[i] = route.length();
+                station1Ids[i] = route.station1().id();
+                station2Ids[i] = route.station2().id();
+                stationCount = Math.max(stationCount, Math.max(station1Ids[i], station2Ids[i]) + 1);
+            }
+
+            int[] degrees = new int[stationCount];
+            for (int i = 0; i < routeCount; i++){
+                degrees[station1Ids[i]]++;
+                degrees[station2Ids[i]]++;
+            }
+            adjacentRoutes = new int[stationCount][];
+            for (int s = 0; s < stationCount; s++){
+                adjacentRoutes[s] = new int[degrees[s]];
+            }
+            int[] filled = new int[stationCount];
+            for (int i = 0; i < routeCount; i++){
+                adjacentRoutes[station1Ids[i]][filled[station1Ids[i]]++] = i;
+                adjacentRoutes[station2Ids[i]][filled[station2Ids[i]]++] = i;
+            }
+
+            //components are labelled with a depth-first traversal using an explicit stack
+            components = new int[stationCount];
+            Arrays.fill(components, -1);
+            componentLengths = new int[stationCount];
+            componentHasOddStation = new boolean[stationCount];
+            int[] stack = new int[stationCount];
+            int componentCount = 0;
+            for (int s = 0; s < stationCount; s++){
+                if (degrees[s] == 0 || components[s] != -1){
+                    continue;
+                }
+                int c = componentCount++;
+                int top = 0;
+                stack[top++] = s;
+                components[s] = c;
+                while (top > 0){
+                    int station = stack[--top];
+                    if (degrees[station] % 2 == 1){
+                        componentHasOddStation[c] = true;
+                    }
+                    for (int r : adjacentRoutes[station]){
+                        int next = opposite(r, station);
+                        //each route is counted once, from its first station
+                        if (station == station1Ids[r]){
+                            componentLengths[c] += lengths[r];
+                        }
+                        if (components[next] == -1){
+                            components[next] = c;
+                            stack[top++] = next;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Runs the search from every station a longest trail can start from. In a component having stations with an
+         * odd number of routes, a trail starting at a station with an even number of routes can always be extended
+         * by an unused route at that station, so only the odd ones are tried. Components that are too short to beat
+         * the best trail found so far are skipped.
+         * @return the longest trail
+         */
+        private Trail longest(){
+            for (int s = 0; s < adjacentRoutes.length; s++){
+                int degree = adjacentRoutes[s].length;
+                if (degree == 0){
+                    continue;
+                }
+                int c = components[s];
+                if (componentLengths[c] > bestLength && (degree % 2 == 1 || !componentHasOddStation[c])){
+                    componentLength = componentLengths[c];
+                    extend(s, s, 0, 0);
+                }
+            }
+            List<Route> trailRoutes = new ArrayList<>(bestDepth);
+            for (int i = 0; i < bestDepth; i++){
+                trailRoutes.add(routes.get(bestPath[i]));
+            }
+            return new Trail(stationOf(bestStart), stationOf(bestEnd), trailRoutes);
+        }
+
+        /**
+         * Extends the current trail with every unused route leaving its last station
+         * @param start id of the first station of the current trail
+         * @param station id of the last station of the current trail
+         * @param depth number of routes in the current trail
+         * @param length length of the current trail
+         */
+        private void extend(int start, int station, int depth, int length){
+            if (length > bestLength){
+                bestLength = length;
+                bestDepth = depth;
+                bestStart = start;
+                bestEnd = station;
+                System.arraycopy(path, 0, bestPath, 0, depth);
+            }
+            for (int r : adjacentRoutes[station]){
+                //no trail can be longer than all the routes of its component, so the search stops once one is found
+                if (bestLength >= componentLength){
+                    return;
+                }
+                if (!usedRoutes.get(r)){
+                    usedRoutes.set(r);
+                    path[depth] = r;
+                    extend(start, opposite(r, station), depth + 1, length + lengths[r]);
+                    usedRoutes.clear(r);
+                }
+            }
+        }
+
+        /**
+         * Returns the id of the station at the other end of a route
+         * @param route index of the route
+         * @param station id of one of the route's stations
+         * @return id of the route's other station
+         */
+        private int opposite(int route, int station){
+            return station1Ids[route] == station ? station2Ids[route] : station1Ids[route];
+        }
+
+        /**
+         * Finds the station object having the given id amongst the routes
+         * @param id id of the station
+         * @return the station having that id
+         */
+        private Station stationOf(int id){
+            Route route = routes.get(adjacentRoutes[id][0]);
+            return route.station1().id() == id ? route.station1() : route.station2();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package ch.epfl.tchu.game;
+
+/**
+ * Keys of the Zobrist hashes of the states of a game
+ *
+ * The hash of a state is the exclusive or of the keys of its components, so that a transition only has to remove
+ * the keys of the components it changes and add those of their new values. The keys are pseudo-random 64-bit values
+ * derived from the kind and the value of each component with a mixing function, which gives the same keys as a
+ * table of random numbers would, without bounding the values nor depending on the order in which they are created.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+final class Zobrist {
+
+    //kinds of the components of a state, so that equal values of different components have different keys
+    private static final long ROUTE = 1;
+    private static final long TICKET = 2;
+    private static final long HAND = 3;
+    private static final long DISCARDS = 4;
+    private static final long DECK_SIZE = 5;
+    private static final long FACE_UP_CARD = 6;
+    private static final long TICKETS_COUNT = 7;
+    private static final long CURRENT_PLAYER = 8;
+    private static final long LAST_PLAYER = 9;
+    private static final long PLAYER = 10;
+
+    private Zobrist(){}
+
+    /**
+     * Key of a route owned by a player
+     * @param route the route
+     * @return the key of the route
+     */
+    static long ofRoute(Route route){ return key(ROUTE, route.id().hashCode()); }
+
+    /**
+     * Key of a ticket of a player, a player possibly having the same ticket many times
+     * @param ticket the ticket
+     * @param occurrence the number of times the player has the ticket, not counting this one
+     * @return the key of that occurrence of the ticket
+     */
+    static long ofTicket(Ticket ticket, int occurrence){
+        return key(TICKET, ((long) ticket.text().hashCode() << 32) | occurrence);
+    }
+
+    /**
+     * Key of the cards of a player
+     * @param cards the cards
+     * @return the key of the cards
+     */
+    static long ofHand(CardBag cards){ return key(HAND, cards.packed()); }
+
+    /**
+     * Key of the discarded cards
+     * @param discards the discarded cards
+     * @return the key of the discarded cards
+     */
+    static long ofDiscards(CardBag discards){ return key(DISCARDS, discards.packed()); }
+
+    /**
+     * Key of the size of the deck
+     * @param deckSize the size of the deck
+     * @return the key of the size of the deck
+     */
+    static long ofDeckSize(int deckSize){ return key(DECK_SIZE, deckSize); }
+
+    /**
+     * Key of a face up card
+     * @param slot the slot of the card
+     * @param card the card
+     * @return the key of the card in that slot
+     */
+    static long ofFaceUpCard(int slot, Card card){ return key(FACE_UP_CARD, slot * Card.COUNT + card.ordinal()); }
+
+    /**
+     * Key of the number of tickets left in the deck
+     * @param ticketsCount the number of tickets
+     * @return the key of the number of tickets
+     */
+    static long ofTicketsCount(int ticketsCount){ return key(TICKETS_COUNT, ticketsCount); }
+
+    /**
+     * Key of the current player
+     * @param playerId the current player
+     * @return the key of the current player
+     */
+    static long ofCurrentPlayer(PlayerId playerId){ return key(CURRENT_PLAYER, playerId.ordinal()); }
+
+    /**
+     * Key of the player that plays the last turn
+     * @param playerId the last player, or null if the last turns haven't begun
+     * @return the key of the last player
+     */
+    static long ofLastPlayer(PlayerId playerId){
+        return key(LAST_PLAYER, playerId == null ? -1 : playerId.ordinal());
+    }
+
+    /**
+     * Key of the state of a player, given the hash of that state, so that the states of the two players can be
+     * told apart
+     * @param playerId the player
+     * @param playerStateHash the hash of the state of the player
+     * @return the key of the state of that player
+     */
+    static long ofPlayer(PlayerId playerId, long playerStateHash){
+        return key(PLAYER + playerId.ordinal(), playerStateHash);
+    }
+
+    /**
+     * Derives the key of a component from its kind and value, with the finalizer of the SplitMix64 generator
+     * @param kind the kind of the component
+     * @param value the value of the component
+     * @return the key
+     */
+    private static long key(long kind, long value){
+        long z = value + kind * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
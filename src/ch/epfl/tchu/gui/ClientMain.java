@@ -3,6 +3,7 @@ package ch.epfl.tchu.gui;
 
 import ch.epfl.tchu.game.Player;
 import ch.epfl.tchu.net.RemotePlayerClient;
+import ch.epfl.tchu.net.ThreadMode;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -33,6 +34,8 @@ public class ClientMain extends Application {
         String host = params.isEmpty() ? "localhost" : params.get(0);
         int port = params.isEmpty() ? 5108 : Integer.parseInt(params.get(1));
         RemotePlayerClient client = new RemotePlayerClient(player,host,port);
-        new Thread(client::run).start();
+        //the client waits for the server most of the time, which a virtual thread does without blocking a thread
+        //a platform thread isn't a daemon thread, as before, so that the application runs until the game ends
+        ThreadMode.best().factory("tchu-client", false).newThread(client::run).start();
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,7 +71,16 @@ public class ObservableGameState {
         canClaim =booleanPropertyMap();
     }
 
+    /**
+     * Sets the state of the game, only updating the properties whose value changed since the previous state, as the
+     * state is set several times per turn with most of it unchanged
+     * @param newGameState the public state of the game
+     * @param newPlayerState the state of the player watching the game
+     */
     public void setState(PublicGameState newGameState, PlayerState newPlayerState){
+        PublicGameState oldGameState = publicGameState;
+        PlayerState oldPlayerState = playerState;
+
         //setting new values for the ObservableGameState's PublicGameState and PlayerState attributes
         publicGameState=newGameState;
         playerState=newPlayerState;
@@ -80,16 +90,26 @@ public class ObservableGameState {
         percentageTickets.set((newGameState.ticketsCount()*100)/Constants.TOTAL_TICKET_COUNT);
         percentageCards.set((newGameState.cardState().deckSize()*100)/Constants.TOTAL_CARDS_COUNT);
 
-        //sets the new cards placed among the faceUpCards
-        Constants.FACE_UP_CARD_SLOTS.forEach(slot -> faceUpCards.get(slot).set(newGameState.cardState().faceUpCard(slot)) );
+        //sets the new cards placed among the faceUpCards, the slots whose card didn't change being left untouched
+        for (int slot : Constants.FACE_UP_CARD_SLOTS){
+            Card card = newGameState.cardState().faceUpCard(slot);
+            if (oldGameState == null || oldGameState.cardState().faceUpCard(slot) != card){
+                faceUpCards.get(slot).set(card);
+            }
+        }
 
-        //sets the routes that have been taken to the player that claimed it
-        for (Route route: ChMap.routes()) {
-            for (PlayerId player : PlayerId.ALL){
-                if (newGameState.playerState(player).routes().contains(route)){
-                    allRoutes.get(route).set(player);
-                }
+        //sets the routes that have been taken to the player that claimed it, only going through the routes claimed
+        //since the previous state
+        BitSet newlyClaimedRoutes = new BitSet(ChMap.routes().size());
+        for (PlayerId playerId : PlayerId.ALL){
+            BitSet claimedRoutes = newGameState.playerState(playerId).routeBits();
+            if (oldGameState != null){
+                claimedRoutes.andNot(oldGameState.playerState(playerId).routeBits());
             }
+            for (int i = claimedRoutes.nextSetBit(0); i >= 0; i = claimedRoutes.nextSetBit(i + 1)){
+                allRoutes.get(ChMap.routes().get(i)).set(playerId);
+            }
+            newlyClaimedRoutes.or(claimedRoutes);
         }
 
         //setting new values for the second set of properties -- the number of tickets, cards, cars and points they have
@@ -101,31 +121,38 @@ public class ObservableGameState {
         }
 
         //setting new values for the third set of properties -- for the player watching the game
-        //setting the new tickets of the player watching the game
-        playerTickets.setAll(newPlayerState.tickets().toList());
-
-        //setting the number of cards per type of cards of the player
-        Card.ALL.forEach(card -> numberPerCard.get(card).set(newPlayerState.cards().countOf(card)) );
+        //setting the new tickets of the player watching the game, if they changed
+        if (oldPlayerState == null || !oldPlayerState.tickets().equals(newPlayerState.tickets())){
+            playerTickets.setAll(newPlayerState.tickets().toList());
+        }
 
-        //setting the routes the player can still claim (or not claim anymore)
-        for(Route route : ChMap.routes()){
-            boolean bool = (!routeIsClaimed(route) &&
-                    newGameState.currentPlayerId().equals(ownPlayerId) && newPlayerState.canClaimRoute(route));
-            canClaim.get(route).set(bool);
+        //setting the number of cards per type of cards of the player, if they changed
+        boolean cardsChanged = oldPlayerState == null || !oldPlayerState.cardBag().equals(newPlayerState.cardBag());
+        if (cardsChanged){
+            Card.ALL.forEach(card -> numberPerCard.get(card).set(newPlayerState.cardBag().countOf(card)) );
         }
-    }
 
-    /**
-     * Gives neighboring route of a route, returns null if there isn't any
-     * @param route for which we want to find the neighboring route
-     * @return neighboring route if there is one, else returns null
-     */
-    private Route doubleRoute(Route route){
-        //for all routes, if a double route is found, return the corresponding double route.
-        for (Route route1: ChMap.routes()){
-            if (route.stations().equals(route1.stations()) && !route.equals(route1)){ return route1;  }
+        //setting the routes the player can still claim (or not claim anymore). They only have to be computed again
+        //when the turn or the cards of the player change, the player can't claim any route when it isn't its turn,
+        //and the routes claimed in the meantime can't be claimed anymore, nor their double route
+        boolean ownTurn = newGameState.currentPlayerId() == ownPlayerId;
+        boolean wasOwnTurn = oldGameState != null && oldGameState.currentPlayerId() == ownPlayerId;
+        if (oldGameState == null || ownTurn != wasOwnTurn || (ownTurn && cardsChanged)){
+            for(Route route : ChMap.routes()){
+                boolean bool = (ownTurn && !routeIsClaimed(route) && newPlayerState.canClaimRoute(route));
+                canClaim.get(route).set(bool);
+            }
+        }
+        else if (ownTurn){
+            for (int i = newlyClaimedRoutes.nextSetBit(0); i >= 0; i = newlyClaimedRoutes.nextSetBit(i + 1)){
+                Route route = ChMap.routes().get(i);
+                canClaim.get(route).set(false);
+                Route doubleRoute = ChMap.doubleRoute(route);
+                if (doubleRoute != null){
+                    canClaim.get(doubleRoute).set(false);
+                }
+            }
         }
-        return null;
     }
 
     /**
@@ -135,11 +162,7 @@ public class ObservableGameState {
      * have been claimed, returns false in all other scenarios
      */
     private boolean routeIsClaimed(Route route){
-        Route doubleRoute = doubleRoute(route);
-        boolean isClaimed = doubleRoute==null ? publicGameState.claimedRoutes().contains(route)
-                : (publicGameState.claimedRoutes().contains(route)
-                || publicGameState.claimedRoutes().contains(doubleRoute));
-        return isClaimed;
+        return publicGameState.isRouteOrDoubleClaimed(route);
     }
 
     /**
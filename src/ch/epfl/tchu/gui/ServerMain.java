@@ -3,11 +3,16 @@ package ch.epfl.tchu.gui;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 import ch.epfl.tchu.net.RemotePlayerProxy;
+import ch.epfl.tchu.net.ThreadMode;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +29,10 @@ import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
 
 public class ServerMain extends Application {
 
+    //file in which the game is saved every few turns, so that it is resumed if the server is restarted before its end
+    private static final Path SNAPSHOTS_PATH = Path.of("tchu-snapshots.bin");
+    private static final int SNAPSHOT_INTERVAL = 4;
+
     /**
      * Main method of the server
      * @param args the arguments of the client
@@ -50,6 +59,29 @@ public class ServerMain extends Application {
                 Map.of(PLAYER_1, player1,
                         PLAYER_2, player2);
         Random rng = new Random();
-        new Thread(() -> Game.play(players,names,tickets,rng)).start();
+
+        //the oldest unfinished game is resumed from its last snapshot, now that the other player is connected again,
+        //and otherwise a new game is played under an identifier of its own
+        SnapshotFile snapshots = SnapshotFile.open(SNAPSHOTS_PATH);
+        Map<Long, GameSnapshot> unfinishedGames = snapshots.unfinishedGames();
+        long gameId = unfinishedGames.isEmpty() ? snapshots.newGameId() : Collections.min(unfinishedGames.keySet());
+        GameSnapshot snapshot = unfinishedGames.get(gameId);
+        SnapshotFile.Writer writer = snapshots.writer(gameId, SNAPSHOT_INTERVAL);
+        Runnable game = () -> {
+            try (snapshots) {
+                if (snapshot == null) {
+                    Game.play(players, names, tickets, rng, writer);
+                }
+                else {
+                    Game.resume(players, names, snapshot, rng, writer);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        //the game waits for the players most of the time, which a virtual thread does without blocking a thread
+        //a platform thread isn't a daemon thread, as before, so that the application runs until the game ends
+        ThreadMode.best().factory("tchu-game", false).newThread(game).start();
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Methods writing and reading variable-length integers and strings in byte buffers, used by the binary wire format
+ *
+ * Integers are written 7 bits per byte, starting with the lowest ones, the highest bit of a byte telling if another
+ * byte follows. Signed integers are zigzag encoded first, so that small negative values stay short.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+final class ByteBuffers {
+    private ByteBuffers() {}
+
+    //bits of a byte holding a part of the integer, and bit telling if another byte follows
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION_BIT = 0x80;
+
+    /**
+     * Writes a non-negative integer
+     * @param buffer buffer to write in
+     * @param value integer to write, considered as unsigned
+     * @throws java.nio.BufferOverflowException if the buffer is full
+     */
+    static void writeUnsigned(ByteBuffer buffer, int value){
+        writeUnsignedLong(buffer, Integer.toUnsignedLong(value));
+    }
+
+    /**
+     * Reads a non-negative integer written by writeUnsigned
+     * @param buffer buffer to read from
+     * @return the integer
+     * @throws IllegalArgumentException if the integer doesn't fit in an int
+     */
+    static int readUnsigned(ByteBuffer buffer){
+        long value = readUnsignedLong(buffer);
+        Preconditions.checkArgument((value >>> Integer.SIZE) == 0);
+        return (int) value;
+    }
+
+    /**
+     * Reads the length of a sequence written by writeUnsigned, whose elements each take at least one byte, so that a
+     * length received from the other side can't make the reader allocate more than the message it received
+     * @param buffer buffer to read from
+     * @return the length
+     * @throws IllegalArgumentException if the length is negative or greater than the number of bytes remaining
+     */
+    static int readLength(ByteBuffer buffer){
+        int length = readUnsigned(buffer);
+        Preconditions.checkArgument(0 <= length && length <= buffer.remaining());
+        return length;
+    }
+
+    /**
+     * Writes a signed integer
+     * @param buffer buffer to write in
+     * @param value integer to write
+     */
+    static void writeSigned(ByteBuffer buffer, int value){
+        writeUnsigned(buffer, (value << 1) ^ (value >> (Integer.SIZE - 1)));
+    }
+
+    /**
+     * Reads a signed integer written by writeSigned
+     * @param buffer buffer to read from
+     * @return the integer
+     */
+    static int readSigned(ByteBuffer buffer){
+        int zigzag = readUnsigned(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Writes a long, considered as unsigned
+     * @param buffer buffer to write in
+     * @param value long to write
+     */
+    static void writeUnsignedLong(ByteBuffer buffer, long value){
+        while ((value & ~PAYLOAD_MASK) != 0){
+            buffer.put((byte) ((value & PAYLOAD_MASK) | CONTINUATION_BIT));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a long written by writeUnsignedLong
+     * @param buffer buffer to read from
+     * @return the long
+     * @throws IllegalArgumentException if the encoding is longer than the one of a long
+     */
+    static long readUnsignedLong(ByteBuffer buffer){
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7){
+            int b = buffer.get();
+            value |= (long) (b & PAYLOAD_MASK) << shift;
+            if ((b & CONTINUATION_BIT) == 0){
+                return value;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Writes a string, as its length in bytes followed by its UTF-8 encoding
+     * @param buffer buffer to write in
+     * @param string string to write
+     */
+    static void writeString(ByteBuffer buffer, String string){
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString
+     * @param buffer buffer to read from
+     * @return the string
+     * @throws IllegalArgumentException if the length of the string is greater than the number of bytes remaining
+     */
+    static String readString(ByteBuffer buffer){
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,532 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Server hosting many games at once, between clients paired in the order they connect
+ *
+ * An acceptor thread accepts the connections and hands them to a small pool negotiating their wire format. The
+ * negotiated connections wait in a lobby until a second one arrives, after which both players are scheduled in a
+ * bounded pool running the games, a connection whose client left the lobby being closed instead of being paired. Each
+ * game has its own players and random number generator, and a failure in a game only ends that game. Games that can't
+ * be scheduled nor queued are refused by closing their connections.
+ *
+ * Once spectators are accepted, on a socket of their own, any number of them can watch a running game, the games
+ * being numbered from 0 in the order they start. A spectator sends the number of the game it wants to watch, and then
+ * receives its infos and public states through the broadcast of the game, which never makes the game wait.
+ *
+ * The player interface is blocking, so each running game occupies a thread of the pool for its whole duration, and
+ * each negotiation a thread of its own pool. The players are called asynchronously, on a pool shared by all the
+ * games, and a game waits for each of their answers only until a deadline: a player missing it is disconnected,
+ * which frees the thread waiting for it, and default moves are made for it until the end of the game, so that a
+ * stalled client can't hold a game forever. With virtual threads, these threads are parked while they wait for a
+ * client, so that the number of games is bounded by memory rather than by the threads of the system, and the
+ * negotiations aren't limited to a few threads.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class GameServer implements Closeable {
+
+    /**
+     * Default port of the server
+     */
+    public static final int DEFAULT_PORT = 5108;
+
+    //time a client has to choose a wire format, and number of threads negotiating the formats
+    private static final int HANDSHAKE_TIMEOUT_MS = 10_000;
+    private static final int HANDSHAKE_THREADS = 4;
+
+    //time a player has by default to answer a request of the game
+    private static final Duration DEFAULT_DEADLINE = Duration.ofMinutes(2);
+
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    //attributes of the server: its socket, the pools negotiating connections and running games, the connection
+    //waiting in the lobby for an opponent, and the tickets of the games
+    private final ServerSocket serverSocket;
+    private final ExecutorService handshakes;
+    private final ThreadPoolExecutor games;
+    private final ExecutorService playerCalls;
+    private final Duration deadline;
+    private final SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+    private final Thread acceptor;
+    private final ThreadFactory spectatorThreads;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private Connection waiting;
+    //socket on which the spectators connect, null until they are accepted, and broadcasts of the running games
+    private volatile ServerSocket spectatorSocket;
+    private final Map<Long, SpectatorBroadcast> broadcasts = new ConcurrentHashMap<>();
+    private final AtomicLong gameIds = new AtomicLong();
+
+    //metrics of the server, the number of open connections being the size of the set of connections
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong finishedGames = new AtomicLong();
+    private final AtomicLong failedGames = new AtomicLong();
+    private final AtomicLong refusedGames = new AtomicLong();
+    private final AtomicLong timedOutPlayers = new AtomicLong();
+
+    /**
+     * GameServer constructor, running the games on platform threads, the server only accepts connections once started
+     * @param serverSocket socket on which the clients connect
+     * @param maxActiveGames maximum number of games running at the same time
+     * @param maxQueuedGames maximum number of games waiting for a running game to end
+     * @throws IllegalArgumentException if maxActiveGames isn't positive or if maxQueuedGames is negative
+     */
+    public GameServer(ServerSocket serverSocket, int maxActiveGames, int maxQueuedGames){
+        this(serverSocket, maxActiveGames, maxQueuedGames, ThreadMode.PLATFORM);
+    }
+
+    /**
+     * GameServer constructor, giving the players 2 minutes to answer each request, the server only accepts
+     * connections once started
+     * @param serverSocket socket on which the clients connect
+     * @param maxActiveGames maximum number of games running at the same time
+     * @param maxQueuedGames maximum number of games waiting for a running game to end
+     * @param threadMode kind of threads on which the negotiations and the games run
+     * @throws IllegalArgumentException if maxActiveGames isn't positive or if maxQueuedGames is negative
+     * @throws UnsupportedOperationException if the threads are virtual and the virtual machine doesn't have them
+     */
+    public GameServer(ServerSocket serverSocket, int maxActiveGames, int maxQueuedGames, ThreadMode threadMode){
+        this(serverSocket, maxActiveGames, maxQueuedGames, threadMode, DEFAULT_DEADLINE);
+    }
+
+    /**
+     * GameServer constructor, the server only accepts connections once started
+     * @param serverSocket socket on which the clients connect
+     * @param maxActiveGames maximum number of games running at the same time
+     * @param maxQueuedGames maximum number of games waiting for a running game to end
+     * @param threadMode kind of threads on which the negotiations, the games and the calls of the players run
+     * @param deadline time a player has to answer each request of the game, after which it is disconnected
+     * @throws IllegalArgumentException if maxActiveGames isn't positive, if maxQueuedGames or the deadline is negative
+     * @throws UnsupportedOperationException if the threads are virtual and the virtual machine doesn't have them
+     */
+    public GameServer(ServerSocket serverSocket, int maxActiveGames, int maxQueuedGames, ThreadMode threadMode,
+                      Duration deadline){
+        Preconditions.checkArgument(maxActiveGames > 0 && maxQueuedGames >= 0 && !deadline.isNegative());
+        this.serverSocket = serverSocket;
+        this.deadline = deadline;
+        //virtual threads are cheap enough to negotiate each connection on its own thread
+        this.handshakes = threadMode == ThreadMode.VIRTUAL
+                ? new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                        threadMode.factory("tchu-handshake"))
+                : Executors.newFixedThreadPool(HANDSHAKE_THREADS, threadMode.factory("tchu-handshake"));
+        BlockingQueue<Runnable> queue = maxQueuedGames == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(maxQueuedGames);
+        this.games = new ThreadPoolExecutor(maxActiveGames, maxActiveGames, 0, TimeUnit.MILLISECONDS, queue,
+                threadMode.factory("tchu-game"));
+        this.playerCalls = Executors.newCachedThreadPool(threadMode.factory("tchu-player"));
+        this.acceptor = ThreadMode.PLATFORM.factory("tchu-acceptor").newThread(this::acceptConnections);
+        this.spectatorThreads = threadMode.factory("tchu-spectator");
+    }
+
+    /**
+     * Starts accepting connections
+     */
+    public void start(){
+        acceptor.start();
+    }
+
+    /**
+     * Starts accepting spectators, on a socket other than the one of the players
+     * @param spectatorSocket socket on which the spectators connect
+     * @throws IllegalArgumentException if spectators are already accepted
+     */
+    public synchronized void acceptSpectators(ServerSocket spectatorSocket){
+        Preconditions.checkArgument(this.spectatorSocket == null);
+        this.spectatorSocket = spectatorSocket;
+        ThreadMode.PLATFORM.factory("tchu-spectator-acceptor").newThread(this::acceptSpectators).start();
+    }
+
+    /**
+     * Stops the server: no connection is accepted anymore, and the running games end as their connections are closed
+     */
+    @Override
+    public void close(){
+        try {
+            serverSocket.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            ServerSocket spectators = spectatorSocket;
+            if (spectators != null){
+                try {
+                    spectators.close();
+                }
+                catch (IOException e) {
+                    //the spectators aren't accepted anymore anyway
+                }
+            }
+            handshakes.shutdownNow();
+            games.shutdownNow();
+            playerCalls.shutdownNow();
+            synchronized (this){
+                waiting = null;
+            }
+            for (Connection connection : connections){
+                connection.close();
+            }
+            for (SpectatorBroadcast broadcast : broadcasts.values()){
+                broadcast.close();
+            }
+        }
+    }
+
+    /**
+     * Open connection count getter
+     * @return the number of connections currently open, waiting in the lobby or playing
+     */
+    public int openConnectionCount(){ return connections.size(); }
+
+    /**
+     * Active game count getter
+     * @return the number of games currently running
+     */
+    public int activeGameCount(){ return activeGames.get(); }
+
+    /**
+     * Queued game count getter
+     * @return the number of games waiting for a running game to end
+     */
+    public int queuedGameCount(){ return games.getQueue().size(); }
+
+    /**
+     * Accepted connection count getter
+     * @return the number of connections accepted since the server started
+     */
+    public long acceptedConnectionCount(){ return acceptedConnections.get(); }
+
+    /**
+     * Finished game count getter
+     * @return the number of games that ended normally
+     */
+    public long finishedGameCount(){ return finishedGames.get(); }
+
+    /**
+     * Failed game count getter
+     * @return the number of games that ended because of an error, for example a disconnected player
+     */
+    public long failedGameCount(){ return failedGames.get(); }
+
+    /**
+     * Refused game count getter
+     * @return the number of games that were refused because too many games were running and queued
+     */
+    public long refusedGameCount(){ return refusedGames.get(); }
+
+    /**
+     * Timed out player count getter
+     * @return the number of players that were disconnected because they didn't answer a request in time
+     */
+    public long timedOutPlayerCount(){ return timedOutPlayers.get(); }
+
+    /**
+     * Spectator count getter
+     * @return the number of spectators currently watching a game
+     */
+    public int spectatorCount(){
+        int count = 0;
+        for (SpectatorBroadcast broadcast : broadcasts.values()){
+            count += broadcast.spectatorCount();
+        }
+        return count;
+    }
+
+    /**
+     * Textual representation of the metrics of the server
+     * @return the metrics of the server
+     */
+    @Override
+    public String toString(){
+        return String.format("connections: %d open, %d accepted; games: %d active, %d queued, %d finished, "
+                        + "%d failed, %d refused; players: %d timed out",
+                openConnectionCount(), acceptedConnectionCount(), activeGameCount(), queuedGameCount(),
+                finishedGameCount(), failedGameCount(), refusedGameCount(), timedOutPlayerCount());
+    }
+
+    /**
+     * Accepts connections until the server socket is closed, and hands them to the handshake pool
+     */
+    private void acceptConnections(){
+        while (!serverSocket.isClosed()){
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            }
+            catch (IOException e) {
+                //the socket was closed by close()
+                return;
+            }
+            acceptedConnections.incrementAndGet();
+            Connection connection = new Connection(socket);
+            try {
+                handshakes.execute(() -> negotiate(connection));
+            }
+            catch (RejectedExecutionException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Accepts spectators until the spectator socket is closed, and hands them to the handshake pool
+     */
+    private void acceptSpectators(){
+        ServerSocket socket = spectatorSocket;
+        while (!socket.isClosed()){
+            Socket spectator;
+            try {
+                spectator = socket.accept();
+            }
+            catch (IOException e) {
+                //the socket was closed by close()
+                return;
+            }
+            try {
+                handshakes.execute(() -> watch(spectator));
+            }
+            catch (RejectedExecutionException e) {
+                closeQuietly(spectator);
+            }
+        }
+    }
+
+    /**
+     * Reads the number of the game a spectator wants to watch, and adds it to the broadcast of that game, closing its
+     * connection if the game isn't running
+     * @param spectator socket connected to the spectator
+     */
+    private void watch(Socket spectator){
+        try {
+            spectator.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            String line = MessageChannel.readLine(spectator.getInputStream());
+            spectator.setSoTimeout(0);
+            SpectatorBroadcast broadcast = line == null ? null : broadcasts.get(Long.parseLong(line));
+            if (broadcast == null){
+                closeQuietly(spectator);
+                return;
+            }
+            broadcast.add(spectator);
+        }
+        catch (IOException | NumberFormatException e) {
+            closeQuietly(spectator);
+        }
+    }
+
+    /**
+     * Negotiates the wire format of a connection, and puts it in the lobby
+     * @param connection the connection
+     */
+    private void negotiate(Connection connection){
+        try {
+            connection.socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            connection.player = new RemotePlayerProxy(connection.socket);
+            connection.socket.setSoTimeout(0);
+        }
+        catch (IOException e) {
+            connection.close();
+            return;
+        }
+        pair(connection);
+    }
+
+    /**
+     * Puts a connection in the lobby, and schedules a game if another connection was waiting there, the connections
+     * whose client left being closed instead of being paired
+     * @param connection the connection
+     */
+    private void pair(Connection connection){
+        if (!connection.isConnected()){
+            connection.close();
+            return;
+        }
+        Connection opponent = takeOpponent(connection);
+        if (opponent == null){ return; }
+        try {
+            games.execute(() -> play(opponent, connection));
+        }
+        catch (RejectedExecutionException e) {
+            refusedGames.incrementAndGet();
+            opponent.close();
+            connection.close();
+        }
+    }
+
+    /**
+     * Takes the connection waiting in the lobby, closing the ones whose client left while they were waiting, or puts
+     * the given connection in the lobby if no other one is waiting there anymore
+     * @param connection the connection
+     * @return the connection waiting in the lobby, or null if the given connection now waits there
+     */
+    private Connection takeOpponent(Connection connection){
+        while (true){
+            Connection opponent;
+            synchronized (this){
+                if (waiting == null){
+                    waiting = connection;
+                    return null;
+                }
+                opponent = waiting;
+                waiting = null;
+            }
+            if (opponent.isConnected()){ return opponent; }
+            opponent.close();
+        }
+    }
+
+    /**
+     * Plays a game between two connections, and closes them once it is over
+     * @param connection1 connection of the first player
+     * @param connection2 connection of the second player
+     */
+    private void play(Connection connection1, Connection connection2){
+        long gameId = gameIds.getAndIncrement();
+        SpectatorBroadcast broadcast = new SpectatorBroadcast(spectatorThreads);
+        broadcasts.put(gameId, broadcast);
+        activeGames.incrementAndGet();
+        try {
+            //both players receive the same infos and public states, which are broadcast from the first one
+            Game.play(Map.of(PLAYER_1, broadcast.observing(timed(connection1)), PLAYER_2, timed(connection2)),
+                    PLAYER_NAMES, tickets, new Random());
+            finishedGames.incrementAndGet();
+        }
+        catch (RuntimeException e) {
+            failedGames.incrementAndGet();
+        }
+        finally {
+            activeGames.decrementAndGet();
+            broadcasts.remove(gameId);
+            broadcast.close();
+            connection1.close();
+            connection2.close();
+        }
+    }
+
+    /**
+     * Wraps the player of a connection in a player answering within the deadline, the connection being closed if it
+     * doesn't
+     * @param connection the connection
+     * @return the player
+     */
+    private Player timed(Connection connection){
+        return new TimedPlayer(new AsyncPlayer(connection.player, playerCalls), deadline, () -> {
+            timedOutPlayers.incrementAndGet();
+            connection.close();
+        });
+    }
+
+    /**
+     * Closes a socket, ignoring the errors
+     * @param socket the socket
+     */
+    private static void closeQuietly(Socket socket){
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            //the connection is abandoned anyway
+        }
+    }
+
+    /**
+     * Runs a server until the virtual machine is stopped, printing its metrics every few seconds, on virtual threads
+     * if the virtual machine has them
+     * @param args the port (5108 by default), the maximum number of active games (1000 by default, or 50000 with
+     *             virtual threads) and the maximum number of queued games (1000 by default)
+     * @throws IOException if the server socket can't be opened
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ThreadMode threadMode = ThreadMode.best();
+        int maxActiveGames = args.length > 1
+                ? Integer.parseInt(args[1])
+                : threadMode == ThreadMode.VIRTUAL ? 50_000 : 1_000;
+        int maxQueuedGames = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        try (GameServer server = new GameServer(new ServerSocket(port), maxActiveGames, maxQueuedGames, threadMode)) {
+            server.start();
+            while (true){
+                Thread.sleep(5_000);
+                System.out.println(server);
+            }
+        }
+    }
+
+    /**
+     * Connection of a client, counted as open until it is closed
+     */
+    private final class Connection {
+        private final Socket socket;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Player player;
+
+        private Connection(Socket socket){
+            this.socket = socket;
+            connections.add(this);
+        }
+
+        /**
+         * Checks, waiting at most a millisecond, whether the client is still connected, which it only is if it didn't
+         * close its connection nor send anything, since it waits for its game to start
+         * @return true iff the client is still connected
+         */
+        private boolean isConnected(){
+            if (closed.get()){ return false; }
+            try {
+                socket.setSoTimeout(1);
+                socket.getInputStream().read();
+                return false;
+            }
+            catch (SocketTimeoutException e) {
+                return true;
+            }
+            catch (IOException e) {
+                return false;
+            }
+            finally {
+                try {
+                    socket.setSoTimeout(0);
+                }
+                catch (IOException e) {
+                    //the connection is closed, which the next read reports anyway
+                }
+            }
+        }
+
+        private void close(){
+            if (!closed.compareAndSet(false, true)){
+                return;
+            }
+            connections.remove(this);
+            try {
+                socket.close();
+            }
+            catch (IOException e) {
+                //the connection is abandoned anyway
+            }
+        }
+    }
+}
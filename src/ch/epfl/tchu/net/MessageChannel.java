@@ -0,0 +1,499 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.gui.StringsFr;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Channel through which the server and the client exchange messages, in the wire format they agreed on
+ *
+ * When connecting, the server offers the formats it supports, in order of preference, on a line of text. The client
+ * answers with the first of its own formats that was offered, after which both use that format. A message sent by
+ * the server starts with its id and is followed by its arguments, a reply sent by the client only contains its value.
+ * The messages sent by the server are buffered until they are flushed, which happens at the latest when the server
+ * waits for a reply, so that the infos and states sent during a turn usually take a single write.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+abstract class MessageChannel {
+
+    //first word of the line on which the server offers its formats
+    private static final String OFFER = "WIRE_FORMATS";
+
+    /**
+     * Offers formats to the client, and opens a channel in the format it chose
+     * @param socket socket connected to the client
+     * @param formats formats supported by the server, from the preferred one to the least preferred one
+     * @return the channel
+     * @throws IOException if the client closes the connection or chooses a format that wasn't offered
+     */
+    static MessageChannel offer(Socket socket, List<WireFormat> formats) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (WireFormat format : formats){
+            names.add(format.name());
+        }
+        OutputStream out = socket.getOutputStream();
+        out.write((OFFER + StringsFr.SPACE_SEPARATOR + String.join(StringsFr.SPACE_SEPARATOR, names) + '\n')
+                .getBytes(US_ASCII));
+        out.flush();
+
+        String choice = readLine(socket.getInputStream());
+        if (choice == null || !names.contains(choice)){
+            throw new IOException("no wire format agreed on with the client");
+        }
+        return of(WireFormat.valueOf(choice), socket);
+    }
+
+    /**
+     * Chooses one of the formats offered by the server, and opens a channel in that format
+     * @param socket socket connected to the server
+     * @param formats formats supported by the client, from the preferred one to the least preferred one
+     * @return the channel
+     * @throws IOException if the server closes the connection or doesn't offer any of the formats
+     */
+    static MessageChannel accept(Socket socket, List<WireFormat> formats) throws IOException {
+        String offer = readLine(socket.getInputStream());
+        List<String> offered = offer == null
+                ? List.of()
+                : List.of(offer.split(Pattern.quote(StringsFr.SPACE_SEPARATOR), -1));
+        if (offered.isEmpty() || !offered.get(0).equals(OFFER)){
+            throw new IOException("the server didn't offer any wire format");
+        }
+        for (WireFormat format : formats){
+            if (offered.indexOf(format.name()) > 0){
+                OutputStream out = socket.getOutputStream();
+                out.write((format.name() + '\n').getBytes(US_ASCII));
+                out.flush();
+                return of(format, socket);
+            }
+        }
+        throw new IOException("no wire format agreed on with the server");
+    }
+
+    /**
+     * Opens a channel in a given format, without any negotiation
+     * @param format format of the messages
+     * @param socket socket connected to the other side
+     * @return the channel
+     * @throws IOException if the streams of the socket can't be opened
+     */
+    static MessageChannel of(WireFormat format, Socket socket) throws IOException {
+        return format == WireFormat.BINARY ? new Binary(socket) : new Text(socket);
+    }
+
+    /**
+     * Encodes a message with a single argument in a frame of the binary format, which can then be written as is to
+     * any number of connections reading binary messages
+     * @param messageId id of the message
+     * @param serde serde of the argument
+     * @param t the argument
+     * @param <T> type of the argument
+     * @return the bytes of the frame, starting with its length
+     */
+    static <T> byte[] binaryFrame(MessageId messageId, Serde<T> serde, T t){
+        ByteBuffer buffer = ByteBuffer.allocate(Binary.INITIAL_CAPACITY);
+        while (true){
+            try {
+                buffer.clear();
+                buffer.putInt(0).put((byte) messageId.ordinal());
+                serde.write(t, buffer);
+                buffer.putInt(0, buffer.position() - Integer.BYTES);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+            catch (BufferOverflowException e) {
+                //the buffer is doubled, and the frame is written again
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Starts a message
+     * @param messageId id of the message
+     */
+    abstract void beginMessage(MessageId messageId);
+
+    /**
+     * Adds an argument to the message being written
+     * @param serde serde of the argument
+     * @param t the argument
+     * @param <T> type of the argument
+     */
+    abstract <T> void write(Serde<T> serde, T t);
+
+    /**
+     * Ends the message being written, which is only sent with the next flush, so that the messages that don't need a
+     * reply are sent together
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    abstract void endMessage();
+
+    /**
+     * Sends the messages ended since the last flush
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    abstract void flush();
+
+    /**
+     * Waits for the next message
+     * @return the id of the message, whose arguments can then be read, or null if the connection was closed
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    abstract MessageId nextMessage();
+
+    /**
+     * Reads the next argument of the message received last
+     * @param serde serde of the argument
+     * @param <T> type of the argument
+     * @return the argument
+     */
+    abstract <T> T read(Serde<T> serde);
+
+    /**
+     * Sends a reply, immediately
+     * @param serde serde of the reply
+     * @param t the reply
+     * @param <T> type of the reply
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    abstract <T> void sendReply(Serde<T> serde, T t);
+
+    /**
+     * Sends the messages not sent yet, and waits for a reply
+     * @param serde serde of the reply
+     * @param <T> type of the reply
+     * @return the reply
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    abstract <T> T receiveReply(Serde<T> serde);
+
+    /**
+     * Reads a line of ASCII text byte by byte, so that nothing after it is consumed
+     * @param in stream to read from
+     * @return the line, without its end, or null if the stream ended before
+     * @throws IOException if the stream can't be read
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n'){
+            if (b == -1){ return null; }
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Channel exchanging messages as lines of text, each argument being separated from the previous one by a space
+     *
+     * The lines are read and written through reusable buffers: a line received is decoded in a single text, in which
+     * the message id and the arguments are parsed in place, and a line sent is built in a single text before being
+     * encoded, so that no string is created for the line nor for its arguments.
+     */
+    private static final class Text extends MessageChannel {
+        //initial capacity of the buffers, enough for every message but the ones containing very long strings
+        private static final int INITIAL_CAPACITY = 1 << 10;
+        private static final MessageId[] MESSAGE_IDS = MessageId.values();
+        //capacity of the buffer in which the messages wait for the next flush, beyond which they are sent anyway
+        private static final int OUTPUT_CAPACITY = 1 << 13;
+
+        private final InputStream in;
+        private final OutputStream out;
+
+        //bytes received but not decoded yet, between inPosition and inLimit
+        private final byte[] inBytes = new byte[INITIAL_CAPACITY];
+        private int inPosition;
+        private int inLimit;
+        //line received last, and index of its next argument to read
+        private final StringBuilder inLine = new StringBuilder(INITIAL_CAPACITY);
+        private int nextArgument;
+
+        //line being written, and bytes in which it is encoded before being sent
+        private final StringBuilder outLine = new StringBuilder(INITIAL_CAPACITY);
+        private byte[] outBytes = new byte[INITIAL_CAPACITY];
+        //true iff no argument was written yet in the message being written
+        private boolean firstArgument;
+
+        private Text(Socket socket) throws IOException {
+            in = socket.getInputStream();
+            out = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_CAPACITY);
+        }
+
+        @Override
+        void beginMessage(MessageId messageId){
+            outLine.setLength(0);
+            outLine.append(messageId.name()).append(StringsFr.SPACE_SEPARATOR);
+            firstArgument = true;
+        }
+
+        @Override
+        <T> void write(Serde<T> serde, T t){
+            if (!firstArgument){ outLine.append(StringsFr.SPACE_SEPARATOR); }
+            serde.serialize(t, outLine);
+            firstArgument = false;
+        }
+
+        @Override
+        void endMessage(){
+            writeLine();
+        }
+
+        @Override
+        void flush(){
+            try {
+                out.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId nextMessage(){
+            if (!readLine()){ return null; }
+            int idEnd = Serde.indexOf(inLine, StringsFr.SPACE_SEPARATOR, 0, inLine.length());
+            nextArgument = Math.min(idEnd + StringsFr.SPACE_SEPARATOR.length(), inLine.length());
+            for (MessageId messageId : MESSAGE_IDS){
+                String name = messageId.name();
+                if (name.length() == idEnd && Serde.indexOf(inLine, name, 0, idEnd) == 0){
+                    return messageId;
+                }
+            }
+            throw new IllegalArgumentException("unknown message id");
+        }
+
+        @Override
+        <T> T read(Serde<T> serde){
+            int argumentEnd = Serde.indexOf(inLine, StringsFr.SPACE_SEPARATOR, nextArgument, inLine.length());
+            T t = serde.deserialize(inLine, nextArgument, argumentEnd);
+            nextArgument = argumentEnd + StringsFr.SPACE_SEPARATOR.length();
+            return t;
+        }
+
+        @Override
+        <T> void sendReply(Serde<T> serde, T t){
+            outLine.setLength(0);
+            serde.serialize(t, outLine);
+            writeLine();
+            flush();
+        }
+
+        @Override
+        <T> T receiveReply(Serde<T> serde){
+            flush();
+            if (!readLine()){
+                throw new UncheckedIOException(new EOFException());
+            }
+            return serde.deserialize(inLine, 0, inLine.length());
+        }
+
+        /**
+         * Ends the line being written and writes it in the output buffer, encoded in ASCII
+         * @throws UncheckedIOException if an IOException is caught
+         */
+        private void writeLine(){
+            outLine.append('\n');
+            if (outLine.length() > outBytes.length){
+                outBytes = new byte[Math.max(outLine.length(), outBytes.length * 2)];
+            }
+            for (int i = 0; i < outLine.length(); i++){
+                char c = outLine.charAt(i);
+                outBytes[i] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+            try {
+                out.write(outBytes, 0, outLine.length());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Reads the next line in inLine, without its end
+         * @return false if the connection was closed before the line, else true
+         * @throws UncheckedIOException if an IOException is caught
+         */
+        private boolean readLine(){
+            inLine.setLength(0);
+            try {
+                while (true){
+                    if (inPosition == inLimit){
+                        inLimit = in.read(inBytes);
+                        inPosition = 0;
+                        if (inLimit == -1){
+                            inLimit = 0;
+                            return false;
+                        }
+                    }
+                    while (inPosition < inLimit){
+                        byte b = inBytes[inPosition++];
+                        if (b == '\n'){ return true; }
+                        inLine.append((char) (b & 0xFF));
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Channel exchanging messages as binary frames: the length of the frame on 4 bytes, followed by the ordinal of the
+     * message id on one byte (for messages only) and by the binary representations of the arguments
+     */
+    private static final class Binary extends MessageChannel {
+        //initial capacity of the buffers, enough for every message but the ones containing very long strings
+        private static final int INITIAL_CAPACITY = 1 << 10;
+        private static final MessageId[] MESSAGE_IDS = MessageId.values();
+        //maximum length of a frame received, far above the one of any message, so that a corrupted or malicious length
+        //can't make the channel allocate a huge buffer
+        private static final int MAX_FRAME_SIZE = 1 << 20;
+
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        //buffer in which the frame being sent is written, and buffer containing the frame received last
+        private ByteBuffer outBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        private ByteBuffer inBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+        private Binary(Socket socket) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        void beginMessage(MessageId messageId){
+            outBuffer.clear();
+            outBuffer.put((byte) messageId.ordinal());
+        }
+
+        @Override
+        <T> void write(Serde<T> serde, T t){
+            int start = outBuffer.position();
+            while (true){
+                try {
+                    serde.write(t, outBuffer);
+                    return;
+                }
+                catch (BufferOverflowException e) {
+                    //the buffer is doubled, and the argument is written again
+                    ByteBuffer biggerBuffer = ByteBuffer.allocate(outBuffer.capacity() * 2);
+                    biggerBuffer.put(outBuffer.array(), 0, start);
+                    outBuffer = biggerBuffer;
+                }
+            }
+        }
+
+        @Override
+        void endMessage(){
+            try {
+                out.writeInt(outBuffer.position());
+                out.write(outBuffer.array(), 0, outBuffer.position());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void flush(){
+            try {
+                out.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId nextMessage(){
+            if (!readFrame()){ return null; }
+            int id = inBuffer.hasRemaining() ? inBuffer.get() : -1;
+            if (id < 0 || id >= MESSAGE_IDS.length){
+                throw new UncheckedIOException(new IOException("unknown message id"));
+            }
+            return MESSAGE_IDS[id];
+        }
+
+        @Override
+        <T> T read(Serde<T> serde){
+            return decode(serde);
+        }
+
+        @Override
+        <T> void sendReply(Serde<T> serde, T t){
+            outBuffer.clear();
+            write(serde, t);
+            endMessage();
+            flush();
+        }
+
+        @Override
+        <T> T receiveReply(Serde<T> serde){
+            flush();
+            if (!readFrame()){
+                throw new UncheckedIOException(new EOFException());
+            }
+            return decode(serde);
+        }
+
+        /**
+         * Reads the next argument or reply from the frame received last
+         * @param serde serde of the argument or reply
+         * @param <T> type of the argument or reply
+         * @return the argument or reply
+         * @throws UncheckedIOException if the frame doesn't contain a valid binary representation
+         */
+        private <T> T decode(Serde<T> serde){
+            try {
+                return serde.read(inBuffer);
+            }
+            catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+                throw new UncheckedIOException(new IOException("malformed message", e));
+            }
+        }
+
+        /**
+         * Reads the next frame in inBuffer
+         * @return false if the connection was closed before the frame, else true
+         * @throws UncheckedIOException if an IOException is caught, or if the length of the frame is negative or
+         * greater than MAX_FRAME_SIZE
+         */
+        private boolean readFrame(){
+            try {
+                int length;
+                try {
+                    length = in.readInt();
+                }
+                catch (EOFException e) {
+                    return false;
+                }
+                if (length < 0 || length > MAX_FRAME_SIZE){
+                    throw new IOException("invalid frame length: " + length);
+                }
+                if (length > inBuffer.capacity()){
+                    inBuffer = ByteBuffer.allocate(Math.max(length, inBuffer.capacity() * 2));
+                }
+                in.readFully(inBuffer.array(), 0, length);
+                inBuffer.clear().limit(length);
+                return true;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
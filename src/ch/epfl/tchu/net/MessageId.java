@@ -14,6 +14,6 @@ public enum MessageId {
      */
 
     INIT_PLAYERS, RECEIVE_INFO, UPDATE_STATE, SET_INITIAL_TICKETS, CHOOSE_INITIAL_TICKETS, NEXT_TURN,
-    CHOOSE_TICKETS, DRAW_SLOT, ROUTE, CARDS, CHOOSE_ADDITIONAL_CARDS
+    CHOOSE_TICKETS, DRAW_SLOT, ROUTE, CARDS, CHOOSE_ADDITIONAL_CARDS, UPDATE_STATE_DELTA, UPDATE_PUBLIC_STATE
 
 }
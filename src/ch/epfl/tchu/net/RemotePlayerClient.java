@@ -2,16 +2,14 @@ package ch.epfl.tchu.net;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
-import ch.epfl.tchu.gui.StringsFr;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.regex.Pattern;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
 /**
  * the Client for the distant player
  *
@@ -20,101 +18,108 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
  */
 public class RemotePlayerClient {
 
-    //All the attributes : the distant player, the host of the server and the port to which it is connected
+    //All the attributes : the distant player, the host of the server, the port to which it is connected and the wire
+    //formats the client accepts
     private final Player player;
     private final String host;
     private final int port;
+    private final List<WireFormat> formats;
 
     /**
-     * The constructor of the RemotePlayerClient
+     * The constructor of the RemotePlayerClient, accepting all the wire formats
      * @param player the distant player
      * @param host the host of the server
      * @param port the port to which it is connected
      */
     public RemotePlayerClient(Player player, String host, int port) {
+        this(player, host, port, WireFormat.ALL);
+    }
+
+    /**
+     * The constructor of the RemotePlayerClient
+     * @param player the distant player
+     * @param host the host of the server
+     * @param port the port to which it is connected
+     * @param formats the wire formats the client accepts, from the preferred one to the least preferred one
+     */
+    public RemotePlayerClient(Player player, String host, int port, List<WireFormat> formats) {
         this.player=player;
         this.host=host;
         this.port=port;
+        this.formats=List.copyOf(formats);
     }
 
     /**
      * Method that allows the client to receive messages from the server and to do the right task according to its content
      */
     public void run() {
-        try (Socket s= new Socket(host, port);
-             BufferedReader r =
-                     new BufferedReader(
-                             new InputStreamReader(s.getInputStream(),
-                                     US_ASCII));
-             BufferedWriter w =
-                     new BufferedWriter(
-                             new OutputStreamWriter(s.getOutputStream(),
-                                     US_ASCII))) {
+        try (Socket s= new Socket(host, port)) {
+            MessageChannel channel = MessageChannel.accept(s, formats);
+            // last states received, to which the deltas are applied
+            PublicGameState lastState = null;
+            PlayerState lastOwnState = null;
 
-            String str;
-            while((str = r.readLine()) != null){
-                String[] separatedMessage = str.split(Pattern.quote(StringsFr.SPACE_SEPARATOR), -1);
-                String messageId = separatedMessage[0]; // gives the type of action to be done
+            MessageId messageId; // gives the type of action to be done
+            while((messageId = channel.nextMessage()) != null){
                 // According to the content of the messageId, which is a value of the enum type MessageId,
                 // It does a specific action
-                switch (MessageId.valueOf(messageId)){
+                switch (messageId){
                     case INIT_PLAYERS : // calls the method initPlayers of the player
-                        PlayerId currentPlayer = Serdes.playerIdSerde.deserialize(separatedMessage[1]);
-                        List<String> players = Serdes.listStringSerde.deserialize(separatedMessage[2]);
+                        PlayerId currentPlayer = channel.read(Serdes.playerIdSerde);
+                        List<String> players = channel.read(Serdes.listStringSerde);
                         Map<PlayerId,String> playerIdMap = new TreeMap<>();
                         playerIdMap.put(PlayerId.PLAYER_1,players.get(0));
                         playerIdMap.put(PlayerId.PLAYER_2,players.get(1));
                         player.initPlayers(currentPlayer,playerIdMap);
                         break;
                     case RECEIVE_INFO: // calls the method receiveInfo of the player for him to receive an information
-                        String info = Serdes.stringSerde.deserialize(separatedMessage[1]);
+                        String info = channel.read(Serdes.stringSerde);
                         player.receiveInfo(info);
                         break;
                     case UPDATE_STATE: // calls the method updateState of the player to update his state
-                        PublicGameState newState = Serdes.publicGameStateSerde.deserialize(separatedMessage[1]);
-                        PlayerState ownState = Serdes.playerStateSerde.deserialize(separatedMessage[2]);
-                        player.updateState(newState,ownState);
+                        lastState = channel.read(Serdes.publicGameStateSerde);
+                        lastOwnState = channel.read(Serdes.playerStateSerde);
+                        player.updateState(lastState,lastOwnState);
+                        break;
+                    case UPDATE_STATE_DELTA: // applies the delta to the last states and updates the state of the player
+                        StateDelta delta = channel.read(StateDelta.serde);
+                        lastState = delta.applyTo(lastState);
+                        lastOwnState = delta.applyTo(lastOwnState);
+                        player.updateState(lastState,lastOwnState);
                         break;
                     case SET_INITIAL_TICKETS: // calls the method setInitialTicketChoice of the player
-                        SortedBag<Ticket> tickets = Serdes.sbTicketSerde.deserialize(separatedMessage[1]);
+                        SortedBag<Ticket> tickets = channel.read(Serdes.sbTicketSerde);
                         player.setInitialTicketChoice(tickets);
                         break;
                     case CHOOSE_INITIAL_TICKETS: // calls the method chooseInitialTickets and sends the choice to the proxy
                         SortedBag<Ticket> initialTickets = player.chooseInitialTickets();
-                        String sbInitialTicketsSerde = Serdes.sbTicketSerde.serialize(initialTickets);
-                        RemotePlayerClient.sendToProxy(w,sbInitialTicketsSerde);
+                        channel.sendReply(Serdes.sbTicketSerde, initialTickets);
                         break;
                     case NEXT_TURN: // calls the method next.Turn() of the player and sends its choice to the proxy
                         Player.TurnKind turnKind = player.nextTurn();
-                        String turnKindSerde = Serdes.turnKindSerde.serialize(turnKind);
-                        RemotePlayerClient.sendToProxy(w,turnKindSerde);
+                        channel.sendReply(Serdes.turnKindSerde, turnKind);
                         break;
                     case CHOOSE_TICKETS: // calls the method chooseTickets() of the player and sends the chosen tickets to the proxy
-                        SortedBag<Ticket> givenTickets = Serdes.sbTicketSerde.deserialize(separatedMessage[1]);
+                        SortedBag<Ticket> givenTickets = channel.read(Serdes.sbTicketSerde);
                         SortedBag<Ticket> chosenTickets = player.chooseTickets(givenTickets);
-                        String sbChosenTicketsSerde = Serdes.sbTicketSerde.serialize(chosenTickets);
-                        RemotePlayerClient.sendToProxy(w,sbChosenTicketsSerde);
+                        channel.sendReply(Serdes.sbTicketSerde, chosenTickets);
                         break;
                     case DRAW_SLOT: // calls the method draw.slot() of the player and sends its choice to the proxy
                         int slot = player.drawSlot();
-                        String slotSerde = Serdes.intSerde.serialize(slot);
-                        RemotePlayerClient.sendToProxy(w,slotSerde);
+                        channel.sendReply(Serdes.intSerde, slot);
                         break;
                     case ROUTE: // calls the method claimed.route() of the player and sends the route to the proxy
                         Route claimedRoute = player.claimedRoute();
-                        String claimedRouteSerde = Serdes.routeSerde.serialize(claimedRoute);
-                        RemotePlayerClient.sendToProxy(w,claimedRouteSerde);
+                        channel.sendReply(Serdes.routeSerde, claimedRoute);
                         break;
                     case CARDS: // calls the method initialClaimCards() of the player and sends its choice to the proxy
                         SortedBag<Card> initialClaimCards = player.initialClaimCards();
-                        String initialClaimCardsSerde = Serdes.sbCardSerde.serialize(initialClaimCards);
-                        RemotePlayerClient.sendToProxy(w,initialClaimCardsSerde);
+                        channel.sendReply(Serdes.sbCardSerde, initialClaimCards);
                         break;
                     case CHOOSE_ADDITIONAL_CARDS: // calls the method chooseAdditionalCards() of the player and sends its choice to the proxy
-                        List<SortedBag<Card>> options = Serdes.listSbCardSerde.deserialize(separatedMessage[1]);
+                        List<SortedBag<Card>> options = channel.read(Serdes.listSbCardSerde);
                         SortedBag<Card> chosenAdditionalCards = player.chooseAdditionalCards(options);
-                        String chosenAdditionalCardsSerde = Serdes.sbCardSerde.serialize(chosenAdditionalCards);
-                        RemotePlayerClient.sendToProxy(w,chosenAdditionalCardsSerde);
+                        channel.sendReply(Serdes.sbCardSerde, chosenAdditionalCards);
                         break;
                 }
             }
@@ -122,19 +127,4 @@ public class RemotePlayerClient {
             throw new UncheckedIOException(e);
         }
     }
-
-    /**
-     * Method that allows to send a message to the proxy server
-     * @param w the BufferedWriter
-     * @param messageSerde the message to be sent
-     */
-    private static void sendToProxy(BufferedWriter w, String messageSerde){
-        try {
-            w.write(messageSerde);
-            w.write('\n');
-            w.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
 }
\ No newline at end of file
@@ -2,15 +2,12 @@ package ch.epfl.tchu.net;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
-import ch.epfl.tchu.gui.StringsFr;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.Socket;
 import java.util.List;
 import java.util.Map;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
-
 /**
  * A remote player proxy which will communicate with the remote player's client
  *
@@ -20,26 +17,29 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 
 public class RemotePlayerProxy implements Player {
 
-    //Attributes needed for the proxy: a BufferedReader and BufferedWriter which will be able to read or write within
-    //a given socket
-    private final BufferedReader r;
-    private final BufferedWriter w;
+    //Attributes needed for the proxy: the channel through which messages are exchanged with the client, and the last
+    //states sent to the client, from which the next ones are sent as deltas
+    private final MessageChannel channel;
+    private PublicGameState lastState;
+    private PlayerState lastOwnState;
 
     /**
-     * Remote Player Proxy constructor
+     * Remote Player Proxy constructor, offering all the wire formats to the client
      * @param socket which needs to be the same socket as the client's
-     * @throws IOException
-     * connects the BufferedReader and BufferedWriter to the socket given in argument
+     * @throws IOException if no wire format could be agreed on with the client
      */
     public RemotePlayerProxy(Socket socket) throws IOException {
-        r =
-                new BufferedReader(
-                        new InputStreamReader(socket.getInputStream(),
-                                US_ASCII));
-        w =
-                new BufferedWriter(
-                        new OutputStreamWriter(socket.getOutputStream(),
-                                US_ASCII));
+        this(socket, WireFormat.ALL);
+    }
+
+    /**
+     * Remote Player Proxy constructor
+     * @param socket which needs to be the same socket as the client's
+     * @param formats wire formats offered to the client, from the preferred one to the least preferred one
+     * @throws IOException if no wire format could be agreed on with the client
+     */
+    public RemotePlayerProxy(Socket socket, List<WireFormat> formats) throws IOException {
+        channel = MessageChannel.offer(socket, formats);
     }
 
     /**
@@ -50,9 +50,10 @@ public class RemotePlayerProxy implements Player {
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
         List<String> listPlayers = List.of(playerNames.get(PlayerId.PLAYER_1), playerNames.get(PlayerId.PLAYER_2));
-        String serializedPlayers = Serde.listOf(Serdes.stringSerde, ",").serialize(listPlayers);
-        String serializedPlayerID = Serdes.playerIdSerde.serialize(ownId);
-        sendMessage(List.of(serializedPlayerID,serializedPlayers), MessageId.INIT_PLAYERS);
+        channel.beginMessage(MessageId.INIT_PLAYERS);
+        channel.write(Serdes.playerIdSerde, ownId);
+        channel.write(Serdes.listStringSerde, listPlayers);
+        channel.endMessage();
     }
 
     /**
@@ -61,20 +62,30 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void receiveInfo(String info) {
-        sendMessage(List.of(Serdes.stringSerde.serialize(info)), MessageId.RECEIVE_INFO);
+        sendMessage(MessageId.RECEIVE_INFO, Serdes.stringSerde, info);
     }
 
     /**
-     * Serializes newState, ownState and sends them in a message of type UPDATE_STATE to the socket
+     * Sends newState and ownState to the socket, as the delta from the last states sent in a message of type
+     * UPDATE_STATE_DELTA, or entirely in a message of type UPDATE_STATE if no state was sent yet or if the new states
+     * don't follow the last ones (the messages arrive in order, so the last states sent are the ones of the client)
      * @param newState new gamestate
      * @param ownState player's player state
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        String serializedPGS = Serdes.publicGameStateSerde.serialize(newState);
-        String serializedPS = Serdes.playerStateSerde.serialize(ownState);
-        List<String> list = List.of(serializedPGS,serializedPS);
-        sendMessage(list, MessageId.UPDATE_STATE);
+        StateDelta delta = lastState == null ? null : StateDelta.between(lastState, lastOwnState, newState, ownState);
+        if (delta == null) {
+            channel.beginMessage(MessageId.UPDATE_STATE);
+            channel.write(Serdes.publicGameStateSerde, newState);
+            channel.write(Serdes.playerStateSerde, ownState);
+            channel.endMessage();
+        }
+        else {
+            sendMessage(MessageId.UPDATE_STATE_DELTA, StateDelta.serde, delta);
+        }
+        lastState = newState;
+        lastOwnState = ownState;
     }
 
 
@@ -84,7 +95,7 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        sendMessage(List.of(Serdes.sbTicketSerde.serialize(tickets)), MessageId.SET_INITIAL_TICKETS);
+        sendMessage(MessageId.SET_INITIAL_TICKETS, Serdes.sbTicketSerde, tickets);
     }
 
     /**
@@ -93,8 +104,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        sendMessage(List.of(), MessageId.CHOOSE_INITIAL_TICKETS);
-        return Serdes.sbTicketSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.CHOOSE_INITIAL_TICKETS);
+        return channel.receiveReply(Serdes.sbTicketSerde);
     }
 
     /**
@@ -103,8 +114,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public TurnKind nextTurn() {
-        sendMessage(List.of(), MessageId.NEXT_TURN);
-        return Serdes.turnKindSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.NEXT_TURN);
+        return channel.receiveReply(Serdes.turnKindSerde);
     }
 
     /**
@@ -114,8 +125,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public int drawSlot() {
-        sendMessage(List.of(), MessageId.DRAW_SLOT);
-        return Serdes.intSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.DRAW_SLOT);
+        return channel.receiveReply(Serdes.intSerde);
     }
 
     /**
@@ -124,8 +135,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public Route claimedRoute() {
-        sendMessage(List.of(), MessageId.ROUTE);
-        return Serdes.routeSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.ROUTE);
+        return channel.receiveReply(Serdes.routeSerde);
     }
 
     /**
@@ -135,9 +146,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        String serializedSbTickets = Serdes.sbTicketSerde.serialize(options);
-        sendMessage(List.of(serializedSbTickets), MessageId.CHOOSE_TICKETS);
-        return Serdes.sbTicketSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.CHOOSE_TICKETS, Serdes.sbTicketSerde, options);
+        return channel.receiveReply(Serdes.sbTicketSerde);
     }
 
     /**
@@ -146,8 +156,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        sendMessage(List.of(), MessageId.CARDS);
-        return Serdes.sbCardSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.CARDS);
+        return channel.receiveReply(Serdes.sbCardSerde);
     }
 
     /**
@@ -157,45 +167,37 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        String serializedSbCards = Serdes.listSbCardSerde.serialize(options);
-        sendMessage(List.of(serializedSbCards), MessageId.CHOOSE_ADDITIONAL_CARDS);
-        return Serdes.sbCardSerde.deserialize(receiveMessage());
+        sendMessage(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.listSbCardSerde, options);
+        return channel.receiveReply(Serdes.sbCardSerde);
     }
 
     /**
-     * Private method that sends a message to the client (to be deserialized) with the socket
-     * @param list of serialized strings to send to the client
+     * Sends the infos and states queued since the last request to the client, in a single write
+     */
+    @Override
+    public void flush() {
+        channel.flush();
+    }
+
+    /**
+     * Private method that sends a message without any argument to the client
      * @param messageId type of message sent to the client
-     * @throws UncheckedIOException if an IOException is caught
-     */
-    private void sendMessage(List<String> list, MessageId messageId){
-        try {
-            w.write(messageId.name());
-            w.write(StringsFr.SPACE_SEPARATOR);
-            if (!list.isEmpty()){
-                for (String string : list){
-                    w.write(string);
-                    if (list.indexOf(string) != list.size() -1){w.write(StringsFr.SPACE_SEPARATOR);}
-                }
-            }
-            w.write('\n');
-            w.flush();
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+     */
+    private void sendMessage(MessageId messageId){
+        channel.beginMessage(messageId);
+        channel.endMessage();
     }
 
     /**
-     * Method that receives a message by the client from the socket and reads it
-     * @return the string the composes the message
+     * Private method that sends a message with a single argument to the client
+     * @param messageId type of message sent to the client
+     * @param serde serde of the argument
+     * @param t the argument
+     * @param <T> type of the argument
      */
-    private String receiveMessage(){
-        try {
-            return r.readLine();
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    private <T> void sendMessage(MessageId messageId, Serde<T> serde, T t){
+        channel.beginMessage(messageId);
+        channel.write(serde, t);
+        channel.endMessage();
     }
-}
\ No newline at end of file
+}
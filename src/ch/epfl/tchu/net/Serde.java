@@ -1,13 +1,18 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.PlayerId;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.function.ToIntFunction;
 
 /**
  * An object able to de/serialize
@@ -32,6 +37,45 @@ public interface Serde <T>{
      */
     T deserialize(String string);
 
+    /**
+     * Appends the textual representation of an object to a text, by default the string returned by serialize
+     * @param t object to serialize
+     * @param text text to which the representation is appended
+     */
+    default void serialize(T t, StringBuilder text){
+        text.append(serialize(t));
+    }
+
+    /**
+     * Deserializes a part of a text, by default by deserializing a copy of that part
+     * @param text text containing the textual representation of the object
+     * @param start index of the first character of the representation
+     * @param end index following the last character of the representation
+     * @return the object
+     */
+    default T deserialize(CharSequence text, int start, int end){
+        return deserialize(text.subSequence(start, end).toString());
+    }
+
+    /**
+     * Writes the binary representation of an object, by default its textual representation
+     * @param t object to write
+     * @param buffer buffer in which the object is written
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    default void write(T t, ByteBuffer buffer){
+        ByteBuffers.writeString(buffer, serialize(t));
+    }
+
+    /**
+     * Reads an object from its binary representation, by default its textual representation
+     * @param buffer buffer from which the object is read
+     * @return the object
+     */
+    default T read(ByteBuffer buffer){
+        return deserialize(ByteBuffers.readString(buffer));
+    }
+
     /**
      * Creates an object (Serde) able to serialize an object of type T
      * and deserialize a string into a T
@@ -52,6 +96,32 @@ public interface Serde <T>{
         };
     }
 
+    /**
+     * Creates an object (Serde) able to serialize an object of type T in both textual and binary representations
+     * @param serialize function that serializes
+     * @param deserialize function the deserializes
+     * @param write function that writes the binary representation in a buffer
+     * @param read function that reads the binary representation from a buffer
+     * @param <T> type of the object
+     * @return the Serde
+     */
+    static <T> Serde<T> of(Function<T, String> serialize, Function<String, T> deserialize,
+                           BiConsumer<T, ByteBuffer> write, Function<ByteBuffer, T> read){
+        return new Serde<>() {
+            @Override
+            public String serialize(T t) { return serialize.apply(t); }
+
+            @Override
+            public T deserialize(String s) { return deserialize.apply(s); }
+
+            @Override
+            public void write(T t, ByteBuffer buffer) { write.accept(t, buffer); }
+
+            @Override
+            public T read(ByteBuffer buffer) { return read.apply(buffer); }
+        };
+    }
+
     /**
      * Creates serde capable of serializing a certain tChu object (a turnkind, a player id, a route...)
      * also called an enumerated value.
@@ -60,16 +130,67 @@ public interface Serde <T>{
      * @return the serde capable of de/serializing an enumerated value
      */
     static <T> Serde<T> oneOf(List<T> ValEnum){
+        //index of each value, so that serializing doesn't need to search the list
+        Map<T, Integer> indices = new HashMap<>();
+        for (int i = ValEnum.size() - 1; i >= 0; i--){
+            indices.put(ValEnum.get(i), i);
+        }
+        return oneOf(ValEnum, t -> indices.getOrDefault(t, -1));
+    }
+
+    /**
+     * Creates serde capable of serializing an enumerated value whose values know their index in the list of values,
+     * so that serializing a value is only a call to the index function
+     * @param ValEnum list of values of the tChu enumerated value
+     * @param indexOf function returning the index of the first occurrence of a value in the list, or -1 if the value
+     * isn't in the list
+     * @param <T> type of the enumerated value
+     * @return the serde capable of de/serializing an enumerated value
+     * @throws IllegalArgumentException if the function doesn't return the index of a value of the list
+     */
+    static <T> Serde<T> oneOf(List<T> ValEnum, ToIntFunction<T> indexOf){
+        for (T t : ValEnum){
+            int index = indexOf.applyAsInt(t);
+            Preconditions.checkArgument(index >= 0 && index < ValEnum.size() && ValEnum.get(index) == t);
+        }
         return new Serde<>() {
             @Override
             public String serialize(T t) {
                 if (t == null){ return ""; }
-                else return String.valueOf(ValEnum.indexOf(t)); }
+                else return String.valueOf(indexOf.applyAsInt(t)); }
 
             @Override
             public T deserialize(String s) {
-                if (s.equals("")){ return null; }
-                else return ValEnum.get(Integer.parseInt(s));
+                return deserialize(s, 0, s.length());
+            }
+
+            //the index is appended and parsed in place, without going through a string
+            @Override
+            public void serialize(T t, StringBuilder text) {
+                if (t != null){ text.append(indexOf.applyAsInt(t)); }
+            }
+
+            @Override
+            public T deserialize(CharSequence text, int start, int end) {
+                if (start == end){ return null; }
+                else return ValEnum.get(Integer.parseInt(text, start, end, 10));
+            }
+
+            //in binary, null is written as 0 and the other values as their index plus 1
+            @Override
+            public void write(T t, ByteBuffer buffer) {
+                if (t == null){ ByteBuffers.writeUnsigned(buffer, 0); }
+                else {
+                    int index = indexOf.applyAsInt(t);
+                    Preconditions.checkArgument(index >= 0);
+                    ByteBuffers.writeUnsigned(buffer, index + 1);
+                }
+            }
+
+            @Override
+            public T read(ByteBuffer buffer) {
+                int index = ByteBuffers.readUnsigned(buffer);
+                return index == 0 ? null : ValEnum.get(index - 1);
             }
         };
     }
@@ -86,31 +207,56 @@ public interface Serde <T>{
         return new Serde<>() {
             @Override
             public String serialize(List<T> list) {
-                if(list.isEmpty()){ return ""; }
-                else {
-                    //create list of string with each serialized element in argument "list"
-                    List<String> l = new ArrayList<>();
-                    for (T t : list) {
-                        l.add(serde.serialize(t));
-                    }
-                    //return string, with each serialized string separated with separator argument
-                    return String.join(separator, l);
-                }
+                StringBuilder text = new StringBuilder();
+                serialize(list, text);
+                return text.toString();
             }
 
             @Override
             public List<T> deserialize(String string) {
-                if (string.equals("")){return List.of();}
-                else {
-                    //creation of list of serialized strings, knowing message was used using separator in argument
-                    String[] noSeparator = string.split(Pattern.quote(separator), -1);
-                    List<T> tList = new ArrayList<>();
-                    //each string is deserialized
-                    for (String toDeserialize : noSeparator) {
-                        tList.add(serde.deserialize(toDeserialize));
-                    }
-                    return tList;
+                return deserialize(string, 0, string.length());
+            }
+
+            //each element is appended to the text, separated from the previous one by separator
+            @Override
+            public void serialize(List<T> list, StringBuilder text) {
+                for (int i = 0; i < list.size(); i++) {
+                    if (i > 0){ text.append(separator); }
+                    serde.serialize(list.get(i), text);
+                }
+            }
+
+            //each element is deserialized in place, between two separators
+            @Override
+            public List<T> deserialize(CharSequence text, int start, int end) {
+                if (start == end){ return List.of(); }
+                List<T> tList = new ArrayList<>();
+                int elementStart = start;
+                while (true) {
+                    int elementEnd = indexOf(text, separator, elementStart, end);
+                    tList.add(serde.deserialize(text, elementStart, elementEnd));
+                    if (elementEnd == end){ return tList; }
+                    elementStart = elementEnd + separator.length();
+                }
+            }
+
+            //in binary, the size of the list is followed by its elements
+            @Override
+            public void write(List<T> list, ByteBuffer buffer) {
+                ByteBuffers.writeUnsigned(buffer, list.size());
+                for (T t : list) {
+                    serde.write(t, buffer);
+                }
+            }
+
+            @Override
+            public List<T> read(ByteBuffer buffer) {
+                int size = ByteBuffers.readLength(buffer);
+                List<T> tList = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    tList.add(serde.read(buffer));
                 }
+                return tList;
             }
         };
     }
@@ -127,32 +273,85 @@ public interface Serde <T>{
         return new Serde<>() {
             @Override
             public String serialize(SortedBag<T> SB) {
-                if (SB.isEmpty()){ return ""; }
-                else {
-                    //add to list of string, each serialized element in SB
-                    List<String> l = new ArrayList<>();
-                    for (T t : SB) {
-                        l.add(serde.serialize(t));
-                    }
-                    //return String with each serialized element separated with separator given in argument
-                    return String.join(separator, l);
-                }
+                StringBuilder text = new StringBuilder();
+                serialize(SB, text);
+                return text.toString();
             }
 
             @Override
             public SortedBag<T> deserialize(String string) {
-                if (string.equals("")){return SortedBag.of();}
-                else{
-                    //creation of list of serialized elements
-                    String[] noSeparator = string.split(Pattern.quote(separator), -1);
-                    SortedBag.Builder<T> builder = new SortedBag.Builder<>();
-                    //each serialized element is deserialized
-                    for (String toDeserialize : noSeparator) {
-                        builder.add(serde.deserialize(toDeserialize));
-                    }
-                    return builder.build();
+                return deserialize(string, 0, string.length());
+            }
+
+            //each element is appended to the text, separated from the previous one by separator
+            @Override
+            public void serialize(SortedBag<T> SB, StringBuilder text) {
+                boolean first = true;
+                for (T t : SB) {
+                    if (!first){ text.append(separator); }
+                    serde.serialize(t, text);
+                    first = false;
+                }
+            }
+
+            //each element is deserialized in place, between two separators
+            @Override
+            public SortedBag<T> deserialize(CharSequence text, int start, int end) {
+                if (start == end){ return SortedBag.of(); }
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                int elementStart = start;
+                while (true) {
+                    int elementEnd = indexOf(text, separator, elementStart, end);
+                    builder.add(serde.deserialize(text, elementStart, elementEnd));
+                    if (elementEnd == end){ return builder.build(); }
+                    elementStart = elementEnd + separator.length();
                 }
             }
+
+            //in binary, the number of distinct elements of the bag is followed by each of them and its count
+            @Override
+            public void write(SortedBag<T> SB, ByteBuffer buffer) {
+                Map<T, Integer> counts = SB.toMap();
+                ByteBuffers.writeUnsigned(buffer, counts.size());
+                counts.forEach((t, count) -> {
+                    serde.write(t, buffer);
+                    ByteBuffers.writeUnsigned(buffer, count);
+                });
+            }
+
+            //each count must be positive and keep the size of the bag within an int, even if an element is repeated
+            @Override
+            public SortedBag<T> read(ByteBuffer buffer) {
+                int distinctCount = ByteBuffers.readLength(buffer);
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                int size = 0;
+                for (int i = 0; i < distinctCount; i++) {
+                    T t = serde.read(buffer);
+                    int count = ByteBuffers.readUnsigned(buffer);
+                    Preconditions.checkArgument(0 < count && count <= Integer.MAX_VALUE - size);
+                    size += count;
+                    builder.add(count, t);
+                }
+                return builder.build();
+            }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Searches a separator in a part of a text
+     * @param text the text
+     * @param separator the separator
+     * @param start index from which the separator is searched
+     * @param end index at which the search stops
+     * @return the index of the first occurrence of the separator in the part of the text, or end if there is none
+     */
+    static int indexOf(CharSequence text, String separator, int start, int end){
+        int last = end - separator.length();
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < separator.length() && text.charAt(i + j) == separator.charAt(j)){ j++; }
+            if (j == separator.length()){ return i; }
+        }
+        return end;
+    }
+}
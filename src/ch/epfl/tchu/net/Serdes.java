@@ -1,12 +1,15 @@
 package ch.epfl.tchu.net;
 
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 import static ch.epfl.tchu.gui.StringsFr.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Different types of Serde specific to tChu that will be used
@@ -22,41 +25,63 @@ public class Serdes {
     /**
      * Serde that de/serializes a integer
      */
-    public final static Serde<Integer> intSerde = Serde.of(
-            i -> Integer.toString(i),
-            Integer::parseInt);
+    public final static Serde<Integer> intSerde = new Serde<>() {
+        @Override
+        public String serialize(Integer i) { return Integer.toString(i); }
+
+        @Override
+        public Integer deserialize(String s) { return Integer.parseInt(s); }
+
+        //the integer is appended and parsed in place, without going through a string
+        @Override
+        public void serialize(Integer i, StringBuilder text) { text.append(i.intValue()); }
+
+        @Override
+        public Integer deserialize(CharSequence text, int start, int end) {
+            return Integer.parseInt(text, start, end, 10);
+        }
+
+        @Override
+        public void write(Integer i, ByteBuffer buffer) { ByteBuffers.writeSigned(buffer, i); }
+
+        @Override
+        public Integer read(ByteBuffer buffer) { return ByteBuffers.readSigned(buffer); }
+    };
 
     /**
      * Serde that de/serializes a string
      */
     public final static Serde<String> stringSerde=Serde.of(
             i -> Base64.getEncoder().encodeToString(i.getBytes(StandardCharsets.UTF_8)),
-            i -> new String(Base64.getDecoder().decode(i.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+            i -> new String(Base64.getDecoder().decode(i.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8),
+            (i, buffer) -> ByteBuffers.writeString(buffer, i),
+            ByteBuffers::readString);
 
     /**
      * Serde that de/serializes a playerId
      */
-    public final static Serde<PlayerId> playerIdSerde = Serde.oneOf(PlayerId.ALL);
+    public final static Serde<PlayerId> playerIdSerde = Serde.oneOf(PlayerId.ALL, PlayerId::ordinal);
 
     /**
      * Serde that de/serializes a turnkind
      */
-    public final static Serde<Player.TurnKind> turnKindSerde = Serde.oneOf(Player.TurnKind.ALL);
+    public final static Serde<Player.TurnKind> turnKindSerde =
+            Serde.oneOf(Player.TurnKind.ALL, Player.TurnKind::ordinal);
 
     /**
      * Serde that de/serializes a card
      */
-    public final static Serde<Card> cardSerde = Serde.oneOf(Card.ALL);
+    public final static Serde<Card> cardSerde = Serde.oneOf(Card.ALL, Card::ordinal);
 
     /**
      * Serde that de/serializes a route
      */
-    public final static Serde<Route> routeSerde = Serde.oneOf(ChMap.routes());
+    public final static Serde<Route> routeSerde = Serde.oneOf(ChMap.routes(), Route::index);
 
     /**
      * Serde that de/serializes a ticket
      */
-    public final static Serde<Ticket> ticketSerde = Serde.oneOf(ChMap.tickets());
+    public final static Serde<Ticket> ticketSerde = Serde.oneOf(ChMap.tickets(), Ticket::index);
 
     /**
      * Serde that de/serializes a list of cards
@@ -64,9 +89,29 @@ public class Serdes {
     public final static Serde<List<Card>> listCardSerde = Serde.listOf(cardSerde, COMMA_SEPARATOR);
 
     /**
-     * Serde that de/serializes a list of routes
+     * Serde that de/serializes a list of routes. In binary, the routes are written as the set of their indices in the
+     * map, and are therefore read in the order of the map
      */
-    public final static Serde<List<Route>> listRouteSerde = Serde.listOf(routeSerde, COMMA_SEPARATOR);
+    public final static Serde<List<Route>> listRouteSerde = withBinary(Serde.listOf(routeSerde, COMMA_SEPARATOR),
+            (routes, buffer) -> {
+                BitSet bits = new BitSet(ChMap.routes().size());
+                for (Route route : routes) {
+                    Preconditions.checkArgument(route.index() >= 0);
+                    bits.set(route.index());
+                }
+                writeRouteBits(bits, buffer);
+            },
+            buffer -> {
+                byte[] bytes = new byte[ByteBuffers.readLength(buffer)];
+                buffer.get(bytes);
+                BitSet bits = BitSet.valueOf(bytes);
+                Preconditions.checkArgument(bits.length() <= ChMap.routes().size());
+                List<Route> routes = new ArrayList<>(bits.cardinality());
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    routes.add(ChMap.routes().get(i));
+                }
+                return routes;
+            });
 
     /**
      * Serde that de/serializes a list of string
@@ -74,9 +119,64 @@ public class Serdes {
     public final static Serde<List<String>> listStringSerde = Serde.listOf(stringSerde, COMMA_SEPARATOR);
 
     /**
-     * Serde that de/serializes a SortedBag of Cards
+     * Serde that de/serializes a SortedBag of Cards. In binary, the bag is written as the count of each card
      */
-    public final static Serde<SortedBag<Card>> sbCardSerde = Serde.bagOf(cardSerde, COMMA_SEPARATOR);
+    public final static Serde<SortedBag<Card>> sbCardSerde = withBinary(Serde.bagOf(cardSerde, COMMA_SEPARATOR),
+            (i, buffer) -> ByteBuffers.writeUnsignedLong(buffer, CardBag.of(i).packed()),
+            buffer -> CardBag.ofPacked(ByteBuffers.readUnsignedLong(buffer)).toSortedBag());
+
+    /**
+     * Serde that de/serializes a CardBag, in the same format as a SortedBag of cards
+     */
+    public final static Serde<CardBag> cardBagSerde = new Serde<>() {
+        @Override
+        public String serialize(CardBag i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public CardBag deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //each card is appended as many times as the bag contains it, separated from the previous one by a comma
+        @Override
+        public void serialize(CardBag i, StringBuilder text) {
+            boolean first = true;
+            for (Card card : Card.ALL) {
+                for (int n = i.countOf(card); n > 0; n--) {
+                    if (!first){ text.append(COMMA_SEPARATOR); }
+                    cardSerde.serialize(card, text);
+                    first = false;
+                }
+            }
+        }
+
+        //the cards are counted in place, between two separators
+        @Override
+        public CardBag deserialize(CharSequence text, int start, int end) {
+            if (start == end) { return CardBag.EMPTY; }
+            int[] counts = new int[Card.COUNT];
+            int cardStart = start;
+            while (true) {
+                int cardEnd = Serde.indexOf(text, COMMA_SEPARATOR, cardStart, end);
+                counts[Integer.parseInt(text, cardStart, cardEnd, 10)]++;
+                if (cardEnd == end){ break; }
+                cardStart = cardEnd + COMMA_SEPARATOR.length();
+            }
+            CardBag bag = CardBag.EMPTY;
+            for (Card card : Card.ALL) {
+                bag = bag.union(CardBag.of(counts[card.ordinal()], card));
+            }
+            return bag;
+        }
+
+        @Override
+        public void write(CardBag i, ByteBuffer buffer) { ByteBuffers.writeUnsignedLong(buffer, i.packed()); }
+
+        @Override
+        public CardBag read(ByteBuffer buffer) { return CardBag.ofPacked(ByteBuffers.readUnsignedLong(buffer)); }
+    };
 
     /**
      * Serde that de/serializes a SortedBag of tickets
@@ -91,49 +191,260 @@ public class Serdes {
     /**
      * Serde that de/serializes a Public Card State
      */
-    public final static Serde<PublicCardState> publicCardStateSerde = Serde.of(
-            i -> String.join(SEMICOLON_SEPARATOR, listCardSerde.serialize(i.faceUpCards()), intSerde.serialize(i.deckSize()), intSerde.serialize(i.discardsSize())),
-            str -> {
-                String[] noSeparator = str.split(Pattern.quote(SEMICOLON_SEPARATOR), -1);
-                return new PublicCardState(listCardSerde.deserialize(noSeparator[0]), intSerde.deserialize(noSeparator[1]), intSerde.deserialize(noSeparator[2]));
-            }
-    );
+    public final static Serde<PublicCardState> publicCardStateSerde = new Serde<>() {
+        @Override
+        public String serialize(PublicCardState i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public PublicCardState deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //the fields are appended to and parsed from the text in place, separated by semicolons
+        @Override
+        public void serialize(PublicCardState i, StringBuilder text) {
+            listCardSerde.serialize(i.faceUpCards(), text);
+            intSerde.serialize(i.deckSize(), text.append(SEMICOLON_SEPARATOR));
+            intSerde.serialize(i.discardsSize(), text.append(SEMICOLON_SEPARATOR));
+        }
+
+        @Override
+        public PublicCardState deserialize(CharSequence text, int start, int end) {
+            int faceUpCardsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, start, end);
+            int deckSizeStart = faceUpCardsEnd + SEMICOLON_SEPARATOR.length();
+            int deckSizeEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, deckSizeStart, end);
+            return new PublicCardState(listCardSerde.deserialize(text, start, faceUpCardsEnd),
+                    intSerde.deserialize(text, deckSizeStart, deckSizeEnd),
+                    intSerde.deserialize(text, deckSizeEnd + SEMICOLON_SEPARATOR.length(), end));
+        }
+
+        @Override
+        public void write(PublicCardState i, ByteBuffer buffer) {
+            listCardSerde.write(i.faceUpCards(), buffer);
+            ByteBuffers.writeUnsigned(buffer, i.deckSize());
+            ByteBuffers.writeUnsigned(buffer, i.discardsSize());
+        }
+
+        @Override
+        public PublicCardState read(ByteBuffer buffer) {
+            return new PublicCardState(listCardSerde.read(buffer), ByteBuffers.readUnsigned(buffer),
+                    ByteBuffers.readUnsigned(buffer));
+        }
+    };
 
     /**
      * Serde that de/serializes a Public Player State
      */
-    public final static Serde<PublicPlayerState> publicPlayerStateSerde = Serde.of(
-            i -> String.join(SEMICOLON_SEPARATOR, intSerde.serialize(i.ticketCount()), intSerde.serialize(i.cardCount()), listRouteSerde.serialize(i.routes())),
-            str ->{
-                String[] noSeparator = str.split(Pattern.quote(SEMICOLON_SEPARATOR), -1);
-                return new PublicPlayerState(intSerde.deserialize(noSeparator[0]), intSerde.deserialize(noSeparator[1]), listRouteSerde.deserialize(noSeparator[2]));
-            }
-    );
+    public final static Serde<PublicPlayerState> publicPlayerStateSerde = new Serde<>() {
+        @Override
+        public String serialize(PublicPlayerState i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public PublicPlayerState deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //the fields are appended to and parsed from the text in place, separated by semicolons
+        @Override
+        public void serialize(PublicPlayerState i, StringBuilder text) {
+            intSerde.serialize(i.ticketCount(), text);
+            intSerde.serialize(i.cardCount(), text.append(SEMICOLON_SEPARATOR));
+            listRouteSerde.serialize(i.routes(), text.append(SEMICOLON_SEPARATOR));
+        }
+
+        @Override
+        public PublicPlayerState deserialize(CharSequence text, int start, int end) {
+            int ticketCountEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, start, end);
+            int cardCountStart = ticketCountEnd + SEMICOLON_SEPARATOR.length();
+            int cardCountEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, cardCountStart, end);
+            return new PublicPlayerState(intSerde.deserialize(text, start, ticketCountEnd),
+                    intSerde.deserialize(text, cardCountStart, cardCountEnd),
+                    listRouteSerde.deserialize(text, cardCountEnd + SEMICOLON_SEPARATOR.length(), end));
+        }
+
+        @Override
+        public void write(PublicPlayerState i, ByteBuffer buffer) {
+            ByteBuffers.writeUnsigned(buffer, i.ticketCount());
+            ByteBuffers.writeUnsigned(buffer, i.cardCount());
+            writeRouteBits(i, buffer);
+        }
+
+        @Override
+        public PublicPlayerState read(ByteBuffer buffer) {
+            return new PublicPlayerState(ByteBuffers.readUnsigned(buffer), ByteBuffers.readUnsigned(buffer),
+                    listRouteSerde.read(buffer));
+        }
+    };
 
     /**
      * Serde that de/serializes a list of Player State
      */
-    public final static Serde<PlayerState> playerStateSerde =Serde.of(
-            i -> String.join(SEMICOLON_SEPARATOR, sbTicketSerde.serialize(i.tickets()), sbCardSerde.serialize(i.cards()), listRouteSerde.serialize(i.routes())),
-            str -> {
-                String[] noSeparator = str.split(Pattern.quote(SEMICOLON_SEPARATOR), -1);
-                return new PlayerState(sbTicketSerde.deserialize(noSeparator[0]), sbCardSerde.deserialize(noSeparator[1]), listRouteSerde.deserialize(noSeparator[2]));
-            }
-    );
+    public final static Serde<PlayerState> playerStateSerde = new Serde<>() {
+        @Override
+        public String serialize(PlayerState i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public PlayerState deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //the fields are appended to and parsed from the text in place, separated by semicolons
+        @Override
+        public void serialize(PlayerState i, StringBuilder text) {
+            sbTicketSerde.serialize(i.tickets(), text);
+            cardBagSerde.serialize(i.cardBag(), text.append(SEMICOLON_SEPARATOR));
+            listRouteSerde.serialize(i.routes(), text.append(SEMICOLON_SEPARATOR));
+        }
+
+        @Override
+        public PlayerState deserialize(CharSequence text, int start, int end) {
+            int ticketsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, start, end);
+            int cardsStart = ticketsEnd + SEMICOLON_SEPARATOR.length();
+            int cardsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, cardsStart, end);
+            return new PlayerState(sbTicketSerde.deserialize(text, start, ticketsEnd),
+                    cardBagSerde.deserialize(text, cardsStart, cardsEnd),
+                    listRouteSerde.deserialize(text, cardsEnd + SEMICOLON_SEPARATOR.length(), end));
+        }
+
+        @Override
+        public void write(PlayerState i, ByteBuffer buffer) {
+            sbTicketSerde.write(i.tickets(), buffer);
+            cardBagSerde.write(i.cardBag(), buffer);
+            writeRouteBits(i, buffer);
+        }
+
+        @Override
+        public PlayerState read(ByteBuffer buffer) {
+            return new PlayerState(sbTicketSerde.read(buffer), cardBagSerde.read(buffer), listRouteSerde.read(buffer));
+        }
+    };
 
     /**
      * Serde that de/serializes a Public Game State
      */
-    public final static Serde<PublicGameState> publicGameStateSerde = Serde.of(
-            i -> String.join(COLON_SEPARATOR, intSerde.serialize(i.ticketsCount()), publicCardStateSerde.serialize(i.cardState()), playerIdSerde.serialize(i.currentPlayerId()) ,
-                    publicPlayerStateSerde.serialize(i.playerState(PlayerId.PLAYER_1)), publicPlayerStateSerde.serialize(i.playerState(PlayerId.PLAYER_2)), playerIdSerde.serialize(i.lastPlayer())),
-            str-> {
-                String[] noSeparator = str.split(Pattern.quote(COLON_SEPARATOR), -1);
-                Map<PlayerId, PublicPlayerState> playerIdPlayerStateMap = new HashMap<>();
-                playerIdPlayerStateMap.put(PlayerId.PLAYER_1, publicPlayerStateSerde.deserialize(noSeparator[3]));
-                playerIdPlayerStateMap.put(PlayerId.PLAYER_2, publicPlayerStateSerde.deserialize(noSeparator[4]));
-                return new PublicGameState(intSerde.deserialize(noSeparator[0]), publicCardStateSerde.deserialize(noSeparator[1]), playerIdSerde.deserialize(noSeparator[2]),
-                        playerIdPlayerStateMap, playerIdSerde.deserialize(noSeparator[5]));
+    public final static Serde<PublicGameState> publicGameStateSerde = new Serde<>() {
+        @Override
+        public String serialize(PublicGameState i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public PublicGameState deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //the fields are appended to and parsed from the text in place, separated by colons
+        @Override
+        public void serialize(PublicGameState i, StringBuilder text) {
+            intSerde.serialize(i.ticketsCount(), text);
+            publicCardStateSerde.serialize(i.cardState(), text.append(COLON_SEPARATOR));
+            playerIdSerde.serialize(i.currentPlayerId(), text.append(COLON_SEPARATOR));
+            publicPlayerStateSerde.serialize(i.playerState(PlayerId.PLAYER_1), text.append(COLON_SEPARATOR));
+            publicPlayerStateSerde.serialize(i.playerState(PlayerId.PLAYER_2), text.append(COLON_SEPARATOR));
+            playerIdSerde.serialize(i.lastPlayer(), text.append(COLON_SEPARATOR));
+        }
+
+        @Override
+        public PublicGameState deserialize(CharSequence text, int start, int end) {
+            int ticketsCountEnd = Serde.indexOf(text, COLON_SEPARATOR, start, end);
+            int cardStateStart = ticketsCountEnd + COLON_SEPARATOR.length();
+            int cardStateEnd = Serde.indexOf(text, COLON_SEPARATOR, cardStateStart, end);
+            int currentPlayerIdStart = cardStateEnd + COLON_SEPARATOR.length();
+            int currentPlayerIdEnd = Serde.indexOf(text, COLON_SEPARATOR, currentPlayerIdStart, end);
+            Map<PlayerId, PublicPlayerState> playerIdPlayerStateMap = new EnumMap<>(PlayerId.class);
+            int playerStateEnd = currentPlayerIdEnd;
+            for (PlayerId playerId : PlayerId.ALL) {
+                int playerStateStart = playerStateEnd + COLON_SEPARATOR.length();
+                playerStateEnd = Serde.indexOf(text, COLON_SEPARATOR, playerStateStart, end);
+                playerIdPlayerStateMap.put(playerId,
+                        publicPlayerStateSerde.deserialize(text, playerStateStart, playerStateEnd));
             }
-    );
-}
\ No newline at end of file
+            return new PublicGameState(intSerde.deserialize(text, start, ticketsCountEnd),
+                    publicCardStateSerde.deserialize(text, cardStateStart, cardStateEnd),
+                    playerIdSerde.deserialize(text, currentPlayerIdStart, currentPlayerIdEnd),
+                    playerIdPlayerStateMap,
+                    playerIdSerde.deserialize(text, playerStateEnd + COLON_SEPARATOR.length(), end));
+        }
+
+        @Override
+        public void write(PublicGameState i, ByteBuffer buffer) {
+            ByteBuffers.writeUnsigned(buffer, i.ticketsCount());
+            publicCardStateSerde.write(i.cardState(), buffer);
+            playerIdSerde.write(i.currentPlayerId(), buffer);
+            publicPlayerStateSerde.write(i.playerState(PlayerId.PLAYER_1), buffer);
+            publicPlayerStateSerde.write(i.playerState(PlayerId.PLAYER_2), buffer);
+            playerIdSerde.write(i.lastPlayer(), buffer);
+        }
+
+        @Override
+        public PublicGameState read(ByteBuffer buffer) {
+            int ticketsCount = ByteBuffers.readUnsigned(buffer);
+            PublicCardState cardState = publicCardStateSerde.read(buffer);
+            PlayerId currentPlayerId = playerIdSerde.read(buffer);
+            Map<PlayerId, PublicPlayerState> playerIdPlayerStateMap = new EnumMap<>(PlayerId.class);
+            playerIdPlayerStateMap.put(PlayerId.PLAYER_1, publicPlayerStateSerde.read(buffer));
+            playerIdPlayerStateMap.put(PlayerId.PLAYER_2, publicPlayerStateSerde.read(buffer));
+            return new PublicGameState(ticketsCount, cardState, currentPlayerId, playerIdPlayerStateMap,
+                    playerIdSerde.read(buffer));
+        }
+    };
+
+    /**
+     * Writes the routes of a player in binary as listRouteSerde does, directly from the bits the state keeps
+     * @param playerState the state of the player
+     * @param buffer buffer in which the routes are written
+     * @throws IllegalArgumentException if a route of the player isn't one of the routes of the map
+     */
+    private static void writeRouteBits(PublicPlayerState playerState, ByteBuffer buffer){
+        BitSet bits = playerState.routeBits();
+        Preconditions.checkArgument(bits.cardinality() == playerState.routes().size());
+        writeRouteBits(bits, buffer);
+    }
+
+    /**
+     * Writes a set of indices of routes as its bytes, preceded by their number
+     * @param bits the indices of the routes
+     * @param buffer buffer in which the routes are written
+     */
+    private static void writeRouteBits(BitSet bits, ByteBuffer buffer){
+        byte[] bytes = bits.toByteArray();
+        ByteBuffers.writeUnsigned(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Adds a binary representation to a serde
+     * @param serde serde giving the textual representation, in place as well
+     * @param write function that writes the binary representation in a buffer
+     * @param read function that reads the binary representation from a buffer
+     * @param <T> type of the object
+     * @return a serde having the textual representation of the given one, and the given binary representation
+     */
+    private static <T> Serde<T> withBinary(Serde<T> serde, BiConsumer<T, ByteBuffer> write, Function<ByteBuffer, T> read){
+        return new Serde<>() {
+            @Override
+            public String serialize(T t) { return serde.serialize(t); }
+
+            @Override
+            public T deserialize(String s) { return serde.deserialize(s); }
+
+            @Override
+            public void serialize(T t, StringBuilder text) { serde.serialize(t, text); }
+
+            @Override
+            public T deserialize(CharSequence text, int start, int end) { return serde.deserialize(text, start, end); }
+
+            @Override
+            public void write(T t, ByteBuffer buffer) { write.accept(t, buffer); }
+
+            @Override
+            public T read(ByteBuffer buffer) { return read.apply(buffer); }
+        };
+    }
+}
@@ -0,0 +1,330 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Broadcast of a game to any number of spectators, who receive its infos and the public part of its states
+ *
+ * The game is observed through one of its players, whose infos and states are each encoded once in a binary frame,
+ * shared by all the spectators. Each spectator has a queue of the frames not sent yet, emptied by a thread of its
+ * own, so that the game never waits for a spectator: a new state replaces the one still waiting in the queue, since
+ * it is complete, and when too many infos are waiting the oldest ones are dropped. A spectator joining the game
+ * first receives the last state of the game.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class SpectatorBroadcast implements Closeable {
+
+    //maximum number of frames waiting to be sent to a spectator, beyond which the oldest ones are dropped
+    private static final int MAX_PENDING_FRAMES = 64;
+
+    private final ThreadFactory threads;
+    private final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    //frame of the last state broadcast, sent first to the spectators joining the game, null if there is none yet
+    private volatile byte[] lastState;
+    private volatile boolean closed;
+
+    /**
+     * SpectatorBroadcast constructor
+     * @param threads factory of the threads sending the frames to the spectators, one per spectator
+     */
+    public SpectatorBroadcast(ThreadFactory threads){
+        this.threads = threads;
+    }
+
+    /**
+     * Creates a player forwarding everything to the given player, and broadcasting the infos and the states it
+     * receives, the players all receiving the same infos and public states
+     * @param player the player observed
+     * @return the player
+     */
+    public Player observing(Player player){
+        return new ObservingPlayer(player);
+    }
+
+    /**
+     * Adds a spectator, which receives the frames in the binary format until its connection or the broadcast is
+     * closed
+     * @param socket socket connected to the spectator
+     * @throws IOException if the stream of the socket can't be opened
+     */
+    public void add(Socket socket) throws IOException {
+        Spectator spectator = new Spectator(socket);
+        byte[] state = lastState;
+        if (state != null){
+            spectator.offer(state, true);
+        }
+        spectators.add(spectator);
+        //the broadcast may have been closed before the spectator was added
+        if (closed){
+            spectator.end();
+        }
+        threads.newThread(spectator::run).start();
+    }
+
+    /**
+     * Spectator count getter
+     * @return the number of spectators currently connected
+     */
+    public int spectatorCount(){ return spectators.size(); }
+
+    /**
+     * Dropped frame count getter
+     * @return the number of frames that weren't sent to a spectator because it was too slow
+     */
+    public long droppedFrameCount(){ return droppedFrames.get(); }
+
+    /**
+     * Ends the broadcast, the connection of each spectator being closed once the frames already queued for it are sent
+     */
+    @Override
+    public void close(){
+        closed = true;
+        for (Spectator spectator : spectators){
+            spectator.end();
+        }
+    }
+
+    /**
+     * Broadcasts an info to the spectators
+     * @param info the info
+     */
+    void broadcastInfo(String info){
+        broadcast(MessageChannel.binaryFrame(MessageId.RECEIVE_INFO, Serdes.stringSerde, info), false);
+    }
+
+    /**
+     * Broadcasts the public part of a state to the spectators
+     * @param state the state
+     */
+    void broadcastState(PublicGameState state){
+        byte[] frame = MessageChannel.binaryFrame(MessageId.UPDATE_PUBLIC_STATE, Serdes.publicGameStateSerde, state);
+        lastState = frame;
+        broadcast(frame, true);
+    }
+
+    /**
+     * Queues a frame for every spectator
+     * @param frame the frame
+     * @param isState true iff the frame contains a state
+     */
+    private void broadcast(byte[] frame, boolean isState){
+        for (Spectator spectator : spectators){
+            spectator.offer(frame, isState);
+        }
+    }
+
+    /**
+     * Spectator connected to the broadcast, with the frames waiting to be sent to it
+     */
+    private final class Spectator {
+        private final Socket socket;
+        private final OutputStream out;
+        //lock guarding the fields below, rather than a monitor which would pin a virtual thread while it waits
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        //frames waiting to be sent, and the one among them that contains a state
+        private final ArrayDeque<byte[]> frames = new ArrayDeque<>();
+        private byte[] pendingState;
+        //true once no frame is queued anymore, and true once the connection is closed
+        private boolean ended;
+        private boolean closed;
+
+        private Spectator(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        /**
+         * Queues a frame, without ever waiting
+         * @param frame the frame
+         * @param isState true iff the frame contains a state, which then replaces the state waiting in the queue
+         */
+        private void offer(byte[] frame, boolean isState){
+            lock.lock();
+            try {
+                if (ended || closed){ return; }
+                if (isState){
+                    if (pendingState != null){
+                        frames.removeLastOccurrence(pendingState);
+                        droppedFrames.incrementAndGet();
+                    }
+                    pendingState = frame;
+                }
+                frames.addLast(frame);
+                if (frames.size() > MAX_PENDING_FRAMES){
+                    if (frames.removeFirst() == pendingState){
+                        pendingState = null;
+                    }
+                    droppedFrames.incrementAndGet();
+                }
+                changed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops queuing frames, the connection being closed once the frames already queued are sent
+         */
+        private void end(){
+            lock.lock();
+            try {
+                ended = true;
+                changed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Sends the frames as they are queued, until the connection is closed or the broadcast ends
+         */
+        private void run(){
+            List<byte[]> batch = new ArrayList<>();
+            try {
+                while (true){
+                    lock.lock();
+                    try {
+                        while (!closed && !ended && frames.isEmpty()){
+                            changed.await();
+                        }
+                        if (closed || frames.isEmpty()){ return; }
+                        batch.addAll(frames);
+                        frames.clear();
+                        pendingState = null;
+                    }
+                    finally {
+                        lock.unlock();
+                    }
+                    for (byte[] frame : batch){
+                        out.write(frame);
+                    }
+                    out.flush();
+                    batch.clear();
+                }
+            }
+            catch (IOException | InterruptedException e) {
+                //the spectator is disconnected
+            }
+            finally {
+                close();
+            }
+        }
+
+        private void close(){
+            lock.lock();
+            try {
+                closed = true;
+                frames.clear();
+                pendingState = null;
+                changed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+            spectators.remove(this);
+            try {
+                socket.close();
+            }
+            catch (IOException e) {
+                //the connection is abandoned anyway
+            }
+        }
+    }
+
+    /**
+     * Player forwarding everything to another player, and broadcasting the infos and the states it receives
+     */
+    private final class ObservingPlayer implements Player {
+        private final Player player;
+
+        private ObservingPlayer(Player player){
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info){
+            broadcastInfo(info);
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState){
+            broadcastState(newState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets){
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets(){
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn(){
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot(){
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute(){
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards(){
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void flush(){
+            player.flush();
+        }
+    }
+}
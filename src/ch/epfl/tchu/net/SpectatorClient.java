@@ -0,0 +1,80 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PublicGameState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Client watching a game of a server without playing it
+ *
+ * The client sends the identifier of the game it wants to watch on a line of text, after which the server sends it
+ * the infos and the public states of the game as binary messages, until the game is over. A slow client may miss some
+ * infos and intermediate states, but always receives the last state of the game.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class SpectatorClient {
+
+    //attributes of the client: the server, the game watched and the consumers of the infos and of the states
+    private final String host;
+    private final int port;
+    private final long gameId;
+    private final Consumer<String> infos;
+    private final Consumer<PublicGameState> states;
+
+    /**
+     * SpectatorClient constructor
+     * @param host the host of the server
+     * @param port the port on which the server accepts spectators
+     * @param gameId identifier of the game watched
+     * @param infos consumer of the infos of the game
+     * @param states consumer of the public states of the game
+     */
+    public SpectatorClient(String host, int port, long gameId, Consumer<String> infos,
+                           Consumer<PublicGameState> states){
+        this.host = host;
+        this.port = port;
+        this.gameId = gameId;
+        this.infos = infos;
+        this.states = states;
+    }
+
+    /**
+     * Receives the infos and the states of the game until the server closes the connection, which it does at the end
+     * of the game or immediately if the game isn't running
+     * @throws UncheckedIOException if an IOException is caught
+     */
+    public void run(){
+        try (Socket s = new Socket(host, port)) {
+            OutputStream out = s.getOutputStream();
+            out.write((gameId + "\n").getBytes(US_ASCII));
+            out.flush();
+
+            MessageChannel channel = MessageChannel.of(WireFormat.BINARY, s);
+            MessageId messageId;
+            while ((messageId = channel.nextMessage()) != null){
+                switch (messageId){
+                    case RECEIVE_INFO:
+                        infos.accept(channel.read(Serdes.stringSerde));
+                        break;
+                    case UPDATE_PUBLIC_STATE:
+                        states.accept(channel.read(Serdes.publicGameStateSerde));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unexpected message for a spectator");
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
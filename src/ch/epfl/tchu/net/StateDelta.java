@@ -0,0 +1,334 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.gui.StringsFr.*;
+
+/**
+ * Difference between two consecutive states sent to a player, used to update a state instead of sending it again
+ *
+ * A delta contains the counts and ids of the new state, the face-up cards that changed, the routes claimed since the
+ * old state and the tickets and cards the player gained or lost. It can only be computed when the new state follows
+ * the old one in the same game, i.e. when no route nor ticket was lost.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+final class StateDelta {
+
+    //serde of the routes claimed since the old state, written as a list since there are usually very few of them
+    private static final Serde<List<Route>> addedRoutesSerde = Serde.listOf(Serdes.routeSerde, COMMA_SEPARATOR);
+
+    //attributes of the public part of the delta: the new counts of the game, card and player states, the mask of
+    //the face-up slots that changed with their new cards, the ids of the new state, and the routes claimed by each
+    //player since the old state
+    private final int ticketsCount;
+    private final int changedSlots;
+    private final List<Card> changedFaceUpCards;
+    private final int deckSize;
+    private final int discardsSize;
+    private final PlayerId currentPlayerId;
+    private final PlayerId lastPlayer;
+    private final int[] ticketCounts;
+    private final int[] cardCounts;
+    private final List<List<Route>> addedRoutes;
+
+    //attributes of the private part of the delta: the tickets, cards and routes the player gained, and the cards it
+    //lost
+    private final SortedBag<Ticket> addedTickets;
+    private final CardBag addedCards;
+    private final CardBag removedCards;
+    private final List<Route> ownAddedRoutes;
+
+    private StateDelta(int ticketsCount, int changedSlots, List<Card> changedFaceUpCards, int deckSize,
+                       int discardsSize, PlayerId currentPlayerId, PlayerId lastPlayer, int[] ticketCounts,
+                       int[] cardCounts, List<List<Route>> addedRoutes, SortedBag<Ticket> addedTickets,
+                       CardBag addedCards, CardBag removedCards, List<Route> ownAddedRoutes){
+        this.ticketsCount = ticketsCount;
+        this.changedSlots = changedSlots;
+        this.changedFaceUpCards = changedFaceUpCards;
+        this.deckSize = deckSize;
+        this.discardsSize = discardsSize;
+        this.currentPlayerId = currentPlayerId;
+        this.lastPlayer = lastPlayer;
+        this.ticketCounts = ticketCounts;
+        this.cardCounts = cardCounts;
+        this.addedRoutes = addedRoutes;
+        this.addedTickets = addedTickets;
+        this.addedCards = addedCards;
+        this.removedCards = removedCards;
+        this.ownAddedRoutes = ownAddedRoutes;
+    }
+
+    /**
+     * Computes the delta between two states
+     * @param oldState public game state sent previously
+     * @param oldOwnState player state sent previously
+     * @param newState public game state to send
+     * @param newOwnState player state to send
+     * @return the delta between the states, or null if the new states don't follow the old ones
+     */
+    static StateDelta between(PublicGameState oldState, PlayerState oldOwnState,
+                              PublicGameState newState, PlayerState newOwnState){
+        List<Route> ownAddedRoutes = addedRoutes(oldOwnState.routes(), newOwnState.routes());
+        if (ownAddedRoutes == null || !newOwnState.tickets().contains(oldOwnState.tickets())){
+            return null;
+        }
+
+        int[] ticketCounts = new int[PlayerId.COUNT];
+        int[] cardCounts = new int[PlayerId.COUNT];
+        List<List<Route>> addedRoutes = new ArrayList<>(PlayerId.COUNT);
+        for (PlayerId playerId : PlayerId.ALL){
+            PublicPlayerState playerState = newState.playerState(playerId);
+            List<Route> playerAddedRoutes = addedRoutes(oldState.playerState(playerId).routes(), playerState.routes());
+            if (playerAddedRoutes == null){
+                return null;
+            }
+            ticketCounts[playerId.ordinal()] = playerState.ticketCount();
+            cardCounts[playerId.ordinal()] = playerState.cardCount();
+            addedRoutes.add(playerAddedRoutes);
+        }
+
+        int changedSlots = 0;
+        List<Card> changedFaceUpCards = new ArrayList<>();
+        for (int slot : Constants.FACE_UP_CARD_SLOTS){
+            Card card = newState.cardState().faceUpCard(slot);
+            if (card != oldState.cardState().faceUpCard(slot)){
+                changedSlots |= 1 << slot;
+                changedFaceUpCards.add(card);
+            }
+        }
+
+        return new StateDelta(newState.ticketsCount(), changedSlots, changedFaceUpCards,
+                newState.cardState().deckSize(), newState.cardState().discardsSize(), newState.currentPlayerId(),
+                newState.lastPlayer(), ticketCounts, cardCounts, addedRoutes,
+                newOwnState.tickets().difference(oldOwnState.tickets()),
+                newOwnState.cardBag().difference(oldOwnState.cardBag()),
+                oldOwnState.cardBag().difference(newOwnState.cardBag()),
+                ownAddedRoutes);
+    }
+
+    /**
+     * Applies the delta to the public game state it was computed from
+     * @param oldState public game state received previously
+     * @return the new public game state
+     */
+    PublicGameState applyTo(PublicGameState oldState){
+        List<Card> faceUpCards = new ArrayList<>(oldState.cardState().faceUpCards());
+        int changed = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS){
+            if ((changedSlots & (1 << slot)) != 0){
+                faceUpCards.set(slot, changedFaceUpCards.get(changed++));
+            }
+        }
+
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL){
+            int i = playerId.ordinal();
+            playerStates.put(playerId, new PublicPlayerState(ticketCounts[i], cardCounts[i],
+                    concat(oldState.playerState(playerId).routes(), addedRoutes.get(i))));
+        }
+
+        return new PublicGameState(ticketsCount, new PublicCardState(faceUpCards, deckSize, discardsSize),
+                currentPlayerId, playerStates, lastPlayer);
+    }
+
+    /**
+     * Applies the delta to the player state it was computed from
+     * @param oldOwnState player state received previously
+     * @return the new player state
+     */
+    PlayerState applyTo(PlayerState oldOwnState){
+        return new PlayerState(oldOwnState.tickets().union(addedTickets),
+                oldOwnState.cardBag().difference(removedCards).union(addedCards),
+                concat(oldOwnState.routes(), ownAddedRoutes));
+    }
+
+    /**
+     * Serde that de/serializes a delta. In text, the delta is written in the same way as a public game state
+     * followed by the private part, and only contains the face-up cards that changed and the routes that were added
+     */
+    static final Serde<StateDelta> serde = new Serde<>() {
+        @Override
+        public String serialize(StateDelta i) {
+            StringBuilder text = new StringBuilder();
+            serialize(i, text);
+            return text.toString();
+        }
+
+        @Override
+        public StateDelta deserialize(String str) { return deserialize(str, 0, str.length()); }
+
+        //the fields are appended to and parsed from the text in place, without splitting it
+        @Override
+        public void serialize(StateDelta i, StringBuilder text) {
+            Serdes.intSerde.serialize(i.ticketsCount, text);
+            Serdes.intSerde.serialize(i.changedSlots, text.append(COLON_SEPARATOR));
+            Serdes.listCardSerde.serialize(i.changedFaceUpCards, text.append(SEMICOLON_SEPARATOR));
+            Serdes.intSerde.serialize(i.deckSize, text.append(SEMICOLON_SEPARATOR));
+            Serdes.intSerde.serialize(i.discardsSize, text.append(SEMICOLON_SEPARATOR));
+            Serdes.playerIdSerde.serialize(i.currentPlayerId, text.append(COLON_SEPARATOR));
+            for (PlayerId playerId : PlayerId.ALL){
+                int p = playerId.ordinal();
+                Serdes.intSerde.serialize(i.ticketCounts[p], text.append(COLON_SEPARATOR));
+                Serdes.intSerde.serialize(i.cardCounts[p], text.append(SEMICOLON_SEPARATOR));
+                addedRoutesSerde.serialize(i.addedRoutes.get(p), text.append(SEMICOLON_SEPARATOR));
+            }
+            Serdes.playerIdSerde.serialize(i.lastPlayer, text.append(COLON_SEPARATOR));
+            Serdes.sbTicketSerde.serialize(i.addedTickets, text.append(COLON_SEPARATOR));
+            Serdes.cardBagSerde.serialize(i.addedCards, text.append(SEMICOLON_SEPARATOR));
+            Serdes.cardBagSerde.serialize(i.removedCards, text.append(SEMICOLON_SEPARATOR));
+            addedRoutesSerde.serialize(i.ownAddedRoutes, text.append(SEMICOLON_SEPARATOR));
+        }
+
+        @Override
+        public StateDelta deserialize(CharSequence text, int start, int end) {
+            int ticketsCountEnd = Serde.indexOf(text, COLON_SEPARATOR, start, end);
+            int ticketsCount = Serdes.intSerde.deserialize(text, start, ticketsCountEnd);
+
+            int cardStateStart = ticketsCountEnd + COLON_SEPARATOR.length();
+            int cardStateEnd = Serde.indexOf(text, COLON_SEPARATOR, cardStateStart, end);
+            int changedSlotsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, cardStateStart, cardStateEnd);
+            int faceUpCardsStart = changedSlotsEnd + SEMICOLON_SEPARATOR.length();
+            int faceUpCardsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, faceUpCardsStart, cardStateEnd);
+            int deckSizeStart = faceUpCardsEnd + SEMICOLON_SEPARATOR.length();
+            int deckSizeEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, deckSizeStart, cardStateEnd);
+            int changedSlots = Serdes.intSerde.deserialize(text, cardStateStart, changedSlotsEnd);
+            List<Card> changedFaceUpCards = Serdes.listCardSerde.deserialize(text, faceUpCardsStart, faceUpCardsEnd);
+            int deckSize = Serdes.intSerde.deserialize(text, deckSizeStart, deckSizeEnd);
+            int discardsSize = Serdes.intSerde.deserialize(text, deckSizeEnd + SEMICOLON_SEPARATOR.length(),
+                    cardStateEnd);
+
+            int currentPlayerIdStart = cardStateEnd + COLON_SEPARATOR.length();
+            int currentPlayerIdEnd = Serde.indexOf(text, COLON_SEPARATOR, currentPlayerIdStart, end);
+            PlayerId currentPlayerId = Serdes.playerIdSerde.deserialize(text, currentPlayerIdStart, currentPlayerIdEnd);
+
+            int[] ticketCounts = new int[PlayerId.COUNT];
+            int[] cardCounts = new int[PlayerId.COUNT];
+            List<List<Route>> addedRoutes = new ArrayList<>(PlayerId.COUNT);
+            int playerEnd = currentPlayerIdEnd;
+            for (PlayerId playerId : PlayerId.ALL){
+                int playerStart = playerEnd + COLON_SEPARATOR.length();
+                playerEnd = Serde.indexOf(text, COLON_SEPARATOR, playerStart, end);
+                int ticketCountEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, playerStart, playerEnd);
+                int cardCountStart = ticketCountEnd + SEMICOLON_SEPARATOR.length();
+                int cardCountEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, cardCountStart, playerEnd);
+                ticketCounts[playerId.ordinal()] = Serdes.intSerde.deserialize(text, playerStart, ticketCountEnd);
+                cardCounts[playerId.ordinal()] = Serdes.intSerde.deserialize(text, cardCountStart, cardCountEnd);
+                addedRoutes.add(addedRoutesSerde.deserialize(text, cardCountEnd + SEMICOLON_SEPARATOR.length(),
+                        playerEnd));
+            }
+
+            int lastPlayerStart = playerEnd + COLON_SEPARATOR.length();
+            int lastPlayerEnd = Serde.indexOf(text, COLON_SEPARATOR, lastPlayerStart, end);
+            PlayerId lastPlayer = Serdes.playerIdSerde.deserialize(text, lastPlayerStart, lastPlayerEnd);
+
+            int ownStart = lastPlayerEnd + COLON_SEPARATOR.length();
+            int addedTicketsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, ownStart, end);
+            int addedCardsStart = addedTicketsEnd + SEMICOLON_SEPARATOR.length();
+            int addedCardsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, addedCardsStart, end);
+            int removedCardsStart = addedCardsEnd + SEMICOLON_SEPARATOR.length();
+            int removedCardsEnd = Serde.indexOf(text, SEMICOLON_SEPARATOR, removedCardsStart, end);
+            return new StateDelta(ticketsCount, changedSlots, changedFaceUpCards, deckSize, discardsSize,
+                    currentPlayerId, lastPlayer, ticketCounts, cardCounts, addedRoutes,
+                    Serdes.sbTicketSerde.deserialize(text, ownStart, addedTicketsEnd),
+                    Serdes.cardBagSerde.deserialize(text, addedCardsStart, addedCardsEnd),
+                    Serdes.cardBagSerde.deserialize(text, removedCardsStart, removedCardsEnd),
+                    addedRoutesSerde.deserialize(text, removedCardsEnd + SEMICOLON_SEPARATOR.length(), end));
+        }
+
+        @Override
+        public void write(StateDelta i, ByteBuffer buffer) {
+            ByteBuffers.writeUnsigned(buffer, i.ticketsCount);
+            buffer.put((byte) i.changedSlots);
+            for (Card card : i.changedFaceUpCards){
+                Serdes.cardSerde.write(card, buffer);
+            }
+            ByteBuffers.writeUnsigned(buffer, i.deckSize);
+            ByteBuffers.writeUnsigned(buffer, i.discardsSize);
+            Serdes.playerIdSerde.write(i.currentPlayerId, buffer);
+            Serdes.playerIdSerde.write(i.lastPlayer, buffer);
+            for (PlayerId playerId : PlayerId.ALL){
+                ByteBuffers.writeUnsigned(buffer, i.ticketCounts[playerId.ordinal()]);
+                ByteBuffers.writeUnsigned(buffer, i.cardCounts[playerId.ordinal()]);
+                addedRoutesSerde.write(i.addedRoutes.get(playerId.ordinal()), buffer);
+            }
+            Serdes.sbTicketSerde.write(i.addedTickets, buffer);
+            Serdes.cardBagSerde.write(i.addedCards, buffer);
+            Serdes.cardBagSerde.write(i.removedCards, buffer);
+            addedRoutesSerde.write(i.ownAddedRoutes, buffer);
+        }
+
+        @Override
+        public StateDelta read(ByteBuffer buffer) { return StateDelta.read(buffer); }
+    };
+
+    /**
+     * Reads a delta from its binary representation
+     * @param buffer buffer from which the delta is read
+     * @return the delta
+     */
+    private static StateDelta read(ByteBuffer buffer){
+        int ticketsCount = ByteBuffers.readUnsigned(buffer);
+        int changedSlots = buffer.get();
+        List<Card> changedFaceUpCards = new ArrayList<>(Integer.bitCount(changedSlots));
+        for (int i = 0; i < Integer.bitCount(changedSlots); i++){
+            changedFaceUpCards.add(Serdes.cardSerde.read(buffer));
+        }
+        int deckSize = ByteBuffers.readUnsigned(buffer);
+        int discardsSize = ByteBuffers.readUnsigned(buffer);
+        PlayerId currentPlayerId = Serdes.playerIdSerde.read(buffer);
+        PlayerId lastPlayer = Serdes.playerIdSerde.read(buffer);
+        int[] ticketCounts = new int[PlayerId.COUNT];
+        int[] cardCounts = new int[PlayerId.COUNT];
+        List<List<Route>> addedRoutes = new ArrayList<>(PlayerId.COUNT);
+        for (PlayerId playerId : PlayerId.ALL){
+            ticketCounts[playerId.ordinal()] = ByteBuffers.readUnsigned(buffer);
+            cardCounts[playerId.ordinal()] = ByteBuffers.readUnsigned(buffer);
+            addedRoutes.add(addedRoutesSerde.read(buffer));
+        }
+        SortedBag<Ticket> addedTickets = Serdes.sbTicketSerde.read(buffer);
+        CardBag addedCards = Serdes.cardBagSerde.read(buffer);
+        CardBag removedCards = Serdes.cardBagSerde.read(buffer);
+        return new StateDelta(ticketsCount, changedSlots, changedFaceUpCards, deckSize, discardsSize,
+                currentPlayerId, lastPlayer, ticketCounts, cardCounts, addedRoutes,
+                addedTickets, addedCards, removedCards, addedRoutesSerde.read(buffer));
+    }
+
+    /**
+     * Computes the routes claimed between two lists of routes
+     * @param oldRoutes routes of the old state
+     * @param newRoutes routes of the new state
+     * @return the routes at the end of newRoutes that follow oldRoutes, or null if newRoutes doesn't start with
+     * oldRoutes
+     */
+    private static List<Route> addedRoutes(List<Route> oldRoutes, List<Route> newRoutes){
+        if (newRoutes.size() < oldRoutes.size() || !newRoutes.subList(0, oldRoutes.size()).equals(oldRoutes)){
+            return null;
+        }
+        return List.copyOf(newRoutes.subList(oldRoutes.size(), newRoutes.size()));
+    }
+
+    /**
+     * Concatenates two lists of routes
+     * @param routes first routes
+     * @param addedRoutes routes following the first ones
+     * @return the list of all the routes, or the first list if there isn't any route to add
+     */
+    private static List<Route> concat(List<Route> routes, List<Route> addedRoutes){
+        if (addedRoutes.isEmpty()){
+            return routes;
+        }
+        List<Route> allRoutes = new ArrayList<>(routes);
+        allRoutes.addAll(addedRoutes);
+        return allRoutes;
+    }
+}
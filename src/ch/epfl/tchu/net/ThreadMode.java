@@ -0,0 +1,109 @@
+package ch.epfl.tchu.net;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kinds of threads on which the games and the connections of the players run
+ *
+ * The players are called through a blocking interface, so that a game, and the connections of its remote players,
+ * block a thread while waiting for a decision. Virtual threads, available from Java 21, are parked instead of
+ * blocking a thread of the system while they wait, which allows many idle games to run at once. They are created
+ * through reflection, so that the code still compiles and runs with older versions of Java, which use platform
+ * threads instead.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public enum ThreadMode {
+
+    /**
+     * Platform threads, each bound to a thread of the system
+     */
+    PLATFORM,
+
+    /**
+     * Virtual threads, scheduled by the virtual machine on a few threads of the system
+     */
+    VIRTUAL;
+
+    //method creating a builder of virtual threads, or null if the virtual machine doesn't have virtual threads
+    private static final Method OF_VIRTUAL = ofVirtual();
+
+    /**
+     * Checks whether the virtual machine can create virtual threads
+     * @return true iff virtual threads are available
+     */
+    public static boolean virtualThreadsAvailable(){
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Returns the mode in which the players are run by default
+     * @return VIRTUAL if virtual threads are available, else PLATFORM
+     */
+    public static ThreadMode best(){
+        return virtualThreadsAvailable() ? VIRTUAL : PLATFORM;
+    }
+
+    /**
+     * Creates a factory of threads of this kind, the platform threads being daemon threads so that they don't
+     * prevent the virtual machine from exiting, as virtual threads never do
+     * @param name prefix of the names of the threads, followed by their number
+     * @return the factory
+     * @throws UnsupportedOperationException if the threads are virtual and the virtual machine doesn't have them
+     */
+    public ThreadFactory factory(String name){
+        return factory(name, true);
+    }
+
+    /**
+     * Creates a factory of threads of this kind, the platform threads being daemon threads or not, while virtual
+     * threads are always daemon threads
+     * @param name prefix of the names of the threads, followed by their number
+     * @param daemon true iff the platform threads are daemon threads, which don't prevent the virtual machine from
+     *               exiting
+     * @return the factory
+     * @throws UnsupportedOperationException if the threads are virtual and the virtual machine doesn't have them
+     */
+    public ThreadFactory factory(String name, boolean daemon){
+        if (this == PLATFORM){
+            AtomicInteger count = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(daemon);
+                return thread;
+            };
+        }
+        if (OF_VIRTUAL == null){
+            throw new UnsupportedOperationException("virtual threads require Java 21");
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = OF_VIRTUAL.getReturnType();
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(e);
+        }
+    }
+
+    /**
+     * Looks up the method creating a builder of virtual threads, and checks that it can be called, which isn't the
+     * case with the versions of Java in which virtual threads are only a preview
+     * @return the method, or null if virtual threads aren't available
+     */
+    private static Method ofVirtual(){
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            ofVirtual.invoke(null);
+            return ofVirtual;
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
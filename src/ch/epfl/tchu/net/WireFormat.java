@@ -0,0 +1,28 @@
+package ch.epfl.tchu.net;
+
+import java.util.List;
+
+/**
+ * Formats in which the messages between the server and the client can be exchanged
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public enum WireFormat {
+
+    /**
+     * Compact binary format, messages are length-prefixed frames of variable-length integers, bitsets and card counts
+     */
+    BINARY,
+
+    /**
+     * Textual format, messages are lines of ASCII text
+     */
+    TEXT;
+
+    /**
+     * All the formats, from the preferred one to the fallback one
+     */
+    public final static List<WireFormat> ALL = List.of(values());
+}
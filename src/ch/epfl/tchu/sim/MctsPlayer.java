@@ -0,0 +1,444 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Player choosing its turns with a Monte Carlo tree search
+ *
+ * Each search builds a tree of turns whose states are sampled at each iteration, the information hidden to the player
+ * being chosen at random (information set Monte Carlo tree search). The turns of a node are selected with the UCB
+ * formula, counting for each turn the number of times it was available, then the game is fast forwarded to its end
+ * by a rollout playing random claims and draws. The search is parallelized at the root: each thread builds its own
+ * tree, and the turn chosen is the one visited the most in all trees.
+ *
+ * The searches of a player bounded by time pool the results of their rollouts in a transposition table shared by all
+ * the threads and kept from one turn to the next, indexed by the Zobrist hash of what the player knows of the state
+ * from which they were played: a state reached again, through other turns, by another thread or in a later search, is
+ * evaluated by the mean of all its rollouts rather than by its last one. What a search reads from the table then
+ * depends on the timing of the other threads, so the searches of a player bounded by iterations, whose moves only
+ * depend on its seed, don't use it.
+ *
+ * The choices made inside a turn (the slots to draw from, the tickets to keep and the additional cards to play) follow
+ * the default policy of MutableGameState, which is also the one the searches assume.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class MctsPlayer implements Player {
+
+    //exploration constant of the UCB formula, for rewards between 0 and 1
+    private static final double EXPLORATION = 0.7;
+    //maximum number of turns of a rollout, after which the game is scored as it is
+    private static final int MAX_ROLLOUT_TURNS = 1_000;
+    //odds (one in ...) that a rollout draws cards instead of claiming a route the player can afford
+    private static final int ROLLOUT_DRAW_ODDS = 3;
+    //number of evaluations kept by the transposition table of a player, and number of locks guarding them
+    private static final int TRANSPOSITION_TABLE_CAPACITY = 1 << 16;
+    private static final int TRANSPOSITION_TABLE_LOCKS = 64;
+
+    //attributes of the player: its random number generator, its budget (in iterations and in time) and the number of
+    //threads searching in parallel
+    private final Random rng;
+    private final int iterations;
+    private final long timeLimitNanos;
+    private final int parallelism;
+    //transposition table shared by the searches, null if the player is bounded by iterations
+    private final TranspositionTable<Evaluation> table;
+
+    private PlayerId ownId;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTicketChoice;
+    private int chosenMove;
+
+    /**
+     * MctsPlayer constructor
+     * @param seed seed of the random number generator of the player
+     * @param iterations number of iterations of each search
+     * @param timeLimitNanos maximum duration of each search, in nanoseconds
+     * @param parallelism number of threads searching in parallel
+     */
+    private MctsPlayer(long seed, int iterations, long timeLimitNanos, int parallelism){
+        Preconditions.checkArgument(iterations > 0 && timeLimitNanos > 0 && parallelism > 0);
+        this.rng = new Random(seed);
+        this.iterations = iterations;
+        this.timeLimitNanos = timeLimitNanos;
+        this.parallelism = parallelism;
+        this.table = timeLimitNanos == Long.MAX_VALUE
+                ? null
+                : new TranspositionTable<>(TRANSPOSITION_TABLE_CAPACITY, TRANSPOSITION_TABLE_LOCKS);
+    }
+
+    /**
+     * Creates a player whose searches are bounded by a number of iterations, its moves then only depend on its seed
+     * @param seed seed of the random number generator of the player
+     * @param iterations number of iterations of each search, shared among the threads
+     * @param parallelism number of threads searching in parallel
+     * @return the player
+     * @throws IllegalArgumentException if iterations or parallelism isn't positive
+     */
+    public static MctsPlayer withIterations(long seed, int iterations, int parallelism){
+        return new MctsPlayer(seed, iterations, Long.MAX_VALUE, parallelism);
+    }
+
+    /**
+     * Creates a player whose searches are bounded by a duration
+     * @param seed seed of the random number generator of the player
+     * @param timeLimit maximum duration of each search
+     * @param parallelism number of threads searching in parallel
+     * @return the player
+     * @throws IllegalArgumentException if timeLimit or parallelism isn't positive
+     */
+    public static MctsPlayer withTimeLimit(long seed, Duration timeLimit, int parallelism){
+        return new MctsPlayer(seed, Integer.MAX_VALUE, timeLimit.toNanos(), parallelism);
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+        this.ownId = ownId;
+    }
+
+    @Override
+    public void receiveInfo(String info){}
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState){
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets){
+        this.initialTicketChoice = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets(){
+        return determinized().ticketsToKeep(initialTicketChoice,
+                Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public TurnKind nextTurn(){
+        //the moves possible at the root only depend on the information of the player
+        int[] moves = new int[MutableGameState.MAX_MOVE_COUNT];
+        int count = determinized().legalMoves(moves);
+        Arrays.sort(moves, 0, count);
+        chosenMove = count == 1 ? moves[0] : search(Arrays.copyOf(moves, count));
+        return MutableGameState.turnKind(chosenMove);
+    }
+
+    @Override
+    public int drawSlot(){ return determinized().drawSlot(); }
+
+    @Override
+    public Route claimedRoute(){
+        if (MutableGameState.isClaim(chosenMove)){
+            return MutableGameState.claimedRoute(chosenMove);
+        }
+        //the player passes by attempting to claim a route it can't claim
+        for (Route route : ChMap.routes()){
+            if (!ownState.canClaimRoute(route)){
+                return route;
+            }
+        }
+        return ChMap.routes().get(0);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){
+        return determinized().ticketsToKeep(options, Constants.IN_GAME_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards(){
+        return MutableGameState.isClaim(chosenMove) ? MutableGameState.claimCards(chosenMove) : SortedBag.of();
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+        //the options are sorted by number of locomotives, the first one keeps the most of them
+        return options.get(0);
+    }
+
+    /**
+     * Samples a state consistent with the information of the player
+     * @return the state
+     */
+    private MutableGameState determinized(){
+        return MutableGameState.determinized(gameState, ownId, ownState, rng);
+    }
+
+    /**
+     * Searches the best move among the possible ones
+     * @param moves the possible moves, sorted
+     * @return the move visited the most by the searches
+     */
+    private int search(int[] moves){
+        long deadline = timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimitNanos;
+        List<Search> searches = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++){
+            //the iterations are shared among the searches, each one doing at least one
+            int searchIterations = Math.max(1, iterations / parallelism + (i < iterations % parallelism ? 1 : 0));
+            searches.add(new Search(gameState, ownId, ownState, moves, searchIterations, deadline, rng.nextLong(),
+                    table));
+        }
+
+        if (parallelism == 1){
+            searches.get(0).invoke();
+        }
+        else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(searches)));
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+
+        long[] visits = new long[moves.length];
+        for (Search search : searches){
+            int[] searchVisits = search.join();
+            for (int i = 0; i < moves.length; i++){
+                visits[i] += searchVisits[i];
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < moves.length; i++){
+            if (visits[i] > visits[best]){
+                best = i;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Search building its own tree from the information of the player
+     */
+    private static final class Search extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final PublicGameState gameState;
+        private final PlayerId ownId;
+        private final PlayerState ownState;
+        private final int[] rootMoves;
+        private final int iterations;
+        private final long deadline;
+        private final Random rng;
+        //transposition table pooling the rollouts, null if they aren't pooled
+        private final TranspositionTable<Evaluation> table;
+        private final int[] moves = new int[MutableGameState.MAX_MOVE_COUNT];
+
+        private Search(PublicGameState gameState, PlayerId ownId, PlayerState ownState, int[] rootMoves,
+                       int iterations, long deadline, long seed, TranspositionTable<Evaluation> table){
+            this.gameState = gameState;
+            this.ownId = ownId;
+            this.ownState = ownState;
+            this.rootMoves = rootMoves;
+            this.iterations = iterations;
+            this.deadline = deadline;
+            this.rng = new Random(seed);
+            this.table = table;
+        }
+
+        /**
+         * Runs the iterations of the search
+         * @return the number of visits of each root move
+         */
+        @Override
+        protected int[] compute(){
+            Node root = new Node(-1, null, -1);
+            //the same state is determinized again at each iteration, so that the iterations allocate nothing but
+            //the nodes they add
+            MutableGameState state = MutableGameState.determinized(gameState, ownId, ownState, rng);
+            for (int i = 0; i < iterations && (i == 0 || System.nanoTime() - deadline < 0); i++){
+                if (i > 0){
+                    state.determinize(gameState, ownId, ownState, rng);
+                }
+                iterate(root, state);
+            }
+
+            int[] visits = new int[rootMoves.length];
+            for (Node child : root.children){
+                int index = Arrays.binarySearch(rootMoves, child.move);
+                if (index >= 0){
+                    visits[index] = child.visits;
+                }
+            }
+            return visits;
+        }
+
+        /**
+         * Runs an iteration: selects a path in the tree, expands it with a new node, plays a rollout from there and
+         * updates the nodes of the path with its result, or with the mean result of all the rollouts played from the
+         * state of the new node if they are pooled
+         * @param root root of the tree
+         * @param state sampled state of the game, modified by the iteration
+         */
+        private void iterate(Node root, MutableGameState state){
+            Node node = root;
+            while (!state.isOver()){
+                int count = state.legalMoves(moves);
+                Arrays.sort(moves, 0, count);
+                int player = state.currentPlayerId().ordinal();
+                Node child = node.select(moves, count, player, rng);
+                state.playTurn(child.move, rng);
+                node = child;
+                if (child.visits == 0){
+                    break;
+                }
+            }
+
+            long hash = table == null ? 0 : state.zobristHash(ownId);
+            for (int turn = 0; !state.isOver() && turn < MAX_ROLLOUT_TURNS; turn++){
+                state.playTurn(rolloutMove(state), rng);
+            }
+
+            PlayerId winner = state.winner();
+            double reward = winner == null ? 0.5 : winner == PlayerId.PLAYER_1 ? 1 : 0;
+            if (table != null){
+                Evaluation evaluation = table.merge(hash, new Evaluation(1, reward), Evaluation::plus);
+                reward = evaluation.reward / evaluation.rollouts;
+            }
+            //each node is rewarded from the point of view of the player that played its move, the reward being the
+            //one of the first player
+            for (Node n = node; n != null; n = n.parent){
+                n.visits += 1;
+                n.reward += n.player == PlayerId.PLAYER_1.ordinal() ? reward : 1 - reward;
+            }
+        }
+
+        /**
+         * Chooses a move of a rollout: a random claim, or else drawing cards, or else drawing tickets
+         * @param state state of the game
+         * @return the move
+         */
+        private int rolloutMove(MutableGameState state){
+            int count = state.legalMoves(moves);
+            int claimCount = 0;
+            boolean canDrawCards = false;
+            boolean canDrawTickets = false;
+            for (int i = 0; i < count; i++){
+                if (MutableGameState.isClaim(moves[i])){
+                    moves[claimCount++] = moves[i];
+                }
+                canDrawCards |= moves[i] == MutableGameState.DRAW_CARDS;
+                canDrawTickets |= moves[i] == MutableGameState.DRAW_TICKETS;
+            }
+            if (claimCount > 0 && (!canDrawCards || rng.nextInt(ROLLOUT_DRAW_ODDS) != 0)){
+                return moves[rng.nextInt(claimCount)];
+            }
+            if (canDrawCards){
+                return MutableGameState.DRAW_CARDS;
+            }
+            return canDrawTickets ? MutableGameState.DRAW_TICKETS : MutableGameState.PASS;
+        }
+    }
+
+    /**
+     * Results of the rollouts played from a state: their number and the sum of the rewards of the first player
+     */
+    private static final class Evaluation {
+        private final int rollouts;
+        private final double reward;
+
+        private Evaluation(int rollouts, double reward){
+            this.rollouts = rollouts;
+            this.reward = reward;
+        }
+
+        private Evaluation plus(Evaluation that){
+            return new Evaluation(rollouts + that.rollouts, reward + that.reward);
+        }
+    }
+
+    /**
+     * Node of a search tree, reached by playing a move
+     */
+    private static final class Node {
+        private final int move;
+        private final Node parent;
+        private final int player;
+        //children, sorted by move
+        private final List<Node> children = new ArrayList<>();
+        private int visits;
+        private int availability;
+        private double reward;
+
+        private Node(int move, Node parent, int player){
+            this.move = move;
+            this.parent = parent;
+            this.player = player;
+        }
+
+        /**
+         * Selects the child to explore: a new child for a move that was never tried, or else the child with the best
+         * UCB value. The availability of all the children whose move is possible is incremented
+         * @param moves the possible moves, sorted
+         * @param count number of possible moves
+         * @param player index of the player playing the move
+         * @param rng random number generator choosing the move to try
+         * @return the child
+         */
+        private Node select(int[] moves, int count, int player, Random rng){
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int untriedCount = 0;
+            int c = 0;
+            for (int i = 0; i < count; i++){
+                while (c < children.size() && children.get(c).move < moves[i]){
+                    c += 1;
+                }
+                if (c < children.size() && children.get(c).move == moves[i]){
+                    Node child = children.get(c);
+                    child.availability += 1;
+                    double value = child.reward / child.visits
+                            + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                    if (value > bestValue){
+                        best = child;
+                        bestValue = value;
+                    }
+                }
+                else {
+                    untriedCount += 1;
+                }
+            }
+            if (untriedCount == 0){
+                return best;
+            }
+
+            //the move tried is chosen at random among the untried ones, and inserted at its place among the children
+            int untried = rng.nextInt(untriedCount);
+            c = 0;
+            for (int i = 0; i < count; i++){
+                while (c < children.size() && children.get(c).move < moves[i]){
+                    c += 1;
+                }
+                if (c < children.size() && children.get(c).move == moves[i]){
+                    continue;
+                }
+                if (untried-- == 0){
+                    Node child = new Node(moves[i], this, player);
+                    child.availability = 1;
+                    children.add(c, child);
+                    return child;
+                }
+            }
+            throw new AssertionError();
+        }
+    }
+}
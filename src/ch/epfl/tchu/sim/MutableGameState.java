@@ -0,0 +1,1179 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Mutable state of a game of tChu, used to fast forward games in searches
+ *
+ * The state mirrors the transitions of GameState and the turns played by Game, with the same rules and the same use
+ * of the random number generator, but it is stored in a single array of integers modified in place: the decks are
+ * read from a head index, and the cards, the tickets, the partitions of the stations and the owners of the routes
+ * are all indexed by integers. Playing a turn allocates nothing, and a state can be copied with a single array copy.
+ * Turns can also be applied so that they can be undone, each modification of the array then being recorded in a
+ * journal.
+ *
+ * Routes, tickets and cards are designated by their index in the lists of ChMap and Card. The choices made inside a
+ * turn (the slots to draw from, the tickets to keep and the additional cards to play for a tunnel) follow a simple
+ * default policy. A turn is designated by a move, an integer whose 2 lowest bits give its kind, and which also
+ * contains, for a claim, the index of the route, the color of the cards and the number of locomotives played.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class MutableGameState {
+
+    /**
+     * Move drawing tickets
+     */
+    public static final int DRAW_TICKETS = 0;
+
+    /**
+     * Move drawing cards
+     */
+    public static final int DRAW_CARDS = 1;
+
+    /**
+     * Move passing the turn, played when no other move is possible
+     */
+    public static final int PASS = 3;
+
+    //kind of the moves claiming a route, and layout of the bits of a move
+    private static final int CLAIM_ROUTE = 2;
+    private static final int KIND_MASK = 0b11;
+    private static final int LOCOMOTIVES_SHIFT = 2;
+    private static final int COLOR_SHIFT = 6;
+    private static final int ROUTE_SHIFT = 10;
+    private static final int FIELD_MASK = 0b1111;
+
+    //routes, tickets and stations of the map
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final List<Ticket> TICKETS = ChMap.tickets();
+    private static final int STATION_COUNT = ChMap.stations().size();
+    private static final Map<Route, Integer> ROUTE_INDICES = indicesOf(ROUTES);
+    private static final Map<Ticket, Integer> TICKET_INDICES = indicesOf(TICKETS);
+
+    //indices of the tickets in the order of a sorted bag, in which Deck shuffles them
+    private static final int[] SORTED_TICKETS = computeSortedTickets();
+
+    //for each route: its stations, its length, the index of its twin route (-1 if it has none) and the moves
+    //claiming it
+    private static final int[] ROUTE_STATIONS_1 = new int[ROUTES.size()];
+    private static final int[] ROUTE_STATIONS_2 = new int[ROUTES.size()];
+    private static final int[] ROUTE_LENGTHS = new int[ROUTES.size()];
+    private static final int[] TWIN_ROUTES = computeTwinRoutes();
+    //for each station: the indices of the routes reaching it
+    private static final int[][] STATION_ROUTES = computeStationRoutes();
+    private static final int[][] CLAIM_MOVES = computeClaimMoves();
+
+    /**
+     * Maximum number of moves that can be legal in a state
+     */
+    public static final int MAX_MOVE_COUNT = computeMaxMoveCount();
+
+    private static final int LOCOMOTIVE = Card.LOCOMOTIVE.ordinal();
+    private static final int NOBODY = -1;
+
+    //layout of the array of the state: the deck, read from its head, the number of discarded cards of each kind, the
+    //face up cards, the ticket deck, read from its head, the owner of each route and the progress of the game, the
+    //last turns being counted as in Game
+    private static final int DECK = 0;
+    private static final int DECK_HEAD = DECK + Constants.TOTAL_CARDS_COUNT;
+    private static final int DECK_SIZE = DECK_HEAD + 1;
+    private static final int DISCARDS = DECK_SIZE + 1;
+    private static final int DISCARDS_SIZE = DISCARDS + Card.COUNT;
+    private static final int FACE_UP_CARDS = DISCARDS_SIZE + 1;
+    private static final int TICKET_DECK = FACE_UP_CARDS + Constants.FACE_UP_CARDS_COUNT;
+    private static final int TICKET_DECK_HEAD = TICKET_DECK + TICKETS.size();
+    private static final int TICKETS_COUNT = TICKET_DECK_HEAD + 1;
+    private static final int ROUTE_OWNERS = TICKETS_COUNT + 1;
+    private static final int CURRENT_PLAYER = ROUTE_OWNERS + ROUTES.size();
+    private static final int LAST_PLAYER = CURRENT_PLAYER + 1;
+    private static final int LAST_TURN_HAS_BEGUN = LAST_PLAYER + 1;
+    private static final int LAST_TURNS = LAST_TURN_HAS_BEGUN + 1;
+    private static final int TURN_COUNT = LAST_TURNS + 1;
+    private static final int PLAYERS = TURN_COUNT + 1;
+
+    //layout of the part of the array of each player: the number of cards of each kind, the number of cars, the claim
+    //points, the tickets, and the representative of each station in the partition of its network
+    private static final int CARDS = 0;
+    private static final int CAR_COUNT = CARDS + Card.COUNT;
+    private static final int CLAIM_POINTS = CAR_COUNT + 1;
+    private static final int TICKET_COUNT = CLAIM_POINTS + 1;
+    private static final int TICKETS_OF_PLAYER = TICKET_COUNT + 1;
+    private static final int STATIONS = TICKETS_OF_PLAYER + TICKETS.size();
+    private static final int PLAYER_SIZE = STATIONS + STATION_COUNT;
+
+    private static final int STATE_SIZE = PLAYERS + PlayerId.COUNT * PLAYER_SIZE;
+
+    //whether each value of the state is part of its Zobrist hash, which leaves out the content of the decks (only their
+    //sizes are hashed, as in GameState), the number of turns played and the partitions of the stations, which are
+    //given by the owners of the routes
+    private static final boolean[] HASHED = computeHashed();
+    //for each value of the state, the players to which it is hidden, as a set of bits indexed by their ordinal: the
+    //cards and the tickets of a player are hidden to the other one, and the discarded cards to both
+    private static final int[] HIDDEN_TO = computeHiddenTo();
+
+    //the state, and the journal of the modifications made by the turns that can be undone: pairs of an index and of
+    //the value it had, and the size of the journal when each turn began
+    private final int[] state;
+    private int[] journal = new int[256];
+    private int journalSize;
+    private int[] turnStarts = new int[16];
+    private int undoableTurnCount;
+
+    //connectivity of the network of each player, and arrays used by the computations
+    private final StationConnectivity[] connectivities = new StationConnectivity[PlayerId.COUNT];
+    private final int[] drawnCards = new int[Constants.ADDITIONAL_TUNNEL_CARDS];
+    private final int[] ticketOptions = new int[Constants.INITIAL_TICKETS_COUNT];
+    private final int[] ticketOptionPoints = new int[Constants.INITIAL_TICKETS_COUNT];
+    private final int[] unknownCards = new int[Constants.TOTAL_CARDS_COUNT];
+    private final int[] unknownTickets = new int[TICKETS.size()];
+    private final boolean[] trailRoutesUsed = new boolean[ROUTES.size()];
+
+    /**
+     * MutableGameState constructor
+     * @param state array of the state, used without being copied
+     */
+    private MutableGameState(int[] state){
+        this.state = state;
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            int p = player;
+            connectivities[player] = (s1, s2) -> representative(p, s1.id()) == representative(p, s2.id());
+        }
+    }
+
+    /**
+     * MutableGameState constructor, creating a state where nothing has been dealt
+     */
+    private MutableGameState(){
+        this(new int[STATE_SIZE]);
+        clear();
+    }
+
+    /**
+     * Creates the initial state of a game on the map of Switzerland, as GameState.initial does with the same random
+     * number generator, in which the players have kept their initial tickets with the default policy. As in a game
+     * whose players are given in an EnumMap, the first player gets its initial tickets first
+     * @param rng random number generator used to choose the first player and to shuffle the decks
+     * @return the state at the beginning of the first turn
+     */
+    public static MutableGameState initial(Random rng){
+        MutableGameState initial = new MutableGameState();
+        int[] state = initial.state;
+        state[CURRENT_PLAYER] = rng.nextInt(2) < 1 ? 0 : 1;
+
+        System.arraycopy(SORTED_TICKETS, 0, state, TICKET_DECK, TICKETS.size());
+        shuffle(state, TICKET_DECK, TICKETS.size(), rng);
+        state[TICKETS_COUNT] = TICKETS.size();
+
+        int[] cards = initial.unknownCards;
+        int count = 0;
+        for (Card card : Card.ALL){
+            for (int i = 0; i < Constants.ALL_CARDS.countOf(card); i++){
+                cards[count++] = card.ordinal();
+            }
+        }
+        shuffle(cards, 0, count, rng);
+        int dealt = 0;
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            state[playerOffset(player) + CAR_COUNT] = Constants.INITIAL_CAR_COUNT;
+            for (int i = 0; i < Constants.INITIAL_CARDS_COUNT; i++){
+                state[playerOffset(player) + CARDS + cards[dealt++]] += 1;
+            }
+        }
+        //the face up cards are the top cards of the deck, sorted
+        Arrays.sort(cards, dealt, dealt + Constants.FACE_UP_CARDS_COUNT);
+        System.arraycopy(cards, dealt, state, FACE_UP_CARDS, Constants.FACE_UP_CARDS_COUNT);
+        dealt += Constants.FACE_UP_CARDS_COUNT;
+        System.arraycopy(cards, dealt, state, DECK, count - dealt);
+        state[DECK_SIZE] = count - dealt;
+
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            for (int i = 0; i < Constants.INITIAL_TICKETS_COUNT; i++){
+                initial.ticketOptions[i] = initial.drawTicket();
+            }
+            initial.keepTickets(player, Constants.INITIAL_TICKETS_COUNT,
+                    Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT);
+        }
+        return initial;
+    }
+
+    /**
+     * Creates a state consistent with what a player knows of a game, the information hidden to that player being
+     * chosen at random
+     * @param state public state of the game
+     * @param ownId id of the player
+     * @param ownState private state of the player
+     * @param rng random number generator used to choose the hidden information
+     * @return a state of the game that is consistent with the information of the player
+     * @throws IllegalArgumentException if the states aren't those of a game played on the map of Switzerland
+     * @see #determinize(PublicGameState, PlayerId, PlayerState, Random)
+     */
+    public static MutableGameState determinized(PublicGameState state, PlayerId ownId, PlayerState ownState, Random rng){
+        MutableGameState determinized = new MutableGameState();
+        determinized.determinize(state, ownId, ownState, rng);
+        return determinized;
+    }
+
+    /**
+     * Replaces this state by a state consistent with what a player knows of a game, the information hidden to that
+     * player being chosen at random: the cards of the other player, the order of the deck and the discarded cards,
+     * the tickets of the other player, and the order and content of the ticket deck. The turns that could be undone
+     * can't be anymore
+     * @param gameState public state of the game
+     * @param ownId id of the player
+     * @param ownState private state of the player
+     * @param rng random number generator used to choose the hidden information
+     * @throws IllegalArgumentException if the states aren't those of a game played on the map of Switzerland
+     */
+    public void determinize(PublicGameState gameState, PlayerId ownId, PlayerState ownState, Random rng){
+        clear();
+        int own = playerOffset(ownId.ordinal());
+        int other = playerOffset(ownId.next().ordinal());
+        PublicPlayerState otherState = gameState.playerState(ownId.next());
+        PublicCardState cardState = gameState.cardState();
+
+        //the cards that the player can't see are shuffled, then dealt to the other player, the deck and the discards
+        int unknownCount = 0;
+        for (Card card : Card.ALL){
+            int count = Constants.ALL_CARDS.countOf(card) - ownState.cardBag().countOf(card);
+            for (int slot = 0; slot < Constants.FACE_UP_CARDS_COUNT; slot++){
+                if (cardState.faceUpCard(slot) == card){
+                    count -= 1;
+                }
+            }
+            for (int i = 0; i < count; i++){
+                unknownCards[unknownCount++] = card.ordinal();
+            }
+            state[own + CARDS + card.ordinal()] = ownState.cardBag().countOf(card);
+        }
+        Preconditions.checkArgument(
+                unknownCount == otherState.cardCount() + cardState.deckSize() + cardState.discardsSize());
+        shuffle(unknownCards, 0, unknownCount, rng);
+        int dealt = 0;
+        for (int i = 0; i < otherState.cardCount(); i++){
+            state[other + CARDS + unknownCards[dealt++]] += 1;
+        }
+        System.arraycopy(unknownCards, dealt, state, DECK, cardState.deckSize());
+        state[DECK_SIZE] = cardState.deckSize();
+        dealt += cardState.deckSize();
+        while (dealt < unknownCount){
+            state[DISCARDS + unknownCards[dealt++]] += 1;
+        }
+        state[DISCARDS_SIZE] = cardState.discardsSize();
+        for (int slot = 0; slot < Constants.FACE_UP_CARDS_COUNT; slot++){
+            state[FACE_UP_CARDS + slot] = cardState.faceUpCard(slot).ordinal();
+        }
+
+        //the tickets the player doesn't have are shuffled, then dealt to the other player and the ticket deck
+        for (Ticket ticket : ownState.tickets()){
+            state[own + TICKETS_OF_PLAYER + state[own + TICKET_COUNT]++] = TICKET_INDICES.get(ticket);
+        }
+        int unknownTicketCount = 0;
+        for (int ticket = 0; ticket < TICKETS.size(); ticket++){
+            if (!hasTicket(own, ticket)){
+                unknownTickets[unknownTicketCount++] = ticket;
+            }
+        }
+        Preconditions.checkArgument(unknownTicketCount >= otherState.ticketCount() + gameState.ticketsCount());
+        shuffle(unknownTickets, 0, unknownTicketCount, rng);
+        System.arraycopy(unknownTickets, 0, state, other + TICKETS_OF_PLAYER, otherState.ticketCount());
+        state[other + TICKET_COUNT] = otherState.ticketCount();
+        System.arraycopy(unknownTickets, otherState.ticketCount(), state, TICKET_DECK, gameState.ticketsCount());
+        state[TICKETS_COUNT] = gameState.ticketsCount();
+
+        //routes and progress of the game are public
+        for (PlayerId playerId : PlayerId.ALL){
+            int player = playerId.ordinal();
+            PublicPlayerState playerState = gameState.playerState(playerId);
+            for (Route route : playerState.routes()){
+                int index = ROUTE_INDICES.get(route);
+                state[ROUTE_OWNERS + index] = player;
+                connect(player, ROUTE_STATIONS_1[index], ROUTE_STATIONS_2[index]);
+            }
+            state[playerOffset(player) + CAR_COUNT] = playerState.carCount();
+            state[playerOffset(player) + CLAIM_POINTS] = playerState.claimPoints();
+        }
+        state[CURRENT_PLAYER] = gameState.currentPlayerId().ordinal();
+        if (gameState.lastPlayer() != null){
+            //the player that began the last turns plays the very last turn
+            state[LAST_PLAYER] = gameState.lastPlayer().ordinal();
+            state[LAST_TURN_HAS_BEGUN] = 1;
+            state[LAST_TURNS] = gameState.currentPlayerId() == gameState.lastPlayer() ? 0 : 1;
+        }
+    }
+
+    /**
+     * Copies this state
+     * @return a state equal to this one, that can be modified independently, and in which no turn can be undone
+     */
+    public MutableGameState copy(){
+        return new MutableGameState(state.clone());
+    }
+
+    /**
+     * Plays a turn of the current player, as Game would. The turns that could be undone can't be anymore
+     * @param move move played
+     * @param rng random number generator used to shuffle the discards when the deck is empty
+     * @throws IllegalArgumentException if the game is over or if the move can't be played
+     */
+    public void playTurn(int move, Random rng){
+        journalSize = 0;
+        undoableTurnCount = 0;
+        play(move, rng);
+    }
+
+    /**
+     * Plays a turn of the current player, as Game would, so that it can be undone
+     * @param move move played
+     * @param rng random number generator used to shuffle the discards when the deck is empty
+     * @throws IllegalArgumentException if the game is over or if the move can't be played
+     */
+    public void apply(int move, Random rng){
+        if (undoableTurnCount == turnStarts.length){
+            turnStarts = Arrays.copyOf(turnStarts, 2 * turnStarts.length);
+        }
+        turnStarts[undoableTurnCount++] = journalSize;
+        try {
+            play(move, rng);
+        }
+        catch (IllegalArgumentException e){
+            undo();
+            throw e;
+        }
+    }
+
+    /**
+     * Undoes the last turn applied, restoring the state as it was before
+     * @throws IllegalArgumentException if there is no turn to undo
+     */
+    public void undo(){
+        Preconditions.checkArgument(undoableTurnCount > 0);
+        int turnStart = turnStarts[--undoableTurnCount];
+        while (journalSize > turnStart){
+            journalSize -= 2;
+            state[journal[journalSize]] = journal[journalSize + 1];
+        }
+    }
+
+    /**
+     * Undoable turn count getter
+     * @return the number of turns that can be undone
+     */
+    public int undoableTurnCount(){ return undoableTurnCount; }
+
+    /**
+     * Computes the Zobrist hash of the state, from the whole state rather than along the turns, so that the turns
+     * don't pay for a hash that only the searches need, once per iteration
+     * @return the Zobrist hash of the state, equal for equal states however they were reached, the hash leaving out
+     * the content of the decks, of which only the sizes count, and the number of turns played
+     */
+    public long zobristHash(){ return zobristHash(0); }
+
+    /**
+     * Computes the Zobrist hash of what a player knows of the state
+     * @param playerId the player
+     * @return the Zobrist hash of the state without the values hidden to the player (the cards and tickets of the
+     * other player, and the discarded cards), equal for all the states the player can't tell apart
+     */
+    public long zobristHash(PlayerId playerId){ return zobristHash(1 << playerId.ordinal()); }
+
+    /**
+     * Current player id getter
+     * @return the id of the player whose turn it is
+     */
+    public PlayerId currentPlayerId(){ return PlayerId.ALL.get(state[CURRENT_PLAYER]); }
+
+    /**
+     * Last player getter
+     * @return the id of the player that began the last turns, null if they haven't begun
+     */
+    public PlayerId lastPlayer(){
+        return state[LAST_PLAYER] == NOBODY ? null : PlayerId.ALL.get(state[LAST_PLAYER]);
+    }
+
+    /**
+     * Turn count getter
+     * @return the number of turns played since the state was created
+     */
+    public int turnCount(){ return state[TURN_COUNT]; }
+
+    /**
+     * Asks if the game is over
+     * @return true if the last turns have all been played, else returns false
+     */
+    public boolean isOver(){ return state[LAST_TURN_HAS_BEGUN] == 1 && state[LAST_TURNS] < 0; }
+
+    /**
+     * Tickets count getter
+     * @return the number of tickets in the ticket deck
+     */
+    public int ticketsCount(){ return state[TICKETS_COUNT]; }
+
+    /**
+     * Deck size getter
+     * @return the number of cards in the deck
+     */
+    public int deckSize(){ return state[DECK_SIZE]; }
+
+    /**
+     * Discards size getter
+     * @return the number of discarded cards
+     */
+    public int discardsSize(){ return state[DISCARDS_SIZE]; }
+
+    /**
+     * Face up card getter
+     * @param slot slot of the card
+     * @return the face up card in that slot
+     */
+    public Card faceUpCard(int slot){
+        return Card.ALL.get(state[FACE_UP_CARDS + Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT)]);
+    }
+
+    /**
+     * Card count getter
+     * @param playerId id of a player
+     * @param card a kind of card
+     * @return the number of cards of that kind the player has
+     */
+    public int cardCount(PlayerId playerId, Card card){
+        return state[playerOffset(playerId.ordinal()) + CARDS + card.ordinal()];
+    }
+
+    /**
+     * Car count getter
+     * @param playerId id of a player
+     * @return the number of cars the player has left
+     */
+    public int carCount(PlayerId playerId){ return state[playerOffset(playerId.ordinal()) + CAR_COUNT]; }
+
+    /**
+     * Claim points getter
+     * @param playerId id of a player
+     * @return the points the player got by claiming routes
+     */
+    public int claimPoints(PlayerId playerId){ return state[playerOffset(playerId.ordinal()) + CLAIM_POINTS]; }
+
+    /**
+     * Ticket count getter
+     * @param playerId id of a player
+     * @return the number of tickets the player has
+     */
+    public int ticketCount(PlayerId playerId){ return state[playerOffset(playerId.ordinal()) + TICKET_COUNT]; }
+
+    /**
+     * Ticket points getter
+     * @param playerId id of a player
+     * @return the points the player gets, or loses, with its tickets in its current network
+     */
+    public int ticketPoints(PlayerId playerId){ return ticketPoints(playerId.ordinal()); }
+
+    /**
+     * Route owner getter
+     * @param route a route of the map of Switzerland
+     * @return the id of the player that claimed the route, null if it isn't claimed
+     */
+    public PlayerId routeOwner(Route route){
+        int owner = state[ROUTE_OWNERS + ROUTE_INDICES.get(route)];
+        return owner == NOBODY ? null : PlayerId.ALL.get(owner);
+    }
+
+    /**
+     * Computes the length of the longest trail of a player
+     * @param playerId id of a player
+     * @return the length of the longest trail of the player, 0 if it has no route
+     */
+    public int longestTrailLength(PlayerId playerId){ return longestTrailLength(playerId.ordinal()); }
+
+    /**
+     * Computes the winner of the game, as Game would
+     * @return the id of the player that has the most points, null in case of a draw
+     */
+    public PlayerId winner(){
+        int longestTrailLength1 = longestTrailLength(0);
+        int longestTrailLength2 = longestTrailLength(1);
+        int points1 = finalPoints(0) + (longestTrailLength1 >= longestTrailLength2 ? Constants.LONGEST_TRAIL_BONUS_POINTS : 0);
+        int points2 = finalPoints(1) + (longestTrailLength2 >= longestTrailLength1 ? Constants.LONGEST_TRAIL_BONUS_POINTS : 0);
+        return points1 == points2 ? null : PlayerId.ALL.get(points1 > points2 ? 0 : 1);
+    }
+
+    /**
+     * Computes the result of the game, as Game would
+     * @return the final points of the players, the lengths of their longest trails, and the number of turns played
+     */
+    public GameResult result(){
+        int[] points = new int[PlayerId.COUNT];
+        int[] longestTrailLengths = new int[PlayerId.COUNT];
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            points[player] = finalPoints(player);
+            longestTrailLengths[player] = longestTrailLength(player);
+        }
+        //the player with the longest trail gets the bonus, both do in case of a tie
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            if (longestTrailLengths[player] >= longestTrailLengths[1 - player]){
+                points[player] += Constants.LONGEST_TRAIL_BONUS_POINTS;
+            }
+        }
+        return new GameResult(
+                Map.of(PlayerId.PLAYER_1, points[0], PlayerId.PLAYER_2, points[1]),
+                Map.of(PlayerId.PLAYER_1, longestTrailLengths[0], PlayerId.PLAYER_2, longestTrailLengths[1]),
+                turnCount());
+    }
+
+    /**
+     * Computes the moves the current player can play: claiming a route that neither it nor its twin are claimed
+     * with cards the player has, drawing cards if there are enough of them, and drawing tickets if there are enough
+     * of them. The player passes when none of these moves is possible
+     * @param moves array in which the moves are written, of size MAX_MOVE_COUNT at least
+     * @return the number of moves written
+     */
+    public int legalMoves(int[] moves){
+        int count = 0;
+        if (state[TICKETS_COUNT] >= Constants.IN_GAME_TICKETS_COUNT){
+            moves[count++] = DRAW_TICKETS;
+        }
+        if (state[DECK_SIZE] + state[DISCARDS_SIZE] >= Constants.FACE_UP_CARDS_COUNT){
+            moves[count++] = DRAW_CARDS;
+        }
+        int player = playerOffset(state[CURRENT_PLAYER]);
+        for (int route = 0; route < ROUTES.size(); route++){
+            if (state[ROUTE_OWNERS + route] != NOBODY
+                    || (TWIN_ROUTES[route] != NOBODY && state[ROUTE_OWNERS + TWIN_ROUTES[route]] != NOBODY)
+                    || ROUTE_LENGTHS[route] > state[player + CAR_COUNT]){
+                continue;
+            }
+            for (int move : CLAIM_MOVES[route]){
+                int locomotives = locomotivesOf(move);
+                int colorCards = ROUTE_LENGTHS[route] - locomotives;
+                if (state[player + CARDS + LOCOMOTIVE] >= locomotives
+                        && (colorCards == 0 || state[player + CARDS + colorOf(move)] >= colorCards)){
+                    moves[count++] = move;
+                }
+            }
+        }
+        if (count == 0){
+            moves[count++] = PASS;
+        }
+        return count;
+    }
+
+    /**
+     * Chooses, with the default policy, the slot from which the current player draws a card: a face up locomotive,
+     * or else the face up card of which the player has the most cards, or else the deck if it is not empty or can
+     * be recreated from the discards
+     * @return the slot of a face up card, or DECK_SLOT
+     */
+    public int drawSlot(){
+        int player = playerOffset(state[CURRENT_PLAYER]);
+        int slot = Constants.DECK_SLOT;
+        int bestCount = 0;
+        for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++){
+            int card = state[FACE_UP_CARDS + i];
+            int count = card == LOCOMOTIVE ? Integer.MAX_VALUE : state[player + CARDS + card];
+            if (count > bestCount){
+                slot = i;
+                bestCount = count;
+            }
+        }
+        return slot == Constants.DECK_SLOT && state[DECK_SIZE] + state[DISCARDS_SIZE] == 0 ? 0 : slot;
+    }
+
+    /**
+     * Chooses, with the default policy, the tickets the current player keeps: those it has already completed, and
+     * those costing the fewest points when they are not completed until there are enough of them
+     * @param options tickets the player can keep
+     * @param minCount minimum number of tickets to keep
+     * @return the tickets the player keeps
+     * @throws IllegalArgumentException if there are less than minCount options, or more than the initial tickets
+     */
+    public SortedBag<Ticket> ticketsToKeep(SortedBag<Ticket> options, int minCount){
+        Preconditions.checkArgument(options.size() >= minCount && options.size() <= ticketOptions.length);
+        for (int i = 0; i < options.size(); i++){
+            ticketOptions[i] = TICKET_INDICES.get(options.get(i));
+        }
+        int keptMask = keptTickets(state[CURRENT_PLAYER], options.size(), minCount);
+        SortedBag.Builder<Ticket> kept = new SortedBag.Builder<>();
+        for (int i = 0; i < options.size(); i++){
+            if ((keptMask & (1 << i)) != 0){
+                kept.add(options.get(i));
+            }
+        }
+        return kept.build();
+    }
+
+    /**
+     * Turn kind of a move
+     * @param move a move
+     * @return the kind of turn the move is played in, a pass being a claim that fails
+     */
+    public static Player.TurnKind turnKind(int move){
+        switch (move & KIND_MASK){
+            case DRAW_TICKETS:
+                return Player.TurnKind.DRAW_TICKETS;
+            case DRAW_CARDS:
+                return Player.TurnKind.DRAW_CARDS;
+            default:
+                return Player.TurnKind.CLAIM_ROUTE;
+        }
+    }
+
+    /**
+     * Asks if a move claims a route
+     * @param move a move
+     * @return true if the move claims a route, else returns false
+     */
+    public static boolean isClaim(int move){ return (move & KIND_MASK) == CLAIM_ROUTE; }
+
+    /**
+     * Route claimed by a move
+     * @param move a move claiming a route
+     * @return the route claimed
+     * @throws IllegalArgumentException if the move doesn't claim a route
+     */
+    public static Route claimedRoute(int move){
+        Preconditions.checkArgument(isClaim(move));
+        return ROUTES.get(routeOf(move));
+    }
+
+    /**
+     * Cards initially played by a move
+     * @param move a move claiming a route
+     * @return the cards initially played to claim the route
+     * @throws IllegalArgumentException if the move doesn't claim a route
+     */
+    public static SortedBag<Card> claimCards(int move){
+        Preconditions.checkArgument(isClaim(move));
+        int locomotives = locomotivesOf(move);
+        int colorCards = ROUTE_LENGTHS[routeOf(move)] - locomotives;
+        if (colorCards == 0){
+            return SortedBag.of(locomotives, Card.LOCOMOTIVE);
+        }
+        return SortedBag.of(colorCards, Card.ALL.get(colorOf(move)), locomotives, Card.LOCOMOTIVE);
+    }
+
+    /**
+     * Plays a turn of the current player, as Game would
+     * @param move move played
+     * @param rng random number generator used to shuffle the discards when the deck is empty
+     */
+    private void play(int move, Random rng){
+        Preconditions.checkArgument(!isOver());
+        int player = state[CURRENT_PLAYER];
+        switch (move & KIND_MASK){
+            case DRAW_TICKETS:
+                Preconditions.checkArgument(state[TICKETS_COUNT] >= Constants.IN_GAME_TICKETS_COUNT);
+                for (int i = 0; i < Constants.IN_GAME_TICKETS_COUNT; i++){
+                    ticketOptions[i] = drawTicket();
+                }
+                keepTickets(player, Constants.IN_GAME_TICKETS_COUNT,
+                        Constants.IN_GAME_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT);
+                break;
+            case DRAW_CARDS:
+                Preconditions.checkArgument(state[DECK_SIZE] + state[DISCARDS_SIZE] >= Constants.FACE_UP_CARDS_COUNT);
+                for (int i = 0; i < 2; i++){
+                    recreateDeckIfNeeded(rng);
+                    int slot = drawSlot();
+                    int card = drawCard();
+                    if (slot != Constants.DECK_SLOT){
+                        int faceUpCard = state[FACE_UP_CARDS + slot];
+                        set(FACE_UP_CARDS + slot, card);
+                        card = faceUpCard;
+                    }
+                    add(playerOffset(player) + CARDS + card, 1);
+                }
+                break;
+            case CLAIM_ROUTE:
+                claim(player, routeOf(move), colorOf(move), locomotivesOf(move), rng);
+                break;
+            default:
+                break;
+        }
+
+        //the last turns are counted as in Game
+        boolean lastTurnBegins = state[playerOffset(player) + CAR_COUNT] <= 2 && state[LAST_PLAYER] == NOBODY;
+        if (lastTurnBegins || state[LAST_TURN_HAS_BEGUN] == 1){
+            set(LAST_TURN_HAS_BEGUN, 1);
+            add(LAST_TURNS, -1);
+        }
+        if (lastTurnBegins){
+            set(LAST_PLAYER, player);
+        }
+        set(CURRENT_PLAYER, (player + 1) % PlayerId.COUNT);
+        add(TURN_COUNT, 1);
+    }
+
+    /**
+     * Claims a route, drawing the additional cards of a tunnel as Game does, and playing the cheapest additional
+     * cards if the player has them
+     * @param player index of the player
+     * @param route index of the route
+     * @param color index of the color of the cards played, -1 if only locomotives are played
+     * @param locomotives number of locomotives played
+     * @param rng random number generator used to shuffle the discards when the deck is empty
+     */
+    private void claim(int player, int route, int color, int locomotives, Random rng){
+        int cards = playerOffset(player) + CARDS;
+        int colorCards = ROUTE_LENGTHS[route] - locomotives;
+        Preconditions.checkArgument(state[cards + LOCOMOTIVE] >= locomotives
+                && (colorCards == 0 || state[cards + color] >= colorCards));
+        if (ROUTES.get(route).level() == Route.Level.OVERGROUND){
+            claimRoute(player, route, color, colorCards, locomotives);
+            return;
+        }
+
+        int drawnCount = 0;
+        int additionalCount = 0;
+        for (int i = 0; i < drawnCards.length; i++){
+            recreateDeckIfNeeded(rng);
+            if (state[DECK_SIZE] == 0){
+                break;
+            }
+            int card = drawCard();
+            drawnCards[drawnCount++] = card;
+            if (card == LOCOMOTIVE || (colorCards > 0 && card == color)){
+                additionalCount += 1;
+            }
+        }
+        if (additionalCount == 0){
+            claimRoute(player, route, color, colorCards, locomotives);
+        }
+        else {
+            int remainingColorCards = colorCards > 0 ? state[cards + color] - colorCards : 0;
+            int remainingLocomotives = state[cards + LOCOMOTIVE] - locomotives;
+            if (remainingColorCards + remainingLocomotives >= additionalCount){
+                int additionalColorCards = Math.min(remainingColorCards, additionalCount);
+                claimRoute(player, route, color, colorCards + additionalColorCards,
+                        locomotives + additionalCount - additionalColorCards);
+            }
+        }
+        for (int i = 0; i < drawnCount; i++){
+            add(DISCARDS + drawnCards[i], 1);
+        }
+        add(DISCARDS_SIZE, drawnCount);
+    }
+
+    /**
+     * Gives a route to a player, who discards the cards played
+     * @param player index of the player
+     * @param route index of the route
+     * @param color index of the color of the cards played, ignored if colorCards is 0
+     * @param colorCards number of cards of that color played
+     * @param locomotives number of locomotives played
+     */
+    private void claimRoute(int player, int route, int color, int colorCards, int locomotives){
+        int offset = playerOffset(player);
+        if (colorCards > 0){
+            add(offset + CARDS + color, -colorCards);
+            add(DISCARDS + color, colorCards);
+        }
+        add(offset + CARDS + LOCOMOTIVE, -locomotives);
+        add(DISCARDS + LOCOMOTIVE, locomotives);
+        add(DISCARDS_SIZE, colorCards + locomotives);
+
+        set(ROUTE_OWNERS + route, player);
+        add(offset + CAR_COUNT, -ROUTE_LENGTHS[route]);
+        add(offset + CLAIM_POINTS, Constants.ROUTE_CLAIM_POINTS.get(ROUTE_LENGTHS[route]));
+        connect(player, ROUTE_STATIONS_1[route], ROUTE_STATIONS_2[route]);
+    }
+
+    /**
+     * Gives a player the tickets that it keeps among the options, with the default policy
+     * @param player index of the player
+     * @param count number of options
+     * @param minCount minimum number of tickets to keep
+     */
+    private void keepTickets(int player, int count, int minCount){
+        int offset = playerOffset(player);
+        int keptMask = keptTickets(player, count, minCount);
+        for (int i = 0; i < count; i++){
+            if ((keptMask & (1 << i)) != 0){
+                set(offset + TICKETS_OF_PLAYER + state[offset + TICKET_COUNT], ticketOptions[i]);
+                add(offset + TICKET_COUNT, 1);
+            }
+        }
+    }
+
+    /**
+     * Chooses the tickets a player keeps among the ticket options, ties being broken by the order of the tickets
+     * on the map so that the choice doesn't depend on the order of the options
+     * @param player index of the player
+     * @param count number of options
+     * @param minCount minimum number of tickets to keep
+     * @return a mask whose bit i is set if the option i is kept
+     */
+    private int keptTickets(int player, int count, int minCount){
+        int keptMask = 0;
+        int keptCount = 0;
+        for (int i = 0; i < count; i++){
+            ticketOptionPoints[i] = TICKETS.get(ticketOptions[i]).points(connectivities[player]);
+            if (ticketOptionPoints[i] > 0){
+                keptMask |= 1 << i;
+                keptCount += 1;
+            }
+        }
+        //the missing tickets are those whose points are the highest, that is whose penalty is the smallest
+        while (keptCount < minCount){
+            int best = -1;
+            for (int i = 0; i < count; i++){
+                if ((keptMask & (1 << i)) == 0 && (best == -1 || ticketOptionPoints[i] > ticketOptionPoints[best]
+                        || (ticketOptionPoints[i] == ticketOptionPoints[best] && ticketOptions[i] < ticketOptions[best]))){
+                    best = i;
+                }
+            }
+            keptMask |= 1 << best;
+            keptCount += 1;
+        }
+        return keptMask;
+    }
+
+    /**
+     * Draws the top ticket of the ticket deck
+     * @return the index of the ticket
+     */
+    private int drawTicket(){
+        int ticket = state[TICKET_DECK + state[TICKET_DECK_HEAD]];
+        add(TICKET_DECK_HEAD, 1);
+        add(TICKETS_COUNT, -1);
+        return ticket;
+    }
+
+    /**
+     * Draws the top card of the deck
+     * @return the index of the card
+     * @throws IllegalArgumentException if the deck is empty
+     */
+    private int drawCard(){
+        Preconditions.checkArgument(state[DECK_SIZE] > 0);
+        int card = state[DECK + state[DECK_HEAD]];
+        add(DECK_HEAD, 1);
+        add(DECK_SIZE, -1);
+        return card;
+    }
+
+    /**
+     * Shuffles the discards to make the deck when the deck is empty, in the order in which Deck would shuffle them
+     * @param rng random number generator used to shuffle the discards
+     */
+    private void recreateDeckIfNeeded(Random rng){
+        if (state[DECK_SIZE] != 0){
+            return;
+        }
+        int size = 0;
+        for (int card = 0; card < Card.COUNT; card++){
+            for (int i = 0; i < state[DISCARDS + card]; i++){
+                set(DECK + size++, card);
+            }
+            set(DISCARDS + card, 0);
+        }
+        for (int i = size; i > 1; i--){
+            int j = rng.nextInt(i);
+            int card = state[DECK + i - 1];
+            set(DECK + i - 1, state[DECK + j]);
+            set(DECK + j, card);
+        }
+        set(DECK_HEAD, 0);
+        set(DECK_SIZE, size);
+        set(DISCARDS_SIZE, 0);
+    }
+
+    /**
+     * Computes the points a player gets without the longest trail bonus
+     * @param player index of the player
+     * @return the claim points and the ticket points of the player
+     */
+    private int finalPoints(int player){
+        return state[playerOffset(player) + CLAIM_POINTS] + ticketPoints(player);
+    }
+
+    /**
+     * Computes the ticket points of a player
+     * @param player index of the player
+     * @return the points the player gets, or loses, with its tickets
+     */
+    private int ticketPoints(int player){
+        int offset = playerOffset(player);
+        int points = 0;
+        for (int i = 0; i < state[offset + TICKET_COUNT]; i++){
+            points += TICKETS.get(state[offset + TICKETS_OF_PLAYER + i]).points(connectivities[player]);
+        }
+        return points;
+    }
+
+    /**
+     * Asks if a player has a ticket
+     * @param offset offset of the player in the state
+     * @param ticket index of the ticket
+     * @return true if the player has the ticket, else returns false
+     */
+    private boolean hasTicket(int offset, int ticket){
+        for (int i = 0; i < state[offset + TICKET_COUNT]; i++){
+            if (state[offset + TICKETS_OF_PLAYER + i] == ticket){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the length of the longest trail of a player, by exploring all the trails starting from each station
+     * @param player index of the player
+     * @return the length of the longest trail
+     */
+    private int longestTrailLength(int player){
+        int longest = 0;
+        for (int route = 0; route < ROUTES.size(); route++){
+            if (state[ROUTE_OWNERS + route] == player){
+                longest = Math.max(longest, longestTrailLength(player, ROUTE_STATIONS_1[route]));
+                longest = Math.max(longest, longestTrailLength(player, ROUTE_STATIONS_2[route]));
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Computes the length of the longest trail starting at a station, without the routes already used, going only
+     * through the routes reaching the station
+     * @param player index of the player
+     * @param station id of the station
+     * @return the length of the longest trail
+     */
+    private int longestTrailLength(int player, int station){
+        int longest = 0;
+        for (int route : STATION_ROUTES[station]){
+            if (trailRoutesUsed[route] || state[ROUTE_OWNERS + route] != player){
+                continue;
+            }
+            int opposite = ROUTE_STATIONS_1[route] == station ? ROUTE_STATIONS_2[route] : ROUTE_STATIONS_1[route];
+            trailRoutesUsed[route] = true;
+            longest = Math.max(longest, ROUTE_LENGTHS[route] + longestTrailLength(player, opposite));
+            trailRoutesUsed[route] = false;
+        }
+        return longest;
+    }
+
+    /**
+     * Connects two stations in the network of a player, all the stations having the representative of the first one
+     * getting the representative of the second one
+     * @param player index of the player
+     * @param station1 id of a station
+     * @param station2 id of another station
+     */
+    private void connect(int player, int station1, int station2){
+        int stations = playerOffset(player) + STATIONS;
+        int representative1 = state[stations + station1];
+        int representative2 = state[stations + station2];
+        if (representative1 == representative2){
+            return;
+        }
+        for (int station = 0; station < STATION_COUNT; station++){
+            if (state[stations + station] == representative1){
+                set(stations + station, representative2);
+            }
+        }
+    }
+
+    /**
+     * Representative of a station in the network of a player
+     * @param player index of the player
+     * @param station id of the station
+     * @return the representative of the station, the station itself if it isn't on the map
+     */
+    private int representative(int player, int station){
+        return station < STATION_COUNT ? state[playerOffset(player) + STATIONS + station] : station;
+    }
+
+    /**
+     * Empties the state: nothing is dealt, no route is claimed and no turn is played
+     */
+    private void clear(){
+        Arrays.fill(state, 0);
+        journalSize = 0;
+        undoableTurnCount = 0;
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            for (int station = 0; station < STATION_COUNT; station++){
+                state[playerOffset(player) + STATIONS + station] = station;
+            }
+        }
+        Arrays.fill(state, ROUTE_OWNERS, ROUTE_OWNERS + ROUTES.size(), NOBODY);
+        state[LAST_PLAYER] = NOBODY;
+        state[LAST_TURNS] = PlayerId.COUNT;
+    }
+
+    /**
+     * Computes the Zobrist hash of the state as known by some players
+     * @param players the players to which the values left out of the hash are hidden, as a set of bits indexed by
+     *                their ordinal
+     * @return the exclusive or of the keys of the values of the state that are hashed and that aren't hidden to these
+     * players
+     */
+    private long zobristHash(int players){
+        long hash = 0;
+        for (int index = 0; index < STATE_SIZE; index++){
+            if (HASHED[index] && (HIDDEN_TO[index] & players) == 0){
+                hash ^= key(index, state[index]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Modifies a value of the state, recording its former value in the journal if the turn can be undone
+     * @param index index of the value
+     * @param value the new value
+     */
+    private void set(int index, int value){
+        if (undoableTurnCount > 0){
+            if (journalSize == journal.length){
+                journal = Arrays.copyOf(journal, 2 * journal.length);
+            }
+            journal[journalSize++] = index;
+            journal[journalSize++] = state[index];
+        }
+        state[index] = value;
+    }
+
+    private void add(int index, int delta){ set(index, state[index] + delta); }
+
+    private static int playerOffset(int player){ return PLAYERS + player * PLAYER_SIZE; }
+
+    /**
+     * Shuffles a part of an array as Collections.shuffle shuffles a list
+     * @param array the array
+     * @param from index of the first element to shuffle
+     * @param size number of elements to shuffle
+     * @param rng random number generator
+     */
+    private static void shuffle(int[] array, int from, int size, Random rng){
+        for (int i = size; i > 1; i--){
+            int j = rng.nextInt(i);
+            int element = array[from + i - 1];
+            array[from + i - 1] = array[from + j];
+            array[from + j] = element;
+        }
+    }
+
+    /**
+     * Derives the Zobrist key of a value of the state from its index and the value, with the finalizer of the
+     * SplitMix64 generator, as the keys of the Zobrist hashes of GameState are
+     * @param index index of the value
+     * @param value the value
+     * @return the key
+     */
+    private static long key(int index, int value){
+        long z = (((long) index << 32) | (value & 0xFFFF_FFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int routeOf(int move){ return move >>> ROUTE_SHIFT; }
+
+    private static int colorOf(int move){ return ((move >>> COLOR_SHIFT) & FIELD_MASK) - 1; }
+
+    private static int locomotivesOf(int move){ return (move >>> LOCOMOTIVES_SHIFT) & FIELD_MASK; }
+
+    /**
+     * Computes the indices of the elements of a list
+     * @param list a list whose elements are all different
+     * @param <E> type of the elements
+     * @return a map associating each element, compared by identity, to its index
+     */
+    private static <E> Map<E, Integer> indicesOf(List<E> list){
+        Map<E, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < list.size(); i++){
+            indices.put(list.get(i), i);
+        }
+        return indices;
+    }
+
+    private static int[] computeSortedTickets(){
+        List<Ticket> sortedTickets = SortedBag.of(TICKETS).toList();
+        int[] indices = new int[sortedTickets.size()];
+        for (int i = 0; i < indices.length; i++){
+            indices[i] = TICKET_INDICES.get(sortedTickets.get(i));
+        }
+        return indices;
+    }
+
+    private static int[] computeTwinRoutes(){
+        int[] twinRoutes = new int[ROUTES.size()];
+        for (int route = 0; route < ROUTES.size(); route++){
+            ROUTE_STATIONS_1[route] = ROUTES.get(route).station1().id();
+            ROUTE_STATIONS_2[route] = ROUTES.get(route).station2().id();
+            ROUTE_LENGTHS[route] = ROUTES.get(route).length();
+            Route twinRoute = ChMap.doubleRoute(ROUTES.get(route));
+            twinRoutes[route] = twinRoute == null ? NOBODY : twinRoute.index();
+        }
+        return twinRoutes;
+    }
+
+    private static int[][] computeStationRoutes(){
+        int[][] stationRoutes = new int[STATION_COUNT][];
+        for (int station = 0; station < STATION_COUNT; station++){
+            List<Route> routes = ChMap.routesAt(ChMap.stations().get(station));
+            stationRoutes[station] = new int[routes.size()];
+            for (int i = 0; i < routes.size(); i++){
+                stationRoutes[station][i] = routes.get(i).index();
+            }
+        }
+        return stationRoutes;
+    }
+
+    private static int[][] computeClaimMoves(){
+        int[][] claimMoves = new int[ROUTES.size()][];
+        for (int route = 0; route < ROUTES.size(); route++){
+            List<SortedBag<Card>> options = ROUTES.get(route).possibleClaimCards();
+            claimMoves[route] = new int[options.size()];
+            for (int i = 0; i < options.size(); i++){
+                SortedBag<Card> option = options.get(i);
+                int locomotives = option.countOf(Card.LOCOMOTIVE);
+                int color = option.get(0) == Card.LOCOMOTIVE ? -1 : option.get(0).ordinal();
+                claimMoves[route][i] = (route << ROUTE_SHIFT) | ((color + 1) << COLOR_SHIFT)
+                        | (locomotives << LOCOMOTIVES_SHIFT) | CLAIM_ROUTE;
+            }
+        }
+        return claimMoves;
+    }
+
+    private static boolean[] computeHashed(){
+        boolean[] hashed = new boolean[STATE_SIZE];
+        Arrays.fill(hashed, true);
+        Arrays.fill(hashed, DECK, DECK_HEAD + 1, false);
+        Arrays.fill(hashed, TICKET_DECK, TICKET_DECK_HEAD + 1, false);
+        hashed[TURN_COUNT] = false;
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            Arrays.fill(hashed, playerOffset(player) + STATIONS, playerOffset(player) + PLAYER_SIZE, false);
+        }
+        return hashed;
+    }
+
+    private static int[] computeHiddenTo(){
+        int[] hiddenTo = new int[STATE_SIZE];
+        Arrays.fill(hiddenTo, DISCARDS, DISCARDS + Card.COUNT, (1 << PlayerId.COUNT) - 1);
+        for (int player = 0; player < PlayerId.COUNT; player++){
+            int others = ((1 << PlayerId.COUNT) - 1) & ~(1 << player);
+            Arrays.fill(hiddenTo, playerOffset(player) + CARDS, playerOffset(player) + CARDS + Card.COUNT, others);
+            Arrays.fill(hiddenTo, playerOffset(player) + TICKETS_OF_PLAYER, playerOffset(player) + STATIONS, others);
+        }
+        return hiddenTo;
+    }
+
+    private static int computeMaxMoveCount(){
+        int count = 2;
+        for (int[] moves : CLAIM_MOVES){
+            count += moves.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,153 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Player making random legal moves, used as a baseline opponent in simulations
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class RandomPlayer implements Player {
+
+    //odds (one in ...) of drawing tickets when the player could claim a route or draw cards instead, and of
+    //abandoning the claim of a tunnel when additional cards are required
+    private static final int DRAW_TICKETS_ODDS = 15;
+    private static final int ABANDON_TUNNEL_ODDS = 10;
+
+    private final Random rng;
+    private final List<Route> allRoutes;
+
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTicketChoice;
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+
+    /**
+     * RandomPlayer constructor
+     * @param seed seed of the random number generator used to choose the moves
+     * @param allRoutes routes of the map the player plays on
+     */
+    public RandomPlayer(long seed, List<Route> allRoutes){
+        this.rng = new Random(seed);
+        this.allRoutes = List.copyOf(allRoutes);
+    }
+
+    /**
+     * RandomPlayer constructor, playing on the map of Switzerland
+     * @param seed seed of the random number generator used to choose the moves
+     */
+    public RandomPlayer(long seed){
+        this(seed, ChMap.routes());
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){}
+
+    @Override
+    public void receiveInfo(String info){}
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState){
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets){
+        this.initialTicketChoice = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets(){
+        return randomSubset(initialTicketChoice, Constants.INITIAL_TICKETS_COUNT - 2);
+    }
+
+    @Override
+    public TurnKind nextTurn(){
+        List<Route> claimableRoutes = claimableRoutes();
+        //the game always presents the same number of tickets, so the player only draws when there are enough left
+        boolean canDrawTickets = gameState.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT;
+        boolean drawTickets = canDrawTickets && rng.nextInt(DRAW_TICKETS_ODDS) == 0;
+
+        if (!drawTickets && !claimableRoutes.isEmpty() && (rng.nextBoolean() || !gameState.canDrawCards())){
+            routeToClaim = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            List<SortedBag<Card>> claimCards = ownState.possibleClaimCards(routeToClaim);
+            initialClaimCards = claimCards.get(rng.nextInt(claimCards.size()));
+            return TurnKind.CLAIM_ROUTE;
+        }
+        if (!drawTickets && gameState.canDrawCards()){
+            return TurnKind.DRAW_CARDS;
+        }
+        if (canDrawTickets){
+            return TurnKind.DRAW_TICKETS;
+        }
+
+        //no move is possible, the player attempts a claim that fails and passes its turn
+        routeToClaim = allRoutes.get(0);
+        initialClaimCards = SortedBag.of();
+        return TurnKind.CLAIM_ROUTE;
+    }
+
+    @Override
+    public int drawSlot(){
+        if (!gameState.cardState().isDeckEmpty() && rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) == 0){
+            return Constants.DECK_SLOT;
+        }
+        return Constants.FACE_UP_CARD_SLOTS.get(rng.nextInt(Constants.FACE_UP_CARDS_COUNT));
+    }
+
+    @Override
+    public Route claimedRoute(){ return routeToClaim; }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){
+        return randomSubset(options, 1);
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards(){ return initialClaimCards; }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+        return rng.nextInt(ABANDON_TUNNEL_ODDS) == 0
+                ? SortedBag.of()
+                : options.get(rng.nextInt(options.size()));
+    }
+
+    /**
+     * Computes the routes the player can claim
+     * @return the routes that aren't claimed, whose twin route isn't claimed either, and that the player can afford
+     */
+    private List<Route> claimableRoutes(){
+        List<Route> claimableRoutes = new ArrayList<>();
+        for (Route route : allRoutes){
+            if (!gameState.isRouteOrDoubleClaimed(route) && ownState.canClaimRoute(route)){
+                claimableRoutes.add(route);
+            }
+        }
+        return claimableRoutes;
+    }
+
+    /**
+     * Chooses a random subset of tickets
+     * @param tickets tickets to choose from
+     * @param minSize minimum number of tickets to choose
+     * @return a random subset of the tickets, containing at least minSize of them
+     */
+    private SortedBag<Ticket> randomSubset(SortedBag<Ticket> tickets, int minSize){
+        List<Ticket> shuffled = new ArrayList<>(tickets.toList());
+        Collections.shuffle(shuffled, rng);
+        int size = minSize + rng.nextInt(tickets.size() - minSize + 1);
+        return SortedBag.of(shuffled.subList(0, size));
+    }
+}
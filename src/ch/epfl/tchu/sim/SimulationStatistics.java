@@ -0,0 +1,237 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.GameResult;
+import ch.epfl.tchu.game.PlayerId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregate statistics over a batch of simulated games
+ *
+ * An instance accumulates the results of the games played by a single thread, the instances of the different threads
+ * are then combined. It is therefore not thread-safe.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class SimulationStatistics {
+
+    /**
+     * Width of the buckets of the score distributions
+     */
+    public static final int POINTS_BUCKET_WIDTH = 10;
+
+    //number of finished and aborted games, and number of draws
+    private long gameCount;
+    private long abortedGameCount;
+    private long drawCount;
+
+    //statistics of each player, indexed by the ordinal of its id
+    private final long[] winCounts = new long[PlayerId.COUNT];
+    private final long[] longestTrailBonusCounts = new long[PlayerId.COUNT];
+    private final IntSummaryStatistics[] pointsStatistics = new IntSummaryStatistics[PlayerId.COUNT];
+    private final IntSummaryStatistics[] longestTrailStatistics = new IntSummaryStatistics[PlayerId.COUNT];
+    private final List<Map<Integer, Long>> pointsDistributions = newPointsDistributions();
+
+    private final IntSummaryStatistics turnStatistics = new IntSummaryStatistics();
+
+    /**
+     * SimulationStatistics constructor, creating empty statistics
+     */
+    public SimulationStatistics(){
+        for (PlayerId playerId : PlayerId.ALL){
+            pointsStatistics[playerId.ordinal()] = new IntSummaryStatistics();
+            longestTrailStatistics[playerId.ordinal()] = new IntSummaryStatistics();
+        }
+    }
+
+    /**
+     * Adds the result of a finished game
+     * @param result result of the game
+     */
+    public void add(GameResult result){
+        gameCount += 1;
+        turnStatistics.accept(result.turnCount());
+
+        PlayerId winner = result.winner();
+        if (winner == null){
+            drawCount += 1;
+        }
+        else {
+            winCounts[winner.ordinal()] += 1;
+        }
+
+        for (PlayerId playerId : PlayerId.ALL){
+            int i = playerId.ordinal();
+            int points = result.points(playerId);
+            pointsStatistics[i].accept(points);
+            pointsDistributions.get(i).merge(Math.floorDiv(points, POINTS_BUCKET_WIDTH) * POINTS_BUCKET_WIDTH, 1L, Long::sum);
+            longestTrailStatistics[i].accept(result.longestTrailLength(playerId));
+            if (result.getsLongestTrailBonus(playerId)){
+                longestTrailBonusCounts[i] += 1;
+            }
+        }
+    }
+
+    /**
+     * Counts a game that had to be aborted
+     */
+    public void addAborted(){
+        abortedGameCount += 1;
+    }
+
+    /**
+     * Adds the statistics of another batch of games to these ones
+     * @param that statistics to be added, left unchanged
+     */
+    public void combine(SimulationStatistics that){
+        gameCount += that.gameCount;
+        abortedGameCount += that.abortedGameCount;
+        drawCount += that.drawCount;
+        turnStatistics.combine(that.turnStatistics);
+        for (int i = 0; i < PlayerId.COUNT; i++){
+            winCounts[i] += that.winCounts[i];
+            longestTrailBonusCounts[i] += that.longestTrailBonusCounts[i];
+            pointsStatistics[i].combine(that.pointsStatistics[i]);
+            longestTrailStatistics[i].combine(that.longestTrailStatistics[i]);
+            Map<Integer, Long> pointsDistribution = pointsDistributions.get(i);
+            that.pointsDistributions.get(i).forEach((bucket, count) -> pointsDistribution.merge(bucket, count, Long::sum));
+        }
+    }
+
+    /**
+     * Game count getter
+     * @return the number of games that were played until the end
+     */
+    public long gameCount(){ return gameCount; }
+
+    /**
+     * Aborted game count getter
+     * @return the number of games that had to be aborted
+     */
+    public long abortedGameCount(){ return abortedGameCount; }
+
+    /**
+     * Computes the win rate of a player
+     * @param playerId id of the player
+     * @return the proportion of the finished games won by that player
+     */
+    public double winRate(PlayerId playerId){
+        return rate(winCounts[playerId.ordinal()]);
+    }
+
+    /**
+     * Computes the draw rate
+     * @return the proportion of the finished games that ended in a draw
+     */
+    public double drawRate(){
+        return rate(drawCount);
+    }
+
+    /**
+     * Computes how often a player gets the longest trail bonus
+     * @param playerId id of the player
+     * @return the proportion of the finished games in which that player got the bonus (both players get it on ties)
+     */
+    public double longestTrailBonusRate(PlayerId playerId){
+        return rate(longestTrailBonusCounts[playerId.ordinal()]);
+    }
+
+    /**
+     * Points statistics getter
+     * @param playerId id of the player
+     * @return the statistics (count, minimum, average, maximum) of the final points of that player
+     */
+    public IntSummaryStatistics pointsStatistics(PlayerId playerId){
+        return copyOf(pointsStatistics[playerId.ordinal()]);
+    }
+
+    /**
+     * Points distribution getter
+     * @param playerId id of the player
+     * @return the number of games, for each bucket of POINTS_BUCKET_WIDTH points (identified by its lowest value),
+     * in which the final points of that player fell in that bucket
+     */
+    public SortedMap<Integer, Long> pointsDistribution(PlayerId playerId){
+        return Collections.unmodifiableSortedMap(new TreeMap<>(pointsDistributions.get(playerId.ordinal())));
+    }
+
+    /**
+     * Longest trail statistics getter
+     * @param playerId id of the player
+     * @return the statistics of the length of the longest trail of that player
+     */
+    public IntSummaryStatistics longestTrailStatistics(PlayerId playerId){
+        return copyOf(longestTrailStatistics[playerId.ordinal()]);
+    }
+
+    /**
+     * Turn statistics getter
+     * @return the statistics of the number of turns of the finished games
+     */
+    public IntSummaryStatistics turnStatistics(){
+        return copyOf(turnStatistics);
+    }
+
+    /**
+     * Textual report of the statistics
+     * @return a human readable report of the statistics
+     */
+    @Override
+    public String toString(){
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("games: %d finished, %d aborted, %.2f%% draws%n",
+                gameCount, abortedGameCount, 100 * drawRate()));
+        report.append(String.format("turns: min %d, avg %.2f, max %d%n",
+                turnStatistics.getMin(), turnStatistics.getAverage(), turnStatistics.getMax()));
+        for (PlayerId playerId : PlayerId.ALL){
+            IntSummaryStatistics points = pointsStatistics[playerId.ordinal()];
+            IntSummaryStatistics trails = longestTrailStatistics[playerId.ordinal()];
+            report.append(String.format("%s: %.2f%% wins, points min %d avg %.2f max %d, "
+                            + "longest trail avg %.2f, bonus %.2f%%%n",
+                    playerId, 100 * winRate(playerId), points.getMin(), points.getAverage(), points.getMax(),
+                    trails.getAverage(), 100 * longestTrailBonusRate(playerId)));
+            report.append(String.format("%s points distribution: %s%n", playerId, pointsDistribution(playerId)));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Computes the proportion of finished games
+     * @param count number of games
+     * @return count divided by the number of finished games, or 0 if no game was finished
+     */
+    private double rate(long count){
+        return gameCount == 0 ? 0 : (double) count / gameCount;
+    }
+
+    /**
+     * Copies summary statistics, so that they can be returned without exposing the internal ones
+     * @param statistics statistics to copy
+     * @return new statistics equal to the given ones
+     */
+    private static IntSummaryStatistics copyOf(IntSummaryStatistics statistics){
+        IntSummaryStatistics copy = new IntSummaryStatistics();
+        copy.combine(statistics);
+        return copy;
+    }
+
+    /**
+     * Creates the empty points distribution of each player
+     * @return a list containing an empty distribution for each player
+     */
+    private static List<Map<Integer, Long>> newPointsDistributions(){
+        List<Map<Integer, Long>> distributions = new ArrayList<>(PlayerId.COUNT);
+        for (int i = 0; i < PlayerId.COUNT; i++){
+            distributions.add(new TreeMap<>());
+        }
+        return distributions;
+    }
+}
@@ -0,0 +1,215 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Headless simulator playing batches of seeded games in parallel
+ *
+ * The games are split among the threads of a fork/join pool, each thread accumulating the results of its games in its
+ * own statistics, which are combined at the end. A game only depends on its seed, so that a batch gives the same
+ * statistics whatever the number of threads.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class Simulator {
+
+    //maximum number of turns a player can play before its game is aborted, a player normally plays less than 100 turns
+    private static final int MAX_TURN_COUNT = 1_000;
+    //number of games below which a batch is played by a single thread instead of being split
+    private static final int BATCH_SIZE = 16;
+    //increment between the seeds of two consecutive games
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    //attributes of a simulator: the factories creating the players of a game from a seed,
+    //the number of threads playing the games and the tickets of the games
+    private final Map<PlayerId, LongFunction<Player>> playerFactories;
+    private final int parallelism;
+    private final SortedBag<Ticket> tickets;
+
+    /**
+     * Simulator constructor
+     * @param playerFactories functions creating, for each player id, a new player from a seed
+     * @param parallelism number of threads playing the games
+     * @throws IllegalArgumentException if there isn't a factory for each player, or if parallelism isn't positive
+     */
+    public Simulator(Map<PlayerId, LongFunction<Player>> playerFactories, int parallelism){
+        Preconditions.checkArgument(playerFactories.size() == PlayerId.COUNT && parallelism > 0);
+        this.playerFactories = Map.copyOf(playerFactories);
+        this.parallelism = parallelism;
+        this.tickets = SortedBag.of(ChMap.tickets());
+    }
+
+    /**
+     * Plays a batch of games
+     * @param gameCount number of games to play
+     * @param seed seed of the batch, from which the seed of each game is derived
+     * @return the statistics of the games
+     * @throws IllegalArgumentException if gameCount is negative
+     */
+    public SimulationStatistics run(int gameCount, long seed){
+        Preconditions.checkArgument(gameCount >= 0);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new GameBatch(seed, 0, gameCount));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a single game
+     * @param gameSeed seed of the game, used for its random number generator and to create its players
+     * @param statistics statistics to which the result of the game is added
+     */
+    private void play(long gameSeed, SimulationStatistics statistics){
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL){
+            Player player = playerFactories.get(playerId).apply(gameSeed + playerId.ordinal() + 1);
+            players.put(playerId, new TurnLimitedPlayer(player));
+        }
+        try {
+            statistics.add(Game.play(players, PLAYER_NAMES, tickets, new Random(gameSeed)));
+        }
+        catch (TurnLimitExceededException e){
+            statistics.addAborted();
+        }
+    }
+
+    /**
+     * Plays batches of games with random players on the map of Switzerland and prints their statistics
+     * @param args the number of games (1000 by default), the seed (2021 by default) and the number of threads (the
+     *             number of available processors by default)
+     */
+    public static void main(String[] args){
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 2021;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        LongFunction<Player> randomPlayer = RandomPlayer::new;
+        Simulator simulator = new Simulator(Map.of(PLAYER_1, randomPlayer, PLAYER_2, randomPlayer), parallelism);
+
+        long start = System.nanoTime();
+        SimulationStatistics statistics = simulator.run(gameCount, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(statistics);
+        System.out.printf("%d games in %.2f s on %d threads (%.1f games/s)%n",
+                gameCount, seconds, parallelism, gameCount / seconds);
+    }
+
+    /**
+     * Task playing a range of games, split in two halves while it is bigger than BATCH_SIZE
+     */
+    private final class GameBatch extends RecursiveTask<SimulationStatistics> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        private GameBatch(long seed, int from, int to){
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStatistics compute(){
+            if (to - from <= BATCH_SIZE){
+                SimulationStatistics statistics = new SimulationStatistics();
+                for (int i = from; i < to; i++){
+                    play(seed + i * SEED_INCREMENT, statistics);
+                }
+                return statistics;
+            }
+            int middle = (from + to) >>> 1;
+            GameBatch second = new GameBatch(seed, middle, to);
+            second.fork();
+            SimulationStatistics statistics = new GameBatch(seed, from, middle).compute();
+            statistics.combine(second.join());
+            return statistics;
+        }
+    }
+
+    /**
+     * Exception thrown when a player exceeds the maximum number of turns
+     */
+    private static final class TurnLimitExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Player delegating to another one, aborting the game when it lasts for too many turns
+     */
+    private static final class TurnLimitedPlayer implements Player {
+        private final Player player;
+        private int turnCount;
+
+        private TurnLimitedPlayer(Player player){
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames){
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info){ player.receiveInfo(info); }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState){
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets){ player.setInitialTicketChoice(tickets); }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets(){ return player.chooseInitialTickets(); }
+
+        @Override
+        public TurnKind nextTurn(){
+            turnCount += 1;
+            if (turnCount > MAX_TURN_COUNT){
+                throw new TurnLimitExceededException();
+            }
+            return player.nextTurn();
+        }
+
+        @Override
+        public int drawSlot(){ return player.drawSlot(); }
+
+        @Override
+        public Route claimedRoute(){ return player.claimedRoute(); }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options){ return player.chooseTickets(options); }
+
+        @Override
+        public SortedBag<Card> initialClaimCards(){ return player.initialClaimCards(); }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options){
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Bounded table of evaluations of game states, indexed by their Zobrist hashes, shared by search threads
+ *
+ * Each hash has a single slot, given by its lower bits, and a new evaluation replaces the one of another state in
+ * that slot, so that the table never grows. The slots are guarded by a fixed number of locks, each lock guarding the
+ * slots whose index has the same lower bits, so that threads only wait for each other when they access slots guarded
+ * by the same lock at the same time.
+ *
+ * @author Alexandre Kambiz Gunter (324268)
+ * @author Selim Jerad (327529)
+ */
+
+public final class TranspositionTable<V> {
+
+    //hashes and evaluations of the slots, an empty slot having no evaluation, and locks guarding them
+    private final long[] hashes;
+    private final Object[] values;
+    private final Object[] locks;
+    private final int slotMask;
+    private final int lockMask;
+
+    /**
+     * TranspositionTable constructor
+     * @param capacity number of slots of the table, rounded up to a power of two
+     * @param lockCount number of locks guarding the slots, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity or the number of locks isn't positive, or if the capacity is
+     * larger than 2^30
+     */
+    public TranspositionTable(int capacity, int lockCount){
+        Preconditions.checkArgument(capacity > 0 && capacity <= 1 << 30 && lockCount > 0 && lockCount <= 1 << 30);
+        int slotCount = powerOfTwoAtLeast(capacity);
+        this.hashes = new long[slotCount];
+        this.values = new Object[slotCount];
+        this.locks = new Object[Math.min(powerOfTwoAtLeast(lockCount), slotCount)];
+        for (int i = 0; i < locks.length; i++){
+            locks[i] = new Object();
+        }
+        this.slotMask = slotCount - 1;
+        this.lockMask = locks.length - 1;
+    }
+
+    /**
+     * Capacity getter
+     * @return the number of slots of the table
+     */
+    public int capacity(){ return hashes.length; }
+
+    /**
+     * Returns the evaluation of a state
+     * @param hash Zobrist hash of the state
+     * @return the evaluation of the state, or null if it isn't in the table
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long hash){
+        int slot = slot(hash);
+        synchronized (lock(slot)){
+            return hashes[slot] == hash ? (V) values[slot] : null;
+        }
+    }
+
+    /**
+     * Stores the evaluation of a state, replacing the one of any other state in its slot
+     * @param hash Zobrist hash of the state
+     * @param value evaluation of the state
+     * @throws NullPointerException if the evaluation is null
+     */
+    public void put(long hash, V value){
+        if (value == null){
+            throw new NullPointerException();
+        }
+        int slot = slot(hash);
+        synchronized (lock(slot)){
+            hashes[slot] = hash;
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Combines an evaluation of a state with the one already in the table, atomically, so that threads evaluating
+     * the same state add up their evaluations
+     * @param hash Zobrist hash of the state
+     * @param value evaluation of the state
+     * @param merge function combining the evaluation in the table with the given one
+     * @return the evaluation stored in the table: the given one if the state wasn't in the table, else the result of
+     * the function
+     * @throws NullPointerException if the evaluation or its combination is null
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(long hash, V value, BinaryOperator<V> merge){
+        if (value == null){
+            throw new NullPointerException();
+        }
+        int slot = slot(hash);
+        synchronized (lock(slot)){
+            V merged = hashes[slot] == hash && values[slot] != null ? merge.apply((V) values[slot], value) : value;
+            if (merged == null){
+                throw new NullPointerException();
+            }
+            hashes[slot] = hash;
+            values[slot] = merged;
+            return merged;
+        }
+    }
+
+    /**
+     * Removes all the evaluations of the table
+     */
+    public void clear(){
+        for (int i = 0; i < locks.length; i++){
+            synchronized (locks[i]){
+                for (int slot = i; slot < values.length; slot += locks.length){
+                    values[slot] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the slot of a state
+     * @param hash Zobrist hash of the state
+     * @return the index of the slot, given by the lower bits of the hash as they are uniformly distributed
+     */
+    private int slot(long hash){
+        return (int) hash & slotMask;
+    }
+
+    /**
+     * Returns the lock guarding a slot
+     * @param slot the index of the slot
+     * @return the lock
+     */
+    private Object lock(int slot){
+        return locks[slot & lockMask];
+    }
+
+    /**
+     * Rounds a positive number up to a power of two
+     * @param n the number, at most 2^30
+     * @return the smallest power of two greater than or equal to n
+     */
+    private static int powerOfTwoAtLeast(int n){
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
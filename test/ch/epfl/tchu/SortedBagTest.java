@@ -0,0 +1,81 @@
+package ch.epfl.tchu;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedBagTest {
+    // Computes the subsets of a bag from the subsets of all its elements, as a reference
+    private static Set<SortedBag<Integer>> allSubsetsOfSize(SortedBag<Integer> bag, int size) {
+        var elements = bag.toList();
+        var subsets = new HashSet<SortedBag<Integer>>();
+        for (var mask = 0; mask < 1 << elements.size(); mask++) {
+            if (Integer.bitCount(mask) != size)
+                continue;
+            var builder = new SortedBag.Builder<Integer>();
+            for (var i = 0; i < elements.size(); i++) {
+                if ((mask & 1 << i) != 0)
+                    builder.add(elements.get(i));
+            }
+            subsets.add(builder.build());
+        }
+        return subsets;
+    }
+
+    private static SortedBag<Integer> randomBag(Random rng) {
+        var builder = new SortedBag.Builder<Integer>();
+        var size = rng.nextInt(10);
+        for (var i = 0; i < size; i++)
+            builder.add(rng.nextInt(4));
+        return builder.build();
+    }
+
+    @Test
+    void subsetsOfSizeFailsWithInvalidSize() {
+        var bag = SortedBag.of(2, 1, 1, 2);
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSize(4));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSizeStream(4));
+    }
+
+    @Test
+    void subsetsOfSizeWorksOnRandomBags() {
+        var rng = TestRandomizer.newRandom();
+        for (var i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var bag = randomBag(rng);
+            var size = rng.nextInt(bag.size() + 1);
+            var subsets = bag.subsetsOfSize(size);
+            assertEquals(allSubsetsOfSize(bag, size), subsets);
+            assertEquals(new ArrayList<>(subsets), bag.subsetsOfSizeStream(size).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void subsetsOfSizeReturnsSubsetsInLexicographicOrder() {
+        var bag = SortedBag.of(2, 1, 1, 2).union(SortedBag.of(3));
+        var expected = List.of(
+                SortedBag.of(2, 1),
+                SortedBag.of(1, 1, 1, 2),
+                SortedBag.of(1, 1, 1, 3),
+                SortedBag.of(1, 2, 1, 3));
+        assertEquals(expected, new ArrayList<>(bag.subsetsOfSize(2)));
+        assertEquals(expected, bag.subsetsOfSizeStream(2).collect(Collectors.toList()));
+    }
+
+    @Test
+    void subsetsOfSizeReturnsAnImmutableSet() {
+        var bag = SortedBag.of(3, 1, 2, 2);
+        var subsets = bag.subsetsOfSize(3);
+        assertThrows(UnsupportedOperationException.class, () -> subsets.add(SortedBag.of(3, 2)));
+        assertEquals(subsets, bag.subsetsOfSize(3));
+        assertEquals(Set.of(SortedBag.of()), bag.subsetsOfSize(0));
+    }
+}
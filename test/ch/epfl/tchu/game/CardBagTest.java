@@ -0,0 +1,84 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardBagTest {
+    @Test
+    void cardBagOfWorksWithEmptyAndSingleCards() {
+        assertTrue(CardBag.of().isEmpty());
+        assertEquals(0, CardBag.of().size());
+        for (var card : Card.ALL) {
+            var bag = CardBag.of(card);
+            assertEquals(1, bag.size());
+            assertEquals(1, bag.countOf(card));
+            assertTrue(bag.contains(card));
+            assertEquals(SortedBag.of(card), bag.toSortedBag());
+        }
+    }
+
+    @Test
+    void cardBagOfFailsWithInvalidCount() {
+        assertThrows(IllegalArgumentException.class, () -> CardBag.of(-1, Card.RED));
+        assertThrows(IllegalArgumentException.class, () -> CardBag.of(CardBag.MAX_COUNT + 1, Card.RED));
+    }
+
+    @Test
+    void cardBagUnionFailsOnOverflow() {
+        var full = CardBag.of(CardBag.MAX_COUNT, Card.LOCOMOTIVE);
+        assertThrows(IllegalArgumentException.class, () -> full.withAdded(Card.LOCOMOTIVE));
+        assertEquals(CardBag.MAX_COUNT + 1, full.withAdded(Card.BLACK).size());
+    }
+
+    @Test
+    void cardBagConvertsToAndFromSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var cards = randomCards(rng);
+            var bag = CardBag.of(cards);
+            assertEquals(cards, bag.toSortedBag());
+            assertEquals(cards.size(), bag.size());
+            assertEquals(cards.toString(), bag.toString());
+            for (var card : Card.ALL)
+                assertEquals(cards.countOf(card), bag.countOf(card));
+            assertEquals(bag, CardBag.ofPacked(bag.packed()));
+        }
+    }
+
+    @Test
+    void cardBagOperationsMatchSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var cards1 = randomCards(rng);
+            var cards2 = randomCards(rng);
+            var bag1 = CardBag.of(cards1);
+            var bag2 = CardBag.of(cards2);
+            assertEquals(cards1.union(cards2), bag1.union(bag2).toSortedBag());
+            assertEquals(cards1.difference(cards2), bag1.difference(bag2).toSortedBag());
+            assertEquals(cards1.difference(cards2).size(), bag1.difference(bag2).size());
+            assertEquals(cards1.contains(cards2), bag1.contains(bag2));
+            assertTrue(bag1.union(bag2).contains(bag2));
+            assertEquals(cards1.equals(cards2), bag1.equals(bag2));
+        }
+    }
+
+    @Test
+    void cardBagOfPackedFailsWithInvalidPacking() {
+        assertThrows(IllegalArgumentException.class, () -> CardBag.ofPacked(1L << 6));
+        assertThrows(IllegalArgumentException.class, () -> CardBag.ofPacked(-1L));
+    }
+
+    private static SortedBag<Card> randomCards(Random rng) {
+        var builder = new SortedBag.Builder<Card>();
+        for (var card : Card.ALL) {
+            if (rng.nextInt(3) != 0)
+                builder.add(rng.nextInt(Constants.LOCOMOTIVE_CARDS_COUNT + 1), card);
+        }
+        return builder.build();
+    }
+}
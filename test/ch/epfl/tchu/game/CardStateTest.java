@@ -209,4 +209,26 @@ public final class CardStateTest {
         var cardState = CardState.of(deck);
         return cardState;
     }
+
+    @Test
+    void cardStateZobristHashIsKeptUpToDate() {
+        var rng = TestRandomizer.newRandom();
+        var cardState = CardState.of(Deck.of(Constants.ALL_CARDS, rng));
+        var redThenBlue = cardState
+                .withMoreDiscardedCards(SortedBag.of(Card.RED))
+                .withMoreDiscardedCards(SortedBag.of(2, Card.BLUE));
+        var blueThenRed = cardState
+                .withMoreDiscardedCards(SortedBag.of(2, Card.BLUE))
+                .withMoreDiscardedCards(SortedBag.of(Card.RED));
+        assertEquals(redThenBlue.zobristHash(), blueThenRed.zobristHash());
+        assertNotEquals(cardState.zobristHash(), redThenBlue.zobristHash());
+        assertNotEquals(cardState.zobristHash(), cardState.withoutTopDeckCard().zobristHash());
+
+        var hashes = new HashSet<Long>();
+        while (!cardState.isDeckEmpty()) {
+            hashes.add(cardState.zobristHash());
+            cardState = cardState.withDrawnFaceUpCard(rng.nextInt(FACE_UP_CARDS_COUNT));
+        }
+        assertEquals(Constants.ALL_CARDS.size() - FACE_UP_CARDS_COUNT, hashes.size());
+    }
 }
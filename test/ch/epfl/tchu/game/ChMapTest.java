@@ -0,0 +1,48 @@
+package ch.epfl.tchu.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChMapTest {
+    @Test
+    void chMapDoubleRouteWorks() {
+        var doubleRouteCount = 0;
+        for (var route : ChMap.routes()) {
+            var doubleRoute = ChMap.doubleRoute(route);
+            for (var other : ChMap.routes()) {
+                if (other != route && other.stations().equals(route.stations()))
+                    assertSame(other, doubleRoute);
+            }
+            if (doubleRoute != null) {
+                doubleRouteCount++;
+                assertSame(route, ChMap.doubleRoute(doubleRoute));
+            }
+        }
+        assertTrue(doubleRouteCount > 0);
+    }
+
+    @Test
+    void chMapDoubleRouteFailsWithRouteOfOtherMap() {
+        var route = new Route("A_B_1", new Station(0, "A"), new Station(1, "B"), 1, Route.Level.OVERGROUND, null);
+        assertThrows(IllegalArgumentException.class, () -> ChMap.doubleRoute(route));
+    }
+
+    @Test
+    void chMapRoutesAtWorks() {
+        var routes = new HashSet<Route>();
+        for (var station : ChMap.stations()) {
+            var expected = new ArrayList<Route>();
+            for (var route : ChMap.routes()) {
+                if (route.station1() == station || route.station2() == station)
+                    expected.add(route);
+            }
+            assertEquals(expected, ChMap.routesAt(station));
+            routes.addAll(ChMap.routesAt(station));
+        }
+        assertEquals(ChMap.routes().size(), routes.size());
+    }
+}
@@ -120,6 +120,28 @@ class DeckTest {
         assertEquals(cards, actualCardsBuilder.build());
     }
 
+    @Test
+    void deckOfShufflesLikeCollectionsShuffle() {
+        var cardsBag = SortedBag.of(Constants.ALL_CARDS.toList());
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var expected = new ArrayList<>(cardsBag.toList());
+            Collections.shuffle(expected, new Random(i));
+            assertEquals(expected, deckToList(Deck.of(cardsBag, new Random(i))));
+            assertEquals(expected, deckToList(Deck.of(CardBag.of(cardsBag), new Random(i))));
+        }
+    }
+
+    @Test
+    void deckWithoutTopCardsDoesNotModifyDeck() {
+        var cards = listOfSize(10);
+        var deck = Deck.of(SortedBag.of(cards), TestRandomizer.newRandom());
+        var deckList = deckToList(deck);
+        assertEquals(deckList.subList(3, 10), deckToList(deck.withoutTopCards(3)));
+        assertEquals(deckList.subList(5, 10), deckToList(deck.withoutTopCards(3).withoutTopCards(2)));
+        assertEquals(SortedBag.of(deckList.subList(3, 6)), deck.withoutTopCards(3).topCards(3));
+        assertEquals(deckList, deckToList(deck));
+    }
+
     private static <E extends Comparable<E>> List<E> deckToList(Deck<E> deck) {
         var list = new ArrayList<E>(deck.size());
         while (!deck.isEmpty()) {
@@ -0,0 +1,146 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameReplayTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    // Random player adding to a list shared by both players the state of the game at the beginning of its turns
+    private static final class StatesRecordingPlayer implements Player {
+        private final RandomPlayer player;
+        private final List<GameState> states;
+        private PublicGameState lastState;
+
+        private StatesRecordingPlayer(long seed, List<GameState> states) {
+            this.player = new RandomPlayer(seed);
+            this.states = states;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+            lastState = newState;
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            states.add((GameState) lastState);
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    private static GameLog record(Map<PlayerId, Player> players, long seed) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        Game.play(players, NAMES, TICKETS, new GameLog.Recorder(bytes, seed));
+        return GameLog.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.zobristHash(), actual.zobristHash());
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        for (PlayerId playerId : PlayerId.ALL) {
+            assertEquals(expected.playerState(playerId).cards(), actual.playerState(playerId).cards());
+            assertEquals(expected.playerState(playerId).tickets(), actual.playerState(playerId).tickets());
+            assertEquals(expected.playerState(playerId).claimPoints(), actual.playerState(playerId).claimPoints());
+        }
+    }
+
+    @Test
+    void gameReplayRebuildsTheStatesOfTheGame() throws IOException {
+        for (long seed = 0; seed < 10; seed++) {
+            var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+            var gameStates = new ArrayList<GameState>();
+            for (PlayerId playerId : PlayerId.ALL)
+                players.put(playerId, new StatesRecordingPlayer(seed * 2 + playerId.ordinal(), gameStates));
+            var log = record(players, seed);
+            assertEquals(seed, log.seed());
+
+            var replay = new GameReplay(log, TICKETS);
+            var states = new ArrayList<GameState>();
+            states.add(replay.state());
+            while (replay.hasNextTurn())
+                states.add(replay.nextTurn());
+
+            assertEquals(gameStates.size() + 1, states.size());
+            for (int i = 0; i < gameStates.size(); i++)
+                assertSameState(gameStates.get(i), states.get(i));
+        }
+    }
+
+    @Test
+    void gameReplayStateAfterTurnWorks() throws IOException {
+        var log = record(Map.of(PLAYER_1, new RandomPlayer(1), PLAYER_2, new RandomPlayer(2)), 2021);
+        var replay = new GameReplay(log, TICKETS);
+        for (int i = 0; i < 10; i++)
+            replay.nextTurn();
+        assertSameState(replay.state(), GameReplay.stateAfterTurn(log, TICKETS, 10));
+        assertThrows(IllegalArgumentException.class, () -> GameReplay.stateAfterTurn(log, TICKETS, 1_000));
+    }
+
+    @Test
+    void gameLogReadFailsWithoutHeader() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GameLog.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13})));
+    }
+}
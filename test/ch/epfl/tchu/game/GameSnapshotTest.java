@@ -0,0 +1,206 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    // Random player adding to a list shared by both players the state of the game at the beginning of its turns, and
+    // crashing the game when the list reaches a given size
+    private static final class CrashingPlayer implements Player {
+        private final RandomPlayer player;
+        private final List<GameState> states;
+        private final int crashingTurn;
+        private PublicGameState lastState;
+
+        private CrashingPlayer(long seed, List<GameState> states, int crashingTurn) {
+            this.player = new RandomPlayer(seed);
+            this.states = states;
+            this.crashingTurn = crashingTurn;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+            lastState = newState;
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            states.add((GameState) lastState);
+            if (states.size() == crashingTurn)
+                throw new IllegalStateException("crash");
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.zobristHash(), actual.zobristHash());
+        assertEquals(expected.ticketDeck().toList(), actual.ticketDeck().toList());
+        assertEquals(expected.privateCardState().faceDownCards().toList(), actual.privateCardState().faceDownCards().toList());
+        assertEquals(expected.privateCardState().discardCardBag(), actual.privateCardState().discardCardBag());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        for (PlayerId playerId : PlayerId.ALL) {
+            assertEquals(expected.playerState(playerId).tickets(), actual.playerState(playerId).tickets());
+            assertEquals(expected.playerState(playerId).routes(), actual.playerState(playerId).routes());
+            assertEquals(expected.playerState(playerId).ticketPoints(), actual.playerState(playerId).ticketPoints());
+        }
+    }
+
+    @Test
+    void gameSnapshotRestoresTheHiddenStateOfTheGame() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        Game.play(Map.of(PLAYER_1, new RandomPlayer(1), PLAYER_2, new RandomPlayer(2)), NAMES, TICKETS,
+                new GameLog.Recorder(bytes, 2021));
+        var replay = new GameReplay(GameLog.read(new ByteArrayInputStream(bytes.toByteArray())), TICKETS);
+        while (replay.hasNextTurn()) {
+            var snapshot = new GameSnapshot(replay.state(), replay.turnCount(), false, PlayerId.COUNT);
+            var restored = GameSnapshot.fromBytes(snapshot.toBytes());
+            assertSameState(replay.state(), restored.state());
+            assertEquals(replay.turnCount(), restored.turnCount());
+            replay.nextTurn();
+        }
+    }
+
+    @Test
+    void gameSnapshotFromBytesFailsWithOtherVersion() {
+        var state = GameState.initial(TICKETS, new Random(1));
+        var bytes = new GameSnapshot(state, 0, false, PlayerId.COUNT).toBytes();
+        bytes[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(bytes));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(new byte[]{1, 0}));
+    }
+
+    @Test
+    void gameIsResumedFromItsLastSnapshotAfterACrash(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("snapshots.bin");
+        var states = new ArrayList<GameState>();
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL)
+            players.put(playerId, new CrashingPlayer(playerId.ordinal(), states, 23));
+
+        try (var snapshots = SnapshotFile.open(path)) {
+            var writer = snapshots.writer(7, 5);
+            assertThrows(IllegalStateException.class,
+                    () -> Game.play(players, NAMES, TICKETS, new Random(2021), writer));
+        }
+
+        GameResult result;
+        try (var snapshots = SnapshotFile.open(path)) {
+            var unfinishedGames = snapshots.unfinishedGames();
+            assertEquals(Set.of(7L), unfinishedGames.keySet());
+            var snapshot = unfinishedGames.get(7L);
+            assertEquals(20, snapshot.turnCount());
+            assertSameState(states.get(20), snapshot.state());
+
+            result = Game.resume(Map.of(PLAYER_1, new RandomPlayer(1), PLAYER_2, new RandomPlayer(2)), NAMES,
+                    snapshot, new Random(2021), snapshots.writer(7, 5));
+        }
+        assertTrue(result.turnCount() > 20);
+
+        try (var snapshots = SnapshotFile.open(path)) {
+            assertTrue(snapshots.unfinishedGames().isEmpty());
+        }
+    }
+
+    @Test
+    void snapshotFileGivesNewIdsAndIsEmptiedOnceAllItsGamesEnded(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("snapshots.bin");
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL)
+            players.put(playerId, new CrashingPlayer(playerId.ordinal(), new ArrayList<>(), 23));
+        var randomPlayers = Map.<PlayerId, Player>of(PLAYER_1, new RandomPlayer(1), PLAYER_2, new RandomPlayer(2));
+
+        long crashedId;
+        long finishedId;
+        try (var snapshots = SnapshotFile.open(path)) {
+            crashedId = snapshots.newGameId();
+            assertThrows(IllegalStateException.class,
+                    () -> Game.play(players, NAMES, TICKETS, new Random(2021), snapshots.writer(crashedId, 5)));
+            finishedId = snapshots.newGameId();
+            assertNotEquals(crashedId, finishedId);
+            Game.play(randomPlayers, NAMES, TICKETS, new Random(2021), snapshots.writer(finishedId, 5));
+        }
+
+        try (var snapshots = SnapshotFile.open(path)) {
+            var unfinishedGames = snapshots.unfinishedGames();
+            assertEquals(Set.of(crashedId), unfinishedGames.keySet());
+            assertTrue(snapshots.newGameId() > Math.max(crashedId, finishedId));
+            Game.resume(randomPlayers, NAMES, unfinishedGames.get(crashedId), new Random(2021),
+                    snapshots.writer(crashedId, 5));
+        }
+
+        // the records all belong to ended games, so the file is emptied
+        assertEquals(0, ByteBuffer.wrap(Files.readAllBytes(path)).getInt(0));
+        try (var snapshots = SnapshotFile.open(path)) {
+            assertTrue(snapshots.unfinishedGames().isEmpty());
+        }
+    }
+}
@@ -743,4 +743,30 @@ class GameStateTest {
         }
         //endregion
     }
-}
\ No newline at end of file
+
+    @Test
+    void gameStateZobristHashIsKeptUpToDate() {
+        var allTickets = SortedBag.of(new ChMap().ALL_TICKETS);
+        var gameState = GameState.initial(allTickets, TestRandomizer.newRandom());
+        assertEquals(gameState.zobristHash(),
+                GameState.initial(allTickets, TestRandomizer.newRandom()).zobristHash());
+
+        var distinctTickets = new ArrayList<>(allTickets.toSet());
+        var tickets1 = SortedBag.of(distinctTickets.get(0));
+        var tickets2 = SortedBag.of(distinctTickets.get(1));
+        var oneThenTwo = gameState
+                .withInitiallyChosenTickets(PLAYER_1, tickets1)
+                .withInitiallyChosenTickets(PLAYER_2, tickets2);
+        var twoThenOne = gameState
+                .withInitiallyChosenTickets(PLAYER_2, tickets2)
+                .withInitiallyChosenTickets(PLAYER_1, tickets1);
+        var swapped = gameState
+                .withInitiallyChosenTickets(PLAYER_1, tickets2)
+                .withInitiallyChosenTickets(PLAYER_2, tickets1);
+        assertEquals(oneThenTwo.zobristHash(), twoThenOne.zobristHash());
+        assertNotEquals(oneThenTwo.zobristHash(), swapped.zobristHash());
+        assertNotEquals(gameState.zobristHash(), gameState.forNextTurn().zobristHash());
+        assertNotEquals(gameState.zobristHash(), gameState.withoutTopTickets(1).zobristHash());
+        assertNotEquals(gameState.zobristHash(), gameState.withBlindlyDrawnCard().zobristHash());
+    }
+}
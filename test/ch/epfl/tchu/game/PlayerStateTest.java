@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class PlayerStateTest {
@@ -657,4 +658,54 @@ class PlayerStateTest {
         }
         //endregion
     }
+
+    @Test
+    void playerStateTicketPointsAreKeptUpToDate() {
+        var rng = TestRandomizer.newRandom();
+        var allCards = SortedBag.of(Constants.ALL_CARDS);
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var routes = new ArrayList<>(ch.epfl.tchu.game.ChMap.routes());
+            var tickets = new ArrayList<>(ch.epfl.tchu.game.ChMap.tickets());
+            Collections.shuffle(routes, rng);
+            Collections.shuffle(tickets, rng);
+
+            var playerState = new PlayerState(SortedBag.of(tickets.subList(0, 2)), allCards, List.of());
+            for (int j = 0; j < 15; j++) {
+                if (j % 5 == 4)
+                    playerState = playerState.withAddedTickets(SortedBag.of(tickets.get(j)));
+                else
+                    playerState = playerState.withClaimedRoute(routes.get(j), SortedBag.of());
+                var fresh = new PlayerState(playerState.tickets(), playerState.cards(), playerState.routes());
+                assertEquals(fresh.ticketPoints(), playerState.ticketPoints());
+                assertEquals(fresh.finalPoints(), playerState.finalPoints());
+            }
+        }
+    }
+
+    @Test
+    void playerStateZobristHashDoesNotDependOnHowStateIsReached() {
+        var rng = TestRandomizer.newRandom();
+        var chMap = new ChMap();
+        var tickets = chMap.ALL_TICKETS;
+        var routes = new ArrayList<>(chMap.ALL_ROUTES);
+        for (int i = 0; i < 100; i++) {
+            Collections.shuffle(routes, rng);
+            var ticketCount = rng.nextInt(10);
+            var playerState = new PlayerState(SortedBag.of(), SortedBag.of(), List.of());
+            for (int j = 0; j < ticketCount; j++)
+                playerState = playerState.withAddedTickets(SortedBag.of(tickets.get(rng.nextInt(tickets.size()))));
+            for (var route : routes.subList(0, rng.nextInt(10))) {
+                var claimCards = route.possibleClaimCards().get(0);
+                for (var card : claimCards)
+                    playerState = playerState.withAddedCard(card);
+                playerState = playerState.withClaimedRoute(route, claimCards);
+            }
+            for (var card : shuffledCards(rng).subList(0, rng.nextInt(20)))
+                playerState = playerState.withAddedCard(card);
+
+            var rebuilt = new PlayerState(playerState.tickets(), playerState.cards(), playerState.routes());
+            assertEquals(rebuilt.zobristHash(), playerState.zobristHash());
+            assertNotEquals(playerState.zobristHash(), playerState.withAddedCard(Card.RED).zobristHash());
+        }
+    }
 }
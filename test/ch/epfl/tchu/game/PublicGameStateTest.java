@@ -191,6 +191,38 @@ class PublicGameStateTest {
         }
     }
 
+    @Test
+    void publicGameStateRouteOwnerAndDoubleRoutesWork() {
+        var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
+        var cardState = new PublicCardState(faceUpCards, 0, 0);
+        var rng = TestRandomizer.newRandom();
+        // routes of the map, which have an index, and routes of the local map, which haven't
+        for (var allRoutes : List.of(ch.epfl.tchu.game.ChMap.routes(), new ChMap().ALL_ROUTES)) {
+            var routes = new ArrayList<>(allRoutes);
+            for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+                Collections.shuffle(routes, rng);
+                var n1 = rng.nextInt(routes.size() / 2);
+                var n2 = rng.nextInt(routes.size() / 2);
+                var routes1 = List.copyOf(routes.subList(0, n1));
+                var routes2 = List.copyOf(routes.subList(n1, n1 + n2));
+
+                var playerState = Map.of(
+                        PLAYER_1, new PublicPlayerState(0, 0, routes1),
+                        PLAYER_2, new PublicPlayerState(0, 0, routes2));
+                var pgs = new PublicGameState(1, cardState, PLAYER_2, playerState, null);
+                var claimedStations = new HashSet<List<Station>>();
+                for (var route : pgs.claimedRoutes())
+                    claimedStations.add(route.stations());
+
+                for (var route : allRoutes) {
+                    var owner = routes1.contains(route) ? PLAYER_1 : routes2.contains(route) ? PLAYER_2 : null;
+                    assertEquals(owner, pgs.routeOwner(route));
+                    assertEquals(claimedStations.contains(route.stations()), pgs.isRouteOrDoubleClaimed(route));
+                }
+            }
+        }
+    }
+
     @Test
     void publicGameStateLastPlayerReturnsLastPlayer() {
         var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
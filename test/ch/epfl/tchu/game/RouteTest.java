@@ -6,6 +6,7 @@ import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -383,4 +384,19 @@ class RouteTest {
             assertEquals(expectedClaimPoints.get(l), r.claimPoints());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void routeCanBeClaimedWithAgreesWithPossibleClaimCards() {
+        var rng = TestRandomizer.newRandom();
+        var allCards = new ArrayList<>(Constants.ALL_CARDS.toList());
+        for (var i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            Collections.shuffle(allCards, rng);
+            var cards = CardBag.of(SortedBag.of(allCards.subList(0, rng.nextInt(12))));
+            for (var route : ChMap.routes()) {
+                var expected = route.possibleClaimCards().stream()
+                        .anyMatch(claimCards -> cards.contains(CardBag.of(claimCards)));
+                assertEquals(expected, route.canBeClaimedWith(cards));
+            }
+        }
+    }
+}
@@ -44,4 +44,37 @@ public class StationPartitionTest {
         assertFalse(SP3.connected(GEN, DAV));
     }
 
+
+    @Test
+    void withConnectedConnectsStationsPersistently(){
+        StationPartition SP = new StationPartition.Builder(3).build();
+        StationPartition SP2 = SP.withConnected(BAD, BAL).withConnected(BER, GEN).withConnected(BAL, GEN);
+        assertTrue(SP2.connected(BAD, GEN));
+        assertTrue(SP2.connected(BER, BAL));
+        assertFalse(SP2.connected(BAD, COI));
+        assertFalse(SP.connected(BAD, BAL));
+        assertSame(SP2, SP2.withConnected(BAD, BER));
+    }
+
+    @Test
+    void withConnectedMatchesBuilder(){
+        Station[] stations = {BAD, BAL, BEL, BER, BRI, BRU, COI, DAV, DEL, FRI, GEN};
+        java.util.Random rng = new java.util.Random(2021);
+        for (int i = 0; i < 100; i++){
+            StationPartition.Builder builder = new StationPartition.Builder(stations.length);
+            StationPartition SP = new StationPartition.Builder(0).build();
+            for (int j = 0; j < 6; j++){
+                Station s1 = stations[rng.nextInt(stations.length)];
+                Station s2 = stations[rng.nextInt(stations.length)];
+                builder.connect(s1, s2);
+                SP = SP.withConnected(s1, s2);
+            }
+            StationPartition built = builder.build();
+            for (Station s1 : stations){
+                for (Station s2 : stations){
+                    assertEquals(built.connected(s1, s2), SP.connected(s1, s2));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedPlayerTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    // Random player recording the infos it receives and its turns, which stalls until released at a given turn, and
+    // fails at another one
+    private static final class StallingPlayer implements Player {
+        private final RandomPlayer player;
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final int stallingTurn;
+        private final int failingTurn;
+        private int turnCount;
+
+        private StallingPlayer(long seed, int stallingTurn, int failingTurn) {
+            this.player = new RandomPlayer(seed);
+            this.stallingTurn = stallingTurn;
+            this.failingTurn = failingTurn;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            calls.add(info);
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            calls.add("nextTurn");
+            turnCount++;
+            if (turnCount == failingTurn)
+                throw new IllegalStateException("failure");
+            if (turnCount == stallingTurn) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    @Test
+    void asyncPlayerCallsThePlayerInOrder() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var player = new StallingPlayer(1, -1, -1);
+            var asyncPlayer = new AsyncPlayer(player, executor);
+            var expected = new ArrayList<String>();
+            for (int i = 0; i < 100; i++) {
+                asyncPlayer.receiveInfo("info " + i);
+                expected.add("info " + i);
+            }
+            var state = GameState.initial(TICKETS, new Random(1));
+            asyncPlayer.updateState(state, state.currentPlayerState());
+            var turn = asyncPlayer.nextTurn();
+            expected.add("nextTurn");
+            assertNotNull(turn.get());
+            assertEquals(expected, player.calls);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncPlayerFailsTheCallsFollowingAFailure() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var player = new StallingPlayer(1, -1, 1);
+            var asyncPlayer = new AsyncPlayer(player, executor);
+            var turn = asyncPlayer.nextTurn();
+            var info = asyncPlayer.receiveInfo("info");
+            var exception = assertThrows(ExecutionException.class, info::get);
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+            assertTrue(turn.isCompletedExceptionally());
+            assertEquals(List.of("nextTurn"), player.calls);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timedPlayerConstructorFailsWithInvalidDeadlines() {
+        var asyncPlayer = new AsyncPlayer(new RandomPlayer(1), Runnable::run);
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimedPlayer(asyncPlayer, Duration.ofSeconds(-1), () -> {}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimedPlayer(asyncPlayer, Map.of(TimedPlayer.Request.NEXT_TURN, Duration.ZERO), () -> {}));
+    }
+
+    @Test
+    void timedPlayerRethrowsTheFailuresOfThePlayer() {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var players = Map.<PlayerId, Player>of(
+                    PLAYER_1, new TimedPlayer(new AsyncPlayer(new StallingPlayer(1, -1, 3), executor),
+                            Duration.ofSeconds(10), () -> {}),
+                    PLAYER_2, new RandomPlayer(2));
+            assertThrows(IllegalStateException.class, () -> Game.play(players, NAMES, TICKETS, new Random(2021)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timedPlayerMakesDefaultMovesOnceItMissedADeadline() {
+        var executor = Executors.newCachedThreadPool();
+        var stallingPlayer = new StallingPlayer(1, 5, -1);
+        try {
+            var timeouts = new AtomicInteger();
+            var timedPlayer = new TimedPlayer(new AsyncPlayer(stallingPlayer, executor), Duration.ofMillis(100),
+                    timeouts::incrementAndGet);
+            var players = Map.<PlayerId, Player>of(PLAYER_1, timedPlayer, PLAYER_2, new RandomPlayer(2));
+
+            var result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                    () -> Game.play(players, NAMES, TICKETS, new Random(2021)));
+            assertTrue(timedPlayer.timedOut());
+            assertEquals(1, timeouts.get());
+            assertEquals(5, stallingPlayer.turnCount);
+            assertTrue(result.turnCount() > 10);
+        } finally {
+            stallingPlayer.released.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timedPlayerDefaultMovesLetTheGameEnd() {
+        // the player never answers, so that it makes default moves from its first request on
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (int seed = 0; seed < 50; seed++) {
+                var timedPlayer = new TimedPlayer(new AsyncPlayer(new RandomPlayer(seed), task -> {}),
+                        Duration.ZERO, () -> {});
+                var players = Map.<PlayerId, Player>of(PLAYER_1, timedPlayer, PLAYER_2, new RandomPlayer(seed + 1));
+                Game.play(players, NAMES, TICKETS, new Random(seed));
+                assertTrue(timedPlayer.timedOut());
+            }
+        });
+    }
+}
@@ -1,8 +1,12 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -336,6 +340,68 @@ class TrailTest {
         assertEquals(28, longestG.length());
     }
 
+    @Test
+    void trailLongestMatchesReferenceOnRandomRouteSets() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var routes = randomRoutes(rng, 1 + rng.nextInt(9));
+            var longest = Trail.longest(routes);
+            assertEquals(referenceLongestLength(routes), longest.length());
+            assertNotNull(longest.station1());
+            assertNotNull(longest.station2());
+        }
+    }
+
+    @Test
+    void trailLongestWorksOnLargeRouteSets() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 20; i++) {
+            var routes = randomRoutes(rng, 25);
+            var longest = Trail.longest(routes);
+            var total = routes.stream().mapToInt(Route::length).sum();
+            assertTrue(0 < longest.length() && longest.length() <= total);
+        }
+    }
+
+    private static List<Route> randomRoutes(Random rng, int count) {
+        var routes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(routes, rng);
+        return List.copyOf(routes.subList(0, count));
+    }
+
+    // Breadth-first enumeration of every trail, as Trail.longest used to do it.
+    private static int referenceLongestLength(List<Route> routes) {
+        var longest = 0;
+        var trails = new ArrayList<List<Route>>();
+        var ends = new ArrayList<Station[]>();
+        for (var route : routes) {
+            trails.add(List.of(route));
+            ends.add(new Station[]{route.station1(), route.station2()});
+            trails.add(List.of(route));
+            ends.add(new Station[]{route.station2(), route.station1()});
+        }
+        while (!trails.isEmpty()) {
+            var nextTrails = new ArrayList<List<Route>>();
+            var nextEnds = new ArrayList<Station[]>();
+            for (int t = 0; t < trails.size(); t++) {
+                var trail = trails.get(t);
+                longest = Math.max(longest, trail.stream().mapToInt(Route::length).sum());
+                var end = ends.get(t)[1];
+                for (var route : routes) {
+                    if (!trail.contains(route) && route.stations().contains(end)) {
+                        var extended = new ArrayList<>(trail);
+                        extended.add(route);
+                        nextTrails.add(extended);
+                        nextEnds.add(new Station[]{ends.get(t)[0], route.stationOpposite(end)});
+                    }
+                }
+            }
+            trails = nextTrails;
+            ends = nextEnds;
+        }
+        return longest;
+    }
+
     private static final class ChRoutes {
         // Stations
         final Station BAD = new Station(0, "Baden");
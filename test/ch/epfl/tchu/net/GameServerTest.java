@@ -0,0 +1,145 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0)
+                fail("condition not met within " + TIMEOUT);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void join(List<Thread> clients) throws InterruptedException {
+        for (var client : clients) {
+            client.join(TIMEOUT.toMillis());
+            assertFalse(client.isAlive());
+        }
+    }
+
+    private static List<Thread> startClients(int port, int count) {
+        var clients = new ArrayList<Thread>();
+        for (int i = 0; i < count; i++) {
+            var client = new RemotePlayerClient(new RandomPlayer(i), "localhost", port);
+            var thread = new Thread(client::run);
+            thread.start();
+            clients.add(thread);
+        }
+        return clients;
+    }
+
+    @Test
+    void gameServerConstructorFailsWithInvalidBounds() throws Exception {
+        try (var serverSocket = new ServerSocket(0)) {
+            assertThrows(IllegalArgumentException.class, () -> new GameServer(serverSocket, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> new GameServer(serverSocket, 1, -1));
+        }
+    }
+
+    @Test
+    void gameServerPlaysConcurrentGames() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        try (var server = new GameServer(serverSocket, 2, 4)) {
+            server.start();
+            join(startClients(serverSocket.getLocalPort(), 6));
+
+            awaitUntil(() -> server.openConnectionCount() == 0);
+            assertEquals(6, server.acceptedConnectionCount());
+            assertEquals(3, server.finishedGameCount());
+            assertEquals(0, server.failedGameCount());
+            assertEquals(0, server.refusedGameCount());
+            assertEquals(0, server.activeGameCount());
+        }
+    }
+
+    @Test
+    void gameServerCloseEndsWaitingConnections() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        var server = new GameServer(serverSocket, 1, 0);
+        server.start();
+        var clients = startClients(serverSocket.getLocalPort(), 1);
+        awaitUntil(() -> server.openConnectionCount() != 0);
+        server.close();
+        join(clients);
+        assertEquals(0, server.openConnectionCount());
+    }
+
+    @Test
+    void gameServerDoesNotPairClientsThatLeftTheLobby() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        try (var server = new GameServer(serverSocket, 1, 0)) {
+            server.start();
+            // the first client chooses a wire format, and leaves before an opponent arrives
+            try (var leavingPlayer = new Socket("localhost", serverSocket.getLocalPort())) {
+                MessageChannel.readLine(leavingPlayer.getInputStream());
+                leavingPlayer.getOutputStream().write("TEXT\n".getBytes(US_ASCII));
+            }
+            join(startClients(serverSocket.getLocalPort(), 2));
+
+            awaitUntil(() -> server.openConnectionCount() == 0);
+            assertEquals(3, server.acceptedConnectionCount());
+            assertEquals(1, server.finishedGameCount());
+            assertEquals(0, server.failedGameCount());
+        }
+    }
+
+    @Test
+    void threadModeCreatesThreadsOfItsKind() throws Exception {
+        var ran = new AtomicBoolean();
+        var thread = ThreadMode.best().factory("tchu-test").newThread(() -> ran.set(true));
+        assertTrue(thread.getName().startsWith("tchu-test-"));
+        thread.start();
+        thread.join();
+        assertTrue(ran.get());
+        assertTrue(ThreadMode.PLATFORM.factory("tchu-test").newThread(() -> {}).isDaemon());
+        assertFalse(ThreadMode.PLATFORM.factory("tchu-test", false).newThread(() -> {}).isDaemon());
+        if (!ThreadMode.virtualThreadsAvailable())
+            assertThrows(UnsupportedOperationException.class, () -> ThreadMode.VIRTUAL.factory("tchu-test"));
+    }
+
+    @Test
+    void gameServerPlaysGamesOnTheBestThreads() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        try (var server = new GameServer(serverSocket, 2, 0, ThreadMode.best())) {
+            server.start();
+            join(startClients(serverSocket.getLocalPort(), 4));
+
+            awaitUntil(() -> server.openConnectionCount() == 0);
+            assertEquals(2, server.finishedGameCount());
+            assertEquals(0, server.failedGameCount());
+        }
+    }
+
+    @Test
+    void gameServerPlaysDefaultMovesForStalledPlayers() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        try (var server = new GameServer(serverSocket, 1, 0, ThreadMode.PLATFORM, Duration.ofMillis(200));
+             var stalledPlayer = new Socket("localhost", serverSocket.getLocalPort())) {
+            server.start();
+            // the stalled player chooses a wire format, and then never answers
+            MessageChannel.readLine(stalledPlayer.getInputStream());
+            stalledPlayer.getOutputStream().write("TEXT\n".getBytes(US_ASCII));
+            join(startClients(serverSocket.getLocalPort(), 1));
+
+            awaitUntil(() -> server.openConnectionCount() == 0);
+            assertEquals(1, server.finishedGameCount());
+            assertEquals(1, server.timedOutPlayerCount());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageChannelTest {
+    // Sends raw bytes to a binary channel, and reads the next message from it
+    private static UncheckedIOException nextMessageFailure(int length, byte[] payload) throws IOException {
+        try (var serverSocket = new ServerSocket(0);
+             var socket = new Socket("localhost", serverSocket.getLocalPort());
+             var accepted = serverSocket.accept()) {
+            var out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(length);
+            out.write(payload);
+            out.flush();
+            var channel = MessageChannel.of(WireFormat.BINARY, accepted);
+            return assertThrows(UncheckedIOException.class, channel::nextMessage);
+        }
+    }
+
+    @Test
+    void binaryChannelFailsWithInvalidFrameLengths() throws IOException {
+        nextMessageFailure(-1, new byte[0]);
+        nextMessageFailure(Integer.MAX_VALUE, new byte[0]);
+    }
+
+    @Test
+    void binaryChannelFailsWithUnknownMessageIds() throws IOException {
+        nextMessageFailure(1, new byte[]{(byte) MessageId.values().length});
+        nextMessageFailure(1, new byte[]{-1});
+        nextMessageFailure(0, new byte[0]);
+    }
+
+    @Test
+    void binaryChannelFailsWithMalformedArguments() throws IOException {
+        try (var serverSocket = new ServerSocket(0);
+             var socket = new Socket("localhost", serverSocket.getLocalPort());
+             var accepted = serverSocket.accept()) {
+            var out = new DataOutputStream(socket.getOutputStream());
+            // a string announcing more bytes than the frame contains
+            out.writeInt(3);
+            out.write(new byte[]{(byte) MessageId.RECEIVE_INFO.ordinal(), 0x7F, 'x'});
+            out.flush();
+            var channel = MessageChannel.of(WireFormat.BINARY, accepted);
+            assertEquals(MessageId.RECEIVE_INFO, channel.nextMessage());
+            assertThrows(UncheckedIOException.class, () -> channel.read(Serdes.stringSerde));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteGameTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+    private static final long SEED = 2021;
+
+    private static GameResult playLocally() {
+        var players = Map.<PlayerId, Player>of(PLAYER_1, new RandomPlayer(1), PLAYER_2, new RandomPlayer(2));
+        return Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+    }
+
+    private static GameResult playRemotely(List<WireFormat> serverFormats, List<WireFormat> clientFormats)
+            throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            var client = new RemotePlayerClient(new RandomPlayer(2), "localhost", serverSocket.getLocalPort(), clientFormats);
+            var clientThread = new Thread(client::run);
+            clientThread.start();
+            GameResult result;
+            try (Socket socket = serverSocket.accept()) {
+                var players = Map.<PlayerId, Player>of(
+                        PLAYER_1, new RandomPlayer(1),
+                        PLAYER_2, new RemotePlayerProxy(socket, serverFormats));
+                result = Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+            }
+            clientThread.join();
+            return result;
+        }
+    }
+
+    private static void assertSameResult(GameResult expected, GameResult actual) {
+        assertEquals(expected.turnCount(), actual.turnCount());
+        for (PlayerId playerId : PlayerId.ALL) {
+            assertEquals(expected.points(playerId), actual.points(playerId));
+            assertEquals(expected.longestTrailLength(playerId), actual.longestTrailLength(playerId));
+        }
+    }
+
+    @Test
+    void remoteGameWorksInBinary() throws Exception {
+        assertSameResult(playLocally(), playRemotely(WireFormat.ALL, WireFormat.ALL));
+    }
+
+    @Test
+    void remoteGameWorksInText() throws Exception {
+        assertSameResult(playLocally(), playRemotely(WireFormat.ALL, List.of(WireFormat.TEXT)));
+        assertSameResult(playLocally(), playRemotely(List.of(WireFormat.TEXT), WireFormat.ALL));
+    }
+
+    @Test
+    void remotePlayerProxyFailsWithoutCommonFormat() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            var clientError = new AtomicReference<Throwable>();
+            var client = new RemotePlayerClient(new RandomPlayer(2), "localhost", serverSocket.getLocalPort(),
+                    List.of(WireFormat.BINARY));
+            var clientThread = new Thread(() -> {
+                try {
+                    client.run();
+                } catch (UncheckedIOException e) {
+                    clientError.set(e);
+                }
+            });
+            clientThread.start();
+            try (Socket socket = serverSocket.accept()) {
+                assertThrows(IOException.class, () -> new RemotePlayerProxy(socket, List.of(WireFormat.TEXT)));
+            }
+            clientThread.join();
+            assertNotNull(clientError.get());
+        }
+    }
+
+    @Test
+    void remotePlayerProxySendsInfosWhenFlushed() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             Socket clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+             Socket socket = serverSocket.accept()) {
+            clientSocket.getOutputStream().write("TEXT\n".getBytes(StandardCharsets.US_ASCII));
+            var proxy = new RemotePlayerProxy(socket, WireFormat.ALL);
+            var in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals("WIRE_FORMATS BINARY TEXT", in.readLine());
+
+            proxy.receiveInfo("Ada peut jouer.");
+            proxy.receiveInfo("Ada a tiré une carte.");
+            Thread.sleep(50);
+            assertFalse(in.ready());
+
+            proxy.flush();
+            assertEquals("RECEIVE_INFO " + Serdes.stringSerde.serialize("Ada peut jouer."), in.readLine());
+            assertEquals("RECEIVE_INFO " + Serdes.stringSerde.serialize("Ada a tiré une carte."), in.readLine());
+        }
+    }
+}
@@ -17,6 +17,7 @@ public final class RemotePlayerProxyTest {
             var playerNames = Map.of(PlayerId.PLAYER_1, "Ada",
                     PlayerId.PLAYER_2, "Marco");
             playerProxy.initPlayers(PlayerId.PLAYER_1, playerNames);
+            playerProxy.flush();
         }
         System.out.println("Server done!");
     }
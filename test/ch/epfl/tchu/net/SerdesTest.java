@@ -2,6 +2,9 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.game.*;
 import org.junit.jupiter.api.Test;
 
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Base64;
@@ -75,4 +78,198 @@ public class SerdesTest {
         assertEquals(gs.currentPlayerId(), gs2.currentPlayerId());
         assertEquals(gs.lastPlayer(), gs2.lastPlayer());
     }
-}
\ No newline at end of file
+
+    private static <T> T binaryRoundTrip(Serde<T> serde, T t){
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        serde.write(t, buffer);
+        buffer.flip();
+        T result = serde.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        return result;
+    }
+
+    @Test
+    void SerdeBinaryWorksForIntAndString(){
+        for (int i : new int[]{0, 1, -1, 63, -64, 2021, Integer.MAX_VALUE, Integer.MIN_VALUE})
+            assertEquals(i, binaryRoundTrip(Serdes.intSerde, i));
+        for (String string : List.of("", "Charles", "Zürich – Genève"))
+            assertEquals(string, binaryRoundTrip(Serdes.stringSerde, string));
+        assertEquals(List.of("Ada", "Charles"), binaryRoundTrip(Serdes.listStringSerde, List.of("Ada", "Charles")));
+    }
+
+    @Test
+    void SerdeBinaryWorksForEnumValuesAndNull(){
+        for (Card card : Card.ALL)
+            assertEquals(card, binaryRoundTrip(Serdes.cardSerde, card));
+        for (Route route : ChMap.routes())
+            assertSame(route, binaryRoundTrip(Serdes.routeSerde, route));
+        assertNull(binaryRoundTrip(Serdes.playerIdSerde, null));
+        assertEquals(PlayerId.PLAYER_2, binaryRoundTrip(Serdes.playerIdSerde, PlayerId.PLAYER_2));
+    }
+
+    @Test
+    void SerdeBinaryWorksForBagsAndLists(){
+        SortedBag<Card> cards = SortedBag.of(3, Card.RED, 2, Card.LOCOMOTIVE);
+        assertEquals(cards, binaryRoundTrip(Serdes.sbCardSerde, cards));
+        assertEquals(CardBag.of(cards), binaryRoundTrip(Serdes.cardBagSerde, CardBag.of(cards)));
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets().subList(10, 20));
+        assertEquals(tickets, binaryRoundTrip(Serdes.sbTicketSerde, tickets));
+        List<SortedBag<Card>> options = List.of(SortedBag.of(Card.BLUE), SortedBag.of(2, Card.LOCOMOTIVE));
+        assertEquals(options, binaryRoundTrip(Serdes.listSbCardSerde, options));
+        assertEquals(Card.ALL, binaryRoundTrip(Serdes.listCardSerde, Card.ALL));
+        assertEquals(List.of(), binaryRoundTrip(Serdes.listRouteSerde, List.of()));
+    }
+
+    @Test
+    void SerdeBinaryFailsWithLengthsBeyondTheMessage(){
+        ByteBuffer string = ByteBuffer.allocate(16);
+        ByteBuffers.writeUnsigned(string, Integer.MAX_VALUE);
+        string.put((byte) 'x').flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.stringSerde.read(string));
+
+        ByteBuffer negative = ByteBuffer.allocate(16);
+        ByteBuffers.writeUnsigned(negative, -1);
+        negative.flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.listCardSerde.read(negative));
+
+        ByteBuffer routes = ByteBuffer.allocate(16);
+        ByteBuffers.writeUnsigned(routes, 1_000_000);
+        routes.flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.listRouteSerde.read(routes));
+
+        ByteBuffer unknownRoute = ByteBuffer.allocate(64);
+        ByteBuffers.writeUnsigned(unknownRoute, 32);
+        unknownRoute.put(new byte[32]).put(31, (byte) 0x80).flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.listRouteSerde.read(unknownRoute));
+
+        ByteBuffer negativeCount = ByteBuffer.allocate(16);
+        ByteBuffers.writeUnsigned(negativeCount, 1);
+        Serdes.ticketSerde.write(ChMap.tickets().get(0), negativeCount);
+        ByteBuffers.writeUnsigned(negativeCount, -1);
+        negativeCount.flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.sbTicketSerde.read(negativeCount));
+
+        ByteBuffer overflowingCounts = ByteBuffer.allocate(32);
+        ByteBuffers.writeUnsigned(overflowingCounts, 2);
+        for (int i = 0; i < 2; i++) {
+            Serdes.ticketSerde.write(ChMap.tickets().get(0), overflowingCounts);
+            ByteBuffers.writeUnsigned(overflowingCounts, Integer.MAX_VALUE);
+        }
+        overflowingCounts.flip();
+        assertThrows(IllegalArgumentException.class, () -> Serdes.sbTicketSerde.read(overflowingCounts));
+    }
+
+    @Test
+    void SerdeWritesRoutesAndTicketsAsTheirIndex(){
+        for (int i = 0; i < ChMap.routes().size(); i++) {
+            assertEquals(i, ChMap.routes().get(i).index());
+            assertEquals(String.valueOf(i), Serdes.routeSerde.serialize(ChMap.routes().get(i)));
+        }
+        for (int i = 0; i < ChMap.tickets().size(); i++) {
+            Ticket ticket = ChMap.tickets().get(i);
+            assertEquals(ChMap.tickets().indexOf(ticket), ticket.index());
+            assertSame(ticket, Serdes.ticketSerde.deserialize(Serdes.ticketSerde.serialize(ticket)));
+        }
+        assertEquals(-1, new Ticket(ChMap.stations().get(0), ChMap.stations().get(1), 1).index());
+    }
+
+    @Test
+    void SerdeDeserializesPartsOfATextInPlace(){
+        assertEquals(List.of(ChMap.routes().get(3), ChMap.routes().get(4)),
+                Serdes.listRouteSerde.deserialize("12 3,4 5", 3, 6));
+        assertEquals(List.of(), Serdes.listRouteSerde.deserialize("12 3,4 5", 3, 3));
+        assertEquals(SortedBag.of(2, Card.BLUE, 1, Card.LOCOMOTIVE), Serdes.sbCardSerde.deserialize("x;2,2,8;y", 2, 7));
+        assertEquals(List.of(SortedBag.of(Card.BLUE), SortedBag.of()), Serdes.listSbCardSerde.deserialize("2;", 0, 2));
+        assertEquals(-12, Serdes.intSerde.deserialize("a-12b", 1, 4));
+        assertNull(Serdes.playerIdSerde.deserialize("0", 1, 1));
+        assertEquals("Charles", Serdes.stringSerde.deserialize(" Q2hhcmxlcw== ", 1, 13));
+    }
+
+    //text that can only be read character by character, to check that a serde doesn't copy it
+    private static CharSequence uncopiable(String string){
+        return new CharSequence() {
+            @Override
+            public int length() { return string.length(); }
+
+            @Override
+            public char charAt(int index) { return string.charAt(index); }
+
+            @Override
+            public CharSequence subSequence(int start, int end) { throw new UnsupportedOperationException(); }
+
+            @Override
+            public String toString() { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    @Test
+    void SerdeDeserializesStatesInPlaceWithoutCopies(){
+        List<Card> fu = List.of(Card.RED, Card.WHITE, Card.BLUE, Card.BLACK, Card.RED);
+        PublicGameState gs = new PublicGameState(40, new PublicCardState(fu, 30, 31), PlayerId.PLAYER_2,
+                Map.of(PlayerId.PLAYER_1, new PublicPlayerState(10, 11, ChMap.routes().subList(0, 2)),
+                        PlayerId.PLAYER_2, new PublicPlayerState(20, 21, List.of())), null);
+        StringBuilder text = new StringBuilder("x ");
+        Serdes.publicGameStateSerde.serialize(gs, text);
+        assertEquals("x 40:6,7,2,0,6;30;31:1:10;11;0,1:20;21;:", text.toString());
+        PublicGameState gs2 = Serdes.publicGameStateSerde.deserialize(uncopiable(text.toString()), 2, text.length());
+        assertEquals(fu, gs2.cardState().faceUpCards());
+        assertEquals(31, gs2.cardState().discardsSize());
+        assertEquals(ChMap.routes().subList(0, 2), gs2.playerState(PlayerId.PLAYER_1).routes());
+        assertEquals(21, gs2.playerState(PlayerId.PLAYER_2).cardCount());
+        assertNull(gs2.lastPlayer());
+
+        PlayerState ps = new PlayerState(SortedBag.of(ChMap.tickets().subList(0, 2)),
+                SortedBag.of(2, Card.RED, 1, Card.LOCOMOTIVE), List.of(ChMap.routes().get(5)));
+        String string = " " + Serdes.playerStateSerde.serialize(ps) + " ";
+        PlayerState ps2 = Serdes.playerStateSerde.deserialize(uncopiable(string), 1, string.length() - 1);
+        assertEquals(ps.tickets(), ps2.tickets());
+        assertEquals(ps.cards(), ps2.cards());
+        assertEquals(ps.routes(), ps2.routes());
+        assertEquals(SortedBag.of(2, Card.BLUE), Serdes.sbCardSerde.deserialize(uncopiable("2,2"), 0, 3));
+    }
+
+    @Test
+    void SerdeSerializesInPlaceLikeInAString(){
+        List<SortedBag<Card>> options = List.of(SortedBag.of(2, Card.RED, 1, Card.LOCOMOTIVE), SortedBag.of());
+        StringBuilder text = new StringBuilder("x ");
+        Serdes.listSbCardSerde.serialize(options, text);
+        Serdes.intSerde.serialize(-3, text);
+        Serdes.playerIdSerde.serialize(null, text);
+        assertEquals("x " + Serdes.listSbCardSerde.serialize(options) + "-3", text.toString());
+    }
+
+    @Test
+    void SerdeOneOfFailsWithWrongIndices(){
+        assertThrows(IllegalArgumentException.class, () -> Serde.oneOf(Card.ALL, card -> 0));
+        assertThrows(IllegalArgumentException.class, () -> Serde.oneOf(ChMap.routes(), route -> -1));
+    }
+
+    @Test
+    void SerdeBinaryWritesRoutesInMapOrder(){
+        List<Route> routes = List.of(ChMap.routes().get(40), ChMap.routes().get(3), ChMap.routes().get(87));
+        assertEquals(List.of(ChMap.routes().get(3), ChMap.routes().get(40), ChMap.routes().get(87)),
+                binaryRoundTrip(Serdes.listRouteSerde, routes));
+    }
+
+    @Test
+    void PgameStateBinaryWorksOnExample(){
+        List<Card> fu = List.of(Card.RED, Card.WHITE, Card.BLUE, Card.BLACK, Card.RED);
+        PublicCardState cs = new PublicCardState(fu, 30, 31);
+        List<Route> rs1 = ChMap.routes().subList(0, 2);
+        Map<PlayerId, PublicPlayerState> ps = Map.of(
+                PlayerId.PLAYER_1, new PublicPlayerState(10, 11, rs1),
+                PlayerId.PLAYER_2, new PublicPlayerState(20, 21, List.of()));
+        PublicGameState gs = new PublicGameState(40, cs, PlayerId.PLAYER_2, ps, null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        Serdes.publicGameStateSerde.write(gs, buffer);
+        assertTrue(buffer.position() < Serdes.publicGameStateSerde.serialize(gs).length());
+
+        PublicGameState gs2 = binaryRoundTrip(Serdes.publicGameStateSerde, gs);
+        assertEquals(Serdes.publicGameStateSerde.serialize(gs), Serdes.publicGameStateSerde.serialize(gs2));
+
+        PlayerState own = new PlayerState(SortedBag.of(ChMap.tickets().subList(0, 3)), SortedBag.of(2, Card.RED, 1, Card.LOCOMOTIVE), rs1);
+        assertEquals(Serdes.playerStateSerde.serialize(own),
+                Serdes.playerStateSerde.serialize(binaryRoundTrip(Serdes.playerStateSerde, own)));
+    }
+}
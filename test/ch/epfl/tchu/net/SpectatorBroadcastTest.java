@@ -0,0 +1,154 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorBroadcastTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    // Spectator connected to a broadcast, receiving its frames on a thread of its own once started
+    private static final class TestSpectator {
+        private final Socket socket;
+        private final List<String> infos = new ArrayList<>();
+        private final List<PublicGameState> states = new ArrayList<>();
+        private final Thread thread = new Thread(this::run);
+
+        private TestSpectator(SpectatorBroadcast broadcast, ServerSocket serverSocket) throws IOException {
+            socket = new Socket("localhost", serverSocket.getLocalPort());
+            broadcast.add(serverSocket.accept());
+        }
+
+        private void run() {
+            try (socket) {
+                var channel = MessageChannel.of(WireFormat.BINARY, socket);
+                MessageId messageId;
+                while ((messageId = channel.nextMessage()) != null) {
+                    if (messageId == MessageId.RECEIVE_INFO)
+                        infos.add(channel.read(Serdes.stringSerde));
+                    else
+                        states.add(channel.read(Serdes.publicGameStateSerde));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Test
+    void spectatorBroadcastSendsTheGameToEverySpectator() throws Exception {
+        try (var serverSocket = new ServerSocket(0)) {
+            var broadcast = new SpectatorBroadcast(ThreadMode.PLATFORM.factory("tchu-test"));
+            var spectators = List.of(new TestSpectator(broadcast, serverSocket),
+                    new TestSpectator(broadcast, serverSocket));
+            for (var spectator : spectators)
+                spectator.thread.start();
+            assertEquals(2, broadcast.spectatorCount());
+
+            Game.play(Map.of(PLAYER_1, broadcast.observing(new RandomPlayer(1)), PLAYER_2, new RandomPlayer(2)),
+                    NAMES, SortedBag.of(ChMap.tickets()), new Random(2021));
+            broadcast.close();
+            for (var spectator : spectators)
+                spectator.thread.join();
+
+            var first = spectators.get(0);
+            var second = spectators.get(1);
+            assertFalse(first.infos.isEmpty());
+            assertFalse(first.states.isEmpty());
+            assertEquals(first.infos.get(first.infos.size() - 1), second.infos.get(second.infos.size() - 1));
+            var firstState = first.states.get(first.states.size() - 1);
+            var secondState = second.states.get(second.states.size() - 1);
+            assertTrue(firstState.claimedRoutes().size() > 0);
+            assertEquals(firstState.claimedRoutes().size(), secondState.claimedRoutes().size());
+            assertEquals(firstState.ticketsCount(), secondState.ticketsCount());
+            assertEquals(0, broadcast.spectatorCount());
+        }
+    }
+
+    @Test
+    void spectatorBroadcastDropsFramesForSlowSpectators() throws Exception {
+        try (var serverSocket = new ServerSocket(0)) {
+            var broadcast = new SpectatorBroadcast(ThreadMode.PLATFORM.factory("tchu-test"));
+            var spectator = new TestSpectator(broadcast, serverSocket);
+            var state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(1));
+            var padding = "x".repeat(4096);
+            var count = 5_000;
+
+            // the spectator doesn't read anything until everything is broadcast, which never waits for it
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (int i = 0; i < count; i++) {
+                    broadcast.broadcastState(state);
+                    broadcast.broadcastInfo(padding + i);
+                }
+                broadcast.broadcastState(state);
+            });
+            broadcast.close();
+            spectator.thread.start();
+            spectator.thread.join();
+
+            assertTrue(broadcast.droppedFrameCount() > 0);
+            assertTrue(spectator.infos.size() + spectator.states.size() < 2 * count + 1);
+            assertEquals(padding + (count - 1), spectator.infos.get(spectator.infos.size() - 1));
+            assertEquals(state.ticketsCount(), spectator.states.get(spectator.states.size() - 1).ticketsCount());
+        }
+    }
+
+    @Test
+    void gameServerBroadcastsRunningGamesToSpectators() throws Exception {
+        var serverSocket = new ServerSocket(0);
+        var spectatorSocket = new ServerSocket(0);
+        try (var server = new GameServer(serverSocket, 1, 0)) {
+            server.start();
+            server.acceptSpectators(spectatorSocket);
+
+            // a spectator of a game that isn't running is disconnected immediately
+            var infos = new ArrayList<String>();
+            var states = new ArrayList<PublicGameState>();
+            new SpectatorClient("localhost", spectatorSocket.getLocalPort(), 0, infos::add, states::add).run();
+            assertTrue(infos.isEmpty() && states.isEmpty());
+
+            // the game waits for a player that never chooses its initial tickets
+            var player = new Socket("localhost", serverSocket.getLocalPort());
+            var client = new Thread(new RemotePlayerClient(new RandomPlayer(1), "localhost",
+                    serverSocket.getLocalPort())::run);
+            client.start();
+            InputStream in = player.getInputStream();
+            MessageChannel.readLine(in);
+            player.getOutputStream().write("TEXT\n".getBytes(US_ASCII));
+            String line;
+            while ((line = MessageChannel.readLine(in)) != null
+                    && !line.startsWith(MessageId.CHOOSE_INITIAL_TICKETS.name())) { }
+            assertNotNull(line);
+
+            var received = new CountDownLatch(1);
+            var spectator = new Thread(new SpectatorClient("localhost", spectatorSocket.getLocalPort(), 0,
+                    infos::add, s -> { states.add(s); received.countDown(); })::run);
+            spectator.start();
+            received.await();
+            assertEquals(1, server.spectatorCount());
+
+            player.close();
+            spectator.join();
+            client.join();
+            assertEquals(1, states.size());
+            assertEquals(1, server.failedGameCount());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateDeltaTest {
+    private static final class RecordingPlayer implements Player {
+        private final Player player;
+        private final List<PublicGameState> states = new ArrayList<>();
+        private final List<PlayerState> ownStates = new ArrayList<>();
+
+        RecordingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {}
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            states.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) { player.setInitialTicketChoice(tickets); }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() { return player.chooseInitialTickets(); }
+
+        @Override
+        public TurnKind nextTurn() { return player.nextTurn(); }
+
+        @Override
+        public int drawSlot() { return player.drawSlot(); }
+
+        @Override
+        public Route claimedRoute() { return player.claimedRoute(); }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) { return player.chooseTickets(options); }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() { return player.initialClaimCards(); }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    private static RecordingPlayer recordGame(long seed) {
+        var recorder = new RecordingPlayer(new RandomPlayer(seed + 1));
+        var players = Map.<PlayerId, Player>of(PLAYER_1, recorder, PLAYER_2, new RandomPlayer(seed + 2));
+        Game.play(players, Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles"), SortedBag.of(ChMap.tickets()), new Random(seed));
+        return recorder;
+    }
+
+    private static StateDelta binaryRoundTrip(StateDelta delta) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        StateDelta.serde.write(delta, buffer);
+        buffer.flip();
+        StateDelta result = StateDelta.serde.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        return result;
+    }
+
+    @Test
+    void stateDeltaReproducesTheStatesOfAGame() {
+        for (long seed = 0; seed < 3; seed++) {
+            var recorder = recordGame(seed);
+            for (int i = 1; i < recorder.states.size(); i++) {
+                var oldState = recorder.states.get(i - 1);
+                var oldOwnState = recorder.ownStates.get(i - 1);
+                var newState = recorder.states.get(i);
+                var newOwnState = recorder.ownStates.get(i);
+                var delta = StateDelta.between(oldState, oldOwnState, newState, newOwnState);
+                assertNotNull(delta);
+
+                var expectedState = Serdes.publicGameStateSerde.serialize(newState);
+                var expectedOwnState = Serdes.playerStateSerde.serialize(newOwnState);
+                var textDelta = StateDelta.serde.deserialize(StateDelta.serde.serialize(delta));
+                for (var d : List.of(delta, textDelta, binaryRoundTrip(delta))) {
+                    assertEquals(expectedState, Serdes.publicGameStateSerde.serialize(d.applyTo(oldState)));
+                    assertEquals(expectedOwnState, Serdes.playerStateSerde.serialize(d.applyTo(oldOwnState)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void stateDeltaIsNullWhenStatesDoNotFollow() {
+        var recorder = recordGame(2021);
+        int last = recorder.states.size() - 1;
+        assertNull(StateDelta.between(recorder.states.get(last), recorder.ownStates.get(last),
+                recorder.states.get(0), recorder.ownStates.get(0)));
+    }
+}
@@ -0,0 +1,55 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.Player;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPlayerTest {
+    private static final int GAME_COUNT = 4;
+    //number of games over which the strength of the player is measured, and the share of them it must win
+    private static final int STRENGTH_GAME_COUNT = 24;
+    private static final double MIN_WIN_RATE = 0.6;
+
+    private static SimulationStatistics playAgainstRandomPlayer(LongFunction<Player> mctsPlayer) {
+        return playAgainstRandomPlayer(mctsPlayer, GAME_COUNT);
+    }
+
+    private static SimulationStatistics playAgainstRandomPlayer(LongFunction<Player> mctsPlayer, int gameCount) {
+        LongFunction<Player> randomPlayer = RandomPlayer::new;
+        return new Simulator(Map.of(PLAYER_1, mctsPlayer, PLAYER_2, randomPlayer), 1).run(gameCount, 2021);
+    }
+
+    @Test
+    void mctsPlayerFailsWithInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> MctsPlayer.withIterations(0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> MctsPlayer.withIterations(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> MctsPlayer.withTimeLimit(0, Duration.ZERO, 1));
+    }
+
+    @Test
+    void mctsPlayerBeatsRandomPlayer() {
+        var statistics = playAgainstRandomPlayer(seed -> MctsPlayer.withIterations(seed, 64, 2), STRENGTH_GAME_COUNT);
+        assertEquals(STRENGTH_GAME_COUNT, statistics.gameCount());
+        assertTrue(statistics.winRate(PLAYER_1) >= MIN_WIN_RATE);
+        assertTrue(statistics.pointsStatistics(PLAYER_1).getAverage() > statistics.pointsStatistics(PLAYER_2).getAverage());
+    }
+
+    @Test
+    void mctsPlayerWithIterationsIsDeterministic() {
+        LongFunction<Player> mctsPlayer = seed -> MctsPlayer.withIterations(seed, 16, 2);
+        assertEquals(playAgainstRandomPlayer(mctsPlayer).toString(), playAgainstRandomPlayer(mctsPlayer).toString());
+    }
+
+    @Test
+    void mctsPlayerWithTimeLimitFinishesItsGames() {
+        var statistics = playAgainstRandomPlayer(seed -> MctsPlayer.withTimeLimit(seed, Duration.ofMillis(2), 1));
+        assertEquals(GAME_COUNT, statistics.gameCount());
+    }
+}
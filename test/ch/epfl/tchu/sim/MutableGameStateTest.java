@@ -0,0 +1,262 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableGameStateTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    // Player choosing its turns at random among the moves of MutableGameState, and the rest with its default policy
+    private static final class PolicyPlayer implements Player {
+        private final Random sampleRng = new Random(0);
+        private final Random moveRng;
+        private final int[] moves = new int[MutableGameState.MAX_MOVE_COUNT];
+        private final List<PublicGameState> turnStates;
+        private final List<PlayerState> turnOwnStates;
+        private PlayerId ownId;
+        private PublicGameState gameState;
+        private PlayerState ownState;
+        private SortedBag<Ticket> initialTickets;
+        private int move;
+
+        PolicyPlayer(long seed, List<PublicGameState> turnStates, List<PlayerState> turnOwnStates) {
+            this.moveRng = new Random(seed);
+            this.turnStates = turnStates;
+            this.turnOwnStates = turnOwnStates;
+        }
+
+        private MutableGameState determinized() {
+            return MutableGameState.determinized(gameState, ownId, ownState, sampleRng);
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) { this.ownId = ownId; }
+
+        @Override
+        public void receiveInfo(String info) {}
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            this.gameState = newState;
+            this.ownState = ownState;
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) { initialTickets = tickets; }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() { return determinized().ticketsToKeep(initialTickets, 3); }
+
+        @Override
+        public TurnKind nextTurn() {
+            turnStates.add(gameState);
+            turnOwnStates.add(ownState);
+            int count = determinized().legalMoves(moves);
+            move = moves[moveRng.nextInt(count)];
+            return MutableGameState.turnKind(move);
+        }
+
+        @Override
+        public int drawSlot() { return determinized().drawSlot(); }
+
+        @Override
+        public Route claimedRoute() {
+            if (MutableGameState.isClaim(move))
+                return MutableGameState.claimedRoute(move);
+            for (Route route : ChMap.routes()) {
+                if (!ownState.canClaimRoute(route))
+                    return route;
+            }
+            throw new AssertionError();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return determinized().ticketsToKeep(options, 1);
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return MutableGameState.isClaim(move) ? MutableGameState.claimCards(move) : SortedBag.of();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) { return options.get(0); }
+    }
+
+    private static void assertSameAsGameState(PublicGameState expected, PlayerState expectedOwnState,
+                                              MutableGameState actual) {
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        assertEquals(expected.cardState().deckSize(), actual.deckSize());
+        assertEquals(expected.cardState().discardsSize(), actual.discardsSize());
+        for (int slot : Constants.FACE_UP_CARD_SLOTS)
+            assertEquals(expected.cardState().faceUpCard(slot), actual.faceUpCard(slot));
+        for (PlayerId playerId : PlayerId.ALL) {
+            var playerState = expected.playerState(playerId);
+            assertEquals(playerState.carCount(), actual.carCount(playerId));
+            assertEquals(playerState.claimPoints(), actual.claimPoints(playerId));
+            assertEquals(playerState.ticketCount(), actual.ticketCount(playerId));
+            assertEquals(playerState.cardCount(),
+                    Card.ALL.stream().mapToInt(card -> actual.cardCount(playerId, card)).sum());
+            for (Route route : playerState.routes())
+                assertEquals(playerId, actual.routeOwner(route));
+        }
+        assertEquals(expected.claimedRoutes().size(),
+                ChMap.routes().stream().filter(route -> actual.routeOwner(route) != null).count());
+        for (Card card : Card.ALL)
+            assertEquals(expectedOwnState.cardBag().countOf(card), actual.cardCount(expected.currentPlayerId(), card));
+        assertEquals(expectedOwnState.ticketPoints(), actual.ticketPoints(expected.currentPlayerId()));
+    }
+
+    private static void assertSameState(MutableGameState expected, MutableGameState actual) {
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        assertEquals(expected.turnCount(), actual.turnCount());
+        assertEquals(expected.isOver(), actual.isOver());
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        assertEquals(expected.deckSize(), actual.deckSize());
+        assertEquals(expected.discardsSize(), actual.discardsSize());
+        for (int slot : Constants.FACE_UP_CARD_SLOTS)
+            assertEquals(expected.faceUpCard(slot), actual.faceUpCard(slot));
+        for (PlayerId playerId : PlayerId.ALL) {
+            assertEquals(expected.carCount(playerId), actual.carCount(playerId));
+            assertEquals(expected.claimPoints(playerId), actual.claimPoints(playerId));
+            assertEquals(expected.ticketCount(playerId), actual.ticketCount(playerId));
+            assertEquals(expected.ticketPoints(playerId), actual.ticketPoints(playerId));
+            assertEquals(expected.longestTrailLength(playerId), actual.longestTrailLength(playerId));
+            for (Card card : Card.ALL)
+                assertEquals(expected.cardCount(playerId, card), actual.cardCount(playerId, card));
+        }
+        for (Route route : ChMap.routes())
+            assertEquals(expected.routeOwner(route), actual.routeOwner(route));
+    }
+
+    @Test
+    void mutableGameStatePlaysGamesAsGame() {
+        for (long seed = 0; seed < 10; seed++) {
+            var turnStates = new ArrayList<PublicGameState>();
+            var turnOwnStates = new ArrayList<PlayerState>();
+            var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+            for (PlayerId playerId : PlayerId.ALL)
+                players.put(playerId, new PolicyPlayer(seed + playerId.ordinal() + 1, turnStates, turnOwnStates));
+            var expected = Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(seed));
+
+            var rng = new Random(seed);
+            var moveRngs = List.of(new Random(seed + 1), new Random(seed + 2));
+            var moves = new int[MutableGameState.MAX_MOVE_COUNT];
+            var state = MutableGameState.initial(rng);
+            while (!state.isOver()) {
+                int turn = state.turnCount();
+                assertSameAsGameState(turnStates.get(turn), turnOwnStates.get(turn), state);
+                int count = state.legalMoves(moves);
+                state.playTurn(moves[moveRngs.get(state.currentPlayerId().ordinal()).nextInt(count)], rng);
+            }
+
+            var actual = state.result();
+            assertEquals(expected.turnCount(), actual.turnCount());
+            for (PlayerId playerId : PlayerId.ALL) {
+                assertEquals(expected.points(playerId), actual.points(playerId));
+                assertEquals(expected.longestTrailLength(playerId), actual.longestTrailLength(playerId));
+            }
+            assertEquals(expected.winner(), state.winner());
+        }
+    }
+
+    @Test
+    void mutableGameStateUndoRestoresTheState() {
+        var rng = new Random(2021);
+        var moves = new int[MutableGameState.MAX_MOVE_COUNT];
+        var state = MutableGameState.initial(rng);
+        var initial = state.copy();
+        while (!state.isOver()) {
+            var before = state.copy();
+            int move = moves[rng.nextInt(state.legalMoves(moves))];
+            long turnSeed = rng.nextLong();
+            state.apply(move, new Random(turnSeed));
+            var after = state.copy();
+            state.undo();
+            assertSameState(before, state);
+            state.apply(move, new Random(turnSeed));
+            assertSameState(after, state);
+        }
+        while (state.undoableTurnCount() > 0)
+            state.undo();
+        assertSameState(initial, state);
+        assertThrows(IllegalArgumentException.class, state::undo);
+    }
+
+    @Test
+    void mutableGameStateCopyIsIndependent() {
+        var rng = new Random(108);
+        var moves = new int[MutableGameState.MAX_MOVE_COUNT];
+        var state = MutableGameState.initial(rng);
+        var copy = state.copy();
+        for (int i = 0; i < 20; i++)
+            state.playTurn(moves[rng.nextInt(state.legalMoves(moves))], rng);
+        assertSameState(MutableGameState.initial(new Random(108)), copy);
+    }
+
+    @Test
+    void mutableGameStateZobristHashFollowsTheTurns() {
+        var rng = new Random(5108);
+        var moves = new int[MutableGameState.MAX_MOVE_COUNT];
+        var state = MutableGameState.initial(rng);
+        var hashes = new ArrayList<Long>();
+        while (!state.isOver()) {
+            hashes.add(state.zobristHash());
+            state.apply(moves[rng.nextInt(state.legalMoves(moves))], rng);
+            assertNotEquals(hashes.get(hashes.size() - 1), state.zobristHash());
+        }
+        for (int i = hashes.size() - 1; i >= 0; i--) {
+            state.undo();
+            assertEquals(hashes.get(i), state.zobristHash());
+        }
+        assertEquals(MutableGameState.initial(new Random(5108)).zobristHash(), state.zobristHash());
+    }
+
+    @Test
+    void mutableGameStateZobristHashOfAPlayerLeavesOutWhatItDoesNotKnow() {
+        var turnStates = new ArrayList<PublicGameState>();
+        var turnOwnStates = new ArrayList<PlayerState>();
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        players.put(PLAYER_1, new PolicyPlayer(1, turnStates, turnOwnStates));
+        players.put(PLAYER_2, new PolicyPlayer(2, new ArrayList<>(), new ArrayList<>()));
+        Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(2021));
+
+        var rng = new Random(3);
+        var differentStates = 0;
+        for (int i = 0; i < turnStates.size(); i++) {
+            var first = MutableGameState.determinized(turnStates.get(i), PLAYER_1, turnOwnStates.get(i), rng);
+            var second = MutableGameState.determinized(turnStates.get(i), PLAYER_1, turnOwnStates.get(i), rng);
+            assertEquals(first.zobristHash(PLAYER_1), second.zobristHash(PLAYER_1));
+            if (first.zobristHash() != second.zobristHash())
+                differentStates += 1;
+        }
+        assertTrue(differentStates > 0);
+    }
+
+    @Test
+    void mutableGameStateApplyFailsWithIllegalMove() {
+        var state = MutableGameState.initial(new Random(0));
+        while (state.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT)
+            state.apply(MutableGameState.DRAW_TICKETS, new Random(0));
+        int turnCount = state.undoableTurnCount();
+        var before = state.copy();
+        assertThrows(IllegalArgumentException.class, () -> state.apply(MutableGameState.DRAW_TICKETS, new Random(0)));
+        assertEquals(turnCount, state.undoableTurnCount());
+        assertSameState(before, state);
+    }
+}
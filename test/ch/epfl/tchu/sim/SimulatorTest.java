@@ -0,0 +1,58 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    private static final int GAME_COUNT = 40;
+
+    private static Simulator newSimulator(int parallelism) {
+        LongFunction<Player> randomPlayer = RandomPlayer::new;
+        return new Simulator(Map.of(PLAYER_1, randomPlayer, PLAYER_2, randomPlayer), parallelism);
+    }
+
+    @Test
+    void simulatorConstructorFailsWithInvalidArguments() {
+        LongFunction<Player> randomPlayer = RandomPlayer::new;
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(Map.of(PLAYER_1, randomPlayer), 1));
+        assertThrows(IllegalArgumentException.class, () -> newSimulator(0));
+    }
+
+    @Test
+    void simulatorPlaysAllGames() {
+        var statistics = newSimulator(2).run(GAME_COUNT, 2021);
+        assertEquals(GAME_COUNT, statistics.gameCount() + statistics.abortedGameCount());
+        assertEquals(1, statistics.winRate(PLAYER_1) + statistics.winRate(PLAYER_2) + statistics.drawRate(), 1e-9);
+        assertEquals(statistics.gameCount(), statistics.turnStatistics().getCount());
+        for (PlayerId playerId : PlayerId.ALL) {
+            var points = statistics.pointsStatistics(playerId);
+            assertEquals(statistics.gameCount(), points.getCount());
+            assertEquals(statistics.gameCount(),
+                    statistics.pointsDistribution(playerId).values().stream().mapToLong(c -> c).sum());
+            assertTrue(statistics.longestTrailBonusRate(playerId) > 0);
+        }
+        assertTrue(statistics.longestTrailBonusRate(PLAYER_1) + statistics.longestTrailBonusRate(PLAYER_2) >= 1);
+    }
+
+    @Test
+    void simulatorResultsDoNotDependOnParallelism() {
+        var sequential = newSimulator(1).run(GAME_COUNT, 108);
+        var parallel = newSimulator(4).run(GAME_COUNT, 108);
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    void simulatorWorksWithoutGames() {
+        var statistics = newSimulator(1).run(0, 0);
+        assertEquals(0, statistics.gameCount());
+        assertEquals(0, statistics.winRate(PLAYER_1));
+    }
+}
@@ -0,0 +1,62 @@
+package ch.epfl.tchu.sim;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+    @Test
+    void transpositionTableConstructorFailsWithInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable<Integer>(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable<Integer>(1, 0));
+    }
+
+    @Test
+    void transpositionTableRoundsCapacityUpToPowerOfTwo() {
+        assertEquals(1, new TranspositionTable<Integer>(1, 4).capacity());
+        assertEquals(1024, new TranspositionTable<Integer>(1000, 4).capacity());
+        assertEquals(1024, new TranspositionTable<Integer>(1024, 4).capacity());
+    }
+
+    @Test
+    void transpositionTableGetReturnsPutValue() {
+        var table = new TranspositionTable<String>(16, 4);
+        assertNull(table.get(42));
+        table.put(42, "a");
+        table.put(43, "b");
+        assertEquals("a", table.get(42));
+        assertEquals("b", table.get(43));
+        table.clear();
+        assertNull(table.get(42));
+        assertThrows(NullPointerException.class, () -> table.put(42, null));
+    }
+
+    @Test
+    void transpositionTableReplacesStatesOfSameSlot() {
+        var table = new TranspositionTable<String>(16, 4);
+        table.put(1, "a");
+        table.put(1 + 16, "b");
+        assertNull(table.get(1));
+        assertEquals("b", table.get(1 + 16));
+    }
+
+    @Test
+    void transpositionTableMergeIsAtomic() throws InterruptedException {
+        var table = new TranspositionTable<Integer>(1 << 10, 8);
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            var thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++)
+                    table.merge(i % 100, 1, Integer::sum);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (var thread : threads)
+            thread.join();
+        for (long hash = 0; hash < 100; hash++)
+            assertEquals(400, table.get(hash));
+    }
+}